@@ -0,0 +1,258 @@
+package com.tennis.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.tennis.dao.DAOFactory;
+import com.tennis.dao.DAOProperties;
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Holiday;
+import com.tennis.model.Member;
+
+/**
+ * This class creates and seeds the embedded database of the benchmarks. The database name
+ * 'tennis.bench' in 'dao.properties' points to an in-memory H2 database in MySQL mode, so the
+ * benchmarks run the same SQL as production without a database server.
+ * <p>
+ * The seed is reproducible: the same sizes and random seed always give the same rows. Courts have
+ * realistic opening hours, the national holidays of each year are closed, see
+ * {@link DataGenerator#holidays(int)}, and about two thirds of the hourly slots of the other days
+ * are booked by random members. For data sets of millions of rows, see {@link DataGenerator}.
+ * 
+ * @author Atidivya
+ */
+public final class BenchDatabase
+{
+  public static final String NAME = "tennis.bench";
+  public static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 5);
+  
+  private static final String[] SURFACES = { "Clay", "Hard", "Grass", "Carpet" };
+  private static final String[] TYPES = { "Single", "Double", "Lesson" };
+  
+  private BenchDatabase()
+  {
+    // Utility class, hide constructor.
+  }
+  
+  /**
+   * Returns the DAOFactory of the embedded database of the given name, after creating its tables
+   * and indexes from the 'schema.sql' and 'indexes.sql' resources. A database of which the storage
+   * is not 'sql' has no tables to create, it is returned as is.
+   * 
+   * @param name The database name in 'dao.properties'.
+   * 
+   * @return The DAOFactory of the embedded database.
+   * 
+   * @throws SQLException If creating the tables fails.
+   * @throws IOException If the SQL resources cannot be read.
+   */
+  public static DAOFactory create(String name) throws SQLException, IOException
+  {
+    DAOFactory tennis = DAOFactory.getInstance(name);
+    DAOProperties properties = new DAOProperties(name);
+    
+    String storage = properties.getProperty("storage", false);
+    
+    if (storage != null && !"sql".equals(storage))
+    {
+      return tennis;
+    }
+    
+    try
+    (
+      Connection connection = DriverManager.getConnection(properties.getProperty("url", true), properties.getProperty("username", false), properties.getProperty("password", false));
+      Statement statement = connection.createStatement();
+    )
+    {
+      for (String sql : statements("schema.sql"))
+      {
+        statement.execute(sql);
+      }
+      
+      for (String sql : statements("indexes.sql"))
+      {
+        statement.execute(sql);
+      }
+    }
+    
+    return tennis;
+  }
+  
+  /**
+   * Seeds the database of the given DAOFactory with the given amount of members and courts, the
+   * national holidays and the bookings of the given amount of days from {@link #FIRST_DAY}.
+   * 
+   * @param tennis The DAOFactory of the database to be seeded.
+   * @param memberCount The amount of members.
+   * @param courtCount The amount of courts.
+   * @param days The amount of days with bookings.
+   * @param seed The seed of the random data.
+   * 
+   * @return The seeded rows.
+   */
+  public static Data seed(DAOFactory tennis, int memberCount, int courtCount, int days, long seed)
+  {
+    Random random = new Random(seed);
+    Data data = new Data();
+    
+    for (int i = 1; i <= memberCount; i++)
+    {
+      Member member = new Member();
+      member.setName("Member " + i);
+      member.setEmail("member" + i + "@tennis.example");
+      member.setPhone(String.format("9%08d", random.nextInt(100000000)));
+      member.setAddress("Street " + (1 + random.nextInt(500)));
+      data.members.add(member);
+    }
+    
+    tennis.getMemberDAO().createAll(data.members);
+    
+    for (int i = 1; i <= courtCount; i++)
+    {
+      Court court = new Court();
+      boolean indoor = random.nextInt(4) == 0;
+      court.setName(String.format("Court %02d", i));
+      court.setSurface(indoor ? "Carpet" : SURFACES[random.nextInt(SURFACES.length - 1)]);
+      court.setOpeningTime(LocalTime.of(7 + random.nextInt(3), 0));
+      court.setClosingTime(LocalTime.of(indoor ? 23 : 19 + random.nextInt(4), 0));
+      court.setIndoor(indoor);
+      court.setLighting(indoor || random.nextBoolean());
+      data.courts.add(court);
+    }
+    
+    tennis.getCourtDAO().createAll(data.courts);
+    
+    LocalDate lastDay = FIRST_DAY.plusDays(days);
+    Set<LocalDate> holidayDates = new HashSet<>();
+    
+    for (int year = FIRST_DAY.getYear(); year <= lastDay.getYear(); year++)
+    {
+      for (LocalDate date : DataGenerator.holidays(year))
+      {
+        Holiday holiday = new Holiday();
+        holiday.setDate(toDate(date, LocalTime.MIDNIGHT));
+        holiday.setName("National holiday " + date);
+        data.holidays.add(holiday);
+        holidayDates.add(date);
+      }
+    }
+    
+    tennis.getHolidayDAO().createAll(data.holidays);
+    
+    for (LocalDate day = FIRST_DAY; day.isBefore(lastDay); day = day.plusDays(1))
+    {
+      if (holidayDates.contains(day))
+      {
+        continue;
+      }
+      
+      // Weekends are busier than weekdays.
+      int percentage = (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) ? 85 : 60;
+      
+      for (Court court : data.courts)
+      {
+        for (LocalTime hour = court.getOpeningTime(); hour.isBefore(court.getClosingTime()); hour = hour.plusHours(1))
+        {
+          if (random.nextInt(100) < percentage)
+          {
+            Booking booking = new Booking();
+            booking.setCourt(court);
+            booking.setStartTime(toDate(day, hour));
+            booking.setType(TYPES[random.nextInt(TYPES.length)]);
+            booking.setMember(data.members.get(random.nextInt(data.members.size())));
+            data.bookings.add(booking);
+          }
+        }
+      }
+    }
+    
+    tennis.getBookingDAO().createAll(data.bookings);
+    
+    return data;
+  }
+  
+  /**
+   * Returns the given day and time as Date in the default time zone, as the DAO's expect.
+   * 
+   * @param day The day.
+   * @param time The time of the day.
+   * 
+   * @return The given day and time as Date.
+   */
+  public static Date toDate(LocalDate day, LocalTime time)
+  {
+    return Date.from(day.atTime(time).atZone(ZoneId.systemDefault()).toInstant());
+  }
+  
+  /**
+   * Returns the statements of the SQL resource of the given name, without comments.
+   */
+  private static List<String> statements(String resource) throws IOException
+  {
+    InputStream input = BenchDatabase.class.getClassLoader().getResourceAsStream(resource);
+    
+    if (input == null)
+    {
+      throw new IOException("SQL resource '" + resource + "' is missing in classpath.");
+    }
+    
+    StringBuilder sql = new StringBuilder();
+    
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))
+    {
+      for (String line = reader.readLine(); line != null; line = reader.readLine())
+      {
+        if (!line.trim().startsWith("--"))
+        {
+          sql.append(line).append('\n');
+        }
+      }
+    }
+    
+    List<String> statements = new ArrayList<>();
+    
+    for (String statement : sql.toString().split(";"))
+    {
+      if (!statement.trim().isEmpty())
+      {
+        statements.add(statement.trim());
+      }
+    }
+    
+    return statements;
+  }
+  
+  /**
+   * The rows of a seeded database, with their generated IDs.
+   */
+  public static final class Data
+  {
+    public final List<Member> members = new ArrayList<>();
+    public final List<Court> courts = new ArrayList<>();
+    public final List<Holiday> holidays = new ArrayList<>();
+    public final List<Booking> bookings = new ArrayList<>();
+    
+    private Data()
+    {
+      // Filled by seed().
+    }
+  }
+}
@@ -0,0 +1,372 @@
+package com.tennis.bench;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tennis.dao.BookingDAO;
+import com.tennis.dao.DAOException;
+import com.tennis.dao.DAOFactory;
+import com.tennis.dao.DAOMethodMetrics;
+import com.tennis.dao.DAOMetrics;
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Holiday;
+import com.tennis.model.Member;
+
+/**
+ * This class simulates the weekly release of the slots of next week, when all members try to book
+ * the same popular slots at once. Every simulated member runs on its own thread, waits for the
+ * release and then reserves the slots it wants through the real Booking DAO, picking slots with a
+ * Zipf distribution over their popularity: weekday evenings and weekend mornings on lit courts are
+ * wanted most. A member whose reservation lost to another member thinks a moment and tries another
+ * slot.
+ * <p>
+ * The simulation runs against the embedded database 'tennis.rush' of 'dao.properties', which has
+ * the DAO metrics enabled for the connection wait. It reports the throughput, the latency
+ * percentiles of the reservations, the conflict rate and the connection wait, and checks that no
+ * slot was booked twice. It is configured by system properties, see {@link #main(String[])}, and
+ * run by <code>ant rush</code>.
+ * 
+ * @author Atidivya
+ */
+public class BookingRushSimulator
+{
+  private final int memberCount;
+  private final int courtCount;
+  private final double skew;
+  private final int wanted;
+  private final int maxAttempts;
+  private final int thinkMillis;
+  private final long seed;
+  
+  private final AtomicLong attempts = new AtomicLong();
+  private final AtomicLong reserved = new AtomicLong();
+  private final AtomicLong conflicts = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong satisfied = new AtomicLong();
+  
+  /**
+   * Construct a booking rush simulator.
+   * 
+   * @param memberCount The amount of concurrent members.
+   * @param courtCount The amount of courts.
+   * @param skew The Zipf exponent of the slot popularity, 0 for uniform.
+   * @param wanted The amount of slots each member wants.
+   * @param maxAttempts The amount of reservations a member attempts at most.
+   * @param thinkMillis The maximum milliseconds a member thinks after a lost reservation.
+   * @param seed The seed of the random data and choices.
+   */
+  public BookingRushSimulator(int memberCount, int courtCount, double skew, int wanted, int maxAttempts, int thinkMillis, long seed)
+  {
+    this.memberCount = memberCount;
+    this.courtCount = courtCount;
+    this.skew = skew;
+    this.wanted = wanted;
+    this.maxAttempts = maxAttempts;
+    this.thinkMillis = thinkMillis;
+    this.seed = seed;
+  }
+  
+  /**
+   * Runs the booking rush with the configuration of the system properties 'rush.members' (300),
+   * 'rush.courts' (12), 'rush.skew' (1.1), 'rush.wanted' (2), 'rush.maxAttempts' (10),
+   * 'rush.thinkMillis' (20), 'rush.seed' (42) and 'rush.database' ('tennis.rush'), and prints the
+   * report.
+   * 
+   * @param args Not used.
+   * 
+   * @throws Exception If creating the database fails.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    BookingRushSimulator simulator = new BookingRushSimulator(Integer.getInteger("rush.members", 300), Integer.getInteger("rush.courts", 12), Double.parseDouble(System.getProperty("rush.skew", "1.1")), Integer.getInteger("rush.wanted", 2), Integer.getInteger("rush.maxAttempts", 10), Integer.getInteger("rush.thinkMillis", 20), Long.getLong("rush.seed", 42L));
+    
+    try (DAOFactory tennis = BenchDatabase.create(System.getProperty("rush.database", "tennis.rush")))
+    {
+      simulator.run(tennis);
+    }
+  }
+  
+  /**
+   * Seeds the database of the given DAOFactory, runs the booking rush on it and prints the report.
+   * 
+   * @param tennis The DAOFactory of an empty database with tables.
+   * 
+   * @throws InterruptedException If interrupted while waiting for the members.
+   */
+  public void run(DAOFactory tennis) throws InterruptedException
+  {
+    BenchDatabase.Data data = BenchDatabase.seed(tennis, memberCount, courtCount, 0, seed);
+    List<Booking> slots = slotsOfNextWeek(data);
+    double[] cumulative = zipf(slots.size(), skew);
+    BookingDAO bookingDAO = tennis.getBookingDAO();
+    long[][] latencies = new long[memberCount][];
+    CountDownLatch release = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>(memberCount);
+    
+    for (int i = 0; i < memberCount; i++)
+    {
+      int index = i;
+      Member member = data.members.get(i);
+      Random random = new Random(seed + i);
+      Thread thread = new Thread(() -> latencies[index] = book(bookingDAO, member, slots, cumulative, random, release), "rush-member-" + i);
+      threads.add(thread);
+      thread.start();
+    }
+    
+    long start = System.nanoTime();
+    release.countDown();
+    
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+    
+    long elapsed = System.nanoTime() - start;
+    long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+    report(tennis, elapsed, all, slots.size());
+  }
+  
+  /**
+   * Lets the given member reserve the slots it wants once the slots are released, and returns the
+   * latency of every reservation attempt in nanoseconds.
+   */
+  private long[] book(BookingDAO bookingDAO, Member member, List<Booking> slots, double[] cumulative, Random random, CountDownLatch release)
+  {
+    long[] latencies = new long[maxAttempts];
+    int attempt = 0;
+    int booked = 0;
+    
+    try
+    {
+      release.await();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      return new long[0];
+    }
+    
+    while (booked < wanted && attempt < maxAttempts)
+    {
+      Booking slot = slots.get(pick(cumulative, random));
+      Booking booking = new Booking();
+      booking.setCourt(slot.getCourt());
+      booking.setStartTime(slot.getStartTime());
+      booking.setType(slot.getType());
+      booking.setMember(member);
+      
+      long start = System.nanoTime();
+      Boolean won;
+      
+      try
+      {
+        won = bookingDAO.reserve(booking);
+      }
+      catch (DAOException | IllegalArgumentException e)
+      {
+        won = null;
+      }
+      
+      latencies[attempt++] = System.nanoTime() - start;
+      attempts.incrementAndGet();
+      
+      if (won == null)
+      {
+        errors.incrementAndGet();
+        think(random);
+      }
+      else if (won)
+      {
+        booked++;
+        reserved.incrementAndGet();
+      }
+      else
+      {
+        conflicts.incrementAndGet();
+        think(random);
+      }
+    }
+    
+    if (booked == wanted)
+    {
+      satisfied.incrementAndGet();
+    }
+    
+    return Arrays.copyOf(latencies, attempt);
+  }
+  
+  private void think(Random random)
+  {
+    if (thinkMillis > 0)
+    {
+      try
+      {
+        Thread.sleep(random.nextInt(thinkMillis + 1));
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+  
+  /**
+   * Returns the free slots of the week after the week of {@link BenchDatabase#FIRST_DAY}, most
+   * popular first. Weekday evenings and weekend mornings are the most popular, lit and indoor courts
+   * are preferred over the others.
+   */
+  private static List<Booking> slotsOfNextWeek(BenchDatabase.Data data)
+  {
+    ZoneId zone = ZoneId.systemDefault();
+    Set<LocalDate> holidays = new HashSet<>();
+    
+    for (Holiday holiday : data.holidays)
+    {
+      holidays.add(holiday.getDate().toInstant().atZone(zone).toLocalDate());
+    }
+    
+    List<Booking> slots = new ArrayList<>();
+    List<Integer> popularity = new ArrayList<>();
+    LocalDate monday = BenchDatabase.FIRST_DAY.plusWeeks(1);
+    
+    for (LocalDate day = monday; day.isBefore(monday.plusWeeks(1)); day = day.plusDays(1))
+    {
+      if (holidays.contains(day))
+      {
+        continue;
+      }
+      
+      boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+      
+      for (Court court : data.courts)
+      {
+        for (LocalTime hour = court.getOpeningTime(); hour.isBefore(court.getClosingTime()); hour = hour.plusHours(1))
+        {
+          Booking slot = new Booking();
+          slot.setCourt(court);
+          slot.setStartTime(BenchDatabase.toDate(day, hour));
+          slot.setType("Single");
+          slots.add(slot);
+          
+          int score = (weekend ? (hour.getHour() >= 9 && hour.getHour() < 13) : (hour.getHour() >= 18 && hour.getHour() < 21)) ? 100 : 0;
+          score += (court.isLighting() || court.isIndoor()) ? 10 : 0;
+          popularity.add(score * 1000 + (slots.size() * 7919) % 1000);
+        }
+      }
+    }
+    
+    Integer[] order = new Integer[slots.size()];
+    
+    for (int i = 0; i < order.length; i++)
+    {
+      order[i] = i;
+    }
+    
+    Arrays.sort(order, Comparator.comparing((Integer i) -> popularity.get(i)).reversed());
+    List<Booking> ranked = new ArrayList<>(slots.size());
+    
+    for (Integer i : order)
+    {
+      ranked.add(slots.get(i));
+    }
+    
+    return ranked;
+  }
+  
+  /**
+   * Returns the cumulative probabilities of a Zipf distribution with the given exponent over the
+   * given amount of ranks.
+   */
+  private static double[] zipf(int ranks, double exponent)
+  {
+    double[] cumulative = new double[ranks];
+    double sum = 0;
+    
+    for (int rank = 0; rank < ranks; rank++)
+    {
+      sum += 1.0 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = sum;
+    }
+    
+    for (int rank = 0; rank < ranks; rank++)
+    {
+      cumulative[rank] /= sum;
+    }
+    
+    return cumulative;
+  }
+  
+  /**
+   * Returns a rank drawn from the given cumulative probabilities.
+   */
+  private static int pick(double[] cumulative, Random random)
+  {
+    int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min((rank >= 0) ? rank : -rank - 1, cumulative.length - 1);
+  }
+  
+  /**
+   * Prints the report of the booking rush, and checks that every slot was booked once at most.
+   */
+  private void report(DAOFactory tennis, long elapsed, long[] latencies, int slotCount)
+  {
+    double seconds = elapsed / 1e9;
+    System.out.printf("Booking rush: %d members, %d courts, %d slots, Zipf skew %.2f, %d wanted per member%n", memberCount, courtCount, slotCount, skew, wanted);
+    System.out.printf("Duration:       %.2f s%n", seconds);
+    System.out.printf("Attempts:       %d (%.0f/s)%n", attempts.get(), attempts.get() / seconds);
+    System.out.printf("Reserved:       %d (%.0f/s)%n", reserved.get(), reserved.get() / seconds);
+    System.out.printf("Conflicts:      %d (%.1f%% of attempts)%n", conflicts.get(), (attempts.get() == 0) ? 0.0 : 100.0 * conflicts.get() / attempts.get());
+    System.out.printf("Errors:         %d%n", errors.get());
+    System.out.printf("Satisfied:      %d of %d members%n", satisfied.get(), memberCount);
+    System.out.printf("Reserve (ms):   p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n", percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 99.9), percentile(latencies, 100));
+    
+    DAOMetrics metrics = tennis.getMetrics();
+    DAOMethodMetrics connectionWait = (metrics != null) ? metrics.getAll().get("DAOFactory.getConnection()") : null;
+    
+    if (connectionWait != null)
+    {
+      System.out.printf("Connection (ms): mean %.2f, p50 %.2f, p99 %.2f, max %.2f over %d acquisitions%n", connectionWait.getMeanMicros() / 1000, connectionWait.getP50Micros() / 1000.0, connectionWait.getP99Micros() / 1000.0, connectionWait.getMaxMicros() / 1000.0, connectionWait.getCallCount());
+    }
+    else
+    {
+      System.out.println("Connection wait not measured, enable the metrics property of the database.");
+    }
+    
+    List<Booking> bookings = tennis.getBookingDAO().list();
+    Set<String> distinct = new HashSet<>();
+    
+    for (Booking booking : bookings)
+    {
+      distinct.add(booking.getCourt().getId() + "@" + booking.getStartTime().getTime());
+    }
+    
+    System.out.printf("Check:          %d bookings, %d distinct slots, %s%n", bookings.size(), distinct.size(), (bookings.size() == distinct.size() && bookings.size() == reserved.get()) ? "OK" : "DOUBLE BOOKED");
+  }
+  
+  /**
+   * Returns the given percentile of the given sorted latencies in milliseconds.
+   */
+  private static double percentile(long[] sorted, double percentile)
+  {
+    if (sorted.length == 0)
+    {
+      return 0;
+    }
+    
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, Math.min(index, sorted.length - 1))]) / 1000.0;
+  }
+}
@@ -0,0 +1,181 @@
+package com.tennis.bench;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tennis.dao.BookingDAO;
+import com.tennis.dao.CourtDAO;
+import com.tennis.dao.DAOFactory;
+import com.tennis.dao.HolidayDAO;
+import com.tennis.dao.MemberDAO;
+import com.tennis.dao.Page;
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents the JMH benchmarks of the DAO layer against the embedded database of
+ * {@link BenchDatabase}. Each fork creates and seeds its own in-memory database, so the results do
+ * not depend on a database server or on the rows left by an earlier run.
+ * <p>
+ * The DAO's are obtained from the DAOFactory the way the application does, so the benchmarks
+ * measure the JDBC mapping together with the decorators configured for 'tennis.bench'. Run them
+ * with <code>ant bench</code>, which writes the results as JSON.
+ * 
+ * @author Atidivya
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DAOBenchmark
+{
+  @Param({ "10000" })
+  public int members;
+  
+  @Param({ "12" })
+  public int courts;
+  
+  @Param({ "90" })
+  public int days;
+  
+  private DAOFactory tennis;
+  private MemberDAO memberDAO;
+  private CourtDAO courtDAO;
+  private HolidayDAO holidayDAO;
+  private BookingDAO bookingDAO;
+  private BenchDatabase.Data data;
+  
+  @Setup(Level.Trial)
+  public void setUp() throws Exception
+  {
+    tennis = BenchDatabase.create(BenchDatabase.NAME);
+    data = BenchDatabase.seed(tennis, members, courts, days, 42);
+    memberDAO = tennis.getMemberDAO();
+    courtDAO = tennis.getCourtDAO();
+    holidayDAO = tennis.getHolidayDAO();
+    bookingDAO = tennis.getBookingDAO();
+  }
+  
+  @TearDown(Level.Trial)
+  public void tearDown()
+  {
+    tennis.close();
+  }
+  
+  /**
+   * The random of a benchmark thread, seeded so that every run picks the same rows.
+   */
+  @State(Scope.Thread)
+  public static class Picker
+  {
+    private final SplittableRandom random = new SplittableRandom(7);
+    
+    private <T> T pick(List<T> rows)
+    {
+      return rows.get(random.nextInt(rows.size()));
+    }
+    
+    private LocalDate day(int days)
+    {
+      return BenchDatabase.FIRST_DAY.plusDays(random.nextInt(days));
+    }
+  }
+  
+  @Benchmark
+  public Member memberFind(Picker picker)
+  {
+    return memberDAO.find(picker.pick(data.members).getId());
+  }
+  
+  @Benchmark
+  public Court courtFind(Picker picker)
+  {
+    return courtDAO.find(picker.pick(data.courts).getId());
+  }
+  
+  /**
+   * The find of a booking maps the joined court and member as well.
+   */
+  @Benchmark
+  public Booking bookingFind(Picker picker)
+  {
+    return bookingDAO.find(picker.pick(data.bookings).getId());
+  }
+  
+  @Benchmark
+  public Page<Member> memberListPage(Picker picker)
+  {
+    return memberDAO.list(picker.pick(data.members).getId(), 100);
+  }
+  
+  @Benchmark
+  public List<Court> courtList()
+  {
+    return courtDAO.list();
+  }
+  
+  /**
+   * The bookings of one court on one day, about ten joined rows.
+   */
+  @Benchmark
+  public List<Booking> bookingListCourtDay(Picker picker)
+  {
+    LocalDate day = picker.day(days);
+    return bookingDAO.list(picker.pick(data.courts), BenchDatabase.toDate(day, LocalTime.MIDNIGHT), BenchDatabase.toDate(day.plusDays(1), LocalTime.MIDNIGHT));
+  }
+  
+  /**
+   * The bookings of all courts in one week, about a thousand joined rows.
+   */
+  @Benchmark
+  public List<Booking> bookingListWeek(Picker picker)
+  {
+    LocalDate day = picker.day(days - 7);
+    return bookingDAO.list(BenchDatabase.toDate(day, LocalTime.MIDNIGHT), BenchDatabase.toDate(day.plusDays(7), LocalTime.MIDNIGHT));
+  }
+  
+  @Benchmark
+  public Member memberCreate()
+  {
+    Member member = new Member();
+    member.setName("Benchmark member");
+    member.setEmail("benchmark@tennis.example");
+    member.setPhone("912345678");
+    memberDAO.create(member);
+    return member;
+  }
+  
+  @Benchmark
+  public boolean courtExistName(Picker picker)
+  {
+    return courtDAO.existName(picker.pick(data.courts).getName());
+  }
+  
+  @Benchmark
+  public boolean holidayExistDate(Picker picker)
+  {
+    Date date = BenchDatabase.toDate(picker.day(days), LocalTime.MIDNIGHT);
+    return holidayDAO.existDate(date);
+  }
+}
@@ -0,0 +1,384 @@
+package com.tennis.bench;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tennis.dao.DAOFactory;
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Holiday;
+import com.tennis.model.Member;
+
+/**
+ * This class generates a large, realistic data set: members, courts with realistic opening hours,
+ * the national holidays of every year and the bookings of every day over several years. The same
+ * sizes and seed always generate the same rows, whatever the amount of threads, since every chunk
+ * of members and every month of bookings draws from its own random seeded by the seed and the
+ * chunk.
+ * <p>
+ * The rows are loaded through the createAll methods of the DAO's, one batch per chunk, by several
+ * threads at once. The bookings are generated month by month and never held in memory all at once,
+ * so tens of millions of bookings fit in a modest heap.
+ * <p>
+ * The amount of bookings follows from the amount of courts and years, at roughly 5000 bookings per
+ * court per year. For example 1000 courts over 3 years give about 15 million bookings.
+ * 
+ * @author Atidivya
+ */
+public class DataGenerator
+{
+  private static final String[] FIRST_NAMES = { "Ana", "Beatriz", "Carla", "Diana", "Eva", "Filipa", "Ines", "Joana", "Marta", "Rita", "Sofia", "Vanda", "Andre", "Bruno", "Carlos", "Diogo", "Eduardo", "Filipe", "Joao", "Jose", "Luis", "Miguel", "Pedro", "Rui", "Tiago" };
+  private static final String[] LAST_NAMES = { "Silva", "Santos", "Ferreira", "Pereira", "Oliveira", "Costa", "Rodrigues", "Martins", "Jesus", "Sousa", "Fernandes", "Goncalves", "Gomes", "Lopes", "Marques", "Alves", "Almeida", "Ribeiro", "Pinto", "Carvalho", "Teixeira", "Moreira", "Correia", "Mendes", "Monteiro", "Sardinha" };
+  private static final String[] STREETS = { "Rua Direita", "Avenida da Liberdade", "Rua do Carmo", "Largo do Chafariz", "Rua da Praia", "Travessa do Moinho", "Rua das Flores", "Avenida Central" };
+  private static final String[] SURFACES = { "Clay", "Hard", "Grass" };
+  private static final String[] TYPES = { "Single", "Single", "Single", "Double", "Double", "Lesson" };
+  private static final int[][] FIXED_HOLIDAYS = { { 1, 1 }, { 4, 25 }, { 5, 1 }, { 6, 10 }, { 8, 15 }, { 10, 5 }, { 11, 1 }, { 12, 1 }, { 12, 8 }, { 12, 25 } };
+  
+  private final int memberCount;
+  private final int courtCount;
+  private final int firstYear;
+  private final int years;
+  private final int threads;
+  private final int chunkSize;
+  private final long seed;
+  
+  private final AtomicLong bookingCount = new AtomicLong();
+  
+  /**
+   * Construct a data generator.
+   * 
+   * @param memberCount The amount of members.
+   * @param courtCount The amount of courts.
+   * @param firstYear The first year with bookings.
+   * @param years The amount of years with bookings.
+   * @param threads The amount of threads loading the rows at once.
+   * @param chunkSize The amount of members loaded in one createAll call.
+   * @param seed The seed of the random data.
+   */
+  public DataGenerator(int memberCount, int courtCount, int firstYear, int years, int threads, int chunkSize, long seed)
+  {
+    this.memberCount = memberCount;
+    this.courtCount = courtCount;
+    this.firstYear = firstYear;
+    this.years = years;
+    this.threads = threads;
+    this.chunkSize = chunkSize;
+    this.seed = seed;
+  }
+  
+  /**
+   * Generates the data set configured by the system properties 'gen.members' (1000000),
+   * 'gen.courts' (1000), 'gen.firstYear' (2024), 'gen.years' (3), 'gen.threads' (the amount of
+   * processors), 'gen.chunkSize' (10000) and 'gen.seed' (42) into the database 'gen.database'
+   * ('tennis.bench'). The tables are created first when 'gen.createSchema' is true, as needed for
+   * the embedded databases.
+   * 
+   * @param args Not used.
+   * 
+   * @throws Exception If creating the tables or loading the rows fails.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    String database = System.getProperty("gen.database", BenchDatabase.NAME);
+    DataGenerator generator = new DataGenerator(Integer.getInteger("gen.members", 1000000), Integer.getInteger("gen.courts", 1000), Integer.getInteger("gen.firstYear", 2024), Integer.getInteger("gen.years", 3), Integer.getInteger("gen.threads", Runtime.getRuntime().availableProcessors()), Integer.getInteger("gen.chunkSize", 10000), Long.getLong("gen.seed", 42L));
+    
+    try (DAOFactory tennis = Boolean.getBoolean("gen.createSchema") ? BenchDatabase.create(database) : DAOFactory.getInstance(database))
+    {
+      generator.generate(tennis);
+    }
+  }
+  
+  /**
+   * Returns the national holidays of the given year: the fixed ones, and Good Friday, Easter
+   * Sunday and Corpus Christi, which follow from the date of Easter.
+   * 
+   * @param year The year.
+   * 
+   * @return The national holidays of the given year in date order.
+   */
+  public static Set<LocalDate> holidays(int year)
+  {
+    Set<LocalDate> holidays = new TreeSet<>();
+    
+    for (int[] monthDay : FIXED_HOLIDAYS)
+    {
+      holidays.add(LocalDate.of(year, monthDay[0], monthDay[1]));
+    }
+    
+    LocalDate easter = easter(year);
+    holidays.add(easter.minusDays(2));
+    holidays.add(easter);
+    holidays.add(easter.plusDays(60));
+    return holidays;
+  }
+  
+  /**
+   * Generates the members, courts, holidays and bookings into the database of the given DAOFactory
+   * and prints the amounts and the load rate.
+   * 
+   * @param tennis The DAOFactory of the database to be filled.
+   * 
+   * @throws InterruptedException If interrupted while waiting for the loading threads.
+   * @throws ExecutionException If loading a chunk fails.
+   */
+  public void generate(DAOFactory tennis) throws InterruptedException, ExecutionException
+  {
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    
+    try
+    {
+      long[] memberIds = generateMembers(tennis, executor);
+      List<Court> courts = generateCourts(tennis);
+      Set<LocalDate> holidays = generateHolidays(tennis);
+      generateBookings(tennis, executor, memberIds, courts, holidays);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+    
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long rows = memberCount + courtCount + bookingCount.get();
+    System.out.printf("Generated %d members, %d courts and %d bookings over %d years in %.1f s (%.0f rows/s)%n", memberCount, courtCount, bookingCount.get(), years, seconds, rows / seconds);
+  }
+  
+  /**
+   * Generates the members in chunks on the given executor and returns their IDs in order.
+   */
+  private long[] generateMembers(DAOFactory tennis, ExecutorService executor) throws InterruptedException, ExecutionException
+  {
+    long[] memberIds = new long[memberCount];
+    List<Future<?>> chunks = new ArrayList<>();
+    
+    for (int from = 0; from < memberCount; from += chunkSize)
+    {
+      int chunkFrom = from;
+      int chunkTo = Math.min(from + chunkSize, memberCount);
+      
+      chunks.add(executor.submit(() ->
+      {
+        Random random = new Random(seed * 31 + chunkFrom);
+        List<Member> members = new ArrayList<>(chunkTo - chunkFrom);
+        
+        for (int i = chunkFrom; i < chunkTo; i++)
+        {
+          String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+          String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+          Member member = new Member();
+          member.setName(firstName + " " + lastName);
+          member.setEmail((firstName + "." + lastName + "." + i + "@tennis.example").toLowerCase());
+          member.setPhone(String.format("9%d%07d", 1 + random.nextInt(6), random.nextInt(10000000)));
+          member.setAddress(STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(300)));
+          members.add(member);
+        }
+        
+        tennis.getMemberDAO().createAll(members);
+        
+        for (int i = chunkFrom; i < chunkTo; i++)
+        {
+          memberIds[i] = members.get(i - chunkFrom).getId();
+        }
+      }));
+    }
+    
+    await(chunks);
+    return memberIds;
+  }
+  
+  /**
+   * Generates the courts. A quarter of them is indoor and open from 7 to 23, the others are open
+   * from 8 until sunset at 20, or until 22 when they have lighting.
+   */
+  private List<Court> generateCourts(DAOFactory tennis)
+  {
+    Random random = new Random(seed * 37);
+    List<Court> courts = new ArrayList<>(courtCount);
+    
+    for (int i = 1; i <= courtCount; i++)
+    {
+      boolean indoor = random.nextInt(4) == 0;
+      boolean lighting = indoor || random.nextInt(3) > 0;
+      Court court = new Court();
+      court.setName(String.format("Court %05d", i));
+      court.setSurface(indoor ? "Carpet" : SURFACES[random.nextInt(SURFACES.length)]);
+      court.setOpeningTime(LocalTime.of(indoor ? 7 : 8, 0));
+      court.setClosingTime(LocalTime.of(indoor ? 23 : lighting ? 22 : 20, 0));
+      court.setIndoor(indoor);
+      court.setLighting(lighting);
+      courts.add(court);
+    }
+    
+    tennis.getCourtDAO().createAll(courts);
+    return courts;
+  }
+  
+  /**
+   * Generates the national holidays of the years with bookings and returns their dates.
+   */
+  private Set<LocalDate> generateHolidays(DAOFactory tennis)
+  {
+    Set<LocalDate> dates = new TreeSet<>();
+    List<Holiday> holidays = new ArrayList<>();
+    
+    for (int year = firstYear; year < firstYear + years; year++)
+    {
+      for (LocalDate date : holidays(year))
+      {
+        Holiday holiday = new Holiday();
+        holiday.setDate(BenchDatabase.toDate(date, LocalTime.MIDNIGHT));
+        holiday.setName("National holiday");
+        holidays.add(holiday);
+        dates.add(date);
+      }
+    }
+    
+    tennis.getHolidayDAO().createAll(holidays);
+    return dates;
+  }
+  
+  /**
+   * Generates the bookings month by month on the given executor. Each month is loaded in chunks, so
+   * that only the bookings of the months in progress are in memory.
+   */
+  private void generateBookings(DAOFactory tennis, ExecutorService executor, long[] memberIds, List<Court> courts, Set<LocalDate> holidays) throws InterruptedException, ExecutionException
+  {
+    List<Future<?>> months = new ArrayList<>();
+    
+    for (YearMonth month = YearMonth.of(firstYear, 1); month.getYear() < firstYear + years; month = month.plusMonths(1))
+    {
+      YearMonth generatedMonth = month;
+      months.add(executor.submit(() ->
+      {
+        Random random = new Random(seed * 41 + generatedMonth.getYear() * 12 + generatedMonth.getMonthValue());
+        List<Booking> bookings = new ArrayList<>(chunkSize);
+        
+        for (LocalDate day = generatedMonth.atDay(1); !day.isAfter(generatedMonth.atEndOfMonth()); day = day.plusDays(1))
+        {
+          if (holidays.contains(day))
+          {
+            continue;
+          }
+          
+          for (Court court : courts)
+          {
+            for (LocalTime hour = court.getOpeningTime(); hour.isBefore(court.getClosingTime()); hour = hour.plusHours(1))
+            {
+              if (random.nextDouble() < occupancy(day, hour, court.isIndoor()))
+              {
+                bookings.add(booking(court, day, hour, memberIds, random));
+                
+                if (bookings.size() == chunkSize)
+                {
+                  load(tennis, bookings);
+                }
+              }
+            }
+          }
+        }
+        
+        load(tennis, bookings);
+      }));
+    }
+    
+    await(months);
+  }
+  
+  /**
+   * Returns a booking of the given court and hour by a member drawn from the given random. Some
+   * members play far more often than others: the first members are drawn most.
+   */
+  private static Booking booking(Court court, LocalDate day, LocalTime hour, long[] memberIds, Random random)
+  {
+    double draw = random.nextDouble();
+    Member member = new Member();
+    member.setId(memberIds[(int) (draw * draw * draw * memberIds.length)]);
+    Booking booking = new Booking();
+    booking.setCourt(court);
+    booking.setStartTime(BenchDatabase.toDate(day, hour));
+    booking.setType(TYPES[random.nextInt(TYPES.length)]);
+    booking.setMember(member);
+    return booking;
+  }
+  
+  /**
+   * Returns the chance that the given hour of the given day is booked. Evenings and weekend
+   * mornings are busiest, outdoor courts are busier in summer and indoor courts in winter.
+   */
+  private static double occupancy(LocalDate day, LocalTime hour, boolean indoor)
+  {
+    boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    int h = hour.getHour();
+    double chance;
+    
+    if (weekend)
+    {
+      chance = (h >= 9 && h < 13) ? 0.9 : (h >= 13 && h < 18) ? 0.6 : 0.4;
+    }
+    else
+    {
+      chance = (h >= 18 && h < 21) ? 0.9 : (h < 9 || h >= 21) ? 0.35 : 0.3;
+    }
+    
+    boolean summer = day.getMonthValue() >= 5 && day.getMonthValue() <= 9;
+    return chance * ((summer != indoor) ? 1.0 : 0.7);
+  }
+  
+  /**
+   * Loads the given bookings and clears the list for the next chunk.
+   */
+  private void load(DAOFactory tennis, List<Booking> bookings)
+  {
+    if (!bookings.isEmpty())
+    {
+      tennis.getBookingDAO().createAll(bookings);
+      bookingCount.addAndGet(bookings.size());
+      bookings.clear();
+    }
+  }
+  
+  /**
+   * Waits for the given tasks, rethrowing the first failure.
+   */
+  private static void await(List<Future<?>> tasks) throws InterruptedException, ExecutionException
+  {
+    for (Future<?> task : tasks)
+    {
+      task.get();
+    }
+  }
+  
+  /**
+   * Returns the date of Easter Sunday of the given year, by the anonymous Gregorian algorithm.
+   */
+  private static LocalDate easter(int year)
+  {
+    int a = year % 19;
+    int b = year / 100;
+    int c = year % 100;
+    int d = b / 4;
+    int e = b % 4;
+    int f = (b + 8) / 25;
+    int g = (b - f + 1) / 3;
+    int h = (19 * a + b - d - g + 15) % 30;
+    int i = c / 4;
+    int k = c % 4;
+    int l = (32 + 2 * e + 2 * i - h - k) % 7;
+    int m = (a + 11 * h + 22 * l) / 451;
+    int month = (h + l - 7 * m + 114) / 31;
+    int day = ((h + l - 7 * m + 114) % 31) + 1;
+    return LocalDate.of(year, month, day);
+  }
+}
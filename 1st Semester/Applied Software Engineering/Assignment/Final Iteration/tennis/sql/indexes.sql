@@ -0,0 +1,12 @@
+-- Indexes backing the period queries of BookingDAOJDBC. Each period query is a single range scan
+-- on one of these indexes, regardless of the amount of bookings in the table.
+
+-- BookingDAO#find(Court, Date) and BookingDAO#list(Court, Date, Date). Being unique, it also
+-- guarantees that BookingDAO#reserve(Booking) has a single winner per slot across all JVM's.
+CREATE UNIQUE INDEX booking_court_start_time ON booking (court, start_time);
+
+-- BookingDAO#list(Date, Date).
+CREATE INDEX booking_start_time ON booking (start_time);
+
+-- BookingDAO#listByMember(Member, Date, Date).
+CREATE INDEX booking_member_start_time ON booking (member, start_time);
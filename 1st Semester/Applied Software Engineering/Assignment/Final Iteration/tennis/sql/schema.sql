@@ -0,0 +1,43 @@
+-- Tables of the tennis reservation system as mapped by the JDBC DAO's. The statements run on MySQL
+-- as well as on H2 in MySQL mode, which the benchmarks in bench/ use as embedded database. The
+-- indexes of the booking queries are in indexes.sql.
+
+CREATE TABLE member (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(100) NOT NULL,
+  email VARCHAR(100),
+  phone VARCHAR(20),
+  address VARCHAR(200),
+  observations VARCHAR(500)
+);
+
+CREATE TABLE court (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(50) NOT NULL,
+  surface VARCHAR(30),
+  opening_time TIME,
+  closing_time TIME,
+  indoor BOOLEAN,
+  lighting BOOLEAN,
+  observations VARCHAR(500),
+  CONSTRAINT court_name UNIQUE (name)
+);
+
+CREATE TABLE holiday (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  date DATE NOT NULL,
+  name VARCHAR(100),
+  observations VARCHAR(500),
+  CONSTRAINT holiday_date UNIQUE (date)
+);
+
+CREATE TABLE booking (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  court BIGINT NOT NULL,
+  start_time DATETIME NOT NULL,
+  type VARCHAR(30),
+  member BIGINT,
+  observations VARCHAR(500),
+  CONSTRAINT booking_court FOREIGN KEY (court) REFERENCES court (id),
+  CONSTRAINT booking_member FOREIGN KEY (member) REFERENCES member (id)
+);
@@ -155,5 +155,9 @@ public class DAOTest
     holidays = holidayDAO.list();
     System.out.println("List of holidays successfully queried: " + holidays);
     System.out.println("Thus, amount of holidays in database is: " + holidays.size());
+    
+    // Close DAOFactory
+    tennis.close();
+    System.out.println("DAOFactory successfully closed: " + tennis);
   }
 }
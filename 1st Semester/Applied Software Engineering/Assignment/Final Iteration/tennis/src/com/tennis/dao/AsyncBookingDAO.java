@@ -0,0 +1,227 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents an asynchronous counterpart of the {@link BookingDAO}, for a caller which
+ * wants to fan out independent reads without tying up its own threads. Each method runs the same
+ * method of the Booking DAO of the DAOFactory in a task of the asynchronous DAO executor, and returns
+ * a future of its result. An IllegalArgumentException or DAOException of the call completes the
+ * future exceptionally. There is no asynchronous <code>stream()</code>, since a stream holds a
+ * connection until the caller has consumed it.
+ * <p>
+ * You can obtain it by {@link DAOFactory#getAsyncBookingDAO()}.
+ * 
+ * @author Atidivya
+ */
+public class AsyncBookingDAO
+{
+  private BookingDAO bookingDAO;
+  private AsyncDAOExecutor executor;
+  
+  /**
+   * Construct an asynchronous Booking DAO on top of the given Booking DAO. Package private so that it
+   * can be constructed inside the DAO package only.
+   * 
+   * @param bookingDAO The Booking DAO to run the calls with.
+   * @param executor The executor to run the calls on.
+   */
+  AsyncBookingDAO(BookingDAO bookingDAO, AsyncDAOExecutor executor)
+  {
+    this.bookingDAO = bookingDAO;
+    this.executor = executor;
+  }
+  
+  /**
+   * Runs {@link BookingDAO#find(Long)} asynchronously.
+   * 
+   * @param id The ID of the booking to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Booking> find(Long id)
+  {
+    return executor.supply(() -> bookingDAO.find(id));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#findAll(Collection)} asynchronously.
+   * 
+   * @param ids The IDs of the bookings to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Map<Long, Booking>> findAll(Collection<Long> ids)
+  {
+    return executor.supply(() -> bookingDAO.findAll(ids));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#find(Court, Date)} asynchronously.
+   * 
+   * @param court The court of the booking.
+   * @param startTime The start time of the booking.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Booking> find(Court court, Date startTime)
+  {
+    return executor.supply(() -> bookingDAO.find(court, startTime));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#list()} asynchronously.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Booking>> list()
+  {
+    return executor.supply(() -> bookingDAO.list());
+  }
+  
+  /**
+   * Runs {@link BookingDAO#list(Long, int)} asynchronously.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of bookings on the page.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Page<Booking>> list(Long afterId, int limit)
+  {
+    return executor.supply(() -> bookingDAO.list(afterId, limit));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#list(Court, Date, Date)} asynchronously.
+   * 
+   * @param court The court of the bookings.
+   * @param from The start of the period, inclusive.
+   * @param to The end of the period, exclusive.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Booking>> list(Court court, Date from, Date to)
+  {
+    return executor.supply(() -> bookingDAO.list(court, from, to));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#list(Date, Date)} asynchronously.
+   * 
+   * @param from The start of the period, inclusive.
+   * @param to The end of the period, exclusive.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Booking>> list(Date from, Date to)
+  {
+    return executor.supply(() -> bookingDAO.list(from, to));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#listByMember(Member, Date, Date)} asynchronously.
+   * 
+   * @param member The member of the bookings.
+   * @param from The start of the period, inclusive.
+   * @param to The end of the period, exclusive.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Booking>> listByMember(Member member, Date from, Date to)
+  {
+    return executor.supply(() -> bookingDAO.listByMember(member, from, to));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#create(Booking)} asynchronously.
+   * 
+   * @param booking The booking to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> create(Booking booking)
+  {
+    return executor.run(() -> bookingDAO.create(booking));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#reserve(Booking)} asynchronously.
+   * 
+   * @param booking The booking to be reserved in the database.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Boolean> reserve(Booking booking)
+  {
+    return executor.supply(() -> bookingDAO.reserve(booking));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#update(Booking)} asynchronously.
+   * 
+   * @param booking The booking to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> update(Booking booking)
+  {
+    return executor.run(() -> bookingDAO.update(booking));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#delete(Booking)} asynchronously.
+   * 
+   * @param booking The booking to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> delete(Booking booking)
+  {
+    return executor.run(() -> bookingDAO.delete(booking));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#createAll(Collection)} asynchronously.
+   * 
+   * @param bookings The bookings to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> createAll(Collection<Booking> bookings)
+  {
+    return executor.run(() -> bookingDAO.createAll(bookings));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#updateAll(Collection)} asynchronously.
+   * 
+   * @param bookings The bookings to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> updateAll(Collection<Booking> bookings)
+  {
+    return executor.run(() -> bookingDAO.updateAll(bookings));
+  }
+  
+  /**
+   * Runs {@link BookingDAO#deleteAll(Collection)} asynchronously.
+   * 
+   * @param bookings The bookings to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> deleteAll(Collection<Booking> bookings)
+  {
+    return executor.run(() -> bookingDAO.deleteAll(bookings));
+  }
+}
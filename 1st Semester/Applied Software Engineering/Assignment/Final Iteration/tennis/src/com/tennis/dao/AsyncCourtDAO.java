@@ -0,0 +1,170 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.tennis.model.Court;
+
+/**
+ * This class represents an asynchronous counterpart of the {@link CourtDAO}, for a caller which
+ * wants to fan out independent reads without tying up its own threads. Each method runs the same
+ * method of the Court DAO of the DAOFactory in a task of the asynchronous DAO executor, and returns
+ * a future of its result. An IllegalArgumentException or DAOException of the call completes the
+ * future exceptionally. There is no asynchronous <code>stream()</code>, since a stream holds a
+ * connection until the caller has consumed it.
+ * <p>
+ * You can obtain it by {@link DAOFactory#getAsyncCourtDAO()}.
+ * 
+ * @author Atidivya
+ */
+public class AsyncCourtDAO
+{
+  private CourtDAO courtDAO;
+  private AsyncDAOExecutor executor;
+  
+  /**
+   * Construct an asynchronous Court DAO on top of the given Court DAO. Package private so that it
+   * can be constructed inside the DAO package only.
+   * 
+   * @param courtDAO The Court DAO to run the calls with.
+   * @param executor The executor to run the calls on.
+   */
+  AsyncCourtDAO(CourtDAO courtDAO, AsyncDAOExecutor executor)
+  {
+    this.courtDAO = courtDAO;
+    this.executor = executor;
+  }
+  
+  /**
+   * Runs {@link CourtDAO#find(Long)} asynchronously.
+   * 
+   * @param id The ID of the court to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Court> find(Long id)
+  {
+    return executor.supply(() -> courtDAO.find(id));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#findAll(Collection)} asynchronously.
+   * 
+   * @param ids The IDs of the courts to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Map<Long, Court>> findAll(Collection<Long> ids)
+  {
+    return executor.supply(() -> courtDAO.findAll(ids));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#list()} asynchronously.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Court>> list()
+  {
+    return executor.supply(() -> courtDAO.list());
+  }
+  
+  /**
+   * Runs {@link CourtDAO#list(Long, int)} asynchronously.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of courts on the page.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Page<Court>> list(Long afterId, int limit)
+  {
+    return executor.supply(() -> courtDAO.list(afterId, limit));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#create(Court)} asynchronously.
+   * 
+   * @param court The court to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> create(Court court)
+  {
+    return executor.run(() -> courtDAO.create(court));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#update(Court)} asynchronously.
+   * 
+   * @param court The court to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> update(Court court)
+  {
+    return executor.run(() -> courtDAO.update(court));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#delete(Court)} asynchronously.
+   * 
+   * @param court The court to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> delete(Court court)
+  {
+    return executor.run(() -> courtDAO.delete(court));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#createAll(Collection)} asynchronously.
+   * 
+   * @param courts The courts to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> createAll(Collection<Court> courts)
+  {
+    return executor.run(() -> courtDAO.createAll(courts));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#updateAll(Collection)} asynchronously.
+   * 
+   * @param courts The courts to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> updateAll(Collection<Court> courts)
+  {
+    return executor.run(() -> courtDAO.updateAll(courts));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#deleteAll(Collection)} asynchronously.
+   * 
+   * @param courts The courts to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> deleteAll(Collection<Court> courts)
+  {
+    return executor.run(() -> courtDAO.deleteAll(courts));
+  }
+  
+  /**
+   * Runs {@link CourtDAO#existName(String)} asynchronously.
+   * 
+   * @param name The name which is to be checked in the database.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Boolean> existName(String name)
+  {
+    return executor.supply(() -> courtDAO.existName(name));
+  }
+}
@@ -0,0 +1,138 @@
+package com.tennis.dao;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This class represents the executor of the asynchronous DAO's, such as {@link AsyncMemberDAO}. Each
+ * DAO call runs in a task of its own, on a virtual thread when the Java runtime supports them, else
+ * on a daemon thread of a fixed thread pool. Since every running call holds a database connection,
+ * the amount of calls running at once is limited by a semaphore, which is sized to the connection
+ * pool by default. The other calls wait for a permit, which costs nothing but a parked virtual
+ * thread. Without virtual threads the fixed thread pool has as many threads as permits, so that no
+ * platform thread is spent on waiting.
+ * 
+ * @author Atidivya
+ */
+final class AsyncDAOExecutor
+{
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+  
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  
+  /**
+   * Construct an executor which runs at most the given amount of DAO calls at once.
+   * 
+   * @param maxConcurrency The maximum amount of DAO calls running at once.
+   */
+  AsyncDAOExecutor(int maxConcurrency)
+  {
+    this.executor = newExecutor(maxConcurrency);
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+  
+  /**
+   * Runs the given DAO call asynchronously and returns a future of its result. An exception of the
+   * call completes the future exceptionally.
+   * 
+   * @param <T> The type of the result.
+   * @param call The DAO call to be run.
+   * 
+   * @return A future of the result of the DAO call.
+   */
+  <T> CompletableFuture<T> supply(Supplier<T> call)
+  {
+    return CompletableFuture.supplyAsync(() ->
+    {
+      try
+      {
+        permits.acquire();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new DAOException("Interrupted while waiting for a free DAO call slot.", e);
+      }
+      
+      try
+      {
+        return call.get();
+      }
+      finally
+      {
+        permits.release();
+      }
+    }, executor);
+  }
+  
+  /**
+   * Runs the given DAO call asynchronously and returns a future which is completed when it is done.
+   * An exception of the call completes the future exceptionally.
+   * 
+   * @param call The DAO call to be run.
+   * 
+   * @return A future which is completed when the DAO call is done.
+   */
+  CompletableFuture<Void> run(Runnable call)
+  {
+    return supply(() ->
+    {
+      call.run();
+      return null;
+    });
+  }
+  
+  /**
+   * Stops accepting DAO calls and waits at most 30 seconds for the calls which are running or
+   * waiting for a permit, after which they are interrupted.
+   */
+  void close()
+  {
+    executor.shutdown();
+    
+    try
+    {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+      {
+        executor.shutdownNow();
+      }
+    }
+    catch (InterruptedException e)
+    {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  /**
+   * Returns a virtual thread per task executor when the Java runtime supports it, else a fixed
+   * thread pool of the given amount of daemon threads. Looked up by reflection, so that this compiles
+   * for older Java versions as well.
+   */
+  private static ExecutorService newExecutor(int threads)
+  {
+    try
+    {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    }
+    catch (ReflectiveOperationException e)
+    {
+      AtomicInteger threadNumber = new AtomicInteger();
+      
+      return Executors.newFixedThreadPool(threads, runnable ->
+      {
+        Thread thread = new Thread(runnable, "tennis-dao-async-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.tennis.model.Holiday;
+
+/**
+ * This class represents an asynchronous counterpart of the {@link HolidayDAO}, for a caller which
+ * wants to fan out independent reads without tying up its own threads. Each method runs the same
+ * method of the Holiday DAO of the DAOFactory in a task of the asynchronous DAO executor, and returns
+ * a future of its result. An IllegalArgumentException or DAOException of the call completes the
+ * future exceptionally. There is no asynchronous <code>stream()</code>, since a stream holds a
+ * connection until the caller has consumed it.
+ * <p>
+ * You can obtain it by {@link DAOFactory#getAsyncHolidayDAO()}.
+ * 
+ * @author Atidivya
+ */
+public class AsyncHolidayDAO
+{
+  private HolidayDAO holidayDAO;
+  private AsyncDAOExecutor executor;
+  
+  /**
+   * Construct an asynchronous Holiday DAO on top of the given Holiday DAO. Package private so that it
+   * can be constructed inside the DAO package only.
+   * 
+   * @param holidayDAO The Holiday DAO to run the calls with.
+   * @param executor The executor to run the calls on.
+   */
+  AsyncHolidayDAO(HolidayDAO holidayDAO, AsyncDAOExecutor executor)
+  {
+    this.holidayDAO = holidayDAO;
+    this.executor = executor;
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#find(Long)} asynchronously.
+   * 
+   * @param id The ID of the holiday to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Holiday> find(Long id)
+  {
+    return executor.supply(() -> holidayDAO.find(id));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#list()} asynchronously.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Holiday>> list()
+  {
+    return executor.supply(() -> holidayDAO.list());
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#list(Long, int)} asynchronously.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of holidays on the page.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Page<Holiday>> list(Long afterId, int limit)
+  {
+    return executor.supply(() -> holidayDAO.list(afterId, limit));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#create(Holiday)} asynchronously.
+   * 
+   * @param holiday The holiday to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> create(Holiday holiday)
+  {
+    return executor.run(() -> holidayDAO.create(holiday));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#update(Holiday)} asynchronously.
+   * 
+   * @param holiday The holiday to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> update(Holiday holiday)
+  {
+    return executor.run(() -> holidayDAO.update(holiday));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#delete(Holiday)} asynchronously.
+   * 
+   * @param holiday The holiday to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> delete(Holiday holiday)
+  {
+    return executor.run(() -> holidayDAO.delete(holiday));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#createAll(Collection)} asynchronously.
+   * 
+   * @param holidays The holidays to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> createAll(Collection<Holiday> holidays)
+  {
+    return executor.run(() -> holidayDAO.createAll(holidays));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#updateAll(Collection)} asynchronously.
+   * 
+   * @param holidays The holidays to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> updateAll(Collection<Holiday> holidays)
+  {
+    return executor.run(() -> holidayDAO.updateAll(holidays));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#deleteAll(Collection)} asynchronously.
+   * 
+   * @param holidays The holidays to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> deleteAll(Collection<Holiday> holidays)
+  {
+    return executor.run(() -> holidayDAO.deleteAll(holidays));
+  }
+  
+  /**
+   * Runs {@link HolidayDAO#existDate(Date)} asynchronously.
+   * 
+   * @param date The date which is to be checked in the database.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Boolean> existDate(Date date)
+  {
+    return executor.supply(() -> holidayDAO.existDate(date));
+  }
+}
@@ -0,0 +1,158 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.tennis.model.Member;
+
+/**
+ * This class represents an asynchronous counterpart of the {@link MemberDAO}, for a caller which
+ * wants to fan out independent reads without tying up its own threads. Each method runs the same
+ * method of the Member DAO of the DAOFactory in a task of the asynchronous DAO executor, and returns
+ * a future of its result. An IllegalArgumentException or DAOException of the call completes the
+ * future exceptionally. There is no asynchronous <code>stream()</code>, since a stream holds a
+ * connection until the caller has consumed it.
+ * <p>
+ * You can obtain it by {@link DAOFactory#getAsyncMemberDAO()}.
+ * 
+ * @author Atidivya
+ */
+public class AsyncMemberDAO
+{
+  private MemberDAO memberDAO;
+  private AsyncDAOExecutor executor;
+  
+  /**
+   * Construct an asynchronous Member DAO on top of the given Member DAO. Package private so that it
+   * can be constructed inside the DAO package only.
+   * 
+   * @param memberDAO The Member DAO to run the calls with.
+   * @param executor The executor to run the calls on.
+   */
+  AsyncMemberDAO(MemberDAO memberDAO, AsyncDAOExecutor executor)
+  {
+    this.memberDAO = memberDAO;
+    this.executor = executor;
+  }
+  
+  /**
+   * Runs {@link MemberDAO#find(Long)} asynchronously.
+   * 
+   * @param id The ID of the member to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Member> find(Long id)
+  {
+    return executor.supply(() -> memberDAO.find(id));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#findAll(Collection)} asynchronously.
+   * 
+   * @param ids The IDs of the members to be returned.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Map<Long, Member>> findAll(Collection<Long> ids)
+  {
+    return executor.supply(() -> memberDAO.findAll(ids));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#list()} asynchronously.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<List<Member>> list()
+  {
+    return executor.supply(() -> memberDAO.list());
+  }
+  
+  /**
+   * Runs {@link MemberDAO#list(Long, int)} asynchronously.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of members on the page.
+   * 
+   * @return A future of the result of the call.
+   */
+  public CompletableFuture<Page<Member>> list(Long afterId, int limit)
+  {
+    return executor.supply(() -> memberDAO.list(afterId, limit));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#create(Member)} asynchronously.
+   * 
+   * @param member The member to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> create(Member member)
+  {
+    return executor.run(() -> memberDAO.create(member));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#update(Member)} asynchronously.
+   * 
+   * @param member The member to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> update(Member member)
+  {
+    return executor.run(() -> memberDAO.update(member));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#delete(Member)} asynchronously.
+   * 
+   * @param member The member to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> delete(Member member)
+  {
+    return executor.run(() -> memberDAO.delete(member));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#createAll(Collection)} asynchronously.
+   * 
+   * @param members The members to be created in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> createAll(Collection<Member> members)
+  {
+    return executor.run(() -> memberDAO.createAll(members));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#updateAll(Collection)} asynchronously.
+   * 
+   * @param members The members to be updated in the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> updateAll(Collection<Member> members)
+  {
+    return executor.run(() -> memberDAO.updateAll(members));
+  }
+  
+  /**
+   * Runs {@link MemberDAO#deleteAll(Collection)} asynchronously.
+   * 
+   * @param members The members to be deleted from the database.
+   * 
+   * @return A future which is completed when the call is done.
+   */
+  public CompletableFuture<Void> deleteAll(Collection<Member> members)
+  {
+    return executor.run(() -> memberDAO.deleteAll(members));
+  }
+}
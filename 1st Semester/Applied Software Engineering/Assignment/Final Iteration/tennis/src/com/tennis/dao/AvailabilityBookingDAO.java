@@ -0,0 +1,250 @@
+package com.tennis.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents a {@link BookingDAO} which keeps the {@link CourtAvailability} in sync with
+ * the bookings created, updated and deleted through the underlying Booking DAO.
+ * <p>
+ * A reservation is first checked against the court availability, so that attempts on a slot which
+ * is known to be taken are refused without touching the database. The remaining attempts on the
+ * same slot are serialized on a lock stripe of the court availability, and the unique index on
+ * court and start time decides between attempts coming from other JVM's. A reservation of a time
+ * which is not the start of an open slot is refused with an IllegalArgumentException.
+ * <p>
+ * Inside a transaction the court availability only learns about the changes after the commit, so
+ * there this DAO checks the slot of a reservation and leaves the court availability alone.
+ * 
+ * @author Atidivya
+ */
+class AvailabilityBookingDAO implements BookingDAO
+{
+  private BookingDAO bookingDAO;
+  private CourtAvailability courtAvailability;
+  private boolean synced;
+  
+  /**
+   * Construct a Booking DAO which keeps the given court availability in sync with the given Booking
+   * DAO. Package private so that it can be constructed inside the DAO package only.
+   * 
+   * @param bookingDAO The Booking DAO to delegate to.
+   * @param courtAvailability The court availability to keep in sync.
+   */
+  AvailabilityBookingDAO(BookingDAO bookingDAO, CourtAvailability courtAvailability)
+  {
+    this(bookingDAO, courtAvailability, true);
+  }
+  
+  /**
+   * Construct a Booking DAO which checks the slots of the reservations against the given court
+   * availability, and keeps it in sync with the given Booking DAO when asked for. Package private so
+   * that it can be constructed inside the DAO package only.
+   * 
+   * @param bookingDAO The Booking DAO to delegate to.
+   * @param courtAvailability The court availability to check the slots with.
+   * @param synced Whether the court availability is to be kept in sync, false inside a transaction.
+   */
+  AvailabilityBookingDAO(BookingDAO bookingDAO, CourtAvailability courtAvailability, boolean synced)
+  {
+    this.bookingDAO = bookingDAO;
+    this.courtAvailability = courtAvailability;
+    this.synced = synced;
+  }
+  
+  @Override
+  public Booking find(Long id) throws DAOException
+  {
+    return bookingDAO.find(id);
+  }
+  
+  @Override
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException
+  {
+    return bookingDAO.findAll(ids);
+  }
+  
+  @Override
+  public Booking find(Court court, Date startTime) throws DAOException
+  {
+    return bookingDAO.find(court, startTime);
+  }
+  
+  @Override
+  public List<Booking> list() throws DAOException
+  {
+    return bookingDAO.list();
+  }
+  
+  @Override
+  public Stream<Booking> stream() throws DAOException
+  {
+    return bookingDAO.stream();
+  }
+  
+  @Override
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    return bookingDAO.list(afterId, limit);
+  }
+  
+  @Override
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException
+  {
+    return bookingDAO.list(court, from, to);
+  }
+  
+  @Override
+  public List<Booking> list(Date from, Date to) throws DAOException
+  {
+    return bookingDAO.list(from, to);
+  }
+  
+  @Override
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException
+  {
+    return bookingDAO.listByMember(member, from, to);
+  }
+  
+  @Override
+  public void create(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    bookingDAO.create(booking);
+    
+    if (synced)
+    {
+      courtAvailability.booked(booking);
+    }
+  }
+  
+  @Override
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    if (booking.getId() != null)
+    {
+      throw new IllegalArgumentException("Booking is already created, the booking ID is not null.");
+    }
+    
+    courtAvailability.checkSlot(booking.getCourt(), booking.getStartTime());
+    
+    if (!synced)
+    {
+      // The court availability does not know the uncommitted changes of the transaction.
+      return bookingDAO.reserve(booking);
+    }
+    
+    if (!courtAvailability.isFree(booking.getCourt(), booking.getStartTime()))
+    {
+      return false;
+    }
+    
+    Lock lock = courtAvailability.getLock(booking.getCourt(), booking.getStartTime());
+    lock.lock();
+    
+    try
+    {
+      // Check again, another thread may have won the slot while this one waited for the lock.
+      if (!courtAvailability.isFree(booking.getCourt(), booking.getStartTime()))
+      {
+        return false;
+      }
+      
+      if (bookingDAO.reserve(booking))
+      {
+        courtAvailability.booked(booking);
+        return true;
+      }
+      
+      // Taken by another JVM meanwhile.
+      courtAvailability.taken(booking.getCourt(), booking.getStartTime());
+      return false;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+  
+  @Override
+  public void update(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    bookingDAO.update(booking);
+    
+    if (synced)
+    {
+      courtAvailability.released(booking.getId());
+      courtAvailability.booked(booking);
+    }
+  }
+  
+  @Override
+  public void delete(Booking booking) throws DAOException
+  {
+    Long id = booking.getId();
+    bookingDAO.delete(booking);
+    
+    if (synced)
+    {
+      courtAvailability.released(id);
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    bookingDAO.createAll(bookings);
+    
+    if (synced)
+    {
+      for (Booking booking : bookings)
+      {
+        courtAvailability.booked(booking);
+      }
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    bookingDAO.updateAll(bookings);
+    
+    if (synced)
+    {
+      for (Booking booking : bookings)
+      {
+        courtAvailability.released(booking.getId());
+        courtAvailability.booked(booking);
+      }
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Booking> bookings) throws DAOException
+  {
+    List<Long> ids = new ArrayList<>(bookings.size());
+    
+    for (Booking booking : bookings)
+    {
+      ids.add(booking.getId());
+    }
+    
+    bookingDAO.deleteAll(bookings);
+    
+    if (synced)
+    {
+      for (Long id : ids)
+      {
+        courtAvailability.released(id);
+      }
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.tennis.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * This class represents a request scoped batch loader on top of a <code>findAll</code> method of a
+ * DAO. The individual lookups made while building a response are collected by {@link #load(Long)},
+ * and {@link #dispatch()} then fetches all of them with one <code>findAll</code> call instead of one
+ * <code>find</code> call per ID. An ID which is loaded again within the same request is served from
+ * the earlier result.
+ * <p>
+ * Here is a basic use example which loads the members of a list of bookings with one query:
+ * <pre>
+ * BatchLoader&lt;Member&gt; members = new BatchLoader&lt;&gt;(memberDAO::findAll);
+ * List&lt;CompletableFuture&lt;Member&gt;&gt; futures = new ArrayList&lt;&gt;();
+ * 
+ * for (Booking booking : bookings)
+ * {
+ *   futures.add(members.load(booking.getMember().getId()));
+ * }
+ * 
+ * members.dispatch();
+ * </pre>
+ * A batch loader keeps all loaded values, so it is meant to live as long as one request only.
+ * 
+ * @param <T> The type of the loaded values.
+ * 
+ * @author Atidivya
+ */
+public class BatchLoader<T>
+{
+  private final Function<List<Long>, Map<Long, T>> findAll;
+  private final Map<Long, CompletableFuture<T>> loaded = new HashMap<>();
+  private Map<Long, CompletableFuture<T>> pending = new LinkedHashMap<>();
+  
+  /**
+   * Construct a batch loader on top of the given <code>findAll</code> method of a DAO.
+   * 
+   * @param findAll The <code>findAll</code> method of a DAO, returning the values of the given IDs
+   * keyed by ID.
+   */
+  public BatchLoader(Function<List<Long>, Map<Long, T>> findAll)
+  {
+    this.findAll = findAll;
+  }
+  
+  /**
+   * Returns a future of the value with the given ID. The future is completed by the next
+   * {@link #dispatch()}, with null if there is no value with the given ID, unless the ID was already
+   * loaded by this batch loader.
+   * 
+   * @param id The ID of the value to be loaded.
+   * 
+   * @return A future of the value with the given ID.
+   * 
+   * @throws IllegalArgumentException If the ID is null.
+   */
+  public synchronized CompletableFuture<T> load(Long id) throws IllegalArgumentException
+  {
+    if (id == null)
+    {
+      throw new IllegalArgumentException("ID to be loaded is null.");
+    }
+    
+    CompletableFuture<T> future = loaded.get(id);
+    
+    if (future == null)
+    {
+      future = new CompletableFuture<>();
+      loaded.put(id, future);
+      pending.put(id, future);
+    }
+    
+    return future;
+  }
+  
+  /**
+   * Loads all values requested since the previous dispatch with one <code>findAll</code> call and
+   * completes their futures. When the call fails, the futures are completed with its exception,
+   * which is rethrown as well.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public void dispatch() throws DAOException
+  {
+    Map<Long, CompletableFuture<T>> batch;
+    
+    synchronized (this)
+    {
+      if (pending.isEmpty())
+      {
+        return;
+      }
+      
+      batch = pending;
+      pending = new LinkedHashMap<>();
+    }
+    
+    Map<Long, T> values;
+    
+    try
+    {
+      values = findAll.apply(new ArrayList<>(batch.keySet()));
+    }
+    catch (RuntimeException e)
+    {
+      synchronized (this)
+      {
+        // Let a later load of the same IDs try again.
+        loaded.keySet().removeAll(batch.keySet());
+      }
+      
+      batch.values().forEach(future -> future.completeExceptionally(e));
+      throw e;
+    }
+    
+    batch.forEach((id, future) -> future.complete(values.get(id)));
+  }
+  
+  /**
+   * Returns the value with the given ID, dispatching the pending loads first when it is not loaded
+   * yet. To be used where a value is needed right away, such as by a single lookup.
+   * 
+   * @param id The ID of the value to be returned.
+   * 
+   * @return The value with the given ID, or null if there is none.
+   * 
+   * @throws IllegalArgumentException If the ID is null.
+   * @throws DAOException If something fails at database level.
+   */
+  public T get(Long id) throws IllegalArgumentException, DAOException
+  {
+    CompletableFuture<T> future = load(id);
+    
+    if (!future.isDone())
+    {
+      dispatch();
+    }
+    
+    try
+    {
+      return future.join();
+    }
+    catch (CompletionException e)
+    {
+      // Failed by a dispatch of another thread.
+      throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+    }
+  }
+}
@@ -1,10 +1,14 @@
 package com.tennis.dao;
 
 import java.util.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Booking;
 import com.tennis.model.Court;
+import com.tennis.model.Member;
 
 
 /**
@@ -27,6 +31,19 @@ public interface BookingDAO
    */
   public Booking find(Long id) throws DAOException;
   
+  /**
+   * Returns the bookings from the database matching the given IDs, keyed by ID. The bookings are
+   * queried with a few <code>IN</code> queries instead of one query per ID. IDs which do not match
+   * any booking are absent from the map, null IDs are ignored.
+   * 
+   * @param ids The IDs of the bookings to be returned.
+   * 
+   * @return The bookings from the database matching the given IDs, keyed by ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException;
+  
   /**
    * Returns the booking from the database matching the given court and start time, otherwise null.
    * 
@@ -49,6 +66,77 @@ public interface BookingDAO
    */
   public List<Booking> list() throws DAOException;
   
+  /**
+   * Returns a stream of all bookings from the database ordered by booking ID. The bookings are read from
+   * the database while the stream is consumed, so memory use does not grow with the amount of
+   * bookings. The stream holds a database connection until it is closed, so it must be closed after
+   * use, preferably with try-with-resources.
+   * 
+   * @return A stream of all bookings from the database ordered by booking ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Stream<Booking> stream() throws DAOException;
+  
+  /**
+   * Returns a page of at most the given limit of bookings from the database with an ID greater than
+   * the given ID, ordered by booking ID. Pass null to get the first page, and the next cursor of a page
+   * to get the page after it.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of bookings on the page.
+   * 
+   * @return A page of bookings from the database ordered by booking ID.
+   * 
+   * @throws IllegalArgumentException If the limit is less than 1.
+   * @throws DAOException If something fails at database level.
+   */
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Returns a list of all bookings of the given court from the database starting at or after the
+   * given start time and before the given end time, ordered by start time. The list is never null
+   * and is empty when the court has no booking in the given period.
+   * 
+   * @param court The court of the bookings to be returned.
+   * @param from The inclusive start of the period.
+   * @param to The exclusive end of the period.
+   * 
+   * @return A list of all bookings of the given court in the given period ordered by start time.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException;
+  
+  /**
+   * Returns a list of all bookings from the database starting at or after the given start time and
+   * before the given end time, ordered by start time and court. The list is never null and is empty
+   * when there is no booking in the given period.
+   * 
+   * @param from The inclusive start of the period.
+   * @param to The exclusive end of the period.
+   * 
+   * @return A list of all bookings in the given period ordered by start time and court.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public List<Booking> list(Date from, Date to) throws DAOException;
+  
+  /**
+   * Returns a list of all bookings of the given member from the database starting at or after the
+   * given start time and before the given end time, ordered by start time. The list is never null
+   * and is empty when the member has no booking in the given period.
+   * 
+   * @param member The member of the bookings to be returned.
+   * @param from The inclusive start of the period.
+   * @param to The exclusive end of the period.
+   * 
+   * @return A list of all bookings of the given member in the given period ordered by start time.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException;
+  
   /**
    * Create the given booking in the database. The booking ID must be null, otherwise it will throw
    * IllegalArgumentException. After creating, the DAO will set the obtained ID in the given booking.
@@ -60,6 +148,24 @@ public interface BookingDAO
    */
   public void create(Booking booking) throws IllegalArgumentException, DAOException;
   
+  /**
+   * Create the given booking in the database, unless its court is already booked at its start time.
+   * The booking ID must be null, otherwise it will throw IllegalArgumentException. After creating,
+   * the DAO will set the obtained ID in the given booking. When many members try to reserve the same
+   * slot at the same time, exactly one of them gets true. The start time must be the start of an
+   * open slot of the court as defined by the {@link CourtAvailability}, otherwise it will throw
+   * IllegalArgumentException, so that false always means that another booking was first.
+   * 
+   * @param booking The booking to be created in the database.
+   * 
+   * @return True if the booking is created, false if the slot is already taken.
+   * 
+   * @throws IllegalArgumentException If the booking ID is not null, or if the court is closed at the
+   * start time, or if the start time is not the start of a slot.
+   * @throws DAOException If something fails at database level.
+   */
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException;
+  
   /**
    * Update the given booking in the database. The booking ID must not be null, otherwise it will throw
    * IllegalArgumentException.
@@ -80,4 +186,37 @@ public interface BookingDAO
    * @throws DAOException If something fails at database level.
    */
   public void delete(Booking booking) throws DAOException;
+  
+  /**
+   * Create the given bookings in the database in JDBC batches. The booking IDs must be null, otherwise it
+   * will throw IllegalArgumentException. After creating, the DAO will set the obtained IDs in the
+   * given bookings. Either all bookings are created or none.
+   * 
+   * @param bookings The bookings to be created in the database.
+   * 
+   * @throws IllegalArgumentException If any booking ID is not null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Update the given bookings in the database in JDBC batches. The booking IDs must not be null,
+   * otherwise it will throw IllegalArgumentException. Either all bookings are updated or none.
+   * 
+   * @param bookings The bookings to be updated in the database.
+   * 
+   * @throws IllegalArgumentException If any booking ID is null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Delete the given bookings from the database in JDBC batches. After deleting, the DAO will set the
+   * IDs of the given bookings to null. Either all bookings are deleted or none.
+   * 
+   * @param bookings The bookings to be deleted from the database.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public void deleteAll(Collection<Booking> bookings) throws DAOException;
 }
@@ -7,8 +7,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Booking;
 import com.tennis.model.Court;
@@ -22,8 +26,13 @@ import com.tennis.model.Member;
 public class BookingDAOJDBC implements BookingDAO
 {
   private static final String SQL_FIND_BY_ID = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.id = ?";
+  private static final String SQL_FIND_BY_IDS = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.id IN (%s)";
   private static final String SQL_FIND_BY_COURT_AND_START_TIME = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.court = ? AND booking.start_time = ?";
   private static final String SQL_LIST_ORDER_BY_ID = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id ORDER BY booking.id";
+  private static final String SQL_LIST_AFTER_ID_ORDER_BY_ID = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.id > ? ORDER BY booking.id LIMIT ?";
+  private static final String SQL_LIST_BY_COURT_AND_PERIOD = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.court = ? AND booking.start_time >= ? AND booking.start_time < ? ORDER BY booking.start_time";
+  private static final String SQL_LIST_BY_PERIOD = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.start_time >= ? AND booking.start_time < ? ORDER BY booking.start_time, booking.court";
+  private static final String SQL_LIST_BY_MEMBER_AND_PERIOD = "SELECT booking.id AS booking_id, booking.start_time AS booking_start_time, booking.type AS booking_type, booking.observations AS booking_observations, court.id AS court_id, court.name AS court_name, court.surface AS court_surface, court.opening_time AS court_opening_time, court.closing_time AS court_closing_time, court.indoor AS court_indoor, court.lighting AS court_lighting, court.observations AS court_observations, member.id AS member_id, member.name AS member_name, member.email AS member_email, member.phone AS member_phone, member.address AS member_address, member.observations AS member_observations FROM booking LEFT JOIN court ON booking.court = court.id LEFT JOIN member ON booking.member = member.id WHERE booking.member = ? AND booking.start_time >= ? AND booking.start_time < ? ORDER BY booking.start_time";
   private static final String SQL_INSERT = "INSERT INTO booking (court, start_time, type, member, observations) VALUES (?, ?, ?, ?, ?)";
   private static final String SQL_UPDATE = "UPDATE booking SET court = ?, start_time = ?, type = ?, member = ?, observations = ? WHERE id = ?";
   private static final String SQL_DELETE = "DELETE FROM booking WHERE id = ?";
@@ -47,10 +56,30 @@ public class BookingDAOJDBC implements BookingDAO
     return find(SQL_FIND_BY_ID, id);
   }
   
+  @Override
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException
+  {
+    if (ids.isEmpty())
+    {
+      return new HashMap<>();
+    }
+    
+    IdentityMap identityMap = getIdentityMap();
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      return DAOUtil.findAll(connection, SQL_FIND_BY_IDS, daoFactory.getBatchSize(), ids, resultSet -> map(resultSet, identityMap), Booking::getId);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
   @Override
   public Booking find(Court court, Date startTime) throws DAOException
   {
-    return find(SQL_FIND_BY_COURT_AND_START_TIME, court.getId(), startTime);
+    return find(SQL_FIND_BY_COURT_AND_START_TIME, court.getId(), toSqlTimestamp(startTime));
   }
   
   /**
@@ -76,7 +105,7 @@ public class BookingDAOJDBC implements BookingDAO
     {
       if (resultSet.next())
       {
-        booking = map(resultSet);
+        booking = map(resultSet, getIdentityMap());
       }
     }
     catch (SQLException e)
@@ -99,9 +128,11 @@ public class BookingDAOJDBC implements BookingDAO
       ResultSet resultSet = statement.executeQuery();
     )
     {
+      IdentityMap identityMap = getIdentityMap();
+      
       while (resultSet.next())
       {
-        bookings.add(map(resultSet));
+        bookings.add(map(resultSet, identityMap));
       }
     }
     catch (SQLException e)
@@ -112,6 +143,101 @@ public class BookingDAOJDBC implements BookingDAO
     return bookings;
   }
   
+  @Override
+  public Stream<Booking> stream() throws DAOException
+  {
+    IdentityMap identityMap = getIdentityMap();
+    
+    try
+    {
+      return DAOUtil.stream(daoFactory.getConnection(), SQL_LIST_ORDER_BY_ID, daoFactory.getStreamFetchSize(), resultSet -> map(resultSet, identityMap));
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Fetch one more than the limit to find out whether there is a next page.
+    List<Booking> bookings = list(SQL_LIST_AFTER_ID_ORDER_BY_ID, (afterId != null) ? afterId : 0L, limit + 1);
+    
+    return Page.of(bookings, limit, Booking::getId);
+  }
+  
+  @Override
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException
+  {
+    return list(SQL_LIST_BY_COURT_AND_PERIOD, court.getId(), toSqlTimestamp(from), toSqlTimestamp(to));
+  }
+  
+  @Override
+  public List<Booking> list(Date from, Date to) throws DAOException
+  {
+    return list(SQL_LIST_BY_PERIOD, toSqlTimestamp(from), toSqlTimestamp(to));
+  }
+  
+  @Override
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException
+  {
+    return list(SQL_LIST_BY_MEMBER_AND_PERIOD, member.getId(), toSqlTimestamp(from), toSqlTimestamp(to));
+  }
+  
+  /**
+   * Returns a list of bookings from the database matching the given SQL query with the given values.
+   * 
+   * @param sql The SQL query to be executed in the database.
+   * @param values The PreparedStatement values to be set.
+   * 
+   * @return A list of bookings from the database matching the given SQL query with the given values.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private List<Booking> list(String sql, Object... values) throws DAOException
+  {
+    List<Booking> bookings = new ArrayList<>();
+    
+    try
+    (
+      Connection connection = daoFactory.getConnection();
+      PreparedStatement statement = prepareStatement(connection, sql, false, values);
+      ResultSet resultSet = statement.executeQuery();
+    )
+    {
+      IdentityMap identityMap = getIdentityMap();
+      
+      while (resultSet.next())
+      {
+        bookings.add(map(resultSet, identityMap));
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    return bookings;
+  }
+  
+  /**
+   * Returns the identity map of the unit of work of the DAOFactory, or a new identity map for a
+   * single query if the DAOFactory has none.
+   * 
+   * @return The identity map to map the courts and members of the booking rows with.
+   */
+  private IdentityMap getIdentityMap()
+  {
+    IdentityMap identityMap = daoFactory.getIdentityMap();
+    return (identityMap != null) ? identityMap : new IdentityMap();
+  }
+  
   @Override
   public void create(Booking booking) throws IllegalArgumentException, DAOException
   {
@@ -122,7 +248,7 @@ public class BookingDAOJDBC implements BookingDAO
     
     Object[] values = {
       booking.getCourt().getId(),
-      toSqlDate(booking.getStartTime()),
+      toSqlTimestamp(booking.getStartTime()),
       booking.getType(),
       booking.getMember().getId(),
       booking.getObservations()
@@ -159,6 +285,27 @@ public class BookingDAOJDBC implements BookingDAO
     }
   }
   
+  @Override
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      create(booking);
+    }
+    catch (DAOException e)
+    {
+      // The unique index on court and start time guarantees a single winner per slot.
+      if (e.getCause() instanceof SQLException && isUniqueViolation((SQLException) e.getCause()))
+      {
+        return false;
+      }
+      
+      throw e;
+    }
+    
+    return true;
+  }
+  
   @Override
   public void update(Booking booking) throws DAOException
   {
@@ -169,7 +316,7 @@ public class BookingDAOJDBC implements BookingDAO
     
     Object[] values = {
       booking.getCourt().getId(),
-      toSqlDate(booking.getStartTime()),
+      toSqlTimestamp(booking.getStartTime()),
       booking.getType(),
       booking.getMember().getId(),
       booking.getObservations(),
@@ -205,7 +352,7 @@ public class BookingDAOJDBC implements BookingDAO
     try
     (
       Connection connection = daoFactory.getConnection();
-      PreparedStatement statement = prepareStatement(connection, SQL_UPDATE, false, values);
+      PreparedStatement statement = prepareStatement(connection, SQL_DELETE, false, values);
     )
     {
       int affectedRows = statement.executeUpdate();
@@ -225,40 +372,151 @@ public class BookingDAOJDBC implements BookingDAO
     }
   }
   
+  @Override
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(bookings.size());
+    
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() != null)
+      {
+        throw new IllegalArgumentException("Booking is already created, the booking ID is not null.");
+      }
+      
+      values.add(new Object[] {
+        booking.getCourt().getId(),
+        toSqlTimestamp(booking.getStartTime()),
+        booking.getType(),
+        booking.getMember().getId(),
+        booking.getObservations()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      long[] generatedKeys = executeBatch(connection, SQL_INSERT, true, daoFactory.getBatchSize(), values, "Creating bookings failed");
+      int i = 0;
+      
+      for (Booking booking : bookings)
+      {
+        booking.setId(generatedKeys[i++]);
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(bookings.size());
+    
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() == null)
+      {
+        throw new IllegalArgumentException("Booking is not created yet, the booking ID is null.");
+      }
+      
+      values.add(new Object[] {
+        booking.getCourt().getId(),
+        toSqlTimestamp(booking.getStartTime()),
+        booking.getType(),
+        booking.getMember().getId(),
+        booking.getObservations(),
+        booking.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_UPDATE, false, daoFactory.getBatchSize(), values, "Updating bookings failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Booking> bookings) throws DAOException
+  {
+    List<Object[]> values = new ArrayList<>(bookings.size());
+    
+    for (Booking booking : bookings)
+    {
+      values.add(new Object[] {
+        booking.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_DELETE, false, daoFactory.getBatchSize(), values, "Deleting bookings failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    for (Booking booking : bookings)
+    {
+      booking.setId(null);
+    }
+  }
+  
   /**
-   * Map the current row of the given ResultSet to a Booking.
+   * Map the current row of the given ResultSet to a Booking. The court and member of the row are
+   * taken from the given identity map when it already holds them, otherwise they are mapped and put
+   * in it.
    * 
    * @param resultSet The ResultSet of which the current row is to be mapped to a Booking.
+   * @param identityMap The identity map of the courts and members mapped so far.
    * 
    * @return The mapped Booking from the current row of the given ResultSet.
    * 
    * @throws SQLException If something fails at database level.
    */
-  private static Booking map(ResultSet resultSet) throws SQLException
+  private static Booking map(ResultSet resultSet, IdentityMap identityMap) throws SQLException
   {
     Booking booking = new Booking();
-    Court court = new Court();
-    Member member = new Member();
+    Long courtId = resultSet.getLong("court_id");
+    Long memberId = resultSet.getLong("member_id");
+    Court court = identityMap.getCourt(courtId);
+    Member member = identityMap.getMember(memberId);
     
-    court.setId(resultSet.getLong("court_id"));
-    court.setName(resultSet.getString("court_name"));
-    court.setSurface(resultSet.getString("court_surface"));
-    court.setOpeningTime(toLocalTime(resultSet.getTime("court_opening_time")));
-    court.setClosingTime(toLocalTime(resultSet.getTime("court_closing_time")));
-    court.setIndoor(resultSet.getBoolean("court_indoor"));
-    court.setLighting(resultSet.getBoolean("court_lighting"));
-    court.setObservations(resultSet.getString("court_observations"));
-           
-    member.setId(resultSet.getLong("member_id"));
-    member.setName(resultSet.getString("member_name"));
-    member.setEmail(resultSet.getString("member_email"));
-    member.setPhone(resultSet.getString("member_phone"));
-    member.setAddress(resultSet.getString("member_address"));
-    member.setObservations(resultSet.getString("member_observations"));
+    if (court == null)
+    {
+      court = new Court();
+      court.setId(courtId);
+      court.setName(resultSet.getString("court_name"));
+      court.setSurface(resultSet.getString("court_surface"));
+      court.setOpeningTime(toLocalTime(resultSet.getTime("court_opening_time")));
+      court.setClosingTime(toLocalTime(resultSet.getTime("court_closing_time")));
+      court.setIndoor(resultSet.getBoolean("court_indoor"));
+      court.setLighting(resultSet.getBoolean("court_lighting"));
+      court.setObservations(resultSet.getString("court_observations"));
+      identityMap.putCourt(court);
+    }
+    
+    if (member == null)
+    {
+      member = new Member();
+      member.setId(memberId);
+      member.setName(resultSet.getString("member_name"));
+      member.setEmail(resultSet.getString("member_email"));
+      member.setPhone(resultSet.getString("member_phone"));
+      member.setAddress(resultSet.getString("member_address"));
+      member.setObservations(resultSet.getString("member_observations"));
+      identityMap.putMember(member);
+    }
     
     booking.setId(resultSet.getLong("booking_id"));
     booking.setCourt(court);
-    booking.setStartTime(resultSet.getDate("booking_start_time"));
+    booking.setStartTime(resultSet.getTimestamp("booking_start_time"));
     booking.setType(resultSet.getString("booking_type"));
     booking.setMember(member);
     booking.setObservations(resultSet.getString("booking_observations"));
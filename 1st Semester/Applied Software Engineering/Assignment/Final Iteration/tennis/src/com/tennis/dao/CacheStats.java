@@ -0,0 +1,154 @@
+package com.tennis.dao;
+
+import java.io.Serializable;
+
+/**
+ * This class represents an immutable snapshot of the statistics of a DAO cache, as returned by
+ * {@link DAOFactory#getMemberCacheStats()}.
+ * 
+ * @author Atidivya
+ */
+public class CacheStats implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  
+  private final int size;
+  private final int maximumSize;
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long rejectionCount;
+  private final long loadCount;
+  private final long totalLoadNanos;
+  
+  /**
+   * Construct a snapshot of the given cache statistics. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param size The amount of cached entries.
+   * @param maximumSize The maximum amount of cached entries.
+   * @param hitCount The amount of lookups served from the cache.
+   * @param missCount The amount of lookups which had to go to the database.
+   * @param evictionCount The amount of evicted entries.
+   * @param rejectionCount The amount of loaded values not admitted to the cache.
+   * @param loadCount The amount of values loaded from the database.
+   * @param totalLoadNanos The total nanoseconds it took to load the values from the database.
+   */
+  CacheStats(int size, int maximumSize, long hitCount, long missCount, long evictionCount, long rejectionCount, long loadCount, long totalLoadNanos)
+  {
+    this.size = size;
+    this.maximumSize = maximumSize;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.rejectionCount = rejectionCount;
+    this.loadCount = loadCount;
+    this.totalLoadNanos = totalLoadNanos;
+  }
+  
+  /**
+   * Returns the amount of cached entries.
+   * 
+   * @return The amount of cached entries.
+   */
+  public int getSize()
+  {
+    return size;
+  }
+  
+  /**
+   * Returns the maximum amount of cached entries.
+   * 
+   * @return The maximum amount of cached entries.
+   */
+  public int getMaximumSize()
+  {
+    return maximumSize;
+  }
+  
+  /**
+   * Returns the amount of lookups served from the cache.
+   * 
+   * @return The amount of lookups served from the cache.
+   */
+  public long getHitCount()
+  {
+    return hitCount;
+  }
+  
+  /**
+   * Returns the amount of lookups which had to go to the database.
+   * 
+   * @return The amount of lookups which had to go to the database.
+   */
+  public long getMissCount()
+  {
+    return missCount;
+  }
+  
+  /**
+   * Returns the ratio of lookups served from the cache, 1 when there were no lookups at all.
+   * 
+   * @return The ratio of lookups served from the cache.
+   */
+  public double getHitRatio()
+  {
+    long requestCount = hitCount + missCount;
+    return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+  }
+  
+  /**
+   * Returns the amount of entries evicted to make room for a more frequently used one.
+   * 
+   * @return The amount of evicted entries.
+   */
+  public long getEvictionCount()
+  {
+    return evictionCount;
+  }
+  
+  /**
+   * Returns the amount of loaded values not admitted to the full cache, because their key was used
+   * less often than the key of the entry they would have evicted.
+   * 
+   * @return The amount of loaded values not admitted to the cache.
+   */
+  public long getRejectionCount()
+  {
+    return rejectionCount;
+  }
+  
+  /**
+   * Returns the amount of values loaded from the database on a miss.
+   * 
+   * @return The amount of values loaded from the database.
+   */
+  public long getLoadCount()
+  {
+    return loadCount;
+  }
+  
+  /**
+   * Returns the average nanoseconds it took to load a value from the database, 0 when there were no
+   * loads at all.
+   * 
+   * @return The average nanoseconds it took to load a value from the database.
+   */
+  public long getAverageLoadNanos()
+  {
+    return (loadCount == 0) ? 0 : totalLoadNanos / loadCount;
+  }
+  
+  /**
+   * Returns the String representation of this CacheStats. Not required, it just pleases reading
+   * logs.
+   * 
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString()
+  {
+    return String.format("CacheStats[size=%d/%d, hitRatio=%.3f, hits=%d, misses=%d, evictions=%d, rejections=%d, loads=%d, averageLoadNanos=%d]",
+            size, maximumSize, getHitRatio(), hitCount, missCount, evictionCount, rejectionCount, loadCount, getAverageLoadNanos());
+  }
+}
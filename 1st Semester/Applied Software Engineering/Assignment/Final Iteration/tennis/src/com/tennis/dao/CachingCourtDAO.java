@@ -0,0 +1,303 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.tennis.model.Court;
+
+/**
+ * This class represents a {@link CourtDAO} which serves the reads from an in-memory snapshot of all
+ * courts, loaded through the underlying Court DAO on first use. Courts change rarely but are read on
+ * every booking screen, so <code>find</code>, <code>list</code>, <code>stream</code> and
+ * <code>existName</code> need no connection at all once the snapshot is loaded.
+ * <p>
+ * The snapshot is immutable and replaced as a whole. It is dropped after every write through this
+ * DAO and reloaded by the next read. When other nodes write to the same database, a time to live
+ * can be given after which the snapshot is reloaded as well. The courts handed out are copies, so a
+ * caller modifying them does not affect the snapshot.
+ * <p>
+ * Like the unique index on the court name under the default collation of MySQL,
+ * <code>existName</code> ignores the case of the name.
+ * 
+ * @author Atidivya
+ */
+class CachingCourtDAO implements CourtDAO
+{
+  private final CourtDAO courtDAO;
+  private final long ttlNanos;
+  private volatile Snapshot snapshot;
+  
+  /**
+   * Construct a caching Court DAO for the given Court DAO. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param courtDAO The Court DAO to load the snapshot from and to delegate the writes to.
+   * @param ttlMillis The milliseconds after which the snapshot is reloaded, 0 to keep it until the
+   * next write.
+   */
+  CachingCourtDAO(CourtDAO courtDAO, long ttlMillis)
+  {
+    this.courtDAO = courtDAO;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+  }
+  
+  @Override
+  public Court find(Long id) throws DAOException
+  {
+    Court court = snapshot().byId.get(id);
+    return (court != null) ? copy(court) : null;
+  }
+  
+  @Override
+  public Map<Long, Court> findAll(Collection<Long> ids) throws DAOException
+  {
+    NavigableMap<Long, Court> byId = snapshot().byId;
+    Map<Long, Court> courts = new HashMap<>();
+    
+    for (Long id : ids)
+    {
+      Court court = (id != null) ? byId.get(id) : null;
+      
+      if (court != null)
+      {
+        courts.put(id, copy(court));
+      }
+    }
+    
+    return courts;
+  }
+  
+  @Override
+  public List<Court> list() throws DAOException
+  {
+    return copyAll(snapshot().byId.values());
+  }
+  
+  @Override
+  public Stream<Court> stream() throws DAOException
+  {
+    return list().stream();
+  }
+  
+  @Override
+  public Page<Court> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    List<Court> courts = new ArrayList<>();
+    
+    // Take one more than the limit to find out whether there is a next page.
+    for (Court court : snapshot().byId.tailMap((afterId != null) ? afterId : 0L, false).values())
+    {
+      if (courts.size() > limit)
+      {
+        break;
+      }
+      
+      courts.add(copy(court));
+    }
+    
+    return Page.of(courts, limit, Court::getId);
+  }
+  
+  @Override
+  public void create(Court court) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.create(court);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public void update(Court court) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.update(court);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public void delete(Court court) throws DAOException
+  {
+    try
+    {
+      courtDAO.delete(court);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.createAll(courts);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.updateAll(courts);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Court> courts) throws DAOException
+  {
+    try
+    {
+      courtDAO.deleteAll(courts);
+    }
+    finally
+    {
+      invalidate();
+    }
+  }
+  
+  @Override
+  public boolean existName(String name) throws DAOException
+  {
+    return name != null && snapshot().names.contains(nameKey(name));
+  }
+  
+  /**
+   * Returns the key of the given court name in the snapshot, which ignores the case of the name.
+   * 
+   * @param name The court name.
+   * 
+   * @return The key of the given court name in the snapshot.
+   */
+  private static String nameKey(String name)
+  {
+    return name.toLowerCase(Locale.ROOT);
+  }
+  
+  /**
+   * Drops the snapshot, so that the next read reloads it. To be invoked after the courts have been
+   * changed without this DAO.
+   */
+  synchronized void invalidate()
+  {
+    snapshot = null;
+  }
+  
+  /**
+   * Returns the current snapshot, loading it first when there is none or when it has expired. Only
+   * one thread loads, the others wait for its snapshot. Because {@link #invalidate()} waits for a
+   * running load as well, a load which has read the courts before a write cannot outlive it.
+   * 
+   * @return The current snapshot.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private Snapshot snapshot() throws DAOException
+  {
+    Snapshot current = snapshot;
+    
+    if (current == null || current.isExpired())
+    {
+      synchronized (this)
+      {
+        current = snapshot;
+        
+        if (current == null || current.isExpired())
+        {
+          current = new Snapshot(courtDAO.list(), ttlNanos);
+          snapshot = current;
+        }
+      }
+    }
+    
+    return current;
+  }
+  
+  /**
+   * Returns copies of the given courts.
+   * 
+   * @param courts The courts to be copied.
+   * 
+   * @return Copies of the given courts.
+   */
+  private static List<Court> copyAll(Collection<Court> courts)
+  {
+    List<Court> copies = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      copies.add(copy(court));
+    }
+    
+    return copies;
+  }
+  
+  /**
+   * An immutable snapshot of all courts, indexed by ID and by name key.
+   */
+  private static final class Snapshot
+  {
+    private final NavigableMap<Long, Court> byId;
+    private final Set<String> names;
+    private final long expiresAt;
+    
+    private Snapshot(List<Court> courts, long ttlNanos)
+    {
+      NavigableMap<Long, Court> byId = new TreeMap<>();
+      Set<String> names = new HashSet<>();
+      
+      for (Court court : courts)
+      {
+        byId.put(court.getId(), court);
+        names.add(nameKey(court.getName()));
+      }
+      
+      this.byId = Collections.unmodifiableNavigableMap(byId);
+      this.names = Collections.unmodifiableSet(names);
+      this.expiresAt = (ttlNanos > 0) ? System.nanoTime() + ttlNanos : 0;
+    }
+    
+    private boolean isExpired()
+    {
+      return expiresAt != 0 && System.nanoTime() - expiresAt > 0;
+    }
+  }
+}
@@ -0,0 +1,280 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.tennis.model.Member;
+
+/**
+ * This class represents a {@link MemberDAO} which serves {@link #find(Long)} from a size bounded
+ * {@link TinyLfuCache} of members. The members are too many to keep them all in memory, so only the
+ * frequently looked up ones are kept, such as the members logging in or confirming bookings. All
+ * other methods go to the underlying Member DAO.
+ * <p>
+ * An updated or deleted member is removed from the cache. A find which loaded the member before the
+ * change and completes after it does not put its stale member in the cache. The members handed out
+ * are copies, so a caller modifying them does not affect the cache.
+ * 
+ * @author Atidivya
+ */
+class CachingMemberDAO implements MemberDAO
+{
+  private final MemberDAO memberDAO;
+  private final TinyLfuCache<Long, Member> cache;
+  private volatile long generation;
+  
+  /**
+   * Construct a caching Member DAO for the given Member DAO. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param memberDAO The Member DAO to load the members from and to delegate the other calls to.
+   * @param maximumSize The maximum amount of cached members.
+   * 
+   * @throws IllegalArgumentException If the maximum size is less than 1.
+   */
+  CachingMemberDAO(MemberDAO memberDAO, int maximumSize)
+  {
+    this.memberDAO = memberDAO;
+    this.cache = new TinyLfuCache<>(maximumSize);
+  }
+  
+  @Override
+  public Member find(Long id) throws DAOException
+  {
+    if (id == null)
+    {
+      return memberDAO.find(id);
+    }
+    
+    Member member = cache.get(id);
+    
+    if (member == null)
+    {
+      long loadGeneration = generation;
+      long start = System.nanoTime();
+      member = memberDAO.find(id);
+      cache.recordLoad(System.nanoTime() - start);
+      
+      if (member == null)
+      {
+        return null;
+      }
+      
+      synchronized (cache)
+      {
+        // Don't cache a member which was read before a concurrent update or delete.
+        if (generation == loadGeneration)
+        {
+          cache.put(id, copy(member));
+        }
+      }
+      
+      return member;
+    }
+    
+    return copy(member);
+  }
+  
+  @Override
+  public Map<Long, Member> findAll(Collection<Long> ids) throws DAOException
+  {
+    Map<Long, Member> members = new HashMap<>();
+    List<Long> missingIds = new ArrayList<>();
+    
+    for (Long id : ids)
+    {
+      Member member = (id != null) ? cache.get(id) : null;
+      
+      if (member != null)
+      {
+        members.put(id, copy(member));
+      }
+      else if (id != null)
+      {
+        missingIds.add(id);
+      }
+    }
+    
+    if (!missingIds.isEmpty())
+    {
+      long loadGeneration = generation;
+      long start = System.nanoTime();
+      Map<Long, Member> loaded = memberDAO.findAll(missingIds);
+      cache.recordLoad(System.nanoTime() - start);
+      
+      synchronized (cache)
+      {
+        // Don't cache members which were read before a concurrent update or delete.
+        if (generation == loadGeneration)
+        {
+          for (Member member : loaded.values())
+          {
+            cache.put(member.getId(), copy(member));
+          }
+        }
+      }
+      
+      members.putAll(loaded);
+    }
+    
+    return members;
+  }
+  
+  @Override
+  public List<Member> list() throws DAOException
+  {
+    return memberDAO.list();
+  }
+  
+  @Override
+  public Stream<Member> stream() throws DAOException
+  {
+    return memberDAO.stream();
+  }
+  
+  @Override
+  public Page<Member> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    return memberDAO.list(afterId, limit);
+  }
+  
+  @Override
+  public void create(Member member) throws IllegalArgumentException, DAOException
+  {
+    memberDAO.create(member);
+  }
+  
+  @Override
+  public void update(Member member) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      memberDAO.update(member);
+    }
+    finally
+    {
+      invalidate(member.getId());
+    }
+  }
+  
+  @Override
+  public void delete(Member member) throws DAOException
+  {
+    Long id = member.getId();
+    
+    try
+    {
+      memberDAO.delete(member);
+    }
+    finally
+    {
+      invalidate(id);
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    memberDAO.createAll(members);
+  }
+  
+  @Override
+  public void updateAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      memberDAO.updateAll(members);
+    }
+    finally
+    {
+      invalidate(ids(members));
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Member> members) throws DAOException
+  {
+    List<Long> ids = ids(members);
+    
+    try
+    {
+      memberDAO.deleteAll(members);
+    }
+    finally
+    {
+      invalidate(ids);
+    }
+  }
+  
+  /**
+   * Returns a snapshot of the statistics of the cache.
+   * 
+   * @return A snapshot of the statistics of the cache.
+   */
+  CacheStats getStats()
+  {
+    return cache.stats();
+  }
+  
+  /**
+   * Removes all members from the cache. To be invoked after the members have been changed without
+   * this DAO.
+   */
+  void invalidate()
+  {
+    synchronized (cache)
+    {
+      generation++;
+      cache.clear();
+    }
+  }
+  
+  /**
+   * Removes the member with the given ID from the cache.
+   */
+  private void invalidate(Long id)
+  {
+    invalidate(Collections.singletonList(id));
+  }
+  
+  /**
+   * Removes the members with the given IDs from the cache.
+   */
+  private void invalidate(List<Long> ids)
+  {
+    synchronized (cache)
+    {
+      generation++;
+      
+      for (Long id : ids)
+      {
+        if (id != null)
+        {
+          cache.remove(id);
+        }
+      }
+    }
+  }
+  
+  /**
+   * Returns the IDs of the given members.
+   */
+  private static List<Long> ids(Collection<Member> members)
+  {
+    List<Long> ids = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      ids.add(member.getId());
+    }
+    
+    return ids;
+  }
+}
@@ -0,0 +1,155 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.tennis.model.Holiday;
+
+/**
+ * This class represents a {@link HolidayDAO} which answers {@link #existDate(Date)} from the
+ * {@link HolidayCalendar} and keeps the calendar and the {@link CourtAvailability} in sync with the
+ * holidays created, updated and deleted through the underlying Holiday DAO.
+ * 
+ * @author Atidivya
+ */
+class CalendarHolidayDAO implements HolidayDAO
+{
+  private HolidayDAO holidayDAO;
+  private HolidayCalendar holidayCalendar;
+  private CourtAvailability courtAvailability;
+  
+  /**
+   * Construct a Holiday DAO which keeps the given calendar and court availability in sync with the
+   * given Holiday DAO. Package private so that it can be constructed inside the DAO package only.
+   * 
+   * @param holidayDAO The Holiday DAO to delegate to.
+   * @param holidayCalendar The holiday calendar to answer existDate from and to keep in sync.
+   * @param courtAvailability The court availability to keep in sync.
+   */
+  CalendarHolidayDAO(HolidayDAO holidayDAO, HolidayCalendar holidayCalendar, CourtAvailability courtAvailability)
+  {
+    this.holidayDAO = holidayDAO;
+    this.holidayCalendar = holidayCalendar;
+    this.courtAvailability = courtAvailability;
+  }
+  
+  @Override
+  public Holiday find(Long id) throws DAOException
+  {
+    return holidayDAO.find(id);
+  }
+  
+  @Override
+  public List<Holiday> list() throws DAOException
+  {
+    return holidayDAO.list();
+  }
+  
+  @Override
+  public Stream<Holiday> stream() throws DAOException
+  {
+    return holidayDAO.stream();
+  }
+  
+  @Override
+  public Page<Holiday> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    return holidayDAO.list(afterId, limit);
+  }
+  
+  @Override
+  public void create(Holiday holiday) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      holidayDAO.create(holiday);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public void update(Holiday holiday) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      holidayDAO.update(holiday);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public void delete(Holiday holiday) throws DAOException
+  {
+    try
+    {
+      holidayDAO.delete(holiday);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      holidayDAO.createAll(holidays);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      holidayDAO.updateAll(holidays);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Holiday> holidays) throws DAOException
+  {
+    try
+    {
+      holidayDAO.deleteAll(holidays);
+    }
+    finally
+    {
+      changed();
+    }
+  }
+  
+  @Override
+  public boolean existDate(Date date) throws DAOException
+  {
+    return holidayCalendar.isHoliday(date);
+  }
+  
+  /**
+   * Reloads the calendar on next use and forgets all court days, since a changed holiday may open or
+   * close any of them.
+   */
+  private void changed()
+  {
+    holidayCalendar.invalidate();
+    courtAvailability.invalidate();
+  }
+}
@@ -0,0 +1,206 @@
+package com.tennis.dao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents a {@link BookingDAO} which coalesces concurrent identical finds. When many
+ * threads look up the same booking, or the same court and start time, at once, such as during the
+ * weekly slot release, they share one query of the underlying Booking DAO through a
+ * {@link SingleFlight}. All other methods go to the underlying Booking DAO.
+ * <p>
+ * The caller which ran the query gets its booking as is, the callers which shared it get a copy.
+ * Every write through this DAO is reported to the coalescers, so that a find after it does not
+ * share a query which started before it.
+ * 
+ * @author Atidivya
+ */
+class CoalescingBookingDAO implements BookingDAO
+{
+  private BookingDAO bookingDAO;
+  private SingleFlight<Long, Booking> findFlights;
+  private SingleFlight<List<Long>, Booking> slotFlights;
+  
+  /**
+   * Construct a coalescing Booking DAO for the given Booking DAO. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param bookingDAO The Booking DAO to delegate to.
+   * @param findFlights The coalescer of the finds by ID, shared by all Booking DAO's of a DAOFactory.
+   * @param slotFlights The coalescer of the finds by court and start time, shared by all Booking
+   * DAO's of a DAOFactory.
+   */
+  CoalescingBookingDAO(BookingDAO bookingDAO, SingleFlight<Long, Booking> findFlights, SingleFlight<List<Long>, Booking> slotFlights)
+  {
+    this.bookingDAO = bookingDAO;
+    this.findFlights = findFlights;
+    this.slotFlights = slotFlights;
+  }
+  
+  @Override
+  public Booking find(Long id) throws DAOException
+  {
+    return (id != null) ? findFlights.execute(id, () -> bookingDAO.find(id), DAOUtil::copy) : bookingDAO.find(id);
+  }
+  
+  @Override
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException
+  {
+    return bookingDAO.findAll(ids);
+  }
+  
+  @Override
+  public Booking find(Court court, Date startTime) throws DAOException
+  {
+    if (court == null || court.getId() == null || startTime == null)
+    {
+      return bookingDAO.find(court, startTime);
+    }
+    
+    return slotFlights.execute(Arrays.asList(court.getId(), startTime.getTime()), () -> bookingDAO.find(court, startTime), DAOUtil::copy);
+  }
+  
+  @Override
+  public List<Booking> list() throws DAOException
+  {
+    return bookingDAO.list();
+  }
+  
+  @Override
+  public Stream<Booking> stream() throws DAOException
+  {
+    return bookingDAO.stream();
+  }
+  
+  @Override
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    return bookingDAO.list(afterId, limit);
+  }
+  
+  @Override
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException
+  {
+    return bookingDAO.list(court, from, to);
+  }
+  
+  @Override
+  public List<Booking> list(Date from, Date to) throws DAOException
+  {
+    return bookingDAO.list(from, to);
+  }
+  
+  @Override
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException
+  {
+    return bookingDAO.listByMember(member, from, to);
+  }
+  
+  @Override
+  public void create(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      bookingDAO.create(booking);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      return bookingDAO.reserve(booking);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void update(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      bookingDAO.update(booking);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void delete(Booking booking) throws DAOException
+  {
+    try
+    {
+      bookingDAO.delete(booking);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      bookingDAO.createAll(bookings);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      bookingDAO.updateAll(bookings);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Booking> bookings) throws DAOException
+  {
+    try
+    {
+      bookingDAO.deleteAll(bookings);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  /**
+   * Reports a write through this DAO to the coalescers of the finds.
+   */
+  private void written()
+  {
+    findFlights.written();
+    slotFlights.written();
+  }
+}
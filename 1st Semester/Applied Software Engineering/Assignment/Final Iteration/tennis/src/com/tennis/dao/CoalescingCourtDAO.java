@@ -0,0 +1,160 @@
+package com.tennis.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.tennis.model.Court;
+
+/**
+ * This class represents a {@link CourtDAO} which coalesces concurrent finds of the same court. The
+ * threads looking up the same court at once share one query of the underlying Court DAO through a
+ * {@link SingleFlight}. All other methods go to the underlying Court DAO.
+ * <p>
+ * The caller which ran the query gets its court as is, the callers which shared it get a copy.
+ * Every write through this DAO is reported to the coalescer, so that a find after it does not share
+ * a query which started before it.
+ * 
+ * @author Atidivya
+ */
+class CoalescingCourtDAO implements CourtDAO
+{
+  private CourtDAO courtDAO;
+  private SingleFlight<Long, Court> findFlights;
+  
+  /**
+   * Construct a coalescing Court DAO for the given Court DAO. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param courtDAO The Court DAO to delegate to.
+   * @param findFlights The coalescer of the finds by ID, shared by all Court DAO's of a DAOFactory.
+   */
+  CoalescingCourtDAO(CourtDAO courtDAO, SingleFlight<Long, Court> findFlights)
+  {
+    this.courtDAO = courtDAO;
+    this.findFlights = findFlights;
+  }
+  
+  @Override
+  public Court find(Long id) throws DAOException
+  {
+    return (id != null) ? findFlights.execute(id, () -> courtDAO.find(id), DAOUtil::copy) : courtDAO.find(id);
+  }
+  
+  @Override
+  public Map<Long, Court> findAll(Collection<Long> ids) throws DAOException
+  {
+    return courtDAO.findAll(ids);
+  }
+  
+  @Override
+  public List<Court> list() throws DAOException
+  {
+    return courtDAO.list();
+  }
+  
+  @Override
+  public Stream<Court> stream() throws DAOException
+  {
+    return courtDAO.stream();
+  }
+  
+  @Override
+  public Page<Court> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    return courtDAO.list(afterId, limit);
+  }
+  
+  @Override
+  public void create(Court court) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.create(court);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void update(Court court) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.update(court);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void delete(Court court) throws DAOException
+  {
+    try
+    {
+      courtDAO.delete(court);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void createAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.createAll(courts);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      courtDAO.updateAll(courts);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Court> courts) throws DAOException
+  {
+    try
+    {
+      courtDAO.deleteAll(courts);
+    }
+    finally
+    {
+      written();
+    }
+  }
+  
+  @Override
+  public boolean existName(String name) throws DAOException
+  {
+    return courtDAO.existName(name);
+  }
+  
+  /**
+   * Reports a write through this DAO to the coalescer of the finds.
+   */
+  private void written()
+  {
+    findFlights.written();
+  }
+}
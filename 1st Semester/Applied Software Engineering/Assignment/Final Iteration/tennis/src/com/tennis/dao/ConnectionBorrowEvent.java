@@ -0,0 +1,37 @@
+package com.tennis.dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Java Flight Recorder event of a borrow from the {@link ConnectionPool}.
+ * Its duration is the time the borrower waited for a connection, including the validation of an
+ * idle connection or the opening of a new one.
+ * 
+ * @author Atidivya
+ */
+@Name("com.tennis.dao.ConnectionBorrow")
+@Label("Connection Borrow")
+@Category({ "Tennis", "Connection Pool" })
+@Description("A borrow of a connection from the pool")
+final class ConnectionBorrowEvent extends Event
+{
+  @Label("Pool Size")
+  @Description("The amount of physical connections of the pool")
+  int poolSize;
+  
+  @Label("Idle")
+  @Description("The amount of idle connections left in the pool")
+  int idle;
+  
+  @Label("Opened")
+  @Description("Whether a new physical connection was opened")
+  boolean opened;
+  
+  @Label("Failed")
+  @Description("Whether no connection was obtained, for example after the borrow timeout")
+  boolean failed;
+}
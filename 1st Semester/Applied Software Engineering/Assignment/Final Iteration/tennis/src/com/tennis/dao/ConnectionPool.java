@@ -0,0 +1,664 @@
+package com.tennis.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a bounded pool of JDBC connections obtained from the DriverManager. The
+ * connections handed out by {@link #borrow()} are wrappers around the physical connection whose
+ * <code>close()</code> returns the physical connection to the pool instead of closing the socket,
+ * so the DAO's can keep using try-with-resources as they always did.
+ * <p>
+ * The pool never holds more than the maximum amount of physical connections. A borrower waits at
+ * most the borrow timeout for a free connection. Idle connections are validated on borrow, unless
+ * they were returned only a moment ago, and are evicted after the idle timeout as long as the pool
+ * keeps at least the minimum amount of connections open. A connection of which a call fails with
+ * an SQL state of class 08, also a call of one of its statements or result sets, is closed on
+ * return instead of being kept, so that it is not handed out again without validation.
+ * <p>
+ * When a statement cache size is given, each physical connection keeps its own
+ * {@link StatementCache}, so the PreparedStatements of the DAO's are prepared only once per
+ * physical connection instead of on every DAO call.
+ * <p>
+ * Every borrow and return emits a Java Flight Recorder event, {@link ConnectionBorrowEvent} and
+ * {@link ConnectionReturnEvent}, which costs next to nothing when no recording runs.
+ * 
+ * @author Atidivya
+ */
+final class ConnectionPool
+{
+  private static final long VALIDATION_BYPASS_MILLIS = 500;
+  
+  private final String url;
+  private final String username;
+  private final String password;
+  private final int min;
+  private final int max;
+  private final long idleTimeoutMillis;
+  private final long borrowTimeoutMillis;
+  private final int validationTimeoutSeconds;
+  private final int statementCacheSize;
+  
+  private final Semaphore permits;
+  private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final ScheduledExecutorService evictor;
+  private final LongAdder statementCacheHits = new LongAdder();
+  private final LongAdder statementCacheMisses = new LongAdder();
+  private volatile boolean closed;
+  
+  /**
+   * Construct a connection pool for the given DriverManager login with the given limits.
+   * 
+   * @param url The JDBC URL of the database.
+   * @param username The username of the database login.
+   * @param password The password of the database login.
+   * @param min The minimum amount of connections to keep open, also when idle.
+   * @param max The maximum amount of connections which can be open at the same time.
+   * @param idleTimeoutMillis The time after which an idle connection is closed, 0 to never close.
+   * @param borrowTimeoutMillis The maximum time to wait for a free connection.
+   * @param validationTimeoutSeconds The maximum time to wait for the validation of a connection.
+   * @param statementCacheSize The maximum amount of cached statements per connection, 0 to disable.
+   * 
+   * @throws IllegalArgumentException If the limits are not consistent.
+   */
+  ConnectionPool(String url, String username, String password, int min, int max, long idleTimeoutMillis, long borrowTimeoutMillis, int validationTimeoutSeconds, int statementCacheSize)
+  {
+    if (max < 1 || min < 0 || min > max)
+    {
+      throw new IllegalArgumentException("Pool size must satisfy 0 <= min <= max and max >= 1, but was min=" + min + ", max=" + max + ".");
+    }
+    
+    this.url = url;
+    this.username = username;
+    this.password = password;
+    this.min = min;
+    this.max = max;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.borrowTimeoutMillis = borrowTimeoutMillis;
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+    this.statementCacheSize = statementCacheSize;
+    this.permits = new Semaphore(max, true);
+    
+    if (idleTimeoutMillis > 0 || min > 0)
+    {
+      long period = (idleTimeoutMillis > 0) ? Math.max(idleTimeoutMillis / 2, 1000) : 30000;
+      
+      evictor = Executors.newSingleThreadScheduledExecutor(runnable ->
+      {
+        Thread thread = new Thread(runnable, "tennis-connection-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+      });
+      evictor.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+    else
+    {
+      evictor = null;
+    }
+  }
+  
+  /**
+   * Returns a connection from the pool, opening a new physical connection when no idle connection
+   * is available and the pool is not yet full. Closing the returned connection returns it to the
+   * pool.
+   * 
+   * @return A connection from the pool.
+   * 
+   * @throws SQLException If the pool is closed, or if no connection becomes available within the
+   * borrow timeout, or if opening a new physical connection fails.
+   */
+  Connection borrow() throws SQLException
+  {
+    ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+    event.begin();
+    
+    try
+    {
+      Connection connection = acquire(event);
+      borrowed(event, false);
+      return connection;
+    }
+    catch (SQLException | RuntimeException e)
+    {
+      borrowed(event, true);
+      throw e;
+    }
+  }
+  
+  /**
+   * Returns a connection from the pool for {@link #borrow()}, marking the given event when a new
+   * physical connection is opened.
+   */
+  private Connection acquire(ConnectionBorrowEvent event) throws SQLException
+  {
+    try
+    {
+      if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+      {
+        throw new SQLTransientConnectionException("No connection available within " + borrowTimeoutMillis + " ms, all " + max + " connections of the pool are in use.");
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a connection from the pool.", e);
+    }
+    
+    try
+    {
+      if (closed)
+      {
+        throw new SQLException("Connection pool is closed.");
+      }
+      
+      PooledConnection pooled;
+      
+      while ((pooled = idle.pollFirst()) != null)
+      {
+        if (isUsable(pooled))
+        {
+          return pooled.lease();
+        }
+        
+        discard(pooled);
+      }
+      
+      event.opened = true;
+      return open().lease();
+    }
+    catch (SQLException | RuntimeException e)
+    {
+      permits.release();
+      throw e;
+    }
+  }
+  
+  /**
+   * Ends the given borrow event and commits it when it passes the threshold of the recording.
+   */
+  private void borrowed(ConnectionBorrowEvent event, boolean failed)
+  {
+    event.end();
+    
+    if (event.shouldCommit())
+    {
+      event.poolSize = size.get();
+      event.idle = idle.size();
+      event.failed = failed;
+      event.commit();
+    }
+  }
+  
+  /**
+   * Closes all idle connections and stops the evictor. Connections which are still borrowed are
+   * closed when they are returned, and any later borrow fails.
+   */
+  void close()
+  {
+    closed = true;
+    
+    if (evictor != null)
+    {
+      evictor.shutdownNow();
+    }
+    
+    PooledConnection pooled;
+    
+    while ((pooled = idle.pollFirst()) != null)
+    {
+      discard(pooled);
+    }
+  }
+  
+  /**
+   * Returns the amount of physical connections which are currently open.
+   * 
+   * @return The amount of physical connections which are currently open.
+   */
+  int size()
+  {
+    return size.get();
+  }
+  
+  /**
+   * Returns the maximum amount of physical connections of this pool.
+   * 
+   * @return The maximum amount of physical connections of this pool.
+   */
+  int getMax()
+  {
+    return max;
+  }
+  
+  /**
+   * Returns the amount of statements which were served from the statement caches.
+   * 
+   * @return The amount of statements which were served from the statement caches.
+   */
+  long getStatementCacheHits()
+  {
+    return statementCacheHits.sum();
+  }
+  
+  /**
+   * Returns the amount of statements which had to be prepared on the physical connections.
+   * 
+   * @return The amount of statements which had to be prepared on the physical connections.
+   */
+  long getStatementCacheMisses()
+  {
+    return statementCacheMisses.sum();
+  }
+  
+  /**
+   * Opens a new physical connection.
+   * 
+   * @return The new physical connection, wrapped as pooled connection.
+   * 
+   * @throws SQLException If opening the physical connection fails.
+   */
+  private PooledConnection open() throws SQLException
+  {
+    Connection connection = DriverManager.getConnection(url, username, password);
+    PooledConnection pooled;
+    
+    try
+    {
+      pooled = new PooledConnection(connection);
+    }
+    catch (SQLException e)
+    {
+      connection.close();
+      throw e;
+    }
+    
+    size.incrementAndGet();
+    return pooled;
+  }
+  
+  /**
+   * Returns true if the given idle connection can be handed out again.
+   * 
+   * @param pooled The idle connection to be checked.
+   * 
+   * @return True if the given idle connection can be handed out again.
+   */
+  private boolean isUsable(PooledConnection pooled)
+  {
+    long idleMillis = System.currentTimeMillis() - pooled.lastReturned;
+    
+    if (idleTimeoutMillis > 0 && idleMillis > idleTimeoutMillis)
+    {
+      return false;
+    }
+    
+    if (idleMillis < VALIDATION_BYPASS_MILLIS)
+    {
+      return true;
+    }
+    
+    try
+    {
+      return pooled.connection.isValid(validationTimeoutSeconds);
+    }
+    catch (SQLException e)
+    {
+      return false;
+    }
+  }
+  
+  /**
+   * Returns the given borrowed connection to the pool, or closes it when it is broken or when the
+   * pool is closed.
+   * 
+   * @param pooled The borrowed connection to be returned.
+   * @param borrowedAt The <code>System.nanoTime()</code> at which the connection was borrowed.
+   */
+  private void giveBack(PooledConnection pooled, long borrowedAt)
+  {
+    ConnectionReturnEvent event = new ConnectionReturnEvent();
+    event.begin();
+    
+    try
+    {
+      if (closed || pooled.broken || pooled.connection.isClosed())
+      {
+        event.discarded = true;
+        discard(pooled);
+      }
+      else
+      {
+        pooled.reset();
+        pooled.lastReturned = System.currentTimeMillis();
+        idle.offerFirst(pooled);
+        
+        // The pool may have been closed after the check, after it closed its idle connections.
+        if (closed && idle.remove(pooled))
+        {
+          event.discarded = true;
+          discard(pooled);
+        }
+      }
+    }
+    catch (SQLException e)
+    {
+      event.discarded = true;
+      discard(pooled);
+    }
+    finally
+    {
+      permits.release();
+      event.end();
+      
+      if (event.shouldCommit())
+      {
+        event.heldTime = System.nanoTime() - borrowedAt;
+        event.commit();
+      }
+    }
+  }
+  
+  /**
+   * Closes the physical connection of the given pooled connection, ignoring any failure.
+   * 
+   * @param pooled The pooled connection to be discarded.
+   */
+  private void discard(PooledConnection pooled)
+  {
+    size.decrementAndGet();
+    
+    if (pooled.statements != null)
+    {
+      pooled.statements.closeAll();
+    }
+    
+    try
+    {
+      pooled.connection.close();
+    }
+    catch (SQLException ignore)
+    {
+      // Connection is useless anyway.
+    }
+  }
+  
+  /**
+   * Closes the idle connections which exceeded the idle timeout and opens new connections until
+   * the minimum amount of connections is reached. Runs periodically on the evictor thread.
+   */
+  private void maintain()
+  {
+    if (idleTimeoutMillis > 0)
+    {
+      long now = System.currentTimeMillis();
+      
+      // The least recently used connections are at the tail of the idle deque.
+      for (Iterator<PooledConnection> iterator = idle.descendingIterator(); iterator.hasNext() && size.get() > min;)
+      {
+        PooledConnection pooled = iterator.next();
+        
+        if (now - pooled.lastReturned > idleTimeoutMillis && idle.removeLastOccurrence(pooled))
+        {
+          discard(pooled);
+        }
+      }
+    }
+    
+    while (!closed && size.get() < min && permits.tryAcquire())
+    {
+      try
+      {
+        PooledConnection pooled = open();
+        pooled.lastReturned = System.currentTimeMillis();
+        idle.offerLast(pooled);
+        
+        if (closed && idle.remove(pooled))
+        {
+          discard(pooled);
+        }
+      }
+      catch (SQLException e)
+      {
+        // Database is not reachable right now, try again on the next run.
+        break;
+      }
+      finally
+      {
+        permits.release();
+      }
+    }
+  }
+  
+  /**
+   * A physical connection of the pool together with its pool bookkeeping.
+   */
+  private final class PooledConnection
+  {
+    private final Connection connection;
+    private final int isolation;
+    private final StatementCache statements;
+    private volatile long lastReturned;
+    private boolean dirty;
+    private boolean broken;
+    
+    private PooledConnection(Connection connection) throws SQLException
+    {
+      this.connection = connection;
+      this.isolation = connection.getTransactionIsolation();
+      this.statements = (statementCacheSize > 0) ? new StatementCache(connection, statementCacheSize, statementCacheHits, statementCacheMisses) : null;
+    }
+    
+    /**
+     * Returns a new wrapper of the physical connection for a single borrower.
+     * 
+     * @return A new wrapper of the physical connection for a single borrower.
+     */
+    private Connection lease()
+    {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, new Lease(this));
+    }
+    
+    /**
+     * Invokes the given method on the given target of this connection, which is the connection itself
+     * or one of its statements or result sets, and marks this connection as broken when the method
+     * fails with an SQL state of class 08, which means the connection itself is unusable. A returned
+     * statement or result set is wrapped the same way.
+     * 
+     * @param target The target to invoke the method on.
+     * @param method The method to be invoked.
+     * @param args The arguments of the method.
+     * 
+     * @return The result of the method.
+     * 
+     * @throws Throwable The exception thrown by the method.
+     */
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+      try
+      {
+        return guard(method.invoke(target, args), method.getReturnType());
+      }
+      catch (InvocationTargetException e)
+      {
+        throw failed(e.getCause());
+      }
+    }
+    
+    /**
+     * Marks this connection as broken if the given failure of one of its calls has an SQL state of
+     * class 08, and returns the failure.
+     * 
+     * @param failure The failure of a call.
+     * 
+     * @return The given failure.
+     */
+    private Throwable failed(Throwable failure)
+    {
+      if (failure instanceof SQLException && ((SQLException) failure).getSQLState() != null && ((SQLException) failure).getSQLState().startsWith("08"))
+      {
+        broken = true;
+      }
+      
+      return failure;
+    }
+    
+    /**
+     * Returns the given result of the given type wrapped by {@link #invoke(Object, Method, Object[])}
+     * if it is a statement or result set, otherwise the result itself.
+     * 
+     * @param result The result to be wrapped, may be null.
+     * @param type The declared type of the result.
+     * 
+     * @return The wrapped result, or the result itself.
+     */
+    private Object guard(Object result, Class<?> type)
+    {
+      if (result == null || !(Statement.class.isAssignableFrom(type) || type == ResultSet.class))
+      {
+        return result;
+      }
+      
+      return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+      {
+        switch (method.getName())
+        {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return invoke(result, method, args);
+        }
+      });
+    }
+    
+    /**
+     * Restores the connection state which a borrower may have changed, so that the next borrower
+     * gets the connection the way the DriverManager handed it out.
+     * 
+     * @throws SQLException If restoring the connection state fails.
+     */
+    private void reset() throws SQLException
+    {
+      if (dirty)
+      {
+        if (!connection.getAutoCommit())
+        {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        }
+        
+        connection.setReadOnly(false);
+        connection.setTransactionIsolation(isolation);
+        dirty = false;
+      }
+      
+      connection.clearWarnings();
+    }
+  }
+  
+  /**
+   * The invocation handler of the connection wrapper handed out to a single borrower.
+   */
+  private final class Lease implements InvocationHandler
+  {
+    private final PooledConnection pooled;
+    private final long borrowedAt = System.nanoTime();
+    private boolean closed;
+    
+    private Lease(PooledConnection pooled)
+    {
+      this.pooled = pooled;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+      switch (method.getName())
+      {
+        case "close":
+          if (!closed)
+          {
+            closed = true;
+            giveBack(pooled, borrowedAt);
+          }
+          return null;
+        case "isClosed":
+          return closed || pooled.connection.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "PooledConnection[" + pooled.connection + "]";
+        case "setAutoCommit":
+        case "setReadOnly":
+        case "setTransactionIsolation":
+          pooled.dirty = true;
+          return setState(method, args);
+        default:
+          break;
+      }
+      
+      if (closed)
+      {
+        throw new SQLException("Connection is already returned to the pool.");
+      }
+      
+      if (pooled.statements != null && method.getName().equals("prepareStatement") && args.length <= 2 && (args.length == 1 || method.getParameterTypes()[1] == int.class))
+      {
+        try
+        {
+          return pooled.guard(pooled.statements.prepare((String) args[0], (args.length == 1) ? Statement.NO_GENERATED_KEYS : (Integer) args[1]), PreparedStatement.class);
+        }
+        catch (SQLException e)
+        {
+          throw pooled.failed(e);
+        }
+      }
+      
+      return pooled.invoke(pooled.connection, method, args);
+    }
+    
+    /**
+     * Invokes the given method which sets the state of the connection. When it fails, the connection
+     * is marked as broken, since it cannot be trusted to be reset for the next borrower either.
+     */
+    private Object setState(Method method, Object[] args) throws Throwable
+    {
+      if (closed)
+      {
+        throw new SQLException("Connection is already returned to the pool.");
+      }
+      
+      try
+      {
+        return pooled.invoke(pooled.connection, method, args);
+      }
+      catch (SQLException e)
+      {
+        pooled.broken = true;
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.tennis.dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * This class represents the Java Flight Recorder event of a return to the {@link ConnectionPool}.
+ * Its duration is the time taken to reset the connection for the next borrower.
+ * 
+ * @author Atidivya
+ */
+@Name("com.tennis.dao.ConnectionReturn")
+@Label("Connection Return")
+@Category({ "Tennis", "Connection Pool" })
+@Description("A return of a borrowed connection to the pool")
+final class ConnectionReturnEvent extends Event
+{
+  @Label("Held Time")
+  @Description("The time the connection was borrowed")
+  @Timespan(Timespan.NANOSECONDS)
+  long heldTime;
+  
+  @Label("Discarded")
+  @Description("Whether the connection was closed instead of kept, because it was broken")
+  boolean discarded;
+}
@@ -0,0 +1,659 @@
+package com.tennis.dao;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+
+/**
+ * This class represents an in-memory index of the free slots of the courts. A court day is divided
+ * in slots of a fixed length starting at the opening time of the court, and for each court day a
+ * bitmap of the booked slots is kept. The bitmap of a court day is loaded with one period query on
+ * first use, after which the questions "which slots are free" and "which is the first free slot"
+ * are answered from memory.
+ * <p>
+ * A court day on a holiday has no slots at all. The bitmaps are kept in sync with the bookings
+ * created, updated and deleted through the {@link BookingDAO} of the same {@link DAOFactory}.
+ * A changed holiday is picked up as soon as it is changed through a {@link HolidayDAO} of the same
+ * DAOFactory. Changes made to the database by other means are only picked up after
+ * {@link #invalidate()}. A changed opening or closing time is picked up automatically as soon as the
+ * changed court is passed in.
+ * <p>
+ * A court day is loaded outside of any lock of the map, by the first caller asking for it, while
+ * the other callers asking for it wait for that load. The bookings changed while a court day loads
+ * are applied to it in their order once it is loaded, so that none are missed. The court days before
+ * today are forgotten once a day, so that the index holds the court days which can still be booked.
+ * <p>
+ * You can obtain the court availability of a DAOFactory by {@link DAOFactory#getCourtAvailability()}.
+ * 
+ * @author Atidivya
+ */
+public class CourtAvailability
+{
+  private static final int MAX_SEARCH_DAYS = 366;
+  private static final int LOCK_STRIPES = 64;
+  
+  private final BookingDAO bookingDAO;
+  private final HolidayCalendar holidayCalendar;
+  private final int slotMinutes;
+  private final ZoneId zone = ZoneId.systemDefault();
+  private final ConcurrentHashMap<DayKey, Day> days = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, SlotRef> bookings = new ConcurrentHashMap<>();
+  private final Lock[] locks = new Lock[LOCK_STRIPES];
+  private final AtomicLong today = new AtomicLong(Long.MIN_VALUE);
+  
+  /**
+   * Construct a court availability on top of the given DAO's. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param bookingDAO The Booking DAO to load the bookings of a court day with.
+   * @param holidayCalendar The holiday calendar to check the holidays with.
+   * @param slotMinutes The length of a slot in minutes.
+   */
+  CourtAvailability(BookingDAO bookingDAO, HolidayCalendar holidayCalendar, int slotMinutes)
+  {
+    this.bookingDAO = bookingDAO;
+    this.holidayCalendar = holidayCalendar;
+    this.slotMinutes = slotMinutes;
+    
+    for (int i = 0; i < LOCK_STRIPES; i++)
+    {
+      locks[i] = new ReentrantLock();
+    }
+  }
+  
+  /**
+   * Returns the length of a slot in minutes.
+   * 
+   * @return The length of a slot in minutes.
+   */
+  public int getSlotMinutes()
+  {
+    return slotMinutes;
+  }
+  
+  /**
+   * Returns true if the slot of the given court starting at the given time is free. A time which is
+   * not the start of a slot, or which is outside the opening hours, is never free.
+   * 
+   * @param court The court to be checked.
+   * @param startTime The start time of the slot to be checked.
+   * 
+   * @return True if the slot of the given court starting at the given time is free.
+   * 
+   * @throws DAOException If something fails at database level while loading the court day.
+   */
+  public boolean isFree(Court court, Date startTime) throws DAOException
+  {
+    LocalDateTime dateTime = toLocalDateTime(startTime);
+    DaySlots slots = slots(court, dateTime.toLocalDate());
+    int slot = slots.slotOf(dateTime.toLocalTime(), slotMinutes);
+    
+    return slot >= 0 && slots.startsAt(slot, slotMinutes) == dateTime.toLocalTime().toSecondOfDay() / 60
+            && (slots.free() & (1L << slot)) != 0;
+  }
+  
+  /**
+   * Checks that a slot of the given court starts at the given time, regardless of whether it is free.
+   * Package private so that it can be used inside the DAO package only.
+   * 
+   * @param court The court of the slot.
+   * @param startTime The start time of the slot.
+   * 
+   * @throws IllegalArgumentException If the court or start time is missing, or if the court is
+   * closed at the given time, or if the given time is not the start of a slot.
+   */
+  void checkSlot(Court court, Date startTime) throws IllegalArgumentException
+  {
+    if (court == null || court.getId() == null || startTime == null)
+    {
+      throw new IllegalArgumentException("Booking has no created court or no start time.");
+    }
+    
+    LocalDateTime dateTime = toLocalDateTime(startTime);
+    
+    // The booked slots are not needed, so the court day is not loaded for this.
+    DaySlots slots = new DaySlots(court, slotMinutes, holidayCalendar.isHoliday(dateTime.toLocalDate()));
+    int slot = slots.slotOf(dateTime.toLocalTime(), slotMinutes);
+    
+    if (slot < 0)
+    {
+      throw new IllegalArgumentException("Court " + court.getId() + " is closed at " + dateTime + ".");
+    }
+    
+    if (slots.startsAt(slot, slotMinutes) != dateTime.toLocalTime().toSecondOfDay() / 60)
+    {
+      throw new IllegalArgumentException("No slot of court " + court.getId() + " starts at " + dateTime + ", the slots are " + slotMinutes + " minutes from the opening time.");
+    }
+  }
+  
+  /**
+   * Returns the start times of the free slots of the given court on the given day, in ascending
+   * order. The list is never null and is empty when the court is fully booked or closed that day.
+   * 
+   * @param court The court to return the free slots for.
+   * @param day Any time of the day to return the free slots for.
+   * 
+   * @return The start times of the free slots of the given court on the given day.
+   * 
+   * @throws DAOException If something fails at database level while loading the court day.
+   */
+  public List<Date> getFreeSlots(Court court, Date day) throws DAOException
+  {
+    LocalDate date = toLocalDateTime(day).toLocalDate();
+    DaySlots slots = slots(court, date);
+    List<Date> freeSlots = new ArrayList<>(Long.bitCount(slots.free()));
+    
+    for (long free = slots.free(); free != 0; free &= free - 1)
+    {
+      freeSlots.add(toDate(date, slots.startsAt(Long.numberOfTrailingZeros(free), slotMinutes)));
+    }
+    
+    return freeSlots;
+  }
+  
+  /**
+   * Returns the start time of the first free slot of the given court starting at or after the given
+   * time, searching at most a year ahead, otherwise null.
+   * 
+   * @param court The court to return the first free slot for.
+   * @param after The time at or after which the slot must start.
+   * 
+   * @return The start time of the first free slot of the given court at or after the given time,
+   * otherwise null.
+   * 
+   * @throws DAOException If something fails at database level while loading the court days.
+   */
+  public Date getFirstFreeSlot(Court court, Date after) throws DAOException
+  {
+    LocalDateTime dateTime = toLocalDateTime(after);
+    LocalDate date = dateTime.toLocalDate();
+    int minute = (dateTime.toLocalTime().toSecondOfDay() + 59) / 60;
+    
+    for (int i = 0; i < MAX_SEARCH_DAYS; i++, date = date.plusDays(1), minute = 0)
+    {
+      DaySlots slots = slots(court, date);
+      long free = slots.free();
+      
+      if (minute > slots.openingMinute)
+      {
+        // Drop the slots which start before the given time.
+        int firstSlot = (minute - slots.openingMinute + slotMinutes - 1) / slotMinutes;
+        free = (firstSlot >= 64) ? 0 : free & (-1L << firstSlot);
+      }
+      
+      if (free != 0)
+      {
+        return toDate(date, slots.startsAt(Long.numberOfTrailingZeros(free), slotMinutes));
+      }
+    }
+    
+    return null;
+  }
+  
+  /**
+   * Forgets all court days, so that they are loaded again from the database on next use.
+   */
+  public void invalidate()
+  {
+    days.clear();
+    bookings.clear();
+  }
+  
+  /**
+   * Forgets all court days of the given court, so that they are loaded again from the database on
+   * next use.
+   * 
+   * @param court The court of which the court days are to be forgotten.
+   */
+  public void invalidate(Court court)
+  {
+    days.keySet().removeIf(key -> key.courtId == court.getId());
+    bookings.values().removeIf(ref -> ref.day.courtId == court.getId());
+  }
+  
+  /**
+   * Returns the lock stripe guarding the slot of the given court at the given start time. Different
+   * slots of the same court are spread over the stripes, so that only attempts on the same slot, or
+   * on a slot sharing its stripe, have to wait for each other.
+   * 
+   * @param court The court of the slot.
+   * @param startTime The start time of the slot.
+   * 
+   * @return The lock stripe guarding the slot of the given court at the given start time.
+   */
+  Lock getLock(Court court, Date startTime)
+  {
+    long hash = court.getId() * 31 + startTime.getTime() / 60000;
+    hash ^= (hash >>> 32);
+    hash ^= (hash >>> 16);
+    
+    return locks[(int) (hash & (LOCK_STRIPES - 1))];
+  }
+  
+  /**
+   * Marks the slot of the given court at the given start time as booked, if its court day is loaded.
+   * To be used when the database reports a slot as taken which was not known to be taken, for
+   * example because it was booked by another JVM.
+   * 
+   * @param court The court of the slot.
+   * @param startTime The start time of the slot.
+   */
+  void taken(Court court, Date startTime)
+  {
+    LocalDateTime dateTime = toLocalDateTime(startTime);
+    
+    change(new DayKey(court.getId(), dateTime.toLocalDate().toEpochDay()), slots ->
+    {
+      int slot = slots.slotOf(dateTime.toLocalTime(), slotMinutes);
+      
+      if (slot >= 0)
+      {
+        slots.book(slot);
+      }
+    });
+  }
+  
+  /**
+   * Marks the slot of the given created booking as booked, if its court day is loaded.
+   * 
+   * @param booking The booking which is created in the database.
+   */
+  void booked(Booking booking)
+  {
+    if (booking.getId() == null || booking.getCourt() == null || booking.getCourt().getId() == null || booking.getStartTime() == null)
+    {
+      return;
+    }
+    
+    LocalDateTime dateTime = toLocalDateTime(booking.getStartTime());
+    DayKey key = new DayKey(booking.getCourt().getId(), dateTime.toLocalDate().toEpochDay());
+    
+    change(key, slots ->
+    {
+      int slot = slots.slotOf(dateTime.toLocalTime(), slotMinutes);
+      
+      if (slot >= 0)
+      {
+        slots.book(slot);
+        bookings.put(booking.getId(), new SlotRef(key, slot));
+      }
+    });
+  }
+  
+  /**
+   * Marks the slot of the booking with the given ID as free again, if its court day is loaded.
+   * 
+   * @param id The ID of the booking which is deleted from the database, or moved to another slot.
+   */
+  void released(Long id)
+  {
+    SlotRef ref = (id != null) ? bookings.remove(id) : null;
+    
+    if (ref != null)
+    {
+      change(ref.day, slots -> slots.release(ref.slot));
+    }
+    
+    if (id == null)
+    {
+      return;
+    }
+    
+    // A court day which is still loading may load the booking before it is gone, so look for it there.
+    for (Day day : days.values())
+    {
+      if (!day.loaded.isDone())
+      {
+        day.apply(slots ->
+        {
+          SlotRef loadedRef = bookings.get(id);
+          
+          if (loadedRef != null && loadedRef.day.equals(day.key) && bookings.remove(id, loadedRef))
+          {
+            slots.release(loadedRef.slot);
+          }
+        });
+      }
+    }
+  }
+  
+  /**
+   * Applies the given change to the court day of the given key, if it is loaded or loading.
+   */
+  private void change(DayKey key, Consumer<DaySlots> change)
+  {
+    Day day = days.get(key);
+    
+    if (day != null)
+    {
+      day.apply(change);
+    }
+  }
+  
+  /**
+   * Returns the slots of the given court on the given day, loading them when necessary.
+   * 
+   * @param court The court to return the slots for.
+   * @param date The day to return the slots for.
+   * 
+   * @return The slots of the given court on the given day.
+   * 
+   * @throws DAOException If something fails at database level while loading the court day.
+   */
+  private DaySlots slots(Court court, LocalDate date) throws DAOException
+  {
+    DayKey key = new DayKey(court.getId(), date.toEpochDay());
+    Day day = day(key, court, date);
+    DaySlots slots = day.await();
+    
+    if (!slots.matches(court))
+    {
+      // Opening hours of the court are changed meanwhile.
+      days.remove(key, day);
+      slots = day(key, court, date).await();
+    }
+    
+    return slots;
+  }
+  
+  /**
+   * Returns the court day of the given key, which may still be loading. When there is none, it is
+   * loaded by the current thread, outside of the locks of the map, so that the loads of other court
+   * days never wait for it.
+   */
+  private Day day(DayKey key, Court court, LocalDate date)
+  {
+    Day day = days.get(key);
+    
+    if (day == null)
+    {
+      forgetPastDays();
+      Day loading = new Day(key);
+      day = days.putIfAbsent(key, loading);
+      
+      if (day == null)
+      {
+        day = loading;
+        load(loading, court, date);
+      }
+    }
+    
+    return day;
+  }
+  
+  /**
+   * Loads the slots of the given court on the given day from the database into the given court day,
+   * and then applies the changes which came in meanwhile. When loading fails, the court day is
+   * removed again, so that the next caller tries again.
+   */
+  private void load(Day day, Court court, LocalDate date)
+  {
+    try
+    {
+      DaySlots slots = new DaySlots(court, slotMinutes, holidayCalendar.isHoliday(date));
+      
+      if (slots.open != 0)
+      {
+        for (Booking booking : bookingDAO.list(court, toDate(date, 0), toDate(date.plusDays(1), 0)))
+        {
+          int slot = slots.slotOf(toLocalDateTime(booking.getStartTime()).toLocalTime(), slotMinutes);
+          
+          if (slot >= 0)
+          {
+            slots.book(slot);
+            
+            if (booking.getId() != null)
+            {
+              bookings.put(booking.getId(), new SlotRef(day.key, slot));
+            }
+          }
+        }
+      }
+      
+      day.loaded(slots);
+    }
+    catch (RuntimeException | Error e)
+    {
+      days.remove(day.key, day);
+      day.loaded.completeExceptionally(e);
+      throw e;
+    }
+  }
+  
+  /**
+   * Forgets the court days before today, and their bookings, when the day has changed since the last
+   * time.
+   */
+  private void forgetPastDays()
+  {
+    long epochDay = LocalDate.now(zone).toEpochDay();
+    long last = today.get();
+    
+    if (epochDay > last && today.compareAndSet(last, epochDay))
+    {
+      days.keySet().removeIf(key -> key.epochDay < epochDay);
+      bookings.values().removeIf(ref -> ref.day.epochDay < epochDay);
+    }
+  }
+  
+  private LocalDateTime toLocalDateTime(Date date)
+  {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), zone);
+  }
+  
+  private Date toDate(LocalDate date, int minuteOfDay)
+  {
+    return Date.from(date.atStartOfDay().plusMinutes(minuteOfDay).atZone(zone).toInstant());
+  }
+  
+  /**
+   * The key of a court day, the court ID together with the epoch day.
+   */
+  private static final class DayKey
+  {
+    private final long courtId;
+    private final long epochDay;
+    
+    private DayKey(long courtId, long epochDay)
+    {
+      this.courtId = courtId;
+      this.epochDay = epochDay;
+    }
+    
+    @Override
+    public boolean equals(Object other)
+    {
+      return (other instanceof DayKey) && ((DayKey) other).courtId == courtId && ((DayKey) other).epochDay == epochDay;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+      return Long.hashCode(courtId * 31 + epochDay);
+    }
+  }
+  
+  /**
+   * A court day, which is loaded once by the first caller asking for it. The changes of its bookings
+   * which come in while it loads are kept and applied in their order once it is loaded.
+   */
+  private static final class Day
+  {
+    private final DayKey key;
+    private final CompletableFuture<DaySlots> loaded = new CompletableFuture<>();
+    
+    // Guarded by this, null once loaded.
+    private List<Consumer<DaySlots>> pending = new ArrayList<>();
+    private DaySlots slots;
+    
+    private Day(DayKey key)
+    {
+      this.key = key;
+    }
+    
+    /**
+     * Applies the given change to the slots, or keeps it for when they are loaded.
+     */
+    private void apply(Consumer<DaySlots> change)
+    {
+      DaySlots loadedSlots;
+      
+      synchronized (this)
+      {
+        if (pending != null)
+        {
+          pending.add(change);
+          return;
+        }
+        
+        loadedSlots = slots;
+      }
+      
+      change.accept(loadedSlots);
+    }
+    
+    /**
+     * Sets the loaded slots, applies the changes kept meanwhile and releases the waiting callers.
+     */
+    private void loaded(DaySlots loadedSlots)
+    {
+      synchronized (this)
+      {
+        for (Consumer<DaySlots> change : pending)
+        {
+          change.accept(loadedSlots);
+        }
+        
+        pending = null;
+        slots = loadedSlots;
+      }
+      
+      loaded.complete(loadedSlots);
+    }
+    
+    /**
+     * Waits until the slots are loaded and returns them.
+     */
+    private DaySlots await() throws DAOException
+    {
+      try
+      {
+        return loaded.join();
+      }
+      catch (CompletionException e)
+      {
+        if (e.getCause() instanceof RuntimeException)
+        {
+          throw (RuntimeException) e.getCause();
+        }
+        
+        throw new DAOException(e.getCause());
+      }
+    }
+  }
+  
+  /**
+   * The location of a loaded booking, its court day together with its slot.
+   */
+  private static final class SlotRef
+  {
+    private final DayKey day;
+    private final int slot;
+    
+    private SlotRef(DayKey day, int slot)
+    {
+      this.day = day;
+      this.slot = slot;
+    }
+  }
+  
+  /**
+   * The slots of a court day. Bit N of the bitmaps represents the slot starting N slot lengths after
+   * the opening time of the court.
+   */
+  private static final class DaySlots
+  {
+    private final LocalTime openingTime;
+    private final LocalTime closingTime;
+    private final int openingMinute;
+    private final long open;
+    private final AtomicLong booked = new AtomicLong();
+    
+    private DaySlots(Court court, int slotMinutes, boolean holiday)
+    {
+      openingTime = court.getOpeningTime();
+      closingTime = court.getClosingTime();
+      
+      if (holiday || openingTime == null || closingTime == null || !openingTime.isBefore(closingTime))
+      {
+        openingMinute = 0;
+        open = 0;
+      }
+      else
+      {
+        openingMinute = openingTime.toSecondOfDay() / 60;
+        int count = Math.min((closingTime.toSecondOfDay() / 60 - openingMinute) / slotMinutes, 64);
+        open = (count == 64) ? -1L : (1L << count) - 1;
+      }
+    }
+    
+    /**
+     * Returns true if these slots are derived from the current opening hours of the given court.
+     */
+    private boolean matches(Court court)
+    {
+      return equal(openingTime, court.getOpeningTime()) && equal(closingTime, court.getClosingTime());
+    }
+    
+    /**
+     * Returns the slot which contains the given time, or -1 when the court is closed at that time.
+     */
+    private int slotOf(LocalTime time, int slotMinutes)
+    {
+      int minute = time.toSecondOfDay() / 60 - openingMinute;
+      int slot = (minute >= 0) ? minute / slotMinutes : -1;
+      
+      return (slot >= 0 && slot < 64 && (open & (1L << slot)) != 0) ? slot : -1;
+    }
+    
+    private int startsAt(int slot, int slotMinutes)
+    {
+      return openingMinute + slot * slotMinutes;
+    }
+    
+    private long free()
+    {
+      return open & ~booked.get();
+    }
+    
+    private void book(int slot)
+    {
+      booked.getAndUpdate(bits -> bits | (1L << slot));
+    }
+    
+    private void release(int slot)
+    {
+      booked.getAndUpdate(bits -> bits & ~(1L << slot));
+    }
+    
+    private static boolean equal(Object one, Object other)
+    {
+      return (one == null) ? other == null : one.equals(other);
+    }
+  }
+}
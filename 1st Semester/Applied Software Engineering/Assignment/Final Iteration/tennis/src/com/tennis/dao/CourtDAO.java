@@ -1,6 +1,9 @@
 package com.tennis.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Court;
 
@@ -24,6 +27,19 @@ public interface CourtDAO
    */
   public Court find(Long id) throws DAOException;
   
+  /**
+   * Returns the courts from the database matching the given IDs, keyed by ID. The courts are
+   * queried with a few <code>IN</code> queries instead of one query per ID. IDs which do not match
+   * any court are absent from the map, null IDs are ignored.
+   * 
+   * @param ids The IDs of the courts to be returned.
+   * 
+   * @return The courts from the database matching the given IDs, keyed by ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Map<Long, Court> findAll(Collection<Long> ids) throws DAOException;
+  
   /**
    * Returns a list of all courts from the database ordered by court ID. The list is never null and
    * is empty when the database does not contain any court.
@@ -34,6 +50,33 @@ public interface CourtDAO
    */
   public List<Court> list() throws DAOException;
   
+  /**
+   * Returns a stream of all courts from the database ordered by court ID. The courts are read from
+   * the database while the stream is consumed, so memory use does not grow with the amount of
+   * courts. The stream holds a database connection until it is closed, so it must be closed after
+   * use, preferably with try-with-resources.
+   * 
+   * @return A stream of all courts from the database ordered by court ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Stream<Court> stream() throws DAOException;
+  
+  /**
+   * Returns a page of at most the given limit of courts from the database with an ID greater than
+   * the given ID, ordered by court ID. Pass null to get the first page, and the next cursor of a page
+   * to get the page after it.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of courts on the page.
+   * 
+   * @return A page of courts from the database ordered by court ID.
+   * 
+   * @throws IllegalArgumentException If the limit is less than 1.
+   * @throws DAOException If something fails at database level.
+   */
+  public Page<Court> list(Long afterId, int limit) throws IllegalArgumentException, DAOException;
+  
   /**
    * Create the given court in the database. The court ID must be null, otherwise it will throw
    * IllegalArgumentException. After creating, the DAO will set the obtained ID in the given court.
@@ -66,6 +109,39 @@ public interface CourtDAO
    */
   public void delete(Court court) throws DAOException;
   
+  /**
+   * Create the given courts in the database in JDBC batches. The court IDs must be null, otherwise it
+   * will throw IllegalArgumentException. After creating, the DAO will set the obtained IDs in the
+   * given courts. Either all courts are created or none.
+   * 
+   * @param courts The courts to be created in the database.
+   * 
+   * @throws IllegalArgumentException If any court ID is not null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void createAll(Collection<Court> courts) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Update the given courts in the database in JDBC batches. The court IDs must not be null,
+   * otherwise it will throw IllegalArgumentException. Either all courts are updated or none.
+   * 
+   * @param courts The courts to be updated in the database.
+   * 
+   * @throws IllegalArgumentException If any court ID is null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void updateAll(Collection<Court> courts) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Delete the given courts from the database in JDBC batches. After deleting, the DAO will set the
+   * IDs of the given courts to null. Either all courts are deleted or none.
+   * 
+   * @param courts The courts to be deleted from the database.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public void deleteAll(Collection<Court> courts) throws DAOException;
+  
   /**
    * Returns true if the given name exist in the database.
    * 
@@ -7,7 +7,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Court;
 
@@ -19,7 +23,9 @@ import com.tennis.model.Court;
 public class CourtDAOJDBC implements CourtDAO
 {
   private static final String SQL_FIND_BY_ID = "SELECT id, name, surface, opening_time, closing_time, indoor, lighting, observations FROM court WHERE id = ?";
+  private static final String SQL_FIND_BY_IDS = "SELECT id, name, surface, opening_time, closing_time, indoor, lighting, observations FROM court WHERE id IN (%s)";
   private static final String SQL_LIST_ORDER_BY_ID = "SELECT id, name, surface, opening_time, closing_time, indoor, lighting, observations FROM court ORDER BY id";
+  private static final String SQL_LIST_AFTER_ID_ORDER_BY_ID = "SELECT id, name, surface, opening_time, closing_time, indoor, lighting, observations FROM court WHERE id > ? ORDER BY id LIMIT ?";
   private static final String SQL_INSERT = "INSERT INTO court (name, surface, opening_time, closing_time, indoor, lighting, observations) VALUES (?, ?, ?, ?, ?, ?, ?)";
   private static final String SQL_UPDATE = "UPDATE court SET name = ?, surface = ?, opening_time = ?, closing_time = ?, indoor = ?, lighting = ?, observations = ? WHERE id = ?";
   private static final String SQL_DELETE = "DELETE FROM court WHERE id = ?";
@@ -44,6 +50,24 @@ public class CourtDAOJDBC implements CourtDAO
     return find(SQL_FIND_BY_ID, id);
   }
   
+  @Override
+  public Map<Long, Court> findAll(Collection<Long> ids) throws DAOException
+  {
+    if (ids.isEmpty())
+    {
+      return new HashMap<>();
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      return DAOUtil.findAll(connection, SQL_FIND_BY_IDS, daoFactory.getBatchSize(), ids, CourtDAOJDBC::map, Court::getId);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
   /**
    * Returns the court from the database matching the given SQL query with the given values.
    * 
@@ -103,6 +127,67 @@ public class CourtDAOJDBC implements CourtDAO
     return courts;
   }
   
+  @Override
+  public Stream<Court> stream() throws DAOException
+  {
+    try
+    {
+      return DAOUtil.stream(daoFactory.getConnection(), SQL_LIST_ORDER_BY_ID, daoFactory.getStreamFetchSize(), CourtDAOJDBC::map);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public Page<Court> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Fetch one more than the limit to find out whether there is a next page.
+    List<Court> courts = list(SQL_LIST_AFTER_ID_ORDER_BY_ID, (afterId != null) ? afterId : 0L, limit + 1);
+    
+    return Page.of(courts, limit, Court::getId);
+  }
+  
+  /**
+   * Returns a list of courts from the database matching the given SQL query with the given values.
+   * 
+   * @param sql The SQL query to be executed in the database.
+   * @param values The PreparedStatement values to be set.
+   * 
+   * @return A list of courts from the database matching the given SQL query with the given values.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private List<Court> list(String sql, Object... values) throws DAOException
+  {
+    List<Court> courts = new ArrayList<>();
+    
+    try
+    (
+      Connection connection = daoFactory.getConnection();
+      PreparedStatement statement = prepareStatement(connection, sql, false, values);
+      ResultSet resultSet = statement.executeQuery();
+    )
+    {
+      while (resultSet.next())
+      {
+        courts.add(map(resultSet));
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    return courts;
+  }
+  
   @Override
   public void create(Court court) throws IllegalArgumentException, DAOException
   {
@@ -220,6 +305,106 @@ public class CourtDAOJDBC implements CourtDAO
     }
   }
   
+  @Override
+  public void createAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      if (court.getId() != null)
+      {
+        throw new IllegalArgumentException("Court is already created, the court ID is not null.");
+      }
+      
+      values.add(new Object[] {
+        court.getName(),
+        court.getSurface(),
+        toSqlTime(court.getOpeningTime()),
+        toSqlTime(court.getClosingTime()),
+        court.isIndoor(),
+        court.isLighting(),
+        court.getObservations()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      long[] generatedKeys = executeBatch(connection, SQL_INSERT, true, daoFactory.getBatchSize(), values, "Creating courts failed");
+      int i = 0;
+      
+      for (Court court : courts)
+      {
+        court.setId(generatedKeys[i++]);
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      if (court.getId() == null)
+      {
+        throw new IllegalArgumentException("Court is not created yet, the court ID is null.");
+      }
+      
+      values.add(new Object[] {
+        court.getName(),
+        court.getSurface(),
+        toSqlTime(court.getOpeningTime()),
+        toSqlTime(court.getClosingTime()),
+        court.isIndoor(),
+        court.isLighting(),
+        court.getObservations(),
+        court.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_UPDATE, false, daoFactory.getBatchSize(), values, "Updating courts failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Court> courts) throws DAOException
+  {
+    List<Object[]> values = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      values.add(new Object[] {
+        court.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_DELETE, false, daoFactory.getBatchSize(), values, "Deleting courts failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    for (Court court : courts)
+    {
+      court.setId(null);
+    }
+  }
+  
   @Override
   public boolean existName(String name) throws DAOException
   {
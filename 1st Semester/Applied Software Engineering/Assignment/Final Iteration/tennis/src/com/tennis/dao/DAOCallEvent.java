@@ -0,0 +1,206 @@
+package com.tennis.dao;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * This class represents the Java Flight Recorder event of one call of an instrumented DAO. The event
+ * records the entity and method of the call, the names of the SQL constants of the statements it
+ * executed, the amount of bind values, the amount of rows returned and the time spent waiting for
+ * a connection, so that a recording shows which DAO work ran next to a GC pause, a contended lock
+ * or slow I/O.
+ * <p>
+ * The event of the running call is kept in a thread local, through which {@link DAOUtil} and the
+ * DAOFactory add the statements and the connection wait. When the event is not enabled in the
+ * running recording, or no recording runs, {@link #begin(String, String)} returns null and nothing
+ * else happens.
+ * 
+ * @author Atidivya
+ */
+@Name("com.tennis.dao.DAOCall")
+@Label("DAO Call")
+@Category({ "Tennis", "DAO" })
+@Description("A call of a DAO method")
+final class DAOCallEvent extends Event
+{
+  private static final ThreadLocal<DAOCallEvent> CURRENT = new ThreadLocal<>();
+  private static final Class<?>[] DAO_CLASSES = { MemberDAOJDBC.class, CourtDAOJDBC.class, HolidayDAOJDBC.class, BookingDAOJDBC.class };
+  private static volatile Map<String, String> sqlNames;
+  
+  @Label("Entity")
+  String entity;
+  
+  @Label("Method")
+  String method;
+  
+  @Label("SQL")
+  @Description("The names of the SQL constants of the executed statements")
+  String sql;
+  
+  @Label("Bind Count")
+  int bindCount;
+  
+  @Label("Rows")
+  long rows;
+  
+  @Label("Connection Wait")
+  @Timespan(Timespan.NANOSECONDS)
+  long connectionWait;
+  
+  @Label("Failure")
+  String failure;
+  
+  private transient DAOCallEvent outer;
+  private transient Set<String> sqlNamesSeen;
+  
+  /**
+   * Returns a started event for the given DAO call, which becomes the event of the running call of
+   * the current thread, or null when the event is not enabled.
+   * 
+   * @param entity The entity of the DAO, such as 'Booking'.
+   * @param method The name of the DAO method.
+   * 
+   * @return A started event for the given DAO call, or null when the event is not enabled.
+   */
+  static DAOCallEvent begin(String entity, String method)
+  {
+    DAOCallEvent event = new DAOCallEvent();
+    
+    if (!event.isEnabled())
+    {
+      return null;
+    }
+    
+    event.entity = entity;
+    event.method = method;
+    event.outer = CURRENT.get();
+    CURRENT.set(event);
+    event.begin();
+    return event;
+  }
+  
+  /**
+   * Returns the event of the running DAO call of the current thread, or null when there is none.
+   * 
+   * @return The event of the running DAO call of the current thread, or null.
+   */
+  static DAOCallEvent current()
+  {
+    return CURRENT.get();
+  }
+  
+  /**
+   * Adds the given statement to the event of the running DAO call of the current thread, if any.
+   * 
+   * @param sqlText The SQL text of the statement.
+   * @param binds The amount of bind values of the statement.
+   */
+  static void statement(String sqlText, int binds)
+  {
+    DAOCallEvent event = CURRENT.get();
+    
+    if (event != null)
+    {
+      String name = sqlName(sqlText);
+      
+      if (event.sqlNamesSeen == null)
+      {
+        event.sqlNamesSeen = new HashSet<>();
+      }
+      
+      // Compared as whole names, since one name can be the prefix of another, such as SQL_FIND_BY_ID.
+      if (event.sqlNamesSeen.add(name))
+      {
+        event.sql = (event.sql == null) ? name : event.sql + ", " + name;
+      }
+      
+      event.bindCount += binds;
+    }
+  }
+  
+  /**
+   * Ends this event with the given amount of rows returned and the given failure, which is null
+   * when the call succeeded, commits it when it passes the threshold of the recording and restores
+   * the event of the enclosing DAO call of the current thread.
+   * 
+   * @param rowCount The amount of rows returned by the call.
+   * @param cause The exception thrown by the call, or null.
+   */
+  void end(long rowCount, Throwable cause)
+  {
+    end();
+    
+    if (shouldCommit())
+    {
+      rows = rowCount;
+      failure = (cause != null) ? cause.getClass().getName() : null;
+      commit();
+    }
+    
+    if (outer != null)
+    {
+      CURRENT.set(outer);
+    }
+    else
+    {
+      CURRENT.remove();
+    }
+  }
+  
+  /**
+   * Returns the name of the SQL constant of the given SQL text, such as
+   * 'BookingDAOJDBC.SQL_FIND_BY_ID', or the SQL text itself when it is not a known constant.
+   */
+  private static String sqlName(String sqlText)
+  {
+    Map<String, String> names = sqlNames;
+    
+    if (names == null)
+    {
+      names = new HashMap<>();
+      
+      for (Class<?> daoClass : DAO_CLASSES)
+      {
+        for (Field field : daoClass.getDeclaredFields())
+        {
+          if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class && field.getName().startsWith("SQL_"))
+          {
+            try
+            {
+              field.setAccessible(true);
+              String text = (String) field.get(null);
+              // A query with an IN list is formatted before it is prepared, so match its prefix.
+              names.put(text.contains("%s") ? text.substring(0, text.indexOf("%s")) : text, daoClass.getSimpleName() + "." + field.getName());
+            }
+            catch (IllegalAccessException | SecurityException ignore)
+            {
+              // Then the SQL text is recorded instead of the name.
+            }
+          }
+        }
+      }
+      
+      sqlNames = names;
+    }
+    
+    String name = names.get(sqlText);
+    
+    if (name == null && sqlText.endsWith(")") && sqlText.lastIndexOf('(') > 0)
+    {
+      name = names.get(sqlText.substring(0, sqlText.lastIndexOf('(') + 1));
+    }
+    
+    return (name != null) ? name : sqlText;
+  }
+}
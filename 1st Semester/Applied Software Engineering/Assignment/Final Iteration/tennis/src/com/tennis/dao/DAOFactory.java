@@ -1,13 +1,25 @@
 package com.tennis.dao;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
 /**
  * This class represents a DAO factory for a SQL database. You can use {@link #getInstance(String)}
  * to obtain a new instance for the given database name. The specific instance returned depends on
@@ -17,23 +29,116 @@ import javax.sql.DataSource;
  * This class requires a properties file named 'dao.properties' in the classpath with among others
  * the following properties:
  * <pre>
+ * name.storage
+ * name.file.directory
+ * name.file.fsync
+ * name.file.snapshotBytes
+ * name.bookings.directory
+ * name.bookings.fsync
  * name.url *
  * name.driver
  * name.username
  * name.password
+ * name.pool.min
+ * name.pool.max
+ * name.pool.idleTimeout
+ * name.pool.borrowTimeout
+ * name.pool.validationTimeout
+ * name.pool.statementCacheSize
+ * name.availability.slotMinutes
+ * name.batchSize
+ * name.rewriteBatchedStatements
+ * name.streamFetchSize
+ * name.cache.courts
+ * name.cache.courts.ttl
+ * name.cache.members.maxSize
+ * name.coalesceReads
+ * name.coalesceReads.timeout
+ * name.async.maxConcurrency
+ * name.metrics
+ * name.jfr
+ * name.slowQueryLog.threshold
+ * name.slowQueryLog.queueSize
  * </pre>
  * Those marked with * are required, others are optional and can be left away or empty. Only the
- * username is required when any password is specified.
+ * username is required when any password is specified. The url is not required when the storage
+ * is not 'sql', and the file directory is required when the storage is 'file'.
  * <ul>
  * <li>The 'name' must represent the database name in {@link #getInstance(String)}.</li>
+ * <li>The 'name.storage' must represent where the data is kept: 'sql' for a SQL database,
+ * 'memory' for the {@link InMemoryDAOFactory}, which keeps all data in memory until the JVM exits,
+ * or 'file' for the {@link FileDAOFactory}, which keeps all data in memory and logs every change to
+ * files. It defaults to 'sql'. The properties of the connections only apply to 'sql'.</li>
+ * <li>The 'name.file.directory' must represent the directory of the files of the 'file' storage.
+ * It is created when it does not exist, and may be used by one process at a time only.</li>
+ * <li>The 'name.file.fsync' must represent whether a write returns only once it is forced to disk.
+ * When false, a write survives a crash of the process but not of the machine. It defaults to
+ * true.</li>
+ * <li>The 'name.file.snapshotBytes' must represent the size of the log from which a snapshot of all
+ * data is taken, so that the log to be replayed on startup stays short. It defaults to 67108864,
+ * which is 64 MB.</li>
+ * <li>The 'name.bookings.directory' must represent the directory of memory-mapped files in which
+ * the bookings are kept instead of in the storage, off the heap, see {@link MappedBookingDAO}. The
+ * bookings in it are not part of units of work. It defaults to none.</li>
+ * <li>The 'name.bookings.fsync' must represent whether the memory-mapped files of the bookings are
+ * forced to disk at the end of every write. It defaults to true.</li>
  * <li>The 'name.url' must represent either the JDBC URL or JNDI name of the database.</li>
  * <li>The 'name.driver' must represent the full qualified class name of the JDBC driver.</li>
  * <li>The 'name.username' must represent the username of the database login.</li>
  * <li>The 'name.password' must represent the password of the database login.</li>
+ * <li>The 'name.pool.max' must represent the maximum amount of pooled connections.</li>
+ * <li>The 'name.pool.min' must represent the amount of pooled connections kept open when idle.</li>
+ * <li>The 'name.pool.idleTimeout' must represent the milliseconds after which an idle pooled
+ * connection is closed, 0 to never close it.</li>
+ * <li>The 'name.pool.borrowTimeout' must represent the milliseconds to wait for a free pooled
+ * connection.</li>
+ * <li>The 'name.pool.validationTimeout' must represent the seconds to wait for the validation of a
+ * pooled connection on borrow.</li>
+ * <li>The 'name.pool.statementCacheSize' must represent the maximum amount of PreparedStatements
+ * kept open per pooled connection, 0 to disable the statement cache.</li>
+ * <li>The 'name.availability.slotMinutes' must represent the length of a bookable slot in minutes,
+ * as used by the {@link CourtAvailability}. It defaults to 60 and must be at least 30.</li>
+ * <li>The 'name.batchSize' must represent the maximum amount of rows sent in one JDBC batch by the
+ * createAll, updateAll and deleteAll methods of the DAO's, and the maximum amount of IDs in one
+ * query of the findAll methods. It defaults to 100.</li>
+ * <li>The 'name.rewriteBatchedStatements' must represent whether the MySQL driver may rewrite a
+ * batch of inserts into one multi-row insert. It only applies to a JDBC URL and defaults to false.</li>
+ * <li>The 'name.streamFetchSize' must represent the JDBC fetch size used by the stream methods of
+ * the DAO's. It defaults to {@link Integer#MIN_VALUE}, which makes the MySQL driver stream the rows
+ * one by one.</li>
+ * <li>The 'name.cache.courts' must represent whether the Court DAO serves its reads from an
+ * in-memory snapshot of all courts. It defaults to false.</li>
+ * <li>The 'name.cache.courts.ttl' must represent the milliseconds after which the court snapshot is
+ * reloaded, for when other nodes write to the same database. It defaults to 0, which keeps the
+ * snapshot until the next write through this DAOFactory.</li>
+ * <li>The 'name.cache.members.maxSize' must represent the maximum amount of members the Member DAO
+ * keeps in memory for its find by ID. The members used most often are kept. It defaults to 0, which
+ * disables the member cache.</li>
+ * <li>The 'name.coalesceReads' must represent whether concurrent identical finds of a booking or a
+ * court share one query. It defaults to false.</li>
+ * <li>The 'name.coalesceReads.timeout' must represent the milliseconds a find waits at most for the
+ * shared query of another find. It defaults to 5000.</li>
+ * <li>The 'name.async.maxConcurrency' must represent the maximum amount of calls of the
+ * asynchronous DAO's running at once. It defaults to the maximum size of the connection pool, or
+ * to 10 without connection pool.</li>
+ * <li>The 'name.metrics' must represent whether the latency, rows and errors of every DAO call and
+ * of every connection acquisition are recorded in the {@link DAOMetrics} of the DAOFactory, which
+ * are exported through JMX as well. It defaults to false.</li>
+ * <li>The 'name.jfr' must represent whether every DAO call emits a {@link DAOCallEvent} to Java
+ * Flight Recorder, with the executed SQL constants, the bind count, the rows and the connection
+ * wait. The events cost next to nothing when no recording runs. It defaults to false.</li>
+ * <li>The 'name.slowQueryLog.threshold' must represent the milliseconds from which a statement,
+ * from its execution until it is closed, is logged with its SQL, bind values, rows and calling DAO
+ * method by the {@link SlowQueryLog}. It defaults to 0, which disables the slow query log.</li>
+ * <li>The 'name.slowQueryLog.queueSize' must represent the maximum amount of slow statements
+ * waiting to be logged, beyond which they are dropped. It defaults to 1024.</li>
  * </ul>
  * If you specify the driver property, then the url property will be assumed as JDBC URL. If you
  * omit the driver property, the the url property will be assumed as JNDI name. When using JNDI
  * with username/password preconfigured, you can omit the username and password properties as well.
+ * If you specify the driver property together with the pool.max property, then the connections are
+ * taken from a connection pool instead of being opened on every DAO call. The other pool properties
+ * are then optional.
  * <p>
  * Here as basic examples of valid properties for database with the name 'tennis':
  * <pre>
@@ -41,24 +146,93 @@ import javax.sql.DataSource;
  * tennis.jdbc.driver = com.mysql.jdbc.Driver
  * tennis.jdbc.username = root
  * tennis.jdbc.password = root
+ * tennis.jdbc.pool.max = 10
  * </pre>
  * <pre>
  * tennis.jndi.url = jdbc/tennis
  * </pre>
+ * <pre>
+ * tennis.memory.storage = memory
+ * </pre>
+ * <pre>
+ * tennis.local.storage = file
+ * tennis.local.file.directory = /var/lib/tennis
+ * </pre>
  * Here is a basic use example:
  * <pre>
  * DAOFactory tennis = DAOFactory.getInstance("tennis.jdbc");
  * MemberDAO memberDAO = tennis.getMemberDAO();
  * </pre>
+ * And here is a use example of a unit of work, where the member and the booking are created in one
+ * transaction on one connection:
+ * <pre>
+ * tennis.inTransaction(transaction -&gt;
+ * {
+ *   transaction.getMemberDAO().create(member);
+ *   transaction.getBookingDAO().create(booking);
+ * });
+ * </pre>
+ * A DAOFactory holds threads, files and connections, so close it when the application stops:
+ * <pre>
+ * tennis.close();
+ * </pre>
  * 
  * @author Jose Monteiro
  */
-public abstract class DAOFactory
+public abstract class DAOFactory implements AutoCloseable
 {
+  private static final String PROPERTY_STORAGE = "storage";
+  private static final String PROPERTY_FILE_DIRECTORY = "file.directory";
+  private static final String PROPERTY_FILE_FSYNC = "file.fsync";
+  private static final String PROPERTY_FILE_SNAPSHOT_BYTES = "file.snapshotBytes";
+  private static final String PROPERTY_BOOKINGS_DIRECTORY = "bookings.directory";
+  private static final String PROPERTY_BOOKINGS_FSYNC = "bookings.fsync";
   private static final String PROPERTY_URL = "url";
   private static final String PROPERTY_DRIVER = "driver";
   private static final String PROPERTY_USERNAME = "username";
   private static final String PROPERTY_PASSWORD = "password";
+  private static final String PROPERTY_POOL_MIN = "pool.min";
+  private static final String PROPERTY_POOL_MAX = "pool.max";
+  private static final String PROPERTY_POOL_IDLE_TIMEOUT = "pool.idleTimeout";
+  private static final String PROPERTY_POOL_BORROW_TIMEOUT = "pool.borrowTimeout";
+  private static final String PROPERTY_POOL_VALIDATION_TIMEOUT = "pool.validationTimeout";
+  private static final String PROPERTY_POOL_STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+  private static final String PROPERTY_AVAILABILITY_SLOT_MINUTES = "availability.slotMinutes";
+  private static final String PROPERTY_BATCH_SIZE = "batchSize";
+  private static final String PROPERTY_REWRITE_BATCHED_STATEMENTS = "rewriteBatchedStatements";
+  private static final String PROPERTY_STREAM_FETCH_SIZE = "streamFetchSize";
+  private static final String PROPERTY_CACHE_COURTS = "cache.courts";
+  private static final String PROPERTY_CACHE_COURTS_TTL = "cache.courts.ttl";
+  private static final String PROPERTY_CACHE_MEMBERS_MAX_SIZE = "cache.members.maxSize";
+  private static final String PROPERTY_COALESCE_READS = "coalesceReads";
+  private static final String PROPERTY_COALESCE_READS_TIMEOUT = "coalesceReads.timeout";
+  private static final String PROPERTY_ASYNC_MAX_CONCURRENCY = "async.maxConcurrency";
+  private static final String PROPERTY_METRICS = "metrics";
+  private static final String PROPERTY_JFR = "jfr";
+  private static final String PROPERTY_SLOW_QUERY_LOG_THRESHOLD = "slowQueryLog.threshold";
+  private static final String PROPERTY_SLOW_QUERY_LOG_QUEUE_SIZE = "slowQueryLog.queueSize";
+  private static final String STORAGE_SQL = "sql";
+  private static final String STORAGE_MEMORY = "memory";
+  private static final String STORAGE_FILE = "file";
+  
+  private int slotMinutes = 60;
+  private int batchSize = 100;
+  private int streamFetchSize = Integer.MIN_VALUE;
+  private volatile CourtAvailability courtAvailability;
+  private volatile HolidayCalendar holidayCalendar;
+  private CachingCourtDAO cachingCourtDAO;
+  private CachingMemberDAO cachingMemberDAO;
+  private MappedBookingDAO mappedBookingDAO;
+  private SingleFlight<Long, Court> courtFindFlights;
+  private SingleFlight<Long, Booking> bookingFindFlights;
+  private SingleFlight<List<Long>, Booking> bookingSlotFlights;
+  private int asyncMaxConcurrency;
+  private volatile AsyncDAOExecutor asyncExecutor;
+  private DAOMetrics metrics;
+  private DAOMethodMetrics connectionMetrics;
+  private boolean events;
+  private SlowQueryLog slowQueryLog;
+  private boolean closed;
   
   /**
    * Returns a new DAOFactory instance for the given database name.
@@ -79,7 +253,57 @@ public abstract class DAOFactory
     }
     
     DAOProperties properties = new DAOProperties(name);
+    String storage = properties.getProperty(PROPERTY_STORAGE, false);
+    DAOFactory instance;
+    
+    // The storage is checked first, since only the SQL storage requires the URL.
+    if (storage == null || STORAGE_SQL.equals(storage))
+    {
+      instance = getSqlInstance(name, properties);
+    }
+    else if (STORAGE_MEMORY.equals(storage))
+    {
+      instance = new InMemoryDAOFactory();
+    }
+    else if (STORAGE_FILE.equals(storage))
+    {
+      instance = getFileInstance(name, properties);
+    }
+    else
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_STORAGE + "' must be '" + STORAGE_SQL + "', '" + STORAGE_MEMORY + "' or '" + STORAGE_FILE + "'.");
+    }
+    
+    instance.configure(properties);
+    
+    return instance;
+  }
+  
+  /**
+   * Returns a new DAOFactory instance for the file storage of the given database name, restored
+   * from its directory.
+   */
+  private static DAOFactory getFileInstance(String name, DAOProperties properties) throws DAOConfigurationException
+  {
+    String directory = properties.getProperty(PROPERTY_FILE_DIRECTORY, true);
+    String fsync = properties.getProperty(PROPERTY_FILE_FSYNC, false);
+    int snapshotBytes = properties.getIntProperty(PROPERTY_FILE_SNAPSHOT_BYTES, 64 << 20);
     
+    try
+    {
+      return new FileDAOFactory(Paths.get(directory), fsync == null || Boolean.parseBoolean(fsync), snapshotBytes);
+    }
+    catch (IOException | DAOException e)
+    {
+      throw new DAOConfigurationException("Directory '" + directory + "' of '" + name + "' cannot be restored.", e);
+    }
+  }
+  
+  /**
+   * Returns a new DAOFactory instance for the SQL database of the given database name.
+   */
+  private static DAOFactory getSqlInstance(String name, DAOProperties properties) throws DAOConfigurationException
+  {
     String url = properties.getProperty(PROPERTY_URL, true);
     String driverClassName = properties.getProperty(PROPERTY_DRIVER, false);
     String password = properties.getProperty(PROPERTY_PASSWORD, false);
@@ -99,7 +323,35 @@ public abstract class DAOFactory
         throw new DAOConfigurationException("Driver class '" + driverClassName + "' is missing in the classpath.", e);
       }
       
-      instance = new DriverManagerDAOFactory(url, username, password);
+      if (Boolean.parseBoolean(properties.getProperty(PROPERTY_REWRITE_BATCHED_STATEMENTS, false)))
+      {
+        url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+      }
+      
+      int poolMax = properties.getIntProperty(PROPERTY_POOL_MAX, 0);
+      
+      // If pool size is specified, then reuse the connections instead of opening one per DAO call.
+      if (poolMax > 0)
+      {
+        int poolMin = properties.getIntProperty(PROPERTY_POOL_MIN, 0);
+        int idleTimeout = properties.getIntProperty(PROPERTY_POOL_IDLE_TIMEOUT, 600000);
+        int borrowTimeout = properties.getIntProperty(PROPERTY_POOL_BORROW_TIMEOUT, 30000);
+        int validationTimeout = properties.getIntProperty(PROPERTY_POOL_VALIDATION_TIMEOUT, 5);
+        int statementCacheSize = properties.getIntProperty(PROPERTY_POOL_STATEMENT_CACHE_SIZE, 0);
+        
+        try
+        {
+          instance = new PooledDAOFactory(new ConnectionPool(url, username, password, poolMin, poolMax, idleTimeout, borrowTimeout, validationTimeout, statementCacheSize));
+        }
+        catch (IllegalArgumentException e)
+        {
+          throw new DAOConfigurationException("Connection pool of '" + name + "' is misconfigured.", e);
+        }
+      }
+      else
+      {
+        instance = new DriverManagerDAOFactory(url, username, password);
+      }
     }
     // Else assume URL as DataSource URL and lookup it in the JNDI.
     else
@@ -129,123 +381,1347 @@ public abstract class DAOFactory
   }
   
   /**
-   * Returns a connection to the database. Package private so that it can be used inside the DAO
-   * package only.
+   * Configures the optional features of this DAOFactory from the given properties.
    * 
-   * @return A connection to the database.
+   * @param properties The properties of the database name of this DAOFactory.
    * 
-   * @throws SQLException If acquiring the connection fails.
+   * @throws DAOConfigurationException If an optional property has an invalid value.
    */
-  abstract Connection getConnection() throws SQLException;
+  void configure(DAOProperties properties) throws DAOConfigurationException
+  {
+    slotMinutes = properties.getIntProperty(PROPERTY_AVAILABILITY_SLOT_MINUTES, 60);
+    
+    if (slotMinutes < 30)
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_AVAILABILITY_SLOT_MINUTES + "' must be at least 30 minutes.");
+    }
+    
+    batchSize = properties.getIntProperty(PROPERTY_BATCH_SIZE, 100);
+    
+    if (batchSize < 1)
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_BATCH_SIZE + "' must be at least 1.");
+    }
+    
+    streamFetchSize = properties.getIntProperty(PROPERTY_STREAM_FETCH_SIZE, Integer.MIN_VALUE);
+    
+    if (Boolean.parseBoolean(properties.getProperty(PROPERTY_CACHE_COURTS, false)))
+    {
+      int ttl = properties.getIntProperty(PROPERTY_CACHE_COURTS_TTL, 0);
+      
+      if (ttl < 0)
+      {
+        throw new DAOConfigurationException("Property '" + PROPERTY_CACHE_COURTS_TTL + "' must not be negative.");
+      }
+      
+      cachingCourtDAO = new CachingCourtDAO(newCourtDAO(), ttl);
+    }
+    
+    int membersMaxSize = properties.getIntProperty(PROPERTY_CACHE_MEMBERS_MAX_SIZE, 0);
+    
+    if (membersMaxSize < 0)
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_CACHE_MEMBERS_MAX_SIZE + "' must not be negative.");
+    }
+    else if (membersMaxSize > 0)
+    {
+      cachingMemberDAO = new CachingMemberDAO(newMemberDAO(), membersMaxSize);
+    }
+    
+    String bookingsDirectory = properties.getProperty(PROPERTY_BOOKINGS_DIRECTORY, false);
+    
+    if (bookingsDirectory != null)
+    {
+      String fsync = properties.getProperty(PROPERTY_BOOKINGS_FSYNC, false);
+      CourtDAO courtDAO = (cachingCourtDAO != null) ? cachingCourtDAO : newCourtDAO();
+      MemberDAO memberDAO = (cachingMemberDAO != null) ? cachingMemberDAO : newMemberDAO();
+      
+      try
+      {
+        mappedBookingDAO = new MappedBookingDAO(Paths.get(bookingsDirectory), courtDAO, memberDAO, fsync == null || Boolean.parseBoolean(fsync));
+      }
+      catch (IOException e)
+      {
+        throw new DAOConfigurationException("Booking directory '" + bookingsDirectory + "' of '" + properties.getSpecificKey() + "' cannot be mapped.", e);
+      }
+    }
+    
+    if (Boolean.parseBoolean(properties.getProperty(PROPERTY_COALESCE_READS, false)))
+    {
+      int timeout = properties.getIntProperty(PROPERTY_COALESCE_READS_TIMEOUT, 5000);
+      
+      if (timeout < 1)
+      {
+        throw new DAOConfigurationException("Property '" + PROPERTY_COALESCE_READS_TIMEOUT + "' must be at least 1.");
+      }
+      
+      courtFindFlights = new SingleFlight<>("CourtDAO.find(Long)", timeout);
+      bookingFindFlights = new SingleFlight<>("BookingDAO.find(Long)", timeout);
+      bookingSlotFlights = new SingleFlight<>("BookingDAO.find(Court, Date)", timeout);
+    }
+    
+    asyncMaxConcurrency = properties.getIntProperty(PROPERTY_ASYNC_MAX_CONCURRENCY, 0);
+    
+    if (asyncMaxConcurrency < 0)
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_ASYNC_MAX_CONCURRENCY + "' must not be negative.");
+    }
+    
+    if (Boolean.parseBoolean(properties.getProperty(PROPERTY_METRICS, false)))
+    {
+      metrics = new DAOMetrics(properties.getSpecificKey());
+      connectionMetrics = metrics.get("DAOFactory.getConnection()");
+    }
+    
+    events = Boolean.parseBoolean(properties.getProperty(PROPERTY_JFR, false));
+    int slowQueryThreshold = properties.getIntProperty(PROPERTY_SLOW_QUERY_LOG_THRESHOLD, 0);
+    
+    if (slowQueryThreshold < 0)
+    {
+      throw new DAOConfigurationException("Property '" + PROPERTY_SLOW_QUERY_LOG_THRESHOLD + "' must not be negative.");
+    }
+    else if (slowQueryThreshold > 0)
+    {
+      int queueSize = properties.getIntProperty(PROPERTY_SLOW_QUERY_LOG_QUEUE_SIZE, 1024);
+      
+      if (queueSize < 1)
+      {
+        throw new DAOConfigurationException("Property '" + PROPERTY_SLOW_QUERY_LOG_QUEUE_SIZE + "' must be at least 1.");
+      }
+      
+      slowQueryLog = new SlowQueryLog(slowQueryThreshold, queueSize);
+    }
+  }
   
   /**
-   * Returns the Member DAO associated with the current DAOFactory.
+   * Returns the maximum amount of rows sent in one JDBC batch. Package private so that it can be
+   * used inside the DAO package only.
    * 
-   * @return The Member DAO associated with the current DAOFactory.
+   * @return The maximum amount of rows sent in one JDBC batch.
    */
-  public MemberDAO getMemberDAO()
+  int getBatchSize()
   {
-    return new MemberDAOJDBC(this);
+    return batchSize;
   }
   
   /**
-   * Returns the Court DAO associated with the current DAOFactory.
+   * Returns the JDBC fetch size of the stream methods of the DAO's. Package private so that it can
+   * be used inside the DAO package only.
    * 
-   * @return The Court DAO associated with the current DAOFactory.
+   * @return The JDBC fetch size of the stream methods of the DAO's.
    */
-  public CourtDAO getCourtDAO()
+  int getStreamFetchSize()
   {
-    return new CourtDAOJDBC(this);
+    return streamFetchSize;
   }
   
   /**
-   * Returns the Holiday DAO associated with the current DAOFactory.
+   * Returns the identity map shared by all queries of the unit of work of this DAOFactory, or null
+   * if each query is to use its own identity map, which is the default. Package private so that it
+   * can be used inside the DAO package only.
    * 
-   * @return The Holiday DAO associated with the current DAOFactory.
+   * @return The identity map of the unit of work of this DAOFactory, or null.
    */
-  public HolidayDAO getHolidayDAO()
+  IdentityMap getIdentityMap()
   {
-    return new HolidayDAOJDBC(this);
+    return null;
   }
   
   /**
-   * Returns the Booking DAO associated with the current DAOFactory.
+   * Runs the given unit of work in one transaction with the default isolation level of the
+   * database. See {@link #inTransaction(int, boolean, UnitOfWork)}.
    * 
-   * @return The Booking DAO associated with the current DAOFactory.
+   * @param work The unit of work to be run.
+   * 
+   * @throws DAOException If something fails at database level, in which case the transaction is
+   * rolled back.
    */
-  public BookingDAO getBookingDAO()
+  public void inTransaction(UnitOfWork work) throws DAOException
   {
-    return new BookingDAOJDBC(this);
+    inTransaction(null, false, work);
   }
-}
-
-/**
- * The DriverManager based DAOFactory.
- * 
- * @author Jose Monteiro
- */
-class DriverManagerDAOFactory extends DAOFactory
-{
-  private String url;
-  private String username;
-  private String password;
   
-  DriverManagerDAOFactory(String url, String username, String password)
+  /**
+   * Runs the given unit of work in one transaction with the given isolation level and read-only
+   * hint. All DAO's obtained from the DAOFactory passed to the unit of work share one connection,
+   * and all their changes are committed at once when the unit of work completes. When it throws, all
+   * changes are rolled back and the exception is rethrown. Within the transaction the bookings, and
+   * the courts and members joined to them, are mapped through one identity map, from which the
+   * courts and members updated or deleted in the transaction are removed again.
+   * <p>
+   * The caches of this DAOFactory, such as the court availability and the court and member caches,
+   * only learn about the changes after the commit. A unit of work started from the DAOFactory of a
+   * transaction joins that transaction.
+   * 
+   * @param isolation The isolation level, one of the <code>Connection.TRANSACTION_*</code>
+   * constants.
+   * @param readOnly Set whether the transaction only reads, which lets the database skip some work.
+   * @param work The unit of work to be run.
+   * 
+   * @throws DAOException If something fails at database level, in which case the transaction is
+   * rolled back.
+   */
+  public void inTransaction(int isolation, boolean readOnly, UnitOfWork work) throws DAOException
   {
-    this.url = url;
-    this.username = username;
-    this.password = password;
+    inTransaction(Integer.valueOf(isolation), readOnly, work);
   }
   
-  @Override
-  Connection getConnection() throws SQLException
+  /**
+   * Runs the given unit of work in one transaction with the given isolation level, or the default
+   * one when null.
+   */
+  private void inTransaction(Integer isolation, boolean readOnly, UnitOfWork work) throws DAOException
   {
-    return DriverManager.getConnection(url, username, password);
+    TransactionDAOFactory transaction = null;
+    boolean committed = false;
+    
+    try (Connection connection = getConnection())
+    {
+      int originalIsolation = connection.getTransactionIsolation();
+      Throwable failure = null;
+      connection.setAutoCommit(false);
+      
+      try
+      {
+        if (isolation != null)
+        {
+          connection.setTransactionIsolation(isolation);
+        }
+        
+        if (readOnly)
+        {
+          connection.setReadOnly(true);
+        }
+        
+        transaction = new TransactionDAOFactory(this, connection);
+        work.execute(transaction);
+        connection.commit();
+        committed = true;
+      }
+      catch (SQLException | RuntimeException | Error e)
+      {
+        failure = e;
+        
+        try
+        {
+          connection.rollback();
+        }
+        catch (SQLException rollbackFailure)
+        {
+          e.addSuppressed(rollbackFailure);
+        }
+        
+        throw e;
+      }
+      finally
+      {
+        restore(connection, readOnly, isolation != null, originalIsolation, failure);
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    finally
+    {
+      // Also when restoring the connection failed, since the changes are committed anyway.
+      if (committed && !readOnly)
+      {
+        committed(transaction);
+      }
+    }
   }
-}
-
-/**
- * The DataSource based DAOFactory.
- * 
- * @author Jose Monteiro
- */
-class DataSourceDAOFactory extends DAOFactory
-{
-  private DataSource dataSource;
   
-  DataSourceDAOFactory(DataSource dataSource)
+  /**
+   * Restores the settings of the given connection after a transaction, each on its own, so that a
+   * failure neither keeps the other settings from being restored nor hides the given failure of the
+   * transaction, to which it is added as suppressed. A pooled connection of which a setting cannot
+   * be restored is closed on return instead of being kept.
+   * 
+   * @throws SQLException If restoring a setting fails while the transaction did not.
+   */
+  private static void restore(Connection connection, boolean readOnly, boolean isolation, int originalIsolation, Throwable failure) throws SQLException
   {
-    this.dataSource = dataSource;
+    SQLException restoreFailure = null;
+    
+    if (readOnly)
+    {
+      try
+      {
+        connection.setReadOnly(false);
+      }
+      catch (SQLException e)
+      {
+        restoreFailure = e;
+      }
+    }
+    
+    if (isolation)
+    {
+      try
+      {
+        connection.setTransactionIsolation(originalIsolation);
+      }
+      catch (SQLException e)
+      {
+        restoreFailure = suppress(restoreFailure, e);
+      }
+    }
+    
+    try
+    {
+      connection.setAutoCommit(true);
+    }
+    catch (SQLException e)
+    {
+      restoreFailure = suppress(restoreFailure, e);
+    }
+    
+    if (restoreFailure != null)
+    {
+      if (failure == null)
+      {
+        throw restoreFailure;
+      }
+      
+      failure.addSuppressed(restoreFailure);
+    }
   }
   
-  @Override
-  Connection getConnection() throws SQLException
+  /**
+   * Returns the given failure with the given next failure added as suppressed, or the next failure
+   * if there is no failure yet.
+   */
+  private static SQLException suppress(SQLException failure, SQLException next)
   {
-    return dataSource.getConnection();
+    if (failure == null)
+    {
+      return next;
+    }
+    
+    failure.addSuppressed(next);
+    return failure;
   }
-}
-
-/**
- * The DataSource-with-Login based DAOFactory.
- * 
- * @author Jose Monteiro
- */
-class DataSourceWithLoginDAOFactory extends DAOFactory
-{
-  private DataSource dataSource;
-  private String username;
-  private String password;
   
-  DataSourceWithLoginDAOFactory(DataSource dataSource, String username, String password)
+  /**
+   * Brings the caches of this DAOFactory in sync with the changes committed by the given
+   * transaction, for the DAO types which were used in it. Package private so that it can be used
+   * inside the DAO package only.
+   * 
+   * @param transaction The committed transaction.
+   */
+  void committed(TransactionDAOFactory transaction)
   {
-    this.dataSource = dataSource;
-    this.username = username;
-    this.password = password;
+    if (transaction.usedCourts && cachingCourtDAO != null)
+    {
+      cachingCourtDAO.invalidate();
+    }
+    
+    if (transaction.usedMembers && cachingMemberDAO != null)
+    {
+      cachingMemberDAO.invalidate();
+    }
+    
+    if (transaction.usedHolidays && holidayCalendar != null)
+    {
+      holidayCalendar.invalidate();
+    }
+    
+    if ((transaction.usedBookings || transaction.usedHolidays) && courtAvailability != null)
+    {
+      courtAvailability.invalidate();
+    }
+    
+    if (transaction.usedCourts && courtFindFlights != null)
+    {
+      courtFindFlights.written();
+    }
+    
+    if (transaction.usedBookings && bookingFindFlights != null)
+    {
+      bookingFindFlights.written();
+      bookingSlotFlights.written();
+    }
   }
   
-  @Override
-  Connection getConnection() throws SQLException
+  /**
+   * Returns the maximum amount of connections this DAOFactory can hand out at once, or 0 if there
+   * is no such limit. Package private so that it can be used inside the DAO package only.
+   * 
+   * @return The maximum amount of connections this DAOFactory can hand out at once, or 0.
+   */
+  int getMaxConnections()
   {
-    return dataSource.getConnection(username, password);
+    return 0;
+  }
+  
+  /**
+   * Returns the executor of the asynchronous DAO's of this DAOFactory, creating it on first use.
+   * Package private so that it can be used inside the DAO package only.
+   * 
+   * @return The executor of the asynchronous DAO's of this DAOFactory.
+   * 
+   * @throws IllegalStateException If this DAOFactory is closed.
+   */
+  AsyncDAOExecutor getAsyncExecutor()
+  {
+    AsyncDAOExecutor executor = asyncExecutor;
+    
+    if (executor == null)
+    {
+      synchronized (this)
+      {
+        executor = asyncExecutor;
+        
+        if (closed)
+        {
+          throw new IllegalStateException("DAOFactory is closed.");
+        }
+        
+        if (executor == null)
+        {
+          int maxConcurrency = (asyncMaxConcurrency > 0) ? asyncMaxConcurrency : (getMaxConnections() > 0) ? getMaxConnections() : 10;
+          executor = new AsyncDAOExecutor(maxConcurrency);
+          asyncExecutor = executor;
+        }
+      }
+    }
+    
+    return executor;
+  }
+  
+  /**
+   * Closes the current DAOFactory, in the reverse order in which its parts are created: the
+   * asynchronous DAO's, after their running calls, the slow query log, after writing the entries
+   * which are queued, the JMX registration of the metrics and the memory-mapped files of the
+   * bookings. The concrete DAOFactory then closes its storage, such as the connection pool or the
+   * write-ahead log of the file storage. The DAO's of the current DAOFactory must not be used
+   * anymore after it is closed. Closing it again has no effect.
+   * 
+   * @throws DAOException If closing the memory-mapped files of the bookings or the storage fails.
+   */
+  @Override
+  public void close() throws DAOException
+  {
+    AsyncDAOExecutor executor;
+    
+    synchronized (this)
+    {
+      if (closed)
+      {
+        return;
+      }
+      
+      closed = true;
+      executor = asyncExecutor;
+      asyncExecutor = null;
+    }
+    
+    if (executor != null)
+    {
+      executor.close();
+    }
+    
+    if (slowQueryLog != null)
+    {
+      slowQueryLog.close();
+    }
+    
+    if (metrics != null)
+    {
+      metrics.unregister();
+    }
+    
+    if (mappedBookingDAO != null)
+    {
+      try
+      {
+        mappedBookingDAO.close();
+      }
+      catch (IOException e)
+      {
+        throw new DAOException(e);
+      }
+    }
+  }
+  
+  /**
+   * Returns a connection to the database, recording the time taken to acquire it when metrics are
+   * enabled or when the running DAO call emits a flight recorder event. When the slow query log is
+   * enabled, the statements of the connection are timed. Package private so that it can be used
+   * inside the DAO package only.
+   * 
+   * @return A connection to the database.
+   * 
+   * @throws SQLException If acquiring the connection fails.
+   */
+  Connection getConnection() throws SQLException
+  {
+    Connection connection = acquireConnection();
+    return (slowQueryLog != null) ? slowQueryLog.wrap(connection) : connection;
+  }
+  
+  /**
+   * Acquires a connection to the database, recording the time taken when asked for.
+   */
+  private Connection acquireConnection() throws SQLException
+  {
+    DAOMethodMetrics timing = connectionMetrics;
+    DAOCallEvent event = events ? DAOCallEvent.current() : null;
+    
+    if (timing == null && event == null)
+    {
+      return openConnection();
+    }
+    
+    long start = System.nanoTime();
+    
+    try
+    {
+      Connection connection = openConnection();
+      waited(timing, event, System.nanoTime() - start, null);
+      return connection;
+    }
+    catch (SQLException | RuntimeException e)
+    {
+      waited(timing, event, System.nanoTime() - start, e);
+      throw e;
+    }
+  }
+  
+  /**
+   * Records the given connection wait in the given metrics and event, each of which may be null.
+   */
+  private static void waited(DAOMethodMetrics timing, DAOCallEvent event, long nanos, Exception failure)
+  {
+    if (timing != null)
+    {
+      if (failure != null)
+      {
+        timing.failed(nanos, failure);
+      }
+      else
+      {
+        timing.completed(nanos, 0);
+      }
+    }
+    
+    if (event != null)
+    {
+      event.connectionWait += nanos;
+    }
+  }
+  
+  /**
+   * Acquires a connection to the database. To be implemented by the concrete DAOFactory.
+   * 
+   * @return A connection to the database.
+   * 
+   * @throws SQLException If acquiring the connection fails.
+   */
+  abstract Connection openConnection() throws SQLException;
+  
+  /**
+   * Returns the metrics of the DAO calls of the current DAOFactory, or null when metrics are
+   * disabled.
+   * 
+   * @return The metrics of the DAO calls of the current DAOFactory, or null.
+   */
+  public DAOMetrics getMetrics()
+  {
+    return metrics;
+  }
+  
+  /**
+   * Returns whether the DAO calls of the current DAOFactory emit flight recorder events. Package
+   * private so that it can be used inside the DAO package only.
+   * 
+   * @return Whether the DAO calls of the current DAOFactory emit flight recorder events.
+   */
+  boolean isEmittingEvents()
+  {
+    return events;
+  }
+  
+  /**
+   * Returns the given DAO wrapped so that its calls are recorded in the metrics and flight recorder
+   * events of the current DAOFactory, or the given DAO itself when both are disabled. Package
+   * private so that it can be used inside the DAO package only.
+   * 
+   * @param type The DAO interface.
+   * @param dao The DAO to be instrumented.
+   * 
+   * @return The instrumented DAO, or the given DAO when metrics and events are disabled.
+   */
+  <T> T instrument(Class<T> type, T dao)
+  {
+    DAOMetrics daoMetrics = getMetrics();
+    boolean emittingEvents = isEmittingEvents();
+    return (daoMetrics != null || emittingEvents) ? InstrumentedDAO.instrument(type, dao, daoMetrics, emittingEvents) : dao;
+  }
+  
+  /**
+   * Returns a new Member DAO on the storage of the current DAOFactory, without the caches and other
+   * decorators. This is the Member DAO on the database by default. Package private so that it can be
+   * used inside the DAO package only.
+   * 
+   * @return A new Member DAO on the storage of the current DAOFactory.
+   */
+  MemberDAO newMemberDAO()
+  {
+    return new MemberDAOJDBC(this);
+  }
+  
+  /**
+   * Returns a new Court DAO on the storage of the current DAOFactory, without the caches and other
+   * decorators. This is the Court DAO on the database by default. Package private so that it can be
+   * used inside the DAO package only.
+   * 
+   * @return A new Court DAO on the storage of the current DAOFactory.
+   */
+  CourtDAO newCourtDAO()
+  {
+    return new CourtDAOJDBC(this);
+  }
+  
+  /**
+   * Returns a new Holiday DAO on the storage of the current DAOFactory, without the caches and other
+   * decorators. This is the Holiday DAO on the database by default. Package private so that it can be
+   * used inside the DAO package only.
+   * 
+   * @return A new Holiday DAO on the storage of the current DAOFactory.
+   */
+  HolidayDAO newHolidayDAO()
+  {
+    return new HolidayDAOJDBC(this);
+  }
+  
+  /**
+   * Returns a new Booking DAO on the storage of the current DAOFactory, without the caches and other
+   * decorators. This is the Booking DAO on the database by default. Package private so that it can be
+   * used inside the DAO package only.
+   * 
+   * @return A new Booking DAO on the storage of the current DAOFactory.
+   */
+  BookingDAO newBookingDAO()
+  {
+    return new BookingDAOJDBC(this);
+  }
+  
+  /**
+   * Returns the mapped Booking DAO of the current DAOFactory, or null when the bookings are kept in
+   * the storage. Package private so that it can be used inside the DAO package only.
+   * 
+   * @return The mapped Booking DAO of the current DAOFactory, or null.
+   */
+  MappedBookingDAO getMappedBookingDAO()
+  {
+    return mappedBookingDAO;
+  }
+  
+  /**
+   * Returns the Booking DAO on the bookings of the current DAOFactory, without the caches and other
+   * decorators: the mapped Booking DAO when the bookings are kept in memory-mapped files, otherwise
+   * a new Booking DAO on the storage.
+   * 
+   * @return The Booking DAO on the bookings of the current DAOFactory.
+   */
+  BookingDAO getStorageBookingDAO()
+  {
+    MappedBookingDAO mapped = getMappedBookingDAO();
+    return (mapped != null) ? mapped : newBookingDAO();
+  }
+  
+  /**
+   * Returns the Member DAO associated with the current DAOFactory. When the member cache is enabled,
+   * all calls return the same caching Member DAO, so that a write through any of them is seen by all.
+   * 
+   * @return The Member DAO associated with the current DAOFactory.
+   */
+  public MemberDAO getMemberDAO()
+  {
+    return instrument(MemberDAO.class, (cachingMemberDAO != null) ? cachingMemberDAO : newMemberDAO());
+  }
+  
+  /**
+   * Returns the statistics of the member cache of the current DAOFactory, or null when the member
+   * cache is disabled.
+   * 
+   * @return The statistics of the member cache, or null when the member cache is disabled.
+   */
+  public CacheStats getMemberCacheStats()
+  {
+    return (cachingMemberDAO != null) ? cachingMemberDAO.getStats() : null;
+  }
+  
+  /**
+   * Returns the Court DAO associated with the current DAOFactory. When the court cache is enabled,
+   * all calls return the same caching Court DAO, so that a write through any of them is seen by all.
+   * 
+   * @return The Court DAO associated with the current DAOFactory.
+   */
+  public CourtDAO getCourtDAO()
+  {
+    CourtDAO courtDAO = cachingCourtDAO;
+    
+    if (courtDAO == null)
+    {
+      courtDAO = newCourtDAO();
+      
+      if (courtFindFlights != null)
+      {
+        courtDAO = new CoalescingCourtDAO(courtDAO, courtFindFlights);
+      }
+    }
+    
+    return instrument(CourtDAO.class, courtDAO);
+  }
+  
+  /**
+   * Returns the Holiday DAO associated with the current DAOFactory. Its existDate is answered from
+   * the holiday calendar of the current DAOFactory.
+   * 
+   * @return The Holiday DAO associated with the current DAOFactory.
+   */
+  public HolidayDAO getHolidayDAO()
+  {
+    return instrument(HolidayDAO.class, new CalendarHolidayDAO(newHolidayDAO(), getHolidayCalendar(), getCourtAvailability()));
+  }
+  
+  /**
+   * Returns the Booking DAO associated with the current DAOFactory.
+   * 
+   * @return The Booking DAO associated with the current DAOFactory.
+   */
+  public BookingDAO getBookingDAO()
+  {
+    BookingDAO bookingDAO = getStorageBookingDAO();
+    
+    if (bookingFindFlights != null)
+    {
+      bookingDAO = new CoalescingBookingDAO(bookingDAO, bookingFindFlights, bookingSlotFlights);
+    }
+    
+    return instrument(BookingDAO.class, new AvailabilityBookingDAO(bookingDAO, getCourtAvailability()));
+  }
+  
+  /**
+   * Returns the asynchronous Member DAO associated with the current DAOFactory. Its calls run on
+   * virtual threads when available, at most as many at once as there are pooled connections.
+   * 
+   * @return The asynchronous Member DAO associated with the current DAOFactory.
+   */
+  public AsyncMemberDAO getAsyncMemberDAO()
+  {
+    return new AsyncMemberDAO(getMemberDAO(), getAsyncExecutor());
+  }
+  
+  /**
+   * Returns the asynchronous Court DAO associated with the current DAOFactory. Its calls run on
+   * virtual threads when available, at most as many at once as there are pooled connections.
+   * 
+   * @return The asynchronous Court DAO associated with the current DAOFactory.
+   */
+  public AsyncCourtDAO getAsyncCourtDAO()
+  {
+    return new AsyncCourtDAO(getCourtDAO(), getAsyncExecutor());
+  }
+  
+  /**
+   * Returns the asynchronous Holiday DAO associated with the current DAOFactory. Its calls run on
+   * virtual threads when available, at most as many at once as there are pooled connections.
+   * 
+   * @return The asynchronous Holiday DAO associated with the current DAOFactory.
+   */
+  public AsyncHolidayDAO getAsyncHolidayDAO()
+  {
+    return new AsyncHolidayDAO(getHolidayDAO(), getAsyncExecutor());
+  }
+  
+  /**
+   * Returns the asynchronous Booking DAO associated with the current DAOFactory. Its calls run on
+   * virtual threads when available, at most as many at once as there are pooled connections.
+   * 
+   * @return The asynchronous Booking DAO associated with the current DAOFactory.
+   */
+  public AsyncBookingDAO getAsyncBookingDAO()
+  {
+    return new AsyncBookingDAO(getBookingDAO(), getAsyncExecutor());
+  }
+  
+  /**
+   * Returns the statistics of the coalesced finds of the current DAOFactory. The list is empty when
+   * read coalescing is disabled. The finds of the Court DAO are not coalesced when the court cache is
+   * enabled, since the cache already serves them from memory.
+   * 
+   * @return The statistics of the coalesced finds of the current DAOFactory.
+   */
+  public List<SingleFlightStats> getSingleFlightStats()
+  {
+    List<SingleFlightStats> stats = new ArrayList<>();
+    
+    if (bookingFindFlights != null)
+    {
+      if (cachingCourtDAO == null)
+      {
+        stats.add(courtFindFlights.stats());
+      }
+      
+      stats.add(bookingFindFlights.stats());
+      stats.add(bookingSlotFlights.stats());
+    }
+    
+    return stats;
+  }
+  
+  /**
+   * Returns the court availability associated with the current DAOFactory. It is kept in sync with
+   * the bookings created, updated and deleted through the Booking DAO's of the current DAOFactory.
+   * 
+   * @return The court availability associated with the current DAOFactory.
+   */
+  public CourtAvailability getCourtAvailability()
+  {
+    CourtAvailability availability = courtAvailability;
+    
+    if (availability == null)
+    {
+      synchronized (this)
+      {
+        availability = courtAvailability;
+        
+        if (availability == null)
+        {
+          availability = new CourtAvailability(getStorageBookingDAO(), getHolidayCalendar(), slotMinutes);
+          courtAvailability = availability;
+        }
+      }
+    }
+    
+    return availability;
+  }
+  
+  /**
+   * Returns the holiday calendar associated with the current DAOFactory. It is kept in sync with the
+   * holidays created, updated and deleted through the Holiday DAO's of the current DAOFactory.
+   * 
+   * @return The holiday calendar associated with the current DAOFactory.
+   */
+  public HolidayCalendar getHolidayCalendar()
+  {
+    HolidayCalendar calendar = holidayCalendar;
+    
+    if (calendar == null)
+    {
+      synchronized (this)
+      {
+        calendar = holidayCalendar;
+        
+        if (calendar == null)
+        {
+          calendar = new HolidayCalendar(newHolidayDAO());
+          holidayCalendar = calendar;
+        }
+      }
+    }
+    
+    return calendar;
+  }
+}
+
+/**
+ * The DriverManager based DAOFactory.
+ * 
+ * @author Jose Monteiro
+ */
+class DriverManagerDAOFactory extends DAOFactory
+{
+  private String url;
+  private String username;
+  private String password;
+  
+  DriverManagerDAOFactory(String url, String username, String password)
+  {
+    this.url = url;
+    this.username = username;
+    this.password = password;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return DriverManager.getConnection(url, username, password);
+  }
+}
+
+/**
+ * The DataSource based DAOFactory.
+ * 
+ * @author Jose Monteiro
+ */
+class DataSourceDAOFactory extends DAOFactory
+{
+  private DataSource dataSource;
+  
+  DataSourceDAOFactory(DataSource dataSource)
+  {
+    this.dataSource = dataSource;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return dataSource.getConnection();
+  }
+}
+
+/**
+ * The DataSource-with-Login based DAOFactory.
+ * 
+ * @author Jose Monteiro
+ */
+class DataSourceWithLoginDAOFactory extends DAOFactory
+{
+  private DataSource dataSource;
+  private String username;
+  private String password;
+  
+  DataSourceWithLoginDAOFactory(DataSource dataSource, String username, String password)
+  {
+    this.dataSource = dataSource;
+    this.username = username;
+    this.password = password;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return dataSource.getConnection(username, password);
+  }
+}
+
+/**
+ * The connection pool based DAOFactory.
+ * 
+ * @author Atidivya
+ */
+class PooledDAOFactory extends DAOFactory
+{
+  private ConnectionPool pool;
+  
+  PooledDAOFactory(ConnectionPool pool)
+  {
+    this.pool = pool;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return pool.borrow();
+  }
+  
+  @Override
+  int getMaxConnections()
+  {
+    return pool.getMax();
+  }
+  
+  @Override
+  public void close() throws DAOException
+  {
+    try
+    {
+      super.close();
+    }
+    finally
+    {
+      pool.close();
+    }
+  }
+}
+
+/**
+ * The DAOFactory of a transaction started by {@link DAOFactory#inTransaction(UnitOfWork)}. Its DAO's
+ * share the connection of the transaction and skip the caches of the DAOFactory which started it,
+ * so that they see the uncommitted changes of the transaction and the caches never see changes
+ * which are rolled back.
+ * 
+ * @author Atidivya
+ */
+class TransactionDAOFactory extends DAOFactory
+{
+  private DAOFactory parent;
+  private Connection connection;
+  private IdentityMap identityMap = new IdentityMap();
+  boolean usedMembers;
+  boolean usedCourts;
+  boolean usedHolidays;
+  boolean usedBookings;
+  
+  TransactionDAOFactory(DAOFactory parent, Connection connection)
+  {
+    this.parent = parent;
+    this.connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) ->
+    {
+      switch (method.getName())
+      {
+        case "close":
+          // The connection is closed when the transaction ends, not when a DAO is done with it.
+          return null;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        default:
+          break;
+      }
+      
+      try
+      {
+        return method.invoke(connection, args);
+      }
+      catch (InvocationTargetException e)
+      {
+        throw e.getCause();
+      }
+    });
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return connection;
+  }
+  
+  @Override
+  int getBatchSize()
+  {
+    return parent.getBatchSize();
+  }
+  
+  @Override
+  int getStreamFetchSize()
+  {
+    return parent.getStreamFetchSize();
+  }
+  
+  @Override
+  IdentityMap getIdentityMap()
+  {
+    return identityMap;
+  }
+  
+  @Override
+  MappedBookingDAO getMappedBookingDAO()
+  {
+    return parent.getMappedBookingDAO();
+  }
+  
+  @Override
+  AsyncDAOExecutor getAsyncExecutor()
+  {
+    // The calls would run on other threads than the unit of work, sharing its connection.
+    throw new IllegalStateException("Asynchronous DAO's are not available inside a transaction.");
+  }
+  
+  @Override
+  public MemberDAO getMemberDAO()
+  {
+    usedMembers = true;
+    return instrument(MemberDAO.class, evicting(MemberDAO.class, newMemberDAO()));
+  }
+  
+  @Override
+  public CourtDAO getCourtDAO()
+  {
+    usedCourts = true;
+    return instrument(CourtDAO.class, evicting(CourtDAO.class, newCourtDAO()));
+  }
+  
+  /**
+   * Returns the given Court or Member DAO wrapped so that its updates and deletes remove the changed
+   * courts or members from the identity map of this transaction, so that the bookings read after
+   * them do not refer to the instances mapped before.
+   */
+  private <T> T evicting(Class<T> type, T dao)
+  {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+    {
+      if (method.getName().startsWith("update") || method.getName().startsWith("delete"))
+      {
+        // Before the call, since a delete sets the ID to null.
+        evict(args[0]);
+      }
+      
+      try
+      {
+        return method.invoke(dao, args);
+      }
+      catch (InvocationTargetException e)
+      {
+        throw e.getCause();
+      }
+    }));
+  }
+  
+  /**
+   * Removes the given court or member, or collection of them, from the identity map of this
+   * transaction.
+   */
+  private void evict(Object changed)
+  {
+    if (changed instanceof Collection)
+    {
+      for (Object each : (Collection<?>) changed)
+      {
+        evict(each);
+      }
+    }
+    else if (changed instanceof Court)
+    {
+      identityMap.removeCourt(((Court) changed).getId());
+    }
+    else if (changed instanceof Member)
+    {
+      identityMap.removeMember(((Member) changed).getId());
+    }
+  }
+  
+  @Override
+  public HolidayDAO getHolidayDAO()
+  {
+    usedHolidays = true;
+    return instrument(HolidayDAO.class, newHolidayDAO());
+  }
+  
+  @Override
+  public BookingDAO getBookingDAO()
+  {
+    usedBookings = true;
+    return instrument(BookingDAO.class, new AvailabilityBookingDAO(getStorageBookingDAO(), getCourtAvailability(), false));
+  }
+  
+  @Override
+  public void inTransaction(UnitOfWork work) throws DAOException
+  {
+    work.execute(this);
+  }
+  
+  @Override
+  public void inTransaction(int isolation, boolean readOnly, UnitOfWork work) throws DAOException
+  {
+    work.execute(this);
+  }
+  
+  @Override
+  public void close() throws DAOException
+  {
+    // The transaction ends with its unit of work, and the parts are of the DAOFactory which started it.
+  }
+  
+  @Override
+  public DAOMetrics getMetrics()
+  {
+    return parent.getMetrics();
+  }
+  
+  @Override
+  boolean isEmittingEvents()
+  {
+    return parent.isEmittingEvents();
+  }
+  
+  @Override
+  public CacheStats getMemberCacheStats()
+  {
+    return parent.getMemberCacheStats();
+  }
+  
+  @Override
+  public List<SingleFlightStats> getSingleFlightStats()
+  {
+    return parent.getSingleFlightStats();
+  }
+  
+  @Override
+  public CourtAvailability getCourtAvailability()
+  {
+    return parent.getCourtAvailability();
+  }
+  
+  @Override
+  public HolidayCalendar getHolidayCalendar()
+  {
+    return parent.getHolidayCalendar();
+  }
+}
+
+/**
+ * The in-memory DAOFactory, selected by the 'storage' property 'memory'. It keeps all members,
+ * courts, holidays and bookings in the concurrent maps and indexes of an {@link InMemoryStore}
+ * until the JVM exits, so each instance starts empty. Its DAO's behave like the JDBC DAO's on the
+ * tables of 'schema.sql', including the DAOException caused by a SQLException with the standard
+ * SQL state of a violated constraint, but never open a connection.
+ * <p>
+ * The caches and other features configured in 'dao.properties' are applied as usual. A unit of work
+ * runs exclusively of all other writes, and is undone completely when it throws. The isolation
+ * level and read-only hint are ignored.
+ * 
+ * @author Atidivya
+ */
+class InMemoryDAOFactory extends DAOFactory
+{
+  private final InMemoryStore store;
+  
+  InMemoryDAOFactory()
+  {
+    this(new InMemoryStore());
+  }
+  
+  InMemoryDAOFactory(InMemoryStore store)
+  {
+    this.store = store;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    throw new SQLException("In-memory storage has no database connection.");
+  }
+  
+  @Override
+  MemberDAO newMemberDAO()
+  {
+    return store.memberDAO;
+  }
+  
+  @Override
+  CourtDAO newCourtDAO()
+  {
+    return store.courtDAO;
+  }
+  
+  @Override
+  HolidayDAO newHolidayDAO()
+  {
+    return store.holidayDAO;
+  }
+  
+  @Override
+  BookingDAO newBookingDAO()
+  {
+    return store.bookingDAO;
+  }
+  
+  @Override
+  public void inTransaction(UnitOfWork work) throws DAOException
+  {
+    InMemoryTransactionDAOFactory transaction = new InMemoryTransactionDAOFactory(this);
+    store.write(true, () -> work.execute(transaction));
+    committed(transaction);
+  }
+  
+  @Override
+  public void inTransaction(int isolation, boolean readOnly, UnitOfWork work) throws DAOException
+  {
+    inTransaction(work);
+  }
+}
+
+/**
+ * The file DAOFactory, selected by the 'storage' property 'file'. It is the in-memory DAOFactory,
+ * of which the {@link InMemoryStore} is restored from the files in its directory on startup and
+ * logs every change to them in a {@link WriteAheadLog}. A write returns once it is durable, and a
+ * unit of work is durable as a whole, including the undo of a failed one.
+ * 
+ * @author Atidivya
+ */
+class FileDAOFactory extends InMemoryDAOFactory
+{
+  private final WriteAheadLog log;
+  
+  FileDAOFactory(Path directory, boolean fsync, long snapshotBytes) throws IOException
+  {
+    this(new InMemoryStore(), directory, fsync, snapshotBytes);
+  }
+  
+  private FileDAOFactory(InMemoryStore store, Path directory, boolean fsync, long snapshotBytes) throws IOException
+  {
+    super(store);
+    log = new WriteAheadLog(store, directory, fsync, snapshotBytes);
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    throw new SQLException("File storage has no database connection.");
+  }
+  
+  @Override
+  public void close() throws DAOException
+  {
+    try
+    {
+      super.close();
+    }
+    finally
+    {
+      try
+      {
+        log.close();
+      }
+      catch (IOException e)
+      {
+        throw new DAOException(e);
+      }
+    }
+  }
+}
+
+/**
+ * The DAOFactory of a unit of work of an {@link InMemoryDAOFactory}. Like the DAOFactory of a
+ * transaction on a database, its DAO's skip the caches of the DAOFactory which started it, so that
+ * the caches never see changes which are undone.
+ * 
+ * @author Atidivya
+ */
+class InMemoryTransactionDAOFactory extends TransactionDAOFactory
+{
+  private InMemoryDAOFactory parent;
+  
+  InMemoryTransactionDAOFactory(InMemoryDAOFactory parent)
+  {
+    super(parent, null);
+    this.parent = parent;
+  }
+  
+  @Override
+  Connection openConnection() throws SQLException
+  {
+    return parent.openConnection();
+  }
+  
+  @Override
+  MemberDAO newMemberDAO()
+  {
+    return parent.newMemberDAO();
+  }
+  
+  @Override
+  CourtDAO newCourtDAO()
+  {
+    return parent.newCourtDAO();
+  }
+  
+  @Override
+  HolidayDAO newHolidayDAO()
+  {
+    return parent.newHolidayDAO();
+  }
+  
+  @Override
+  BookingDAO newBookingDAO()
+  {
+    return parent.newBookingDAO();
   }
 }
\ No newline at end of file
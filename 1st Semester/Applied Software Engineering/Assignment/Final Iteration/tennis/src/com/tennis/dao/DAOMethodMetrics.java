@@ -0,0 +1,176 @@
+package com.tennis.dao;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents the metrics of one DAO method, or of the connection acquisition of a
+ * DAOFactory: a latency histogram, the amount of calls, the amount of rows returned and the amount
+ * of errors by cause. The cause of a DAOException is the exception it wraps, and for a SQLException
+ * its SQL state is added, so that for example a connection failure can be told apart from a
+ * constraint violation.
+ * 
+ * @author Atidivya
+ */
+public class DAOMethodMetrics implements DAOMethodMetricsMBean
+{
+  private final String name;
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final ConcurrentHashMap<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+  
+  /**
+   * Construct the metrics of the DAO method of the given name. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param name The name of the DAO method, such as 'BookingDAO.list()'.
+   */
+  DAOMethodMetrics(String name)
+  {
+    this.name = name;
+  }
+  
+  /**
+   * Records a call which completed in the given nanoseconds and returned the given amount of rows.
+   * 
+   * @param nanos The latency of the call in nanoseconds.
+   * @param rowCount The amount of rows the call returned.
+   */
+  void completed(long nanos, long rowCount)
+  {
+    latencies.record(nanos);
+    
+    if (rowCount > 0)
+    {
+      rows.add(rowCount);
+    }
+  }
+  
+  /**
+   * Records the given amount of rows returned after the call completed, such as by a stream.
+   * 
+   * @param rowCount The amount of rows returned.
+   */
+  void returned(long rowCount)
+  {
+    rows.add(rowCount);
+  }
+  
+  /**
+   * Records a call which failed with the given exception after the given nanoseconds.
+   * 
+   * @param nanos The latency of the call in nanoseconds.
+   * @param failure The exception of the call.
+   */
+  void failed(long nanos, Throwable failure)
+  {
+    latencies.record(nanos);
+    errors.increment();
+    errorsByCause.computeIfAbsent(causeOf(failure), cause -> new LongAdder()).increment();
+  }
+  
+  @Override
+  public String getName()
+  {
+    return name;
+  }
+  
+  @Override
+  public long getCallCount()
+  {
+    return latencies.getCount();
+  }
+  
+  @Override
+  public long getErrorCount()
+  {
+    return errors.sum();
+  }
+  
+  /**
+   * Returns the amount of errors by cause, ordered by cause.
+   * 
+   * @return The amount of errors by cause.
+   */
+  public Map<String, Long> getErrorCounts()
+  {
+    Map<String, Long> counts = new TreeMap<>();
+    errorsByCause.forEach((cause, count) -> counts.put(cause, count.sum()));
+    return counts;
+  }
+  
+  @Override
+  public String getErrorCountsByCause()
+  {
+    return getErrorCounts().toString();
+  }
+  
+  @Override
+  public long getRowCount()
+  {
+    return rows.sum();
+  }
+  
+  @Override
+  public double getMeanMicros()
+  {
+    return latencies.getMean() / 1000.0;
+  }
+  
+  @Override
+  public long getP50Micros()
+  {
+    return getPercentileMicros(50.0);
+  }
+  
+  @Override
+  public long getP99Micros()
+  {
+    return getPercentileMicros(99.0);
+  }
+  
+  @Override
+  public long getP999Micros()
+  {
+    return getPercentileMicros(99.9);
+  }
+  
+  @Override
+  public long getMaxMicros()
+  {
+    return TimeUnit.NANOSECONDS.toMicros(latencies.getMax());
+  }
+  
+  /**
+   * Returns the latency in microseconds at or below which the given percentage of the calls
+   * completed.
+   * 
+   * @param percentile The percentage, from 0 to 100.
+   * 
+   * @return The latency in microseconds at the given percentile.
+   */
+  public long getPercentileMicros(double percentile)
+  {
+    return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(percentile));
+  }
+  
+  /**
+   * Returns the cause under which the given exception is counted.
+   */
+  private static String causeOf(Throwable failure)
+  {
+    Throwable cause = (failure instanceof DAOException && failure.getCause() != null) ? failure.getCause() : failure;
+    
+    if (cause instanceof SQLException)
+    {
+      return cause.getClass().getSimpleName() + "[" + ((SQLException) cause).getSQLState() + "]";
+    }
+    
+    return cause.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,30 @@
+package com.tennis.dao;
+
+/**
+ * This interface represents the JMX management interface of the {@link DAOMethodMetrics} of one
+ * DAO method. The latencies are in microseconds.
+ * 
+ * @author Atidivya
+ */
+public interface DAOMethodMetricsMBean
+{
+  public String getName();
+  
+  public long getCallCount();
+  
+  public long getErrorCount();
+  
+  public String getErrorCountsByCause();
+  
+  public long getRowCount();
+  
+  public double getMeanMicros();
+  
+  public long getP50Micros();
+  
+  public long getP99Micros();
+  
+  public long getP999Micros();
+  
+  public long getMaxMicros();
+}
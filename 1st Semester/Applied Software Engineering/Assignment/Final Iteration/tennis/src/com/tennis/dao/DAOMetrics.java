@@ -0,0 +1,242 @@
+package com.tennis.dao;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class represents the metrics of all DAO methods of a DAOFactory, and of its connection
+ * acquisition, as a set of {@link DAOMethodMetrics} by method name. The metrics are exported as
+ * MBeans under the 'com.tennis.dao' JMX domain, and {@link #dump()} renders them as a plain text
+ * table, for example to be logged periodically or at shutdown.
+ * 
+ * @author Atidivya
+ */
+public class DAOMetrics implements DAOMetricsMBean
+{
+  private static final String DOMAIN = "com.tennis.dao";
+  
+  private final String name;
+  private final ConcurrentHashMap<String, DAOMethodMetrics> metrics = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Class<?>, Map<Method, DAOMethodMetrics>> metricsByType = new ConcurrentHashMap<>();
+  
+  /**
+   * Construct the metrics of the DAOFactory of the given database name and register them in the
+   * platform MBean server. Package private so that it can be constructed inside the DAO package
+   * only.
+   * 
+   * @param name The database name of the DAOFactory.
+   */
+  DAOMetrics(String name)
+  {
+    this.name = name;
+    register(objectName(null), this);
+  }
+  
+  /**
+   * Returns the metrics of the given name, creating and registering them on first use.
+   * 
+   * @param methodName The method name, such as 'DAOFactory.getConnection()'.
+   * 
+   * @return The metrics of the given name.
+   */
+  DAOMethodMetrics get(String methodName)
+  {
+    return metrics.computeIfAbsent(methodName, key ->
+    {
+      DAOMethodMetrics methodMetrics = new DAOMethodMetrics(key);
+      register(objectName(key), methodMetrics);
+      return methodMetrics;
+    });
+  }
+  
+  /**
+   * Returns the metrics of every method of the given DAO interface by method, so that an
+   * instrumented DAO does not have to look up its metrics by name on every call.
+   * 
+   * @param type The DAO interface.
+   * 
+   * @return The metrics of every method of the given DAO interface by method.
+   */
+  Map<Method, DAOMethodMetrics> get(Class<?> type)
+  {
+    return metricsByType.computeIfAbsent(type, key ->
+    {
+      Map<Method, DAOMethodMetrics> methods = new HashMap<>();
+      
+      for (Method method : key.getMethods())
+      {
+        methods.put(method, get(methodName(key, method)));
+      }
+      
+      return Collections.unmodifiableMap(methods);
+    });
+  }
+  
+  /**
+   * Returns the metrics of all methods which were called so far, ordered by method name.
+   * 
+   * @return The metrics of all methods by method name.
+   */
+  public Map<String, DAOMethodMetrics> getAll()
+  {
+    Map<String, DAOMethodMetrics> all = new TreeMap<>();
+    
+    for (DAOMethodMetrics methodMetrics : metrics.values())
+    {
+      if (methodMetrics.getCallCount() > 0)
+      {
+        all.put(methodMetrics.getName(), methodMetrics);
+      }
+    }
+    
+    return all;
+  }
+  
+  /**
+   * Unregisters the MBeans of these metrics from the platform MBean server, when the DAOFactory is
+   * closed. The metrics themselves remain available through {@link #dump()}.
+   */
+  void unregister()
+  {
+    for (String methodName : metrics.keySet())
+    {
+      unregister(objectName(methodName));
+    }
+    
+    unregister(objectName(null));
+  }
+  
+  @Override
+  public String[] getMethodNames()
+  {
+    return getAll().keySet().toArray(new String[0]);
+  }
+  
+  @Override
+  public String getDump()
+  {
+    return dump();
+  }
+  
+  /**
+   * Returns the metrics of all methods which were called so far as a plain text table with one
+   * line per method, followed by a line per error cause. The latencies are in microseconds.
+   * 
+   * @return The metrics of all methods as a plain text table.
+   */
+  public String dump()
+  {
+    StringBuilder dump = new StringBuilder();
+    dump.append(String.format("%-48s %10s %8s %12s %10s %10s %10s %10s %10s%n", "method", "calls", "errors", "rows", "mean(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+    
+    for (DAOMethodMetrics methodMetrics : getAll().values())
+    {
+      dump.append(String.format("%-48s %10d %8d %12d %10.1f %10d %10d %10d %10d%n", methodMetrics.getName(), methodMetrics.getCallCount(), methodMetrics.getErrorCount(), methodMetrics.getRowCount(), methodMetrics.getMeanMicros(), methodMetrics.getP50Micros(), methodMetrics.getP99Micros(), methodMetrics.getP999Micros(), methodMetrics.getMaxMicros()));
+      
+      for (Map.Entry<String, Long> error : methodMetrics.getErrorCounts().entrySet())
+      {
+        dump.append(String.format("  %-46s %10s %8d%n", error.getKey(), "", error.getValue()));
+      }
+    }
+    
+    return dump.toString();
+  }
+  
+  @Override
+  public String toString()
+  {
+    return dump();
+  }
+  
+  /**
+   * Returns the name of the given method of the given DAO interface, such as
+   * 'BookingDAO.list(Court, Date, Date)', so that overloads are told apart.
+   */
+  private static String methodName(Class<?> type, Method method)
+  {
+    StringBuilder methodName = new StringBuilder(type.getSimpleName()).append('.').append(method.getName()).append('(');
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    
+    for (int i = 0; i < parameterTypes.length; i++)
+    {
+      methodName.append((i > 0) ? ", " : "").append(parameterTypes[i].getSimpleName());
+    }
+    
+    return methodName.append(')').toString();
+  }
+  
+  /**
+   * Returns the JMX object name of the metrics of the given method, or of this instance when the
+   * method name is null.
+   */
+  private ObjectName objectName(String methodName)
+  {
+    try
+    {
+      return new ObjectName(DOMAIN + ":type=DAOMetrics,name=" + ObjectName.quote(name) + ((methodName == null) ? "" : ",method=" + ObjectName.quote(methodName)));
+    }
+    catch (JMException e)
+    {
+      return null;
+    }
+  }
+  
+  /**
+   * Registers the given MBean in the platform MBean server, replacing an MBean of the same object
+   * name, for example of an earlier DAOFactory of the same database name. Metrics are an aid, so a
+   * failure to register never fails the DAO layer.
+   */
+  private static void register(ObjectName objectName, Object mbean)
+  {
+    if (objectName == null)
+    {
+      return;
+    }
+    
+    try
+    {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      
+      if (server.isRegistered(objectName))
+      {
+        server.unregisterMBean(objectName);
+      }
+      
+      server.registerMBean(mbean, objectName);
+    }
+    catch (JMException | SecurityException ignore)
+    {
+      // Metrics are then only available through dump().
+    }
+  }
+  
+  /**
+   * Unregisters the MBean of the given object name from the platform MBean server, if it is
+   * registered.
+   */
+  private static void unregister(ObjectName objectName)
+  {
+    if (objectName == null)
+    {
+      return;
+    }
+    
+    try
+    {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+    catch (JMException | SecurityException ignore)
+    {
+      // Not registered, or replaced by the metrics of a later DAOFactory of the same name meanwhile.
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.tennis.dao;
+
+/**
+ * This interface represents the JMX management interface of the {@link DAOMetrics} of a
+ * DAOFactory.
+ * 
+ * @author Atidivya
+ */
+public interface DAOMetricsMBean
+{
+  public String[] getMethodNames();
+  
+  public String getDump();
+}
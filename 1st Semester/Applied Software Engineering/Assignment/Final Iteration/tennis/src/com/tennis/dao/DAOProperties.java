@@ -52,6 +52,16 @@ public class DAOProperties
     this.specificKey = specificKey;
   }
   
+  /**
+   * Returns the specific key which is used as property key prefix, which is the database name.
+   * 
+   * @return The specific key which is used as property key prefix.
+   */
+  public String getSpecificKey()
+  {
+    return specificKey;
+  }
+  
   public String getProperty(String key, boolean mandatory) throws DAOConfigurationException
   {
     String fullKey = specificKey + "." + key;
@@ -72,4 +82,34 @@ public class DAOProperties
     
     return property;
   }
+  
+  /**
+   * Returns the optional integer property prefixed with the specific key, or the given default
+   * value when the property is missing or empty.
+   * 
+   * @param key The property key, without the specific key prefix.
+   * @param defaultValue The value to be returned when the property is missing or empty.
+   * 
+   * @return The integer value of the property, or the given default value.
+   * 
+   * @throws DAOConfigurationException If the property is not a valid integer.
+   */
+  public int getIntProperty(String key, int defaultValue) throws DAOConfigurationException
+  {
+    String property = getProperty(key, false);
+    
+    if (property == null)
+    {
+      return defaultValue;
+    }
+    
+    try
+    {
+      return Integer.parseInt(property.trim());
+    }
+    catch (NumberFormatException e)
+    {
+      throw new DAOConfigurationException("Property '" + specificKey + "." + key + "' in properties file '" + PROPERTIES_FILE + "' is not a valid integer.", e);
+    }
+  }
 }
@@ -3,15 +3,36 @@ package com.tennis.dao;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
+import java.sql.Timestamp;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Holiday;
+import com.tennis.model.Member;
 
 /**
  * Utility class for DAO's. This class contains commonly used DAO logic which is been refactored in
- * single static methods. As far it contains PreparedStatement values setter and a
- * <code>java.util.Date</code> to <code>java.sql.Date</code> converter.
+ * single static methods. As far it contains PreparedStatement values setter, a JDBC batch executor,
+ * a ResultSet streamer, a multi-ID finder, model copiers and a <code>java.util.Date</code> to
+ * <code>java.sql.Date</code> converter.
  * 
  * @author Atidivya
  */
@@ -24,7 +45,9 @@ public final class DAOUtil
   
   /**
    * Returns a PreparedStatement of the given connection, set with the given SQL query and the
-   * given parameter values.
+   * given parameter values. When the connection comes from a connection pool with a statement cache,
+   * the PreparedStatement is taken from the cache of that connection and closing it only returns it
+   * to the cache.
    * 
    * @param connection The Connection to create the PreparedStatement from.
    * @param sql The SQL query to construct the PreparedStatement with.
@@ -38,6 +61,7 @@ public final class DAOUtil
     PreparedStatement statement = connection.prepareStatement(sql, returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS);
     
     setValues(statement, values);
+    DAOCallEvent.statement(sql, values.length);
     
     return statement;
   }
@@ -58,6 +82,398 @@ public final class DAOUtil
     }
   }
   
+  /**
+   * Returns a Stream of the rows of the given SQL query executed on the given connection, mapped by
+   * the given mapper. The rows are fetched from the database while the stream is consumed, in chunks
+   * of the given fetch size, so the whole result is never held in memory. Closing the stream closes
+   * the ResultSet, the PreparedStatement and the given connection. If preparing or executing the
+   * query fails, the given connection is closed immediately.
+   * <p>
+   * A fetch size of <code>Integer.MIN_VALUE</code> lets the MySQL driver stream the rows one by one.
+   * The connection can then not be used for other queries until the stream is closed.
+   * 
+   * @param <T> The type of the mapped rows.
+   * @param connection The Connection to execute the query on, to be closed with the stream.
+   * @param sql The SQL query to be executed.
+   * @param fetchSize The JDBC fetch size of the query.
+   * @param mapper The mapper of a row to a model.
+   * @param values The parameter values to be set in the PreparedStatement.
+   * 
+   * @return A Stream of the mapped rows of the given SQL query.
+   * 
+   * @throws SQLException If something fails during executing the query.
+   */
+  public static <T> Stream<T> stream(Connection connection, String sql, int fetchSize, ResultSetMapper<T> mapper, Object... values) throws SQLException
+  {
+    PreparedStatement statement = null;
+    ResultSet resultSet;
+    
+    try
+    {
+      statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      setValues(statement, values);
+      DAOCallEvent.statement(sql, values.length);
+      resultSet = statement.executeQuery();
+    }
+    catch (SQLException | RuntimeException e)
+    {
+      close(e, statement, connection);
+      throw e;
+    }
+    
+    Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+    {
+      @Override
+      public boolean tryAdvance(Consumer<? super T> action)
+      {
+        try
+        {
+          if (!resultSet.next())
+          {
+            return false;
+          }
+          
+          action.accept(mapper.map(resultSet));
+          return true;
+        }
+        catch (SQLException e)
+        {
+          throw new DAOException(e);
+        }
+      }
+    };
+    
+    PreparedStatement openStatement = statement;
+    
+    return StreamSupport.stream(rows, false).onClose(() ->
+    {
+      DAOException failure = close(null, resultSet, openStatement, connection);
+      
+      if (failure != null)
+      {
+        throw failure;
+      }
+    });
+  }
+  
+  /**
+   * Closes the given resources in the given order, continuing on failure.
+   * 
+   * @param cause The exception which caused the closing, to which failures are added as suppressed,
+   * or null.
+   * @param resources The resources to be closed, may contain null.
+   * 
+   * @return A DAOException holding the first failure when no cause is given, otherwise null.
+   */
+  private static DAOException close(Exception cause, AutoCloseable... resources)
+  {
+    DAOException failure = null;
+    
+    for (AutoCloseable resource : resources)
+    {
+      if (resource == null)
+      {
+        continue;
+      }
+      
+      try
+      {
+        resource.close();
+      }
+      catch (Exception e)
+      {
+        if (cause != null)
+        {
+          cause.addSuppressed(e);
+        }
+        else if (failure == null)
+        {
+          failure = new DAOException(e);
+        }
+        else
+        {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    
+    return failure;
+  }
+  
+  /**
+   * Executes the given SQL statement once for each of the given parameter values, sending them to
+   * the database in JDBC batches of at most the given size. All batches run in one transaction: when
+   * the connection is in auto-commit mode, it is committed at the end or rolled back on failure, else
+   * committing is left to the owner of the transaction.
+   * 
+   * @param connection The Connection to execute the batches on.
+   * @param sql The SQL statement to be executed.
+   * @param returnGeneratedKeys Set whether to return generated keys or not.
+   * @param batchSize The maximum amount of parameter values per batch.
+   * @param values The parameter values to be set, one array per execution.
+   * @param failure The message of the DAOException thrown when an execution affects no rows.
+   * 
+   * @return The generated keys, in the order of the given parameter values, or null if generated
+   * keys are not to be returned.
+   * 
+   * @throws SQLException If something fails at database level.
+   * @throws DAOException If an execution affects no rows, or if not all generated keys are obtained.
+   */
+  public static long[] executeBatch(Connection connection, String sql, boolean returnGeneratedKeys, int batchSize, List<Object[]> values, String failure) throws SQLException, DAOException
+  {
+    long[] generatedKeys = returnGeneratedKeys ? new long[values.size()] : null;
+    boolean autoCommit = connection.getAutoCommit();
+    
+    if (autoCommit)
+    {
+      connection.setAutoCommit(false);
+    }
+    
+    try (PreparedStatement statement = connection.prepareStatement(sql, returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS))
+    {
+      for (int from = 0; from < values.size(); from += batchSize)
+      {
+        int to = Math.min(from + batchSize, values.size());
+        
+        int binds = 0;
+        
+        for (int i = from; i < to; i++)
+        {
+          setValues(statement, values.get(i));
+          statement.addBatch();
+          binds += values.get(i).length;
+        }
+        
+        DAOCallEvent.statement(sql, binds);
+        
+        for (int affectedRows : statement.executeBatch())
+        {
+          if (affectedRows == 0)
+          {
+            throw new DAOException(failure + ", no rows affected.");
+          }
+        }
+        
+        if (returnGeneratedKeys)
+        {
+          int i = from;
+          
+          try (ResultSet resultSet = statement.getGeneratedKeys())
+          {
+            while (i < to && resultSet.next())
+            {
+              generatedKeys[i++] = resultSet.getLong(1);
+            }
+          }
+          
+          if (i < to)
+          {
+            throw new DAOException(failure + ", no generated key obtained.");
+          }
+        }
+      }
+      
+      if (autoCommit)
+      {
+        connection.commit();
+      }
+    }
+    catch (SQLException | RuntimeException e)
+    {
+      if (autoCommit)
+      {
+        connection.rollback();
+      }
+      
+      throw e;
+    }
+    finally
+    {
+      if (autoCommit)
+      {
+        connection.setAutoCommit(true);
+      }
+    }
+    
+    return generatedKeys;
+  }
+  
+  /**
+   * Returns the rows matching the given IDs, mapped by the given mapper and keyed by ID. The given
+   * SQL query must contain <code>IN (%s)</code>, which is filled with one placeholder per ID. The IDs
+   * are queried in chunks of at most the given size. A chunk is padded to the next power of two by
+   * repeating its last ID, so that only a handful of distinct SQL queries is ever prepared. Null and
+   * duplicate IDs are ignored, IDs which do not match any row are absent from the returned map.
+   * 
+   * @param <T> The type of the mapped rows.
+   * @param connection The Connection to execute the queries on.
+   * @param sql The SQL query with <code>IN (%s)</code> to be executed.
+   * @param chunkSize The maximum amount of IDs per query.
+   * @param ids The IDs of the rows to be returned.
+   * @param mapper The mapper of the current row of the ResultSet.
+   * @param id The function returning the ID of a mapped row.
+   * 
+   * @return The mapped rows matching the given IDs, keyed by ID.
+   * 
+   * @throws SQLException If something fails at database level.
+   */
+  public static <T> Map<Long, T> findAll(Connection connection, String sql, int chunkSize, Collection<Long> ids, ResultSetMapper<T> mapper, Function<T, Long> id) throws SQLException
+  {
+    List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    distinctIds.remove(null);
+    Map<Long, T> found = new HashMap<>();
+    
+    for (int from = 0; from < distinctIds.size(); from += chunkSize)
+    {
+      int to = Math.min(from + chunkSize, distinctIds.size());
+      int size = (to - from == 1) ? 1 : Math.min(Integer.highestOneBit(to - from - 1) << 1, chunkSize);
+      Object[] values = new Object[size];
+      
+      for (int i = 0; i < size; i++)
+      {
+        values[i] = distinctIds.get(Math.min(from + i, to - 1));
+      }
+      
+      try
+      (
+        PreparedStatement statement = prepareStatement(connection, String.format(sql, String.join(", ", Collections.nCopies(size, "?"))), false, values);
+        ResultSet resultSet = statement.executeQuery();
+      )
+      {
+        while (resultSet.next())
+        {
+          T row = mapper.map(resultSet);
+          found.put(id.apply(row), row);
+        }
+      }
+    }
+    
+    return found;
+  }
+  
+  /**
+   * Returns true if the given SQLException is caused by a violated unique constraint, such as a
+   * duplicate key.
+   * 
+   * @param e The SQLException to be checked.
+   * 
+   * @return True if the given SQLException is caused by a violated unique constraint.
+   */
+  public static boolean isUniqueViolation(SQLException e)
+  {
+    // MySQL reports error 1062 with the generic state 23000, other databases use the standard 23505.
+    return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+  }
+  
+  /**
+   * Returns a copy of the given court, or null if the given court is null. To be used when a court
+   * is handed out to more than one caller, such as from a cache.
+   * 
+   * @param court The court to be copied.
+   * 
+   * @return A copy of the given court.
+   */
+  public static Court copy(Court court)
+  {
+    if (court == null)
+    {
+      return null;
+    }
+    
+    Court copy = new Court();
+    
+    copy.setId(court.getId());
+    copy.setName(court.getName());
+    copy.setSurface(court.getSurface());
+    copy.setOpeningTime(court.getOpeningTime());
+    copy.setClosingTime(court.getClosingTime());
+    copy.setIndoor(court.isIndoor());
+    copy.setLighting(court.isLighting());
+    copy.setObservations(court.getObservations());
+    
+    return copy;
+  }
+  
+  /**
+   * Returns a copy of the given member, or null if the given member is null. To be used when a
+   * member is handed out to more than one caller, such as from a cache.
+   * 
+   * @param member The member to be copied.
+   * 
+   * @return A copy of the given member.
+   */
+  public static Member copy(Member member)
+  {
+    if (member == null)
+    {
+      return null;
+    }
+    
+    Member copy = new Member();
+    
+    copy.setId(member.getId());
+    copy.setName(member.getName());
+    copy.setEmail(member.getEmail());
+    copy.setPhone(member.getPhone());
+    copy.setAddress(member.getAddress());
+    copy.setObservations(member.getObservations());
+    
+    return copy;
+  }
+  
+  /**
+   * Returns a copy of the given holiday, or null if the given holiday is null. To be used when a
+   * holiday is handed out to more than one caller.
+   * 
+   * @param holiday The holiday to be copied.
+   * 
+   * @return A copy of the given holiday.
+   */
+  public static Holiday copy(Holiday holiday)
+  {
+    if (holiday == null)
+    {
+      return null;
+    }
+    
+    Holiday copy = new Holiday();
+    
+    copy.setId(holiday.getId());
+    copy.setDate((holiday.getDate() != null) ? (java.util.Date) holiday.getDate().clone() : null);
+    copy.setName(holiday.getName());
+    copy.setObservations(holiday.getObservations());
+    
+    return copy;
+  }
+  
+  /**
+   * Returns a copy of the given booking together with its court and member, or null if the given
+   * booking is null. To be used when a booking is handed out to more than one caller.
+   * 
+   * @param booking The booking to be copied.
+   * 
+   * @return A copy of the given booking.
+   */
+  public static Booking copy(Booking booking)
+  {
+    if (booking == null)
+    {
+      return null;
+    }
+    
+    Booking copy = new Booking();
+    
+    copy.setId(booking.getId());
+    copy.setCourt(copy(booking.getCourt()));
+    copy.setStartTime((booking.getStartTime() != null) ? (java.util.Date) booking.getStartTime().clone() : null);
+    copy.setType(booking.getType());
+    copy.setMember(copy(booking.getMember()));
+    copy.setObservations(booking.getObservations());
+    
+    return copy;
+  }
+  
   /**
    * Converts the given java.util.Date to java.sql.Date.
    * 
@@ -70,6 +486,18 @@ public final class DAOUtil
     return (date != null) ? new Date(date.getTime()) : null;
   }
   
+  /**
+   * Converts the given java.util.Date to java.sql.Timestamp, keeping the time of the day.
+   * 
+   * @param date The java.util.Date to be converted to java.sql.Timestamp.
+   * 
+   * @return The converted java.sql.Timestamp.
+   */
+  public static Timestamp toSqlTimestamp(java.util.Date date)
+  {
+    return (date != null) ? new Timestamp(date.getTime()) : null;
+  }
+  
   /**
    * Converts the given java.time.LocalTime to java.sql.Time.
    * 
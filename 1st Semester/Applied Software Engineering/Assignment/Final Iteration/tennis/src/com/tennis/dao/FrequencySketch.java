@@ -0,0 +1,122 @@
+package com.tennis.dao;
+
+/**
+ * This class represents a count-min sketch of how often keys were requested recently, as used by
+ * the admission policy of the {@link TinyLfuCache}. Each key is counted in four 4-bit counters at
+ * hashed positions and its frequency is the smallest of them, so the sketch takes a fixed 8 bytes
+ * per 16 counters however many distinct keys pass by. To let the frequencies follow a changing
+ * workload, all counters are halved after every sample of ten times the cache size increments.
+ * <p>
+ * The sketch is not thread safe, the cache guards it by its own lock.
+ * 
+ * @author Atidivya
+ */
+final class FrequencySketch
+{
+  private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNT = 15;
+  
+  private final long[] table;
+  private final int sampleSize;
+  private int additions;
+  
+  /**
+   * Construct a frequency sketch for a cache of the given maximum size.
+   * 
+   * @param maximumSize The maximum amount of entries of the cache.
+   */
+  FrequencySketch(int maximumSize)
+  {
+    int size = Math.max(maximumSize, 16);
+    this.table = new long[Integer.highestOneBit(size - 1) << 1];
+    this.sampleSize = 10 * size;
+  }
+  
+  /**
+   * Returns the estimated amount of recent requests of the given key, at most 15.
+   * 
+   * @param key The key to return the frequency for.
+   * 
+   * @return The estimated amount of recent requests of the given key.
+   */
+  int frequency(Object key)
+  {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    
+    for (int i = 0; i < SEEDS.length; i++)
+    {
+      long position = position(hash, i);
+      frequency = Math.min(frequency, (int) ((table[index(position)] >>> offset(position)) & MAX_COUNT));
+    }
+    
+    return frequency;
+  }
+  
+  /**
+   * Counts a request of the given key, halving all counters when the sample is full.
+   * 
+   * @param key The requested key.
+   */
+  void increment(Object key)
+  {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    
+    for (int i = 0; i < SEEDS.length; i++)
+    {
+      long position = position(hash, i);
+      int index = index(position);
+      int offset = offset(position);
+      
+      if (((table[index] >>> offset) & MAX_COUNT) < MAX_COUNT)
+      {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    
+    if (added && ++additions == sampleSize)
+    {
+      reset();
+    }
+  }
+  
+  /**
+   * Halves all counters, so that the requests of the past sample weigh half as much.
+   */
+  private void reset()
+  {
+    for (int i = 0; i < table.length; i++)
+    {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    
+    additions /= 2;
+  }
+  
+  private long position(int hash, int row)
+  {
+    long position = (hash + SEEDS[row]) * SEEDS[row];
+    return position + (position >>> 32);
+  }
+  
+  private int index(long position)
+  {
+    return (int) position & (table.length - 1);
+  }
+  
+  private static int offset(long position)
+  {
+    // Each long holds 16 counters of 4 bits.
+    return (int) ((position >>> 40) & 15) << 2;
+  }
+  
+  private static int spread(int hash)
+  {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,159 @@
+package com.tennis.dao;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.tennis.model.Holiday;
+
+/**
+ * This class represents an in-memory calendar of all holidays. The holidays are loaded once into a
+ * sorted array of epoch days, after which {@link #isHoliday(Date)} and
+ * {@link #holidaysBetween(Date, Date)} are answered with a binary search, without any database
+ * query or allocation.
+ * <p>
+ * The calendar is reloaded on next use after the holidays are created, updated or deleted through a
+ * {@link HolidayDAO} of the same {@link DAOFactory}. Changes made to the database by other means are
+ * only picked up after {@link #invalidate()}.
+ * <p>
+ * You can obtain the holiday calendar of a DAOFactory by {@link DAOFactory#getHolidayCalendar()}.
+ * 
+ * @author Atidivya
+ */
+public class HolidayCalendar
+{
+  private static final long MILLIS_PER_DAY = 86400000L;
+  
+  private final HolidayDAO holidayDAO;
+  private final TimeZone timeZone = TimeZone.getDefault();
+  private volatile long[] epochDays;
+  
+  /**
+   * Construct a holiday calendar on top of the given Holiday DAO. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param holidayDAO The Holiday DAO to load the holidays with.
+   */
+  HolidayCalendar(HolidayDAO holidayDAO)
+  {
+    this.holidayDAO = holidayDAO;
+  }
+  
+  /**
+   * Returns true if the day of the given date is a holiday.
+   * 
+   * @param date Any time of the day to be checked.
+   * 
+   * @return True if the day of the given date is a holiday.
+   * 
+   * @throws DAOException If something fails at database level while loading the calendar.
+   */
+  public boolean isHoliday(Date date) throws DAOException
+  {
+    return Arrays.binarySearch(epochDays(), toEpochDay(date)) >= 0;
+  }
+  
+  /**
+   * Returns true if the given day is a holiday.
+   * 
+   * @param date The day to be checked.
+   * 
+   * @return True if the given day is a holiday.
+   * 
+   * @throws DAOException If something fails at database level while loading the calendar.
+   */
+  public boolean isHoliday(LocalDate date) throws DAOException
+  {
+    return Arrays.binarySearch(epochDays(), date.toEpochDay()) >= 0;
+  }
+  
+  /**
+   * Returns the amount of holidays from the day of the given from date, inclusive, until the day of
+   * the given to date, exclusive.
+   * 
+   * @param from Any time of the first day of the period, inclusive.
+   * @param to Any time of the day after the last day of the period, exclusive.
+   * 
+   * @return The amount of holidays in the given period, 0 if the period is empty.
+   * 
+   * @throws DAOException If something fails at database level while loading the calendar.
+   */
+  public int holidaysBetween(Date from, Date to) throws DAOException
+  {
+    long[] days = epochDays();
+    int count = indexOf(days, toEpochDay(to)) - indexOf(days, toEpochDay(from));
+    
+    return Math.max(count, 0);
+  }
+  
+  /**
+   * Forgets all holidays, so that they are loaded again from the database on next use.
+   */
+  public synchronized void invalidate()
+  {
+    epochDays = null;
+  }
+  
+  /**
+   * Returns the sorted epoch days of all holidays, loading them first when necessary. Only one
+   * thread loads, the others wait for its result. Because {@link #invalidate()} waits for a running
+   * load as well, a load which has read the holidays before a change cannot outlive it.
+   * 
+   * @return The sorted epoch days of all holidays.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private long[] epochDays() throws DAOException
+  {
+    long[] days = epochDays;
+    
+    if (days == null)
+    {
+      synchronized (this)
+      {
+        days = epochDays;
+        
+        if (days == null)
+        {
+          days = load();
+          epochDays = days;
+        }
+      }
+    }
+    
+    return days;
+  }
+  
+  /**
+   * Loads the sorted and distinct epoch days of all holidays from the database.
+   */
+  private long[] load()
+  {
+    return holidayDAO.list().stream()
+            .map(Holiday::getDate)
+            .filter(date -> date != null)
+            .mapToLong(this::toEpochDay)
+            .sorted()
+            .distinct()
+            .toArray();
+  }
+  
+  /**
+   * Returns the index of the first holiday at or after the given epoch day.
+   */
+  private static int indexOf(long[] days, long epochDay)
+  {
+    int index = Arrays.binarySearch(days, epochDay);
+    return (index >= 0) ? index : -index - 1;
+  }
+  
+  /**
+   * Returns the epoch day of the given date in the default time zone.
+   */
+  private long toEpochDay(Date date)
+  {
+    long millis = date.getTime();
+    return Math.floorDiv(millis + timeZone.getOffset(millis), MILLIS_PER_DAY);
+  }
+}
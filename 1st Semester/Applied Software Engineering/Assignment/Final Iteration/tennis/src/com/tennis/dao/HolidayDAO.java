@@ -1,7 +1,9 @@
 package com.tennis.dao;
 
 import java.util.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.tennis.model.Holiday;
 
@@ -35,6 +37,33 @@ public interface HolidayDAO
    */
   public List<Holiday> list() throws DAOException;
   
+  /**
+   * Returns a stream of all holidays from the database ordered by holiday ID. The holidays are read from
+   * the database while the stream is consumed, so memory use does not grow with the amount of
+   * holidays. The stream holds a database connection until it is closed, so it must be closed after
+   * use, preferably with try-with-resources.
+   * 
+   * @return A stream of all holidays from the database ordered by holiday ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Stream<Holiday> stream() throws DAOException;
+  
+  /**
+   * Returns a page of at most the given limit of holidays from the database with an ID greater than
+   * the given ID, ordered by holiday ID. Pass null to get the first page, and the next cursor of a page
+   * to get the page after it.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of holidays on the page.
+   * 
+   * @return A page of holidays from the database ordered by holiday ID.
+   * 
+   * @throws IllegalArgumentException If the limit is less than 1.
+   * @throws DAOException If something fails at database level.
+   */
+  public Page<Holiday> list(Long afterId, int limit) throws IllegalArgumentException, DAOException;
+  
   /**
    * Create the given holiday in the database. The holiday ID must be null, otherwise it will throw
    * IllegalArgumentException. After creating, the DAO will set the obtained ID the given holiday.
@@ -67,6 +96,39 @@ public interface HolidayDAO
    */
   public void delete(Holiday holiday) throws DAOException;
   
+  /**
+   * Create the given holidays in the database in JDBC batches. The holiday IDs must be null, otherwise it
+   * will throw IllegalArgumentException. After creating, the DAO will set the obtained IDs in the
+   * given holidays. Either all holidays are created or none.
+   * 
+   * @param holidays The holidays to be created in the database.
+   * 
+   * @throws IllegalArgumentException If any holiday ID is not null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void createAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Update the given holidays in the database in JDBC batches. The holiday IDs must not be null,
+   * otherwise it will throw IllegalArgumentException. Either all holidays are updated or none.
+   * 
+   * @param holidays The holidays to be updated in the database.
+   * 
+   * @throws IllegalArgumentException If any holiday ID is null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void updateAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Delete the given holidays from the database in JDBC batches. After deleting, the DAO will set the
+   * IDs of the given holidays to null. Either all holidays are deleted or none.
+   * 
+   * @param holidays The holidays to be deleted from the database.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public void deleteAll(Collection<Holiday> holidays) throws DAOException;
+  
   /**
    * Returns true if the given date exist in the database.
    * 
@@ -7,8 +7,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.tennis.model.Holiday;
 
@@ -21,6 +23,7 @@ public class HolidayDAOJDBC implements HolidayDAO
 {
   private static final String SQL_FIND_BY_ID = "SELECT id, date, name, observations FROM holiday WHERE id = ?";
   private static final String SQL_LIST_ORDER_BY_ID = "SELECT id, date, name, observations FROM holiday ORDER BY id";
+  private static final String SQL_LIST_AFTER_ID_ORDER_BY_ID = "SELECT id, date, name, observations FROM holiday WHERE id > ? ORDER BY id LIMIT ?";
   private static final String SQL_INSERT = "INSERT INTO holiday (date, name, observations) VALUES(?, ?, ?)";
   private static final String SQL_UPDATE = "UPDATE holiday SET date = ?, name = ?, observations = ? WHERE id = ?";
   private static final String SQL_DELETE = "DELETE FROM holiday WHERE id = ?";
@@ -104,6 +107,67 @@ public class HolidayDAOJDBC implements HolidayDAO
     return holidays;
   }
   
+  @Override
+  public Stream<Holiday> stream() throws DAOException
+  {
+    try
+    {
+      return DAOUtil.stream(daoFactory.getConnection(), SQL_LIST_ORDER_BY_ID, daoFactory.getStreamFetchSize(), HolidayDAOJDBC::map);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public Page<Holiday> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Fetch one more than the limit to find out whether there is a next page.
+    List<Holiday> holidays = list(SQL_LIST_AFTER_ID_ORDER_BY_ID, (afterId != null) ? afterId : 0L, limit + 1);
+    
+    return Page.of(holidays, limit, Holiday::getId);
+  }
+  
+  /**
+   * Returns a list of holidays from the database matching the given SQL query with the given values.
+   * 
+   * @param sql The SQL query to be executed in the database.
+   * @param values The PreparedStatement values to be set.
+   * 
+   * @return A list of holidays from the database matching the given SQL query with the given values.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private List<Holiday> list(String sql, Object... values) throws DAOException
+  {
+    List<Holiday> holidays = new ArrayList<>();
+    
+    try
+    (
+      Connection connection = daoFactory.getConnection();
+      PreparedStatement statement = prepareStatement(connection, sql, false, values);
+      ResultSet resultSet = statement.executeQuery();
+    )
+    {
+      while (resultSet.next())
+      {
+        holidays.add(map(resultSet));
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    return holidays;
+  }
+  
   @Override
   public void create(Holiday holiday) throws IllegalArgumentException, DAOException
   {
@@ -213,6 +277,98 @@ public class HolidayDAOJDBC implements HolidayDAO
     }
   }
   
+  @Override
+  public void createAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(holidays.size());
+    
+    for (Holiday holiday : holidays)
+    {
+      if (holiday.getId() != null)
+      {
+        throw new IllegalArgumentException("Holiday is already created, the holiday ID is not null.");
+      }
+      
+      values.add(new Object[] {
+        toSqlDate(holiday.getDate()),
+        holiday.getName(),
+        holiday.getObservations()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      long[] generatedKeys = executeBatch(connection, SQL_INSERT, true, daoFactory.getBatchSize(), values, "Creating holidays failed");
+      int i = 0;
+      
+      for (Holiday holiday : holidays)
+      {
+        holiday.setId(generatedKeys[i++]);
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(holidays.size());
+    
+    for (Holiday holiday : holidays)
+    {
+      if (holiday.getId() == null)
+      {
+        throw new IllegalArgumentException("Holiday is not created yet, the holiday ID is null.");
+      }
+      
+      values.add(new Object[] {
+        toSqlDate(holiday.getDate()),
+        holiday.getName(),
+        holiday.getObservations(),
+        holiday.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_UPDATE, false, daoFactory.getBatchSize(), values, "Updating holidays failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Holiday> holidays) throws DAOException
+  {
+    List<Object[]> values = new ArrayList<>(holidays.size());
+    
+    for (Holiday holiday : holidays)
+    {
+      values.add(new Object[] {
+        holiday.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_DELETE, false, daoFactory.getBatchSize(), values, "Deleting holidays failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    for (Holiday holiday : holidays)
+    {
+      holiday.setId(null);
+    }
+  }
+  
   @Override
   public boolean existDate(Date date) throws DAOException
   {
@@ -0,0 +1,101 @@
+package com.tennis.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents an identity map of the courts and members which are mapped from the joined
+ * rows of a booking query, keyed by their ID. Rows referring to the same court or member share one
+ * instance instead of each allocating its own copy, so a large booking listing only holds as many
+ * courts and members as there are distinct ones in it.
+ * <p>
+ * An identity map lives as long as a single query, unless the DAOFactory provides one for a whole
+ * unit of work through {@link DAOFactory#getIdentityMap()}. In that case the courts and members
+ * updated or deleted in the unit of work are removed from it, so that later queries map them
+ * again. Keep in mind that a change to a shared court or member is visible through all bookings
+ * referring to it. Like a connection, an identity
+ * map is meant to be used by one thread at a time.
+ * 
+ * @author Atidivya
+ */
+final class IdentityMap
+{
+  private final Map<Long, Court> courts = new HashMap<>();
+  private final Map<Long, Member> members = new HashMap<>();
+  
+  /**
+   * Returns the court with the given ID from this identity map, or null if there is none.
+   * 
+   * @param id The ID of the court to be returned.
+   * 
+   * @return The court with the given ID from this identity map, or null if there is none.
+   */
+  Court getCourt(Long id)
+  {
+    return courts.get(id);
+  }
+  
+  /**
+   * Puts the given court in this identity map, replacing the court with the same ID, if any.
+   * 
+   * @param court The court to be put in this identity map.
+   */
+  void putCourt(Court court)
+  {
+    courts.put(court.getId(), court);
+  }
+  
+  /**
+   * Removes the court with the given ID from this identity map, if any.
+   * 
+   * @param id The ID of the court to be removed.
+   */
+  void removeCourt(Long id)
+  {
+    courts.remove(id);
+  }
+  
+  /**
+   * Returns the member with the given ID from this identity map, or null if there is none.
+   * 
+   * @param id The ID of the member to be returned.
+   * 
+   * @return The member with the given ID from this identity map, or null if there is none.
+   */
+  Member getMember(Long id)
+  {
+    return members.get(id);
+  }
+  
+  /**
+   * Puts the given member in this identity map, replacing the member with the same ID, if any.
+   * 
+   * @param member The member to be put in this identity map.
+   */
+  void putMember(Member member)
+  {
+    members.put(member.getId(), member);
+  }
+  
+  /**
+   * Removes the member with the given ID from this identity map, if any.
+   * 
+   * @param id The ID of the member to be removed.
+   */
+  void removeMember(Long id)
+  {
+    members.remove(id);
+  }
+  
+  /**
+   * Removes all courts and members from this identity map.
+   */
+  void clear()
+  {
+    courts.clear();
+    members.clear();
+  }
+}
@@ -0,0 +1,455 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents an in-memory implementation of the {@link BookingDAO} interface, on a table
+ * of the {@link InMemoryStore}. It behaves like the {@link BookingDAOJDBC} on the tables and indexes
+ * of 'schema.sql' and 'indexes.sql': the court and start time are required and unique together,
+ * and the court and member must exist.
+ * <p>
+ * The rows hold the IDs of their court and member, which are joined when a booking is read, so
+ * that a booking shows the current court and member. The period queries are range scans on the
+ * indexes by court and start time, by start time and court, and by member and start time. A
+ * reservation claims its slot with a single put-if-absent on the index by court and start time, so
+ * exactly one of many concurrent reservations of a slot wins.
+ * 
+ * @author Atidivya
+ */
+class InMemoryBookingDAO implements BookingDAO
+{
+  private final InMemoryStore store;
+  private final InMemoryTable<Row> table;
+  private final ConcurrentNavigableMap<Key, Long> byCourt;
+  private final ConcurrentNavigableMap<Key, Long> byStartTime;
+  private final ConcurrentNavigableMap<Key, Long> byMember;
+  
+  /**
+   * Construct an in-memory Booking DAO on the given store. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param store The store of the bookings.
+   */
+  InMemoryBookingDAO(InMemoryStore store)
+  {
+    this.store = store;
+    this.table = new InMemoryTable<>("booking", store, Row::write, Row::read);
+    this.byCourt = table.index("booking_court_start_time", row -> new Key(row.court, row.startTime, 0));
+    this.byStartTime = table.index("booking_start_time", row -> new Key(row.startTime, row.court, 0));
+    this.byMember = table.index("booking_member_start_time", row -> (row.member != null) ? new Key(row.member, row.startTime, row.id) : null);
+  }
+  
+  /**
+   * Returns true if the court of the given ID has bookings. Package private so that the Court DAO
+   * can check it before deleting a court.
+   * 
+   * @param courtId The ID of the court.
+   * 
+   * @return True if the court of the given ID has bookings.
+   */
+  boolean hasCourt(long courtId)
+  {
+    return !byCourt.subMap(new Key(courtId, Long.MIN_VALUE, 0), new Key(courtId + 1, Long.MIN_VALUE, 0)).isEmpty();
+  }
+  
+  /**
+   * Returns true if the member of the given ID has bookings. Package private so that the Member DAO
+   * can check it before deleting a member.
+   * 
+   * @param memberId The ID of the member.
+   * 
+   * @return True if the member of the given ID has bookings.
+   */
+  boolean hasMember(long memberId)
+  {
+    return !byMember.subMap(new Key(memberId, Long.MIN_VALUE, Long.MIN_VALUE), new Key(memberId + 1, Long.MIN_VALUE, Long.MIN_VALUE)).isEmpty();
+  }
+  
+  @Override
+  public Booking find(Long id) throws DAOException
+  {
+    return map(table.get(id), new IdentityMap());
+  }
+  
+  @Override
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException
+  {
+    Map<Long, Booking> bookings = new HashMap<>();
+    IdentityMap identityMap = new IdentityMap();
+    
+    for (Long id : ids)
+    {
+      Booking booking = map(table.get(id), identityMap);
+      
+      if (booking != null)
+      {
+        bookings.put(id, booking);
+      }
+    }
+    
+    return bookings;
+  }
+  
+  @Override
+  public Booking find(Court court, Date startTime) throws DAOException
+  {
+    return map(table.get(byCourt.get(new Key(court.getId(), startTime.getTime(), 0))), new IdentityMap());
+  }
+  
+  @Override
+  public List<Booking> list() throws DAOException
+  {
+    return map(table.ids());
+  }
+  
+  @Override
+  public Stream<Booking> stream() throws DAOException
+  {
+    IdentityMap identityMap = new IdentityMap();
+    return table.ids().stream().map(id -> map(table.get(id), identityMap)).filter(booking -> booking != null);
+  }
+  
+  @Override
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Take one more than the limit to find out whether there is a next page.
+    IdentityMap identityMap = new IdentityMap();
+    List<Booking> bookings = table.ids().tailSet((afterId != null) ? afterId : 0L, false).stream().map(id -> map(table.get(id), identityMap)).filter(booking -> booking != null).limit(limit + 1).collect(Collectors.toList());
+    
+    return Page.of(bookings, limit, Booking::getId);
+  }
+  
+  @Override
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException
+  {
+    return map(byCourt.subMap(new Key(court.getId(), from.getTime(), 0), new Key(court.getId(), to.getTime(), 0)).values());
+  }
+  
+  @Override
+  public List<Booking> list(Date from, Date to) throws DAOException
+  {
+    return map(byStartTime.subMap(new Key(from.getTime(), Long.MIN_VALUE, 0), new Key(to.getTime(), Long.MIN_VALUE, 0)).values());
+  }
+  
+  @Override
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException
+  {
+    return map(byMember.subMap(new Key(member.getId(), from.getTime(), Long.MIN_VALUE), new Key(member.getId(), to.getTime(), Long.MIN_VALUE)).values());
+  }
+  
+  @Override
+  public void create(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    createAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      create(booking);
+    }
+    catch (DAOException e)
+    {
+      // The unique index on court and start time guarantees a single winner per slot.
+      if (e.getCause() instanceof SQLException && isUniqueViolation((SQLException) e.getCause()))
+      {
+        return false;
+      }
+      
+      throw e;
+    }
+    
+    return true;
+  }
+  
+  @Override
+  public void update(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    updateAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public void delete(Booking booking) throws DAOException
+  {
+    deleteAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() != null)
+      {
+        throw new IllegalArgumentException("Booking is already created, the booking ID is not null.");
+      }
+    }
+    
+    List<Row> rows = new ArrayList<>(bookings.size());
+    
+    store.write(bookings.size() > 1, () ->
+    {
+      for (Booking booking : bookings)
+      {
+        Row row = row(table.nextId(), booking);
+        table.insert(row.id, row);
+        rows.add(row);
+      }
+    });
+    
+    int i = 0;
+    
+    for (Booking booking : bookings)
+    {
+      booking.setId(rows.get(i++).id);
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() == null)
+      {
+        throw new IllegalArgumentException("Booking is not created yet, the booking ID is null.");
+      }
+    }
+    
+    store.write(bookings.size() > 1, () ->
+    {
+      for (Booking booking : bookings)
+      {
+        table.update(booking.getId(), row(booking.getId(), booking));
+      }
+    });
+  }
+  
+  @Override
+  public void deleteAll(Collection<Booking> bookings) throws DAOException
+  {
+    store.write(bookings.size() > 1, () ->
+    {
+      for (Booking booking : bookings)
+      {
+        table.delete(booking.getId());
+      }
+    });
+    
+    for (Booking booking : bookings)
+    {
+      booking.setId(null);
+    }
+  }
+  
+  /**
+   * Returns the row to be stored for the given booking, after checking its required columns and
+   * that its court and member exist. To be called inside a write, so that the court and member
+   * cannot be deleted meanwhile.
+   */
+  private Row row(long id, Booking booking)
+  {
+    Long courtId = booking.getCourt().getId();
+    Long memberId = booking.getMember().getId();
+    
+    if (courtId == null || booking.getStartTime() == null)
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Column '" + ((courtId == null) ? "court" : "start_time") + "' cannot be null", "23502"));
+    }
+    
+    if (store.courtDAO.row(courtId) == null || (memberId != null && store.memberDAO.row(memberId) == null))
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Cannot add booking, a foreign key constraint fails on key '" + ((store.courtDAO.row(courtId) == null) ? "booking_court" : "booking_member") + "'", "23503"));
+    }
+    
+    return new Row(id, courtId, booking.getStartTime().getTime(), booking.getType(), memberId, booking.getObservations());
+  }
+  
+  /**
+   * Returns the bookings of the given IDs in the order of the IDs, sharing the joined courts and
+   * members.
+   */
+  private List<Booking> map(Collection<Long> ids)
+  {
+    List<Booking> bookings = new ArrayList<>();
+    IdentityMap identityMap = new IdentityMap();
+    
+    for (Long id : ids)
+    {
+      Booking booking = map(table.get(id), identityMap);
+      
+      if (booking != null)
+      {
+        bookings.add(booking);
+      }
+    }
+    
+    return bookings;
+  }
+  
+  /**
+   * Maps the given row to a Booking with its court and member joined, or returns null if the row is
+   * null. The court and member are taken from the given identity map when it already holds them,
+   * otherwise they are copied and put in it.
+   */
+  private Booking map(Row row, IdentityMap identityMap)
+  {
+    if (row == null)
+    {
+      return null;
+    }
+    
+    Court court = identityMap.getCourt(row.court);
+    Member member = (row.member != null) ? identityMap.getMember(row.member) : null;
+    
+    if (court == null)
+    {
+      court = copy(store.courtDAO.row(row.court));
+      
+      if (court != null)
+      {
+        identityMap.putCourt(court);
+      }
+    }
+    
+    if (member == null && row.member != null)
+    {
+      member = copy(store.memberDAO.row(row.member));
+      
+      if (member != null)
+      {
+        identityMap.putMember(member);
+      }
+    }
+    
+    Booking booking = new Booking();
+    booking.setId(row.id);
+    booking.setCourt(court);
+    booking.setStartTime(new Timestamp(row.startTime));
+    booking.setType(row.type);
+    booking.setMember(member);
+    booking.setObservations(row.observations);
+    
+    return booking;
+  }
+  
+  /**
+   * A stored booking, with the IDs of its court and member and its start time in epoch
+   * milliseconds.
+   */
+  private static final class Row
+  {
+    private final long id;
+    private final long court;
+    private final long startTime;
+    private final String type;
+    private final Long member;
+    private final String observations;
+    
+    private Row(long id, long court, long startTime, String type, Long member, String observations)
+    {
+      this.id = id;
+      this.court = court;
+      this.startTime = startTime;
+      this.type = type;
+      this.member = member;
+      this.observations = observations;
+    }
+    
+    /**
+     * Writes the columns of the given row to the given output.
+     */
+    private static void write(Row row, DataOutput output) throws IOException
+    {
+      output.writeLong(row.court);
+      output.writeLong(row.startTime);
+      WriteAheadLog.writeString(row.type, output);
+      WriteAheadLog.writeLong(row.member, output);
+      WriteAheadLog.writeString(row.observations, output);
+    }
+    
+    /**
+     * Reads the columns of the row of the given ID from the given input.
+     */
+    private static Row read(long id, DataInput input) throws IOException
+    {
+      return new Row(id, input.readLong(), input.readLong(), WriteAheadLog.readString(input), WriteAheadLog.readLong(input), WriteAheadLog.readString(input));
+    }
+  }
+  
+  /**
+   * A key of three longs of an index, ordered by the first, then the second, then the third.
+   */
+  private static final class Key implements Comparable<Key>
+  {
+    private final long first;
+    private final long second;
+    private final long third;
+    
+    private Key(long first, long second, long third)
+    {
+      this.first = first;
+      this.second = second;
+      this.third = third;
+    }
+    
+    @Override
+    public int compareTo(Key other)
+    {
+      int compare = Long.compare(first, other.first);
+      
+      if (compare == 0)
+      {
+        compare = Long.compare(second, other.second);
+      }
+      
+      return (compare != 0) ? compare : Long.compare(third, other.third);
+    }
+    
+    @Override
+    public boolean equals(Object other)
+    {
+      return (other instanceof Key) && compareTo((Key) other) == 0;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+      return Long.hashCode(first) * 31 * 31 + Long.hashCode(second) * 31 + Long.hashCode(third);
+    }
+    
+    @Override
+    public String toString()
+    {
+      return first + "-" + second;
+    }
+  }
+}
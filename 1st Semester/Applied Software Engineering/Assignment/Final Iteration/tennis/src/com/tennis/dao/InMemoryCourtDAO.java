@@ -0,0 +1,256 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.tennis.model.Court;
+
+/**
+ * This class represents an in-memory implementation of the {@link CourtDAO} interface, on a table
+ * of the {@link InMemoryStore}. It behaves like the {@link CourtDAOJDBC} on the tables of
+ * 'schema.sql': the name is required and unique, and a court with bookings cannot be deleted.
+ * 
+ * @author Atidivya
+ */
+class InMemoryCourtDAO implements CourtDAO
+{
+  private final InMemoryStore store;
+  private final InMemoryTable<Court> table;
+  private final ConcurrentNavigableMap<String, Long> byName;
+  
+  /**
+   * Construct an in-memory Court DAO on the given store. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param store The store of the courts.
+   */
+  InMemoryCourtDAO(InMemoryStore store)
+  {
+    this.store = store;
+    this.table = new InMemoryTable<>("court", store, InMemoryCourtDAO::write, InMemoryCourtDAO::read);
+    this.byName = table.index("court_name", Court::getName);
+  }
+  
+  /**
+   * Returns the stored row of the court of the given ID, or null. Package private so that the
+   * Booking DAO can join it.
+   * 
+   * @param id The ID of the court.
+   * 
+   * @return The stored row of the court, which must not be changed, or null.
+   */
+  Court row(Long id)
+  {
+    return table.get(id);
+  }
+  
+  @Override
+  public Court find(Long id) throws DAOException
+  {
+    return copy(table.get(id));
+  }
+  
+  @Override
+  public Map<Long, Court> findAll(Collection<Long> ids) throws DAOException
+  {
+    Map<Long, Court> courts = new HashMap<>();
+    
+    for (Long id : ids)
+    {
+      Court court = table.get(id);
+      
+      if (court != null)
+      {
+        courts.put(id, copy(court));
+      }
+    }
+    
+    return courts;
+  }
+  
+  @Override
+  public List<Court> list() throws DAOException
+  {
+    return stream().collect(Collectors.toList());
+  }
+  
+  @Override
+  public Stream<Court> stream() throws DAOException
+  {
+    return table.ids().stream().map(this::find).filter(court -> court != null);
+  }
+  
+  @Override
+  public Page<Court> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Take one more than the limit to find out whether there is a next page.
+    List<Court> courts = table.ids().tailSet((afterId != null) ? afterId : 0L, false).stream().map(this::find).filter(court -> court != null).limit(limit + 1).collect(Collectors.toList());
+    
+    return Page.of(courts, limit, Court::getId);
+  }
+  
+  @Override
+  public void create(Court court) throws IllegalArgumentException, DAOException
+  {
+    createAll(Collections.singletonList(court));
+  }
+  
+  @Override
+  public void update(Court court) throws IllegalArgumentException, DAOException
+  {
+    updateAll(Collections.singletonList(court));
+  }
+  
+  @Override
+  public void delete(Court court) throws DAOException
+  {
+    deleteAll(Collections.singletonList(court));
+  }
+  
+  @Override
+  public void createAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    List<Court> rows = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      if (court.getId() != null)
+      {
+        throw new IllegalArgumentException("Court is already created, the court ID is not null.");
+      }
+      
+      rows.add(row(court));
+    }
+    
+    store.write(courts.size() > 1, () ->
+    {
+      for (Court row : rows)
+      {
+        row.setId(table.nextId());
+        table.insert(row.getId(), row);
+      }
+    });
+    
+    int i = 0;
+    
+    for (Court court : courts)
+    {
+      court.setId(rows.get(i++).getId());
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Court> courts) throws IllegalArgumentException, DAOException
+  {
+    List<Court> rows = new ArrayList<>(courts.size());
+    
+    for (Court court : courts)
+    {
+      if (court.getId() == null)
+      {
+        throw new IllegalArgumentException("Court is not created yet, the court ID is null.");
+      }
+      
+      rows.add(row(court));
+    }
+    
+    store.write(courts.size() > 1, () ->
+    {
+      for (Court row : rows)
+      {
+        table.update(row.getId(), row);
+      }
+    });
+  }
+  
+  @Override
+  public void deleteAll(Collection<Court> courts) throws DAOException
+  {
+    // Exclusive, so that no booking of the courts is created meanwhile.
+    store.write(true, () ->
+    {
+      for (Court court : courts)
+      {
+        if (court.getId() != null && store.bookingDAO.hasCourt(court.getId()))
+        {
+          throw new DAOException(new SQLIntegrityConstraintViolationException("Cannot delete court " + court.getId() + ", it is referenced by key 'booking_court'", "23503"));
+        }
+        
+        table.delete(court.getId());
+      }
+    });
+    
+    for (Court court : courts)
+    {
+      court.setId(null);
+    }
+  }
+  
+  @Override
+  public boolean existName(String name) throws DAOException
+  {
+    return name != null && byName.containsKey(name);
+  }
+  
+  /**
+   * Returns a copy of the given court to be stored, after checking its required columns.
+   */
+  private static Court row(Court court)
+  {
+    if (court.getName() == null)
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Column 'name' cannot be null", "23502"));
+    }
+    
+    return copy(court);
+  }
+  
+  /**
+   * Writes the columns of the given court to the given output.
+   */
+  private static void write(Court court, DataOutput output) throws IOException
+  {
+    WriteAheadLog.writeString(court.getName(), output);
+    WriteAheadLog.writeString(court.getSurface(), output);
+    WriteAheadLog.writeTime(court.getOpeningTime(), output);
+    WriteAheadLog.writeTime(court.getClosingTime(), output);
+    WriteAheadLog.writeBoolean(court.isIndoor(), output);
+    WriteAheadLog.writeBoolean(court.isLighting(), output);
+    WriteAheadLog.writeString(court.getObservations(), output);
+  }
+  
+  /**
+   * Reads the columns of the court of the given ID from the given input.
+   */
+  private static Court read(long id, DataInput input) throws IOException
+  {
+    Court court = new Court();
+    court.setId(id);
+    court.setName(WriteAheadLog.readString(input));
+    court.setSurface(WriteAheadLog.readString(input));
+    court.setOpeningTime(WriteAheadLog.readTime(input));
+    court.setClosingTime(WriteAheadLog.readTime(input));
+    court.setIndoor(WriteAheadLog.readBoolean(input));
+    court.setLighting(WriteAheadLog.readBoolean(input));
+    court.setObservations(WriteAheadLog.readString(input));
+    return court;
+  }
+}
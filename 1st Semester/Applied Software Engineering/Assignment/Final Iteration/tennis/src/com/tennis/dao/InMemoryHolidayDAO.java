@@ -0,0 +1,222 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.tennis.model.Holiday;
+
+/**
+ * This class represents an in-memory implementation of the {@link HolidayDAO} interface, on a table
+ * of the {@link InMemoryStore}. It behaves like the {@link HolidayDAOJDBC} on the tables of
+ * 'schema.sql': the date is required and unique, and only the day of the date is kept.
+ * 
+ * @author Atidivya
+ */
+class InMemoryHolidayDAO implements HolidayDAO
+{
+  private final InMemoryStore store;
+  private final InMemoryTable<Holiday> table;
+  private final ConcurrentNavigableMap<LocalDate, Long> byDate;
+  
+  /**
+   * Construct an in-memory Holiday DAO on the given store. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param store The store of the holidays.
+   */
+  InMemoryHolidayDAO(InMemoryStore store)
+  {
+    this.store = store;
+    this.table = new InMemoryTable<>("holiday", store, InMemoryHolidayDAO::write, InMemoryHolidayDAO::read);
+    this.byDate = table.index("holiday_date", holiday -> toLocalDate(holiday.getDate()));
+  }
+  
+  @Override
+  public Holiday find(Long id) throws DAOException
+  {
+    return copy(table.get(id));
+  }
+  
+  @Override
+  public List<Holiday> list() throws DAOException
+  {
+    return stream().collect(Collectors.toList());
+  }
+  
+  @Override
+  public Stream<Holiday> stream() throws DAOException
+  {
+    return table.ids().stream().map(this::find).filter(holiday -> holiday != null);
+  }
+  
+  @Override
+  public Page<Holiday> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Take one more than the limit to find out whether there is a next page.
+    List<Holiday> holidays = table.ids().tailSet((afterId != null) ? afterId : 0L, false).stream().map(this::find).filter(holiday -> holiday != null).limit(limit + 1).collect(Collectors.toList());
+    
+    return Page.of(holidays, limit, Holiday::getId);
+  }
+  
+  @Override
+  public void create(Holiday holiday) throws IllegalArgumentException, DAOException
+  {
+    createAll(Collections.singletonList(holiday));
+  }
+  
+  @Override
+  public void update(Holiday holiday) throws IllegalArgumentException, DAOException
+  {
+    updateAll(Collections.singletonList(holiday));
+  }
+  
+  @Override
+  public void delete(Holiday holiday) throws DAOException
+  {
+    deleteAll(Collections.singletonList(holiday));
+  }
+  
+  @Override
+  public void createAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    List<Holiday> rows = new ArrayList<>(holidays.size());
+    
+    for (Holiday holiday : holidays)
+    {
+      if (holiday.getId() != null)
+      {
+        throw new IllegalArgumentException("Holiday is already created, the holiday ID is not null.");
+      }
+      
+      rows.add(row(holiday));
+    }
+    
+    store.write(holidays.size() > 1, () ->
+    {
+      for (Holiday row : rows)
+      {
+        row.setId(table.nextId());
+        table.insert(row.getId(), row);
+      }
+    });
+    
+    int i = 0;
+    
+    for (Holiday holiday : holidays)
+    {
+      holiday.setId(rows.get(i++).getId());
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Holiday> holidays) throws IllegalArgumentException, DAOException
+  {
+    List<Holiday> rows = new ArrayList<>(holidays.size());
+    
+    for (Holiday holiday : holidays)
+    {
+      if (holiday.getId() == null)
+      {
+        throw new IllegalArgumentException("Holiday is not created yet, the holiday ID is null.");
+      }
+      
+      rows.add(row(holiday));
+    }
+    
+    store.write(holidays.size() > 1, () ->
+    {
+      for (Holiday row : rows)
+      {
+        table.update(row.getId(), row);
+      }
+    });
+  }
+  
+  @Override
+  public void deleteAll(Collection<Holiday> holidays) throws DAOException
+  {
+    store.write(holidays.size() > 1, () ->
+    {
+      for (Holiday holiday : holidays)
+      {
+        table.delete(holiday.getId());
+      }
+    });
+    
+    for (Holiday holiday : holidays)
+    {
+      holiday.setId(null);
+    }
+  }
+  
+  @Override
+  public boolean existDate(Date date) throws DAOException
+  {
+    return date != null && byDate.containsKey(toLocalDate(date));
+  }
+  
+  /**
+   * Returns a copy of the given holiday to be stored with the day of its date only, as the DATE
+   * column keeps it, after checking its required columns.
+   */
+  private static Holiday row(Holiday holiday)
+  {
+    if (holiday.getDate() == null)
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Column 'date' cannot be null", "23502"));
+    }
+    
+    Holiday row = copy(holiday);
+    row.setDate(java.sql.Date.valueOf(toLocalDate(holiday.getDate())));
+    return row;
+  }
+  
+  /**
+   * Writes the columns of the given holiday to the given output, the date as its epoch day.
+   */
+  private static void write(Holiday holiday, DataOutput output) throws IOException
+  {
+    output.writeLong(toLocalDate(holiday.getDate()).toEpochDay());
+    WriteAheadLog.writeString(holiday.getName(), output);
+    WriteAheadLog.writeString(holiday.getObservations(), output);
+  }
+  
+  /**
+   * Reads the columns of the holiday of the given ID from the given input.
+   */
+  private static Holiday read(long id, DataInput input) throws IOException
+  {
+    Holiday holiday = new Holiday();
+    holiday.setId(id);
+    holiday.setDate(java.sql.Date.valueOf(LocalDate.ofEpochDay(input.readLong())));
+    holiday.setName(WriteAheadLog.readString(input));
+    holiday.setObservations(WriteAheadLog.readString(input));
+    return holiday;
+  }
+  
+  /**
+   * Returns the day of the given date in the default time zone.
+   */
+  private static LocalDate toLocalDate(Date date)
+  {
+    return new java.sql.Date(date.getTime()).toLocalDate();
+  }
+}
@@ -0,0 +1,243 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.tennis.model.Member;
+
+/**
+ * This class represents an in-memory implementation of the {@link MemberDAO} interface, on a table
+ * of the {@link InMemoryStore}. It behaves like the {@link MemberDAOJDBC} on the tables of
+ * 'schema.sql': the name is required, and a member with bookings cannot be deleted.
+ * 
+ * @author Atidivya
+ */
+class InMemoryMemberDAO implements MemberDAO
+{
+  private final InMemoryStore store;
+  private final InMemoryTable<Member> table;
+  
+  /**
+   * Construct an in-memory Member DAO on the given store. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param store The store of the members.
+   */
+  InMemoryMemberDAO(InMemoryStore store)
+  {
+    this.store = store;
+    this.table = new InMemoryTable<>("member", store, InMemoryMemberDAO::write, InMemoryMemberDAO::read);
+  }
+  
+  /**
+   * Returns the stored row of the member of the given ID, or null. Package private so that the
+   * Booking DAO can join it.
+   * 
+   * @param id The ID of the member.
+   * 
+   * @return The stored row of the member, which must not be changed, or null.
+   */
+  Member row(Long id)
+  {
+    return table.get(id);
+  }
+  
+  @Override
+  public Member find(Long id) throws DAOException
+  {
+    return copy(table.get(id));
+  }
+  
+  @Override
+  public Map<Long, Member> findAll(Collection<Long> ids) throws DAOException
+  {
+    Map<Long, Member> members = new HashMap<>();
+    
+    for (Long id : ids)
+    {
+      Member member = table.get(id);
+      
+      if (member != null)
+      {
+        members.put(id, copy(member));
+      }
+    }
+    
+    return members;
+  }
+  
+  @Override
+  public List<Member> list() throws DAOException
+  {
+    return stream().collect(Collectors.toList());
+  }
+  
+  @Override
+  public Stream<Member> stream() throws DAOException
+  {
+    return table.ids().stream().map(this::find).filter(member -> member != null);
+  }
+  
+  @Override
+  public Page<Member> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Take one more than the limit to find out whether there is a next page.
+    List<Member> members = table.ids().tailSet((afterId != null) ? afterId : 0L, false).stream().map(this::find).filter(member -> member != null).limit(limit + 1).collect(Collectors.toList());
+    
+    return Page.of(members, limit, Member::getId);
+  }
+  
+  @Override
+  public void create(Member member) throws IllegalArgumentException, DAOException
+  {
+    createAll(Collections.singletonList(member));
+  }
+  
+  @Override
+  public void update(Member member) throws IllegalArgumentException, DAOException
+  {
+    updateAll(Collections.singletonList(member));
+  }
+  
+  @Override
+  public void delete(Member member) throws DAOException
+  {
+    deleteAll(Collections.singletonList(member));
+  }
+  
+  @Override
+  public void createAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    List<Member> rows = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      if (member.getId() != null)
+      {
+        throw new IllegalArgumentException("Member is already created, the member ID is not null.");
+      }
+      
+      rows.add(row(member));
+    }
+    
+    store.write(members.size() > 1, () ->
+    {
+      for (Member row : rows)
+      {
+        row.setId(table.nextId());
+        table.insert(row.getId(), row);
+      }
+    });
+    
+    int i = 0;
+    
+    for (Member member : members)
+    {
+      member.setId(rows.get(i++).getId());
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    List<Member> rows = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      if (member.getId() == null)
+      {
+        throw new IllegalArgumentException("Member is not created yet, the member ID is null.");
+      }
+      
+      rows.add(row(member));
+    }
+    
+    store.write(members.size() > 1, () ->
+    {
+      for (Member row : rows)
+      {
+        table.update(row.getId(), row);
+      }
+    });
+  }
+  
+  @Override
+  public void deleteAll(Collection<Member> members) throws DAOException
+  {
+    // Exclusive, so that no booking of the members is created meanwhile.
+    store.write(true, () ->
+    {
+      for (Member member : members)
+      {
+        if (member.getId() != null && store.bookingDAO.hasMember(member.getId()))
+        {
+          throw new DAOException(new SQLIntegrityConstraintViolationException("Cannot delete member " + member.getId() + ", it is referenced by key 'booking_member'", "23503"));
+        }
+        
+        table.delete(member.getId());
+      }
+    });
+    
+    for (Member member : members)
+    {
+      member.setId(null);
+    }
+  }
+  
+  /**
+   * Returns a copy of the given member to be stored, after checking its required columns.
+   */
+  private static Member row(Member member)
+  {
+    if (member.getName() == null)
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Column 'name' cannot be null", "23502"));
+    }
+    
+    return copy(member);
+  }
+  
+  /**
+   * Writes the columns of the given member to the given output.
+   */
+  private static void write(Member member, DataOutput output) throws IOException
+  {
+    WriteAheadLog.writeString(member.getName(), output);
+    WriteAheadLog.writeString(member.getEmail(), output);
+    WriteAheadLog.writeString(member.getPhone(), output);
+    WriteAheadLog.writeString(member.getAddress(), output);
+    WriteAheadLog.writeString(member.getObservations(), output);
+  }
+  
+  /**
+   * Reads the columns of the member of the given ID from the given input.
+   */
+  private static Member read(long id, DataInput input) throws IOException
+  {
+    Member member = new Member();
+    member.setId(id);
+    member.setName(WriteAheadLog.readString(input));
+    member.setEmail(WriteAheadLog.readString(input));
+    member.setPhone(WriteAheadLog.readString(input));
+    member.setAddress(WriteAheadLog.readString(input));
+    member.setObservations(WriteAheadLog.readString(input));
+    return member;
+  }
+}
@@ -0,0 +1,300 @@
+package com.tennis.dao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class represents the storage of an {@link InMemoryDAOFactory}: the tables of the members,
+ * courts, holidays and bookings, and the DAO's on top of them.
+ * <p>
+ * Reads never lock. Writes run through {@link #write(boolean, Runnable)}, which takes a shared lock
+ * for the writes of single rows, and an exclusive lock for batches of several rows, for units of
+ * work and for the writes which check the rows referring to the written rows, such as deleting a
+ * court which still has bookings. Every write keeps an undo log, so that a batch or a unit of work
+ * which fails halfway is undone completely, like a rolled back transaction. Since a write of several
+ * rows runs alone, no other write can change its rows or take the keys it gave up before it is
+ * undone. A write started inside another write on the same thread joins it.
+ * <p>
+ * Reads do not wait for a unit of work, so they may see its changes before it completes.
+ * <p>
+ * With a {@link WriteAheadLog}, every change of a row is appended to the log, including the changes
+ * which undo a failed write, and a write returns only once its changes are durable. When the log
+ * cannot be written, the writes of which the changes are not durable are undone and fail, and every
+ * later write fails before it changes anything, so that the store never shows a change which is lost
+ * on a restart for longer than it takes to undo it.
+ * 
+ * @author Atidivya
+ */
+final class InMemoryStore
+{
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ThreadLocal<Write> writes = new ThreadLocal<>();
+  private volatile WriteAheadLog log;
+  
+  // Guarded by the exclusive lock.
+  private final List<Deque<BooleanSupplier>> lost = new ArrayList<>();
+  
+  /**
+   * The tables of the storage in the order of their construction, which numbers them in the
+   * write-ahead log.
+   */
+  final List<InMemoryTable<?>> tables = new ArrayList<>();
+  
+  final InMemoryMemberDAO memberDAO;
+  final InMemoryCourtDAO courtDAO;
+  final InMemoryHolidayDAO holidayDAO;
+  final InMemoryBookingDAO bookingDAO;
+  
+  /**
+   * Construct an empty in-memory storage. Package private so that it can be constructed inside the
+   * DAO package only.
+   */
+  InMemoryStore()
+  {
+    memberDAO = new InMemoryMemberDAO(this);
+    courtDAO = new InMemoryCourtDAO(this);
+    holidayDAO = new InMemoryHolidayDAO(this);
+    bookingDAO = new InMemoryBookingDAO(this);
+  }
+  
+  /**
+   * Runs the given write atomically: when it throws, all changes it made are undone and the
+   * exception is rethrown. Inside another write on the same thread, the given write joins it and is
+   * undone together with it.
+   * 
+   * @param exclusive Set whether the write must not run concurrently with any other write.
+   * @param action The write to be run.
+   * 
+   * @throws IllegalStateException If an exclusive write is started inside a shared write.
+   * @throws DAOException If the changes cannot be written to the write-ahead log, in which case
+   * they are undone, or if writing the log failed before.
+   */
+  void write(boolean exclusive, Runnable action)
+  {
+    Write write = writes.get();
+    
+    if (write != null)
+    {
+      if (exclusive && !lock.isWriteLockedByCurrentThread())
+      {
+        // Upgrading the shared lock would deadlock.
+        throw new IllegalStateException("An exclusive write cannot be started inside a shared write.");
+      }
+      
+      action.run();
+      return;
+    }
+    
+    Lock writeLock = exclusive ? lock.writeLock() : lock.readLock();
+    write = new Write();
+    writeLock.lock();
+    writes.set(write);
+    
+    try
+    {
+      WriteAheadLog log = this.log;
+      
+      if (log != null)
+      {
+        log.check();
+      }
+      
+      action.run();
+    }
+    catch (RuntimeException | Error e)
+    {
+      while (!write.undos.isEmpty())
+      {
+        try
+        {
+          write.undos.pop().getAsBoolean();
+        }
+        catch (RuntimeException undoFailure)
+        {
+          e.addSuppressed(undoFailure);
+        }
+      }
+      
+      try
+      {
+        sync(write);
+      }
+      catch (DAOException syncFailure)
+      {
+        e.addSuppressed(syncFailure);
+      }
+      
+      throw e;
+    }
+    finally
+    {
+      writes.remove();
+      writeLock.unlock();
+    }
+    
+    try
+    {
+      // Outside the lock, so that the writes of other threads can join the same group commit.
+      sync(write);
+    }
+    catch (DAOException e)
+    {
+      undoLost(write);
+      throw e;
+    }
+  }
+  
+  /**
+   * Runs the given action while no write is running, for a consistent view of all tables.
+   * 
+   * @param action The action to be run.
+   */
+  void exclusive(Runnable action)
+  {
+    lock.writeLock().lock();
+    
+    try
+    {
+      action.run();
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+  
+  /**
+   * Registers the given undo action of a change of the running write. Outside a write, it is
+   * ignored.
+   * 
+   * @param undo The action undoing the change, which returns false if the row was changed since.
+   */
+  void undo(BooleanSupplier undo)
+  {
+    Write write = writes.get();
+    
+    if (write != null)
+    {
+      write.undos.push(undo);
+    }
+  }
+  
+  /**
+   * Appends the given change of a row to the write-ahead log, if any. The running write waits for
+   * it to be durable before it returns.
+   * 
+   * @param table The table of the row.
+   * @param id The ID of the row.
+   * @param row The new row, or null if the row is deleted.
+   */
+  <R> void changed(InMemoryTable<R> table, long id, R row)
+  {
+    WriteAheadLog log = this.log;
+    
+    if (log != null)
+    {
+      long position = log.append(table, id, row);
+      Write write = writes.get();
+      
+      if (write != null)
+      {
+        write.position = position;
+      }
+    }
+  }
+  
+  /**
+   * Sets the write-ahead log to which the changes of the rows are appended from now on.
+   * 
+   * @param log The write-ahead log.
+   */
+  void setLog(WriteAheadLog log)
+  {
+    this.log = log;
+  }
+  
+  /**
+   * Waits until the changes of the given write are durable in the write-ahead log, if any.
+   */
+  private void sync(Write write)
+  {
+    if (write.position > 0)
+    {
+      log.sync(write.position);
+    }
+  }
+  
+  /**
+   * Undoes the changes of the given write, of which the records are not durable, while no other
+   * write runs. A change is undone only while its row is as the write left it. A row changed again
+   * since was changed by a write of which the records came later, so that write is lost as well, and
+   * the change is undone once that write has been undone. Until then, the undo actions left are kept.
+   */
+  private void undoLost(Write write)
+  {
+    lock.writeLock().lock();
+    
+    try
+    {
+      lost.add(write.undos);
+      boolean undone;
+      
+      do
+      {
+        undone = false;
+        
+        for (Iterator<Deque<BooleanSupplier>> iterator = lost.iterator(); iterator.hasNext(); )
+        {
+          Deque<BooleanSupplier> undos = iterator.next();
+          
+          while (!undos.isEmpty() && tryUndo(undos.peek()))
+          {
+            undos.pop();
+            undone = true;
+          }
+          
+          if (undos.isEmpty())
+          {
+            iterator.remove();
+          }
+        }
+      }
+      while (undone);
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+  
+  /**
+   * Runs the given undo action and returns whether it undid its change. It did not when its row was
+   * changed since, or when a key of its old row is taken by another row.
+   */
+  private static boolean tryUndo(BooleanSupplier undo)
+  {
+    try
+    {
+      return undo.getAsBoolean();
+    }
+    catch (DAOException e)
+    {
+      return false;
+    }
+  }
+  
+  /**
+   * The state of a running write on its thread.
+   */
+  private static final class Write
+  {
+    private final Deque<BooleanSupplier> undos = new ArrayDeque<>();
+    private long position;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,462 @@
+package com.tennis.dao;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * This class represents a table of the {@link InMemoryStore}. The rows are kept by ID in a
+ * concurrent map, and their IDs in a concurrent sorted set for the lists and pages ordered by ID.
+ * The IDs are generated from a sequence, like an auto increment column. Every change of a row runs
+ * atomically for its ID and keeps the indexes of the table in sync with it, and registers its undo
+ * action with the store.
+ * <p>
+ * An index maps a key of the rows to their ID in a concurrent sorted map, for lookups and range
+ * scans. Each key maps to one row only: a second row with the same key is refused by a
+ * DAOException caused by a SQLIntegrityConstraintViolationException with SQL state 23505, as a
+ * unique constraint of the database does. An index of which the keys are not unique must hold the
+ * ID in its key. Rows with a null key are left out of the index, which is why they do not conflict.
+ * <p>
+ * The rows must not be changed once they are in the table, the DAO's copy them on the way in and
+ * out.
+ * <p>
+ * Every change is handed to the {@link InMemoryStore} for its write-ahead log, if any, before the
+ * changed row becomes visible and before the keys it gives up are released, so that the order of
+ * the log is an order in which the changes can be replayed without conflicts.
+ * 
+ * @param <R> The type of the rows.
+ * 
+ * @author Atidivya
+ */
+final class InMemoryTable<R>
+{
+  private final String name;
+  private final InMemoryStore store;
+  private final RowWriter<R> writer;
+  private final RowReader<R> reader;
+  private final ConcurrentHashMap<Long, R> rows = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final List<Index<R, ?>> indexes = new ArrayList<>();
+  
+  /**
+   * Construct an empty table. Package private so that it can be constructed inside the DAO package
+   * only.
+   * 
+   * @param name The name of the table, as used in the messages of the exceptions.
+   * @param store The store of the table.
+   * @param writer The writer of the rows to the write-ahead log.
+   * @param reader The reader of the rows from the write-ahead log.
+   */
+  InMemoryTable(String name, InMemoryStore store, RowWriter<R> writer, RowReader<R> reader)
+  {
+    this.name = name;
+    this.store = store;
+    this.writer = writer;
+    this.reader = reader;
+    store.tables.add(this);
+  }
+  
+  /**
+   * Adds an index on the given key of the rows to this table, and returns its entries. The indexes
+   * are to be added before the first row, with the ones which may conflict first.
+   * 
+   * @param constraint The name of the index, as used in the messages of the exceptions.
+   * @param key The key of a row in the index, or null to leave the row out.
+   * 
+   * @return The entries of the index, from key to ID, which must not be changed.
+   */
+  <K extends Comparable<? super K>> ConcurrentNavigableMap<K, Long> index(String constraint, Function<R, K> key)
+  {
+    Index<R, K> index = new Index<>(constraint, key);
+    indexes.add(index);
+    return index.entries;
+  }
+  
+  /**
+   * Returns the row of the given ID, or null if there is none.
+   * 
+   * @param id The ID of the row, may be null.
+   * 
+   * @return The row of the given ID, or null.
+   */
+  R get(Long id)
+  {
+    return (id != null) ? rows.get(id) : null;
+  }
+  
+  /**
+   * Returns the IDs of all rows in ascending order. The set is a live view, which reflects the
+   * changes made while iterating over it.
+   * 
+   * @return The IDs of all rows in ascending order.
+   */
+  NavigableSet<Long> ids()
+  {
+    return ids;
+  }
+  
+  /**
+   * Returns the ID for the next row to be inserted.
+   * 
+   * @return The ID for the next row.
+   */
+  long nextId()
+  {
+    return sequence.incrementAndGet();
+  }
+  
+  /**
+   * Inserts the given row with the given ID, obtained from {@link #nextId()}.
+   * 
+   * @param id The ID of the row.
+   * @param row The row to be inserted.
+   * 
+   * @throws DAOException If an index already holds a key of the row.
+   */
+  void insert(long id, R row) throws DAOException
+  {
+    addKeys(id, row, null);
+    // Logged before the row is visible, so that no change of it can be logged before.
+    store.changed(this, id, row);
+    rows.put(id, row);
+    ids.add(id);
+    store.undo(() -> revert(id, row, null));
+  }
+  
+  /**
+   * Replaces the row of the given ID by the given row.
+   * 
+   * @param id The ID of the row.
+   * @param row The new row.
+   * 
+   * @throws DAOException If there is no row with the given ID, or if an index already holds a key of
+   * the new row for another row.
+   */
+  void update(long id, R row) throws DAOException
+  {
+    rows.compute(id, (key, old) ->
+    {
+      if (old == null)
+      {
+        throw new DAOException("Updating " + name + " failed, no rows affected.");
+      }
+      
+      addKeys(id, row, old);
+      // Logged before the old keys are released, so that no other row can be logged with them before.
+      store.changed(this, id, row);
+      removeKeys(id, old, row);
+      store.undo(() -> revert(id, row, old));
+      return row;
+    });
+  }
+  
+  /**
+   * Deletes the row of the given ID and returns it.
+   * 
+   * @param id The ID of the row, may be null.
+   * 
+   * @return The deleted row.
+   * 
+   * @throws DAOException If there is no row with the given ID.
+   */
+  R delete(Long id) throws DAOException
+  {
+    List<R> deleted = new ArrayList<>(1);
+    
+    if (id != null)
+    {
+      rows.computeIfPresent(id, (key, old) ->
+      {
+        store.changed(this, id, null);
+        removeKeys(id, old, null);
+        ids.remove(id);
+        deleted.add(old);
+        store.undo(() -> revert(id, null, old));
+        return null;
+      });
+    }
+    
+    if (deleted.isEmpty())
+    {
+      throw new DAOException("Deleting " + name + " failed, no rows affected.");
+    }
+    
+    return deleted.get(0);
+  }
+  
+  /**
+   * Changes the row of the given ID back to the given old row, if it is still the given row, and
+   * returns whether it was. This undoes a change without undoing the changes made to the row since.
+   * 
+   * @param id The ID of the row.
+   * @param row The row left by the change, or null if the change deleted the row.
+   * @param old The row before the change, or null if the change inserted the row.
+   * 
+   * @return Whether the row was changed back.
+   * 
+   * @throws DAOException If an index already holds a key of the old row for another row.
+   */
+  boolean revert(long id, R row, R old) throws DAOException
+  {
+    boolean[] reverted = new boolean[1];
+    
+    rows.compute(id, (key, current) ->
+    {
+      if (current != row)
+      {
+        return current;
+      }
+      
+      if (old != null)
+      {
+        addKeys(id, old, current);
+      }
+      
+      store.changed(this, id, old);
+      
+      if (current != null)
+      {
+        removeKeys(id, current, old);
+      }
+      
+      if (old == null)
+      {
+        ids.remove(id);
+      }
+      
+      reverted[0] = true;
+      return old;
+    });
+    
+    // Added once the row is visible, as by an insert.
+    if (reverted[0] && row == null)
+    {
+      ids.add(id);
+    }
+    
+    return reverted[0];
+  }
+  
+  /**
+   * Applies the given change of a row read from the write-ahead log, and raises the sequence to the
+   * ID of the row, so that IDs are never reused.
+   * 
+   * @param id The ID of the row.
+   * @param row The new row, or null if the row is deleted.
+   * 
+   * @throws DAOException If an index already holds a key of the row.
+   */
+  void restore(long id, R row) throws DAOException
+  {
+    if (row == null)
+    {
+      if (rows.containsKey(id))
+      {
+        delete(id);
+      }
+    }
+    else if (rows.containsKey(id))
+    {
+      update(id, row);
+    }
+    else
+    {
+      insert(id, row);
+    }
+    
+    restoreSequence(id);
+  }
+  
+  /**
+   * Raises the sequence to the given value, if it is lower.
+   * 
+   * @param value The last ID handed out by the sequence.
+   */
+  void restoreSequence(long value)
+  {
+    sequence.accumulateAndGet(value, Math::max);
+  }
+  
+  /**
+   * Returns an image of all rows and of the sequence of this table. To be called while no write is
+   * running, so that the image is consistent with the other tables.
+   * 
+   * @return An image of this table.
+   */
+  Image<R> image()
+  {
+    Image<R> image = new Image<>(this, sequence.get(), rows.size());
+    rows.forEach((id, row) ->
+    {
+      image.ids[image.rows.size()] = id;
+      image.rows.add(row);
+    });
+    
+    return image;
+  }
+  
+  /**
+   * Writes the given row to the given output.
+   * 
+   * @param row The row to be written.
+   * @param output The output to write the row to.
+   * 
+   * @throws IOException If writing fails.
+   */
+  void write(R row, DataOutput output) throws IOException
+  {
+    writer.write(row, output);
+  }
+  
+  /**
+   * Reads the row of the given ID from the given input.
+   * 
+   * @param id The ID of the row.
+   * @param input The input to read the row from.
+   * 
+   * @return The row.
+   * 
+   * @throws IOException If reading fails.
+   */
+  R read(long id, DataInput input) throws IOException
+  {
+    return reader.read(id, input);
+  }
+  
+  /**
+   * Adds the keys of the given row which differ from those of the old row to the indexes. When a key
+   * is already taken, the keys added so far are removed again.
+   */
+  private void addKeys(long id, R row, R old)
+  {
+    for (int i = 0; i < indexes.size(); i++)
+    {
+      Index<R, ?> index = indexes.get(i);
+      
+      if (!index.add(id, row, old))
+      {
+        for (int j = 0; j < i; j++)
+        {
+          indexes.get(j).remove(id, row, old);
+        }
+        
+        throw new DAOException(new SQLIntegrityConstraintViolationException("Duplicate entry '" + index.key.apply(row) + "' for key '" + index.constraint + "'", "23505"));
+      }
+    }
+  }
+  
+  /**
+   * Removes the keys of the given old row which differ from those of the new row, if any, from the
+   * indexes.
+   */
+  private void removeKeys(long id, R old, R row)
+  {
+    for (Index<R, ?> index : indexes)
+    {
+      index.remove(id, old, row);
+    }
+  }
+  
+  /**
+   * Writes a row of a table to the write-ahead log.
+   * 
+   * @param <R> The type of the rows.
+   */
+  @FunctionalInterface
+  interface RowWriter<R>
+  {
+    void write(R row, DataOutput output) throws IOException;
+  }
+  
+  /**
+   * Reads a row of a table from the write-ahead log.
+   * 
+   * @param <R> The type of the rows.
+   */
+  @FunctionalInterface
+  interface RowReader<R>
+  {
+    R read(long id, DataInput input) throws IOException;
+  }
+  
+  /**
+   * The rows and the sequence of a table at a point in time. The rows are the stored rows
+   * themselves, which is safe since they are never changed.
+   * 
+   * @param <R> The type of the rows.
+   */
+  static final class Image<R>
+  {
+    final InMemoryTable<R> table;
+    final long sequence;
+    final long[] ids;
+    final List<R> rows;
+    
+    private Image(InMemoryTable<R> table, long sequence, int size)
+    {
+      this.table = table;
+      this.sequence = sequence;
+      this.ids = new long[size];
+      this.rows = new ArrayList<>(size);
+    }
+  }
+  
+  /**
+   * An index from a key of the rows to their ID.
+   */
+  private static final class Index<R, K extends Comparable<? super K>>
+  {
+    private final String constraint;
+    private final Function<R, K> key;
+    private final ConcurrentNavigableMap<K, Long> entries = new ConcurrentSkipListMap<>();
+    
+    private Index(String constraint, Function<R, K> key)
+    {
+      this.constraint = constraint;
+      this.key = key;
+    }
+    
+    /**
+     * Adds the key of the given row, unless it is null or the same as the key of the given other row.
+     * Returns false if the key is taken by another row.
+     */
+    private boolean add(long id, R row, R other)
+    {
+      K rowKey = key.apply(row);
+      
+      if (rowKey == null || (other != null && Objects.equals(rowKey, key.apply(other))))
+      {
+        return true;
+      }
+      
+      Long taken = entries.putIfAbsent(rowKey, id);
+      return taken == null || taken == id;
+    }
+    
+    /**
+     * Removes the key of the given row, unless it is null or the same as the key of the given other
+     * row.
+     */
+    private void remove(long id, R row, R other)
+    {
+      K rowKey = key.apply(row);
+      
+      if (rowKey != null && (other == null || !Objects.equals(rowKey, key.apply(other))))
+      {
+        entries.remove(rowKey, id);
+      }
+    }
+  }
+}
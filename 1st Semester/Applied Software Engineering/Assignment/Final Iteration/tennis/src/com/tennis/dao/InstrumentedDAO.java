@@ -0,0 +1,145 @@
+package com.tennis.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * This class represents the invocation handler of a DAO proxy which records the latency, the
+ * amount of rows returned and the errors of every call on the underlying DAO in the
+ * {@link DAOMetrics} of the DAOFactory, and which emits a {@link DAOCallEvent} for every call when
+ * a flight recording runs. The rows of a returned Stream are counted as they are consumed, the
+ * latency of a Stream call covers the query only.
+ * 
+ * @author Atidivya
+ */
+final class InstrumentedDAO implements InvocationHandler
+{
+  private final Object dao;
+  private final String entity;
+  private final Map<Method, DAOMethodMetrics> metrics;
+  private final boolean events;
+  
+  private InstrumentedDAO(Object dao, String entity, Map<Method, DAOMethodMetrics> metrics, boolean events)
+  {
+    this.dao = dao;
+    this.entity = entity;
+    this.metrics = metrics;
+    this.events = events;
+  }
+  
+  /**
+   * Returns a proxy of the given DAO interface which records every call on the given DAO in the
+   * given metrics and, when asked for, in flight recorder events.
+   * 
+   * @param type The DAO interface.
+   * @param dao The DAO to delegate to.
+   * @param metrics The metrics to record the calls in, or null.
+   * @param events Set whether to emit a flight recorder event for every call.
+   * 
+   * @return A proxy of the given DAO interface which records every call.
+   */
+  static <T> T instrument(Class<T> type, T dao, DAOMetrics metrics, boolean events)
+  {
+    String entity = type.getSimpleName().replaceFirst("DAO$", "");
+    InstrumentedDAO handler = new InstrumentedDAO(dao, entity, (metrics != null) ? metrics.get(type) : null, events);
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+  
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+  {
+    if (method.getDeclaringClass() == Object.class)
+    {
+      return invoke(method, args);
+    }
+    
+    DAOMethodMetrics methodMetrics = (metrics != null) ? metrics.get(method) : null;
+    DAOCallEvent event = events ? DAOCallEvent.begin(entity, method.getName()) : null;
+    long start = System.nanoTime();
+    Object result;
+    
+    try
+    {
+      result = invoke(method, args);
+    }
+    catch (Throwable e)
+    {
+      if (methodMetrics != null)
+      {
+        methodMetrics.failed(System.nanoTime() - start, e);
+      }
+      
+      if (event != null)
+      {
+        event.end(0, e);
+      }
+      
+      throw e;
+    }
+    
+    long nanos = System.nanoTime() - start;
+    boolean stream = result instanceof Stream;
+    long rows = stream ? 0 : rows(result);
+    
+    if (event != null)
+    {
+      event.end(rows, null);
+    }
+    
+    if (methodMetrics != null)
+    {
+      methodMetrics.completed(nanos, rows);
+      
+      if (stream)
+      {
+        return ((Stream<?>) result).peek(row -> methodMetrics.returned(1));
+      }
+    }
+    
+    return result;
+  }
+  
+  private Object invoke(Method method, Object[] args) throws Throwable
+  {
+    try
+    {
+      return method.invoke(dao, args);
+    }
+    catch (InvocationTargetException e)
+    {
+      throw e.getCause();
+    }
+  }
+  
+  /**
+   * Returns the amount of rows the given result of a DAO call represents.
+   */
+  private static long rows(Object result)
+  {
+    if (result == null || result instanceof Boolean)
+    {
+      return 0;
+    }
+    else if (result instanceof Collection)
+    {
+      return ((Collection<?>) result).size();
+    }
+    else if (result instanceof Map)
+    {
+      return ((Map<?, ?>) result).size();
+    }
+    else if (result instanceof Page)
+    {
+      return ((Page<?>) result).getItems().size();
+    }
+    else
+    {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.tennis.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a histogram of latencies in nanoseconds with log-linear buckets, in the
+ * fashion of an HDR histogram. Every power of two is split in 16 linear sub-buckets, so that any
+ * recorded value, from nanoseconds up to days, is known within about 6 percent while the whole
+ * histogram takes a fixed array of under a thousand counters. Recording is lock free and does not
+ * allocate.
+ * 
+ * @author Atidivya
+ */
+final class LatencyHistogram
+{
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  
+  private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+  
+  /**
+   * Records the given latency.
+   * 
+   * @param nanos The latency in nanoseconds.
+   */
+  void record(long nanos)
+  {
+    long value = Math.max(nanos, 0);
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+  
+  /**
+   * Returns the amount of recorded latencies.
+   * 
+   * @return The amount of recorded latencies.
+   */
+  long getCount()
+  {
+    return count.sum();
+  }
+  
+  /**
+   * Returns the mean of the recorded latencies in nanoseconds, 0 when none are recorded.
+   * 
+   * @return The mean of the recorded latencies in nanoseconds.
+   */
+  double getMean()
+  {
+    long n = count.sum();
+    return (n == 0) ? 0.0 : (double) sum.sum() / n;
+  }
+  
+  /**
+   * Returns the largest recorded latency in nanoseconds, 0 when none are recorded.
+   * 
+   * @return The largest recorded latency in nanoseconds.
+   */
+  long getMax()
+  {
+    return max.get();
+  }
+  
+  /**
+   * Returns the latency in nanoseconds at or below which the given percentage of the recorded
+   * latencies lies, 0 when none are recorded. The result is the upper bound of the bucket holding
+   * the percentile, so it errs on the high side by at most the bucket width.
+   * 
+   * @param percentile The percentage, from 0 to 100.
+   * 
+   * @return The latency in nanoseconds at the given percentile.
+   */
+  long getPercentile(double percentile)
+  {
+    long[] snapshot = new long[counts.length()];
+    long total = 0;
+    
+    for (int i = 0; i < snapshot.length; i++)
+    {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    
+    if (total == 0)
+    {
+      return 0;
+    }
+    
+    long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0;
+    
+    for (int i = 0; i < snapshot.length; i++)
+    {
+      seen += snapshot[i];
+      
+      if (seen >= target)
+      {
+        return Math.min(upperBound(i), getMax());
+      }
+    }
+    
+    return getMax();
+  }
+  
+  /**
+   * Returns the index of the bucket of the given value.
+   */
+  private static int index(long value)
+  {
+    if (value < SUB_BUCKETS)
+    {
+      return (int) value;
+    }
+    
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+  
+  /**
+   * Returns the largest value of the bucket of the given index.
+   */
+  private static long upperBound(int index)
+  {
+    if (index < SUB_BUCKETS)
+    {
+      return index;
+    }
+    
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long lowerBound = (1L << exponent) | ((long) (index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS));
+    
+    return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
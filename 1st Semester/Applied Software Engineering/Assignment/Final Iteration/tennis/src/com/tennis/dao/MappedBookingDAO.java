@@ -0,0 +1,1146 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+import com.tennis.model.Member;
+
+/**
+ * This class represents an implementation of the {@link BookingDAO} interface which keeps the
+ * bookings off the heap, in memory-mapped files, so that years of bookings cost neither heap nor
+ * garbage collection, and are available right after a restart without being loaded.
+ * <p>
+ * A booking is a fixed-width record of 32 bytes in 'bookings.dat': the court ID, the start time in
+ * epoch minutes, the member ID, a code for the type and the offset of the observations in the
+ * string arena 'strings.dat'. The ID of a booking is its record number plus one, so a find by ID
+ * reads one record. The types are few, so they are kept once in the arena and the records refer to
+ * them by a code of one byte. The index 'bookings.idx' holds the epoch minute and record number of
+ * all bookings sorted by start time, so that the periods are range scans by binary search. New
+ * bookings are mostly the latest ones, so inserting them into the index shifts only its tail.
+ * There is no index by member: the bookings of a member are found by scanning all bookings of the
+ * period, since an index ordered by member would be shifted almost all along by every new booking.
+ * Lists by member are meant for short periods, such as the coming bookings of a member.
+ * <p>
+ * A Booking object is materialized only when it is returned, with its court and member found in
+ * one call per list on the given Court and Member DAO's, which may be on any storage.
+ * <p>
+ * Reads run concurrently, writes one at a time. A write marks the header as dirty first and writes
+ * the sizes of the files to it last, so that after a crash in the middle of a write its new records
+ * and strings are ignored and the index is rebuilt from the records on the next start; the changes
+ * of the write to existing records may remain, except for a new type or new observations, which
+ * are not covered by the header and are cleared from the records. Unless disabled, the files are
+ * forced to disk at the start and end of every write. The start times are kept to the minute. The arena only grows: the
+ * observations replaced by an update stay in it.
+ * <p>
+ * The directory is locked while this DAO is open, so that no other process or DAO writes to it.
+ * <p>
+ * The bookings are not part of the constraints and units of work of the storage of the courts and
+ * members: their unique court and start time are checked by this DAO, but a court or member is not
+ * checked to exist, and a write in a unit of work is not undone with it.
+ * 
+ * @author Atidivya
+ */
+class MappedBookingDAO implements BookingDAO
+{
+  private static final String RECORDS_FILE = "bookings.dat";
+  private static final String INDEX_FILE = "bookings.idx";
+  private static final String STRINGS_FILE = "strings.dat";
+  private static final String LOCK_FILE = "bookings.lock";
+  private static final int MAGIC = 0x544E4231;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 4096;
+  private static final int HEADER_RECORD_COUNT = 8;
+  private static final int HEADER_INDEX_COUNT = 16;
+  private static final int HEADER_STRINGS_END = 24;
+  private static final int HEADER_TYPE_COUNT = 32;
+  private static final int HEADER_DIRTY = 36;
+  private static final int HEADER_TYPES = 40;
+  private static final int MAX_TYPES = 255;
+  private static final int RECORD_SIZE = 32;
+  private static final int RECORD_COURT = 0;
+  private static final int RECORD_MINUTE = 8;
+  private static final int RECORD_TYPE = 12;
+  private static final int RECORD_LIVE = 13;
+  private static final int RECORD_MEMBER = 16;
+  private static final int RECORD_OBSERVATIONS = 24;
+  private static final int INDEX_ENTRY_SIZE = 8;
+  private static final int INITIAL_SIZE = 1 << 20;
+  private static final int STREAM_CHUNK_SIZE = 1000;
+  private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+  
+  private final CourtDAO courtDAO;
+  private final MemberDAO memberDAO;
+  private final boolean fsync;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final FileLock directoryLock;
+  private final Region records;
+  private final Region index;
+  private final Region strings;
+  private final List<String> types = new ArrayList<>();
+  private final Map<String, Integer> typeCodes = new HashMap<>();
+  
+  // Guarded by the lock, copies of the header.
+  private long recordCount;
+  private long indexCount;
+  private long stringsEnd;
+  
+  /**
+   * Construct a mapped Booking DAO on the files in the given directory, which are created if they
+   * do not exist. Package private so that it can be constructed inside the DAO package only.
+   * 
+   * @param directory The directory of the files.
+   * @param courtDAO The Court DAO to find the courts of the bookings with.
+   * @param memberDAO The Member DAO to find the members of the bookings with.
+   * @param fsync Set whether the files are forced to disk at the end of every write.
+   * 
+   * @throws IOException If the files cannot be created or mapped, or are not booking files, or if
+   * the directory is in use by another process.
+   */
+  MappedBookingDAO(Path directory, CourtDAO courtDAO, MemberDAO memberDAO, boolean fsync) throws IOException
+  {
+    this.courtDAO = courtDAO;
+    this.memberDAO = memberDAO;
+    this.fsync = fsync;
+    
+    Files.createDirectories(directory);
+    FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+    
+    try
+    {
+      directoryLock = lockChannel.tryLock();
+      
+      if (directoryLock == null)
+      {
+        throw new OverlappingFileLockException();
+      }
+    }
+    catch (OverlappingFileLockException e)
+    {
+      lockChannel.close();
+      throw new IOException("Directory '" + directory + "' is in use by another process.", e);
+    }
+    catch (IOException | RuntimeException e)
+    {
+      lockChannel.close();
+      throw e;
+    }
+    
+    try
+    {
+      records = new Region(directory.resolve(RECORDS_FILE));
+      index = new Region(directory.resolve(INDEX_FILE));
+      strings = new Region(directory.resolve(STRINGS_FILE));
+      open(directory);
+    }
+    catch (IOException | RuntimeException e)
+    {
+      try
+      {
+        close();
+      }
+      catch (IOException suppressed)
+      {
+        e.addSuppressed(suppressed);
+      }
+      
+      throw e;
+    }
+  }
+  
+  /**
+   * Reads the header, or writes it to new files, and rebuilds the index if the last write did not
+   * complete.
+   */
+  private void open(Path directory) throws IOException
+  {
+    Region header = records;
+    
+    if (header.getInt(0) == 0)
+    {
+      header.putInt(0, MAGIC);
+      header.putInt(4, VERSION);
+    }
+    else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+    {
+      throw new IOException("File '" + directory.resolve(RECORDS_FILE) + "' is not a booking file of version " + VERSION + ".");
+    }
+    
+    recordCount = header.getLong(HEADER_RECORD_COUNT);
+    indexCount = header.getLong(HEADER_INDEX_COUNT);
+    stringsEnd = header.getLong(HEADER_STRINGS_END);
+    
+    for (int code = 1; code <= header.getInt(HEADER_TYPE_COUNT); code++)
+    {
+      String type = readString(header.getLong(HEADER_TYPES + (code - 1) * 8));
+      types.add(type);
+      typeCodes.put(type, code);
+    }
+    
+    if (header.getInt(HEADER_DIRTY) != 0)
+    {
+      rebuildIndex();
+    }
+  }
+  
+  @Override
+  public Booking find(Long id) throws DAOException
+  {
+    return findAll(Collections.singletonList(id)).get(id);
+  }
+  
+  @Override
+  public Map<Long, Booking> findAll(Collection<Long> ids) throws DAOException
+  {
+    List<Long> slots = new ArrayList<>(ids.size());
+    lock.readLock().lock();
+    
+    try
+    {
+      for (Long id : ids)
+      {
+        if (id != null && id > 0 && id <= recordCount && isLive(id - 1))
+        {
+          slots.add(id - 1);
+        }
+      }
+      
+      Map<Long, Booking> bookings = new HashMap<>();
+      
+      for (Booking booking : materialize(slots))
+      {
+        bookings.put(booking.getId(), booking);
+      }
+      
+      return bookings;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+  
+  @Override
+  public Booking find(Court court, Date startTime) throws DAOException
+  {
+    lock.readLock().lock();
+    
+    try
+    {
+      long slot = findSlot(court.getId(), toMinute(startTime));
+      return (slot >= 0) ? materialize(Collections.singletonList(slot)).get(0) : null;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+  
+  @Override
+  public List<Booking> list() throws DAOException
+  {
+    return stream().collect(Collectors.toList());
+  }
+  
+  @Override
+  public Stream<Booking> stream() throws DAOException
+  {
+    long count;
+    lock.readLock().lock();
+    
+    try
+    {
+      count = recordCount;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+    
+    // Materialized a chunk at a time, so that the stream never holds all bookings on the heap.
+    return LongStream.range(0, (count + STREAM_CHUNK_SIZE - 1) / STREAM_CHUNK_SIZE).boxed().flatMap(chunk -> list(chunk * STREAM_CHUNK_SIZE, Math.min(count, (chunk + 1) * STREAM_CHUNK_SIZE), Integer.MAX_VALUE).stream());
+  }
+  
+  @Override
+  public Page<Booking> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Take one more than the limit to find out whether there is a next page.
+    List<Booking> bookings = list((afterId != null) ? Math.max(afterId, 0) : 0, Long.MAX_VALUE, limit + 1);
+    return Page.of(bookings, limit, Booking::getId);
+  }
+  
+  @Override
+  public List<Booking> list(Court court, Date from, Date to) throws DAOException
+  {
+    return scan(court.getId(), null, from, to);
+  }
+  
+  @Override
+  public List<Booking> list(Date from, Date to) throws DAOException
+  {
+    return scan(null, null, from, to);
+  }
+  
+  @Override
+  public List<Booking> listByMember(Member member, Date from, Date to) throws DAOException
+  {
+    return scan(null, member.getId(), from, to);
+  }
+  
+  @Override
+  public void create(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    createAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public boolean reserve(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    try
+    {
+      create(booking);
+    }
+    catch (DAOException e)
+    {
+      // The court and start time are unique, so there is a single winner per slot.
+      if (e.getCause() instanceof SQLException && isUniqueViolation((SQLException) e.getCause()))
+      {
+        return false;
+      }
+      
+      throw e;
+    }
+    
+    return true;
+  }
+  
+  @Override
+  public void update(Booking booking) throws IllegalArgumentException, DAOException
+  {
+    updateAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public void delete(Booking booking) throws DAOException
+  {
+    deleteAll(Collections.singletonList(booking));
+  }
+  
+  @Override
+  public void createAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() != null)
+      {
+        throw new IllegalArgumentException("Booking is already created, the booking ID is not null.");
+      }
+      
+      check(booking);
+    }
+    
+    lock.writeLock().lock();
+    
+    try
+    {
+      Set<List<Long>> batch = new HashSet<>();
+      
+      for (Booking booking : bookings)
+      {
+        long minute = toMinute(booking.getStartTime());
+        
+        if (findSlot(booking.getCourt().getId(), minute) >= 0 || !batch.add(Arrays.asList(booking.getCourt().getId(), minute)))
+        {
+          throw duplicate(booking.getCourt().getId(), minute);
+        }
+      }
+      
+      prepare(bookings, bookings.size());
+      begin();
+      long first = recordCount;
+      long[] entries = new long[bookings.size()];
+      int i = 0;
+      
+      for (Booking booking : bookings)
+      {
+        writeRecord(first + i, booking, -1);
+        entries[i] = entry(toMinute(booking.getStartTime()), first + i);
+        i++;
+      }
+      
+      insertEntries(entries);
+      commit(first + entries.length);
+      long id = first;
+      
+      for (Booking booking : bookings)
+      {
+        booking.setId(++id);
+      }
+    }
+    catch (IOException e)
+    {
+      throw new DAOException(e);
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Booking> bookings) throws IllegalArgumentException, DAOException
+  {
+    for (Booking booking : bookings)
+    {
+      if (booking.getId() == null)
+      {
+        throw new IllegalArgumentException("Booking is not created yet, the booking ID is null.");
+      }
+      
+      check(booking);
+    }
+    
+    lock.writeLock().lock();
+    
+    try
+    {
+      Set<List<Long>> batch = new HashSet<>();
+      
+      for (Booking booking : bookings)
+      {
+        long slot = booking.getId() - 1;
+        
+        if (booking.getId() < 1 || booking.getId() > recordCount || !isLive(slot))
+        {
+          throw new DAOException("Updating booking failed, no rows affected.");
+        }
+        
+        long minute = toMinute(booking.getStartTime());
+        long taken = findSlot(booking.getCourt().getId(), minute);
+        
+        if ((taken >= 0 && taken != slot) || !batch.add(Arrays.asList(booking.getCourt().getId(), minute)))
+        {
+          throw duplicate(booking.getCourt().getId(), minute);
+        }
+      }
+      
+      prepare(bookings, 0);
+      begin();
+      
+      for (Booking booking : bookings)
+      {
+        long slot = booking.getId() - 1;
+        long offset = recordOffset(slot);
+        int oldMinute = records.getInt(offset + RECORD_MINUTE);
+        long oldObservations = records.getLong(offset + RECORD_OBSERVATIONS);
+        
+        if (!equal(booking.getObservations(), readString(oldObservations)))
+        {
+          oldObservations = -1;
+        }
+        
+        writeRecord(slot, booking, oldObservations);
+        
+        if (oldMinute != toMinute(booking.getStartTime()))
+        {
+          removeEntry(entry(oldMinute, slot));
+          insertEntries(new long[] { entry(toMinute(booking.getStartTime()), slot) });
+        }
+      }
+      
+      commit(recordCount);
+    }
+    catch (IOException e)
+    {
+      throw new DAOException(e);
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Booking> bookings) throws DAOException
+  {
+    lock.writeLock().lock();
+    
+    try
+    {
+      for (Booking booking : bookings)
+      {
+        Long id = booking.getId();
+        
+        if (id == null || id < 1 || id > recordCount || !isLive(id - 1))
+        {
+          throw new DAOException("Deleting booking failed, no rows affected.");
+        }
+      }
+      
+      begin();
+      
+      for (Booking booking : bookings)
+      {
+        long offset = recordOffset(booking.getId() - 1);
+        
+        // A booking listed twice is deleted once.
+        if (records.get(offset + RECORD_LIVE) != 0)
+        {
+          records.put(offset + RECORD_LIVE, (byte) 0);
+          removeEntry(entry(records.getInt(offset + RECORD_MINUTE), booking.getId() - 1));
+        }
+      }
+      
+      commit(recordCount);
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+    
+    for (Booking booking : bookings)
+    {
+      booking.setId(null);
+    }
+  }
+  
+  /**
+   * Forces the files to disk and closes them, after the running writes, and unlocks the directory.
+   * This DAO must not be used anymore after it is closed. Package private so that it can be used
+   * inside the DAO package only.
+   * 
+   * @throws IOException If forcing or closing the files fails.
+   */
+  void close() throws IOException
+  {
+    lock.writeLock().lock();
+    
+    try
+    {
+      // The regions are null when the constructor failed before opening them.
+      for (Region region : new Region[] { strings, index, records })
+      {
+        if (region != null)
+        {
+          region.close();
+        }
+      }
+    }
+    finally
+    {
+      directoryLock.channel().close();
+      lock.writeLock().unlock();
+    }
+  }
+  
+  /**
+   * Returns the live bookings of the records from the given number on, before the given end, at
+   * most the given amount.
+   */
+  private List<Booking> list(long from, long to, int limit)
+  {
+    lock.readLock().lock();
+    
+    try
+    {
+      List<Long> slots = new ArrayList<>();
+      
+      for (long slot = from; slot < Math.min(to, recordCount) && slots.size() < limit; slot++)
+      {
+        if (isLive(slot))
+        {
+          slots.add(slot);
+        }
+      }
+      
+      return materialize(slots);
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+  
+  /**
+   * Returns the bookings of the given period, of the given court and member if not null, ordered by
+   * start time, and by court if both are null. The period is found in the index by binary search,
+   * and its bookings are then filtered by court and member, so the cost is that of all bookings of
+   * the period.
+   */
+  private List<Booking> scan(Long courtId, Long memberId, Date from, Date to)
+  {
+    long fromMinute = ceilMinute(from);
+    long toMinute = ceilMinute(to);
+    lock.readLock().lock();
+    
+    try
+    {
+      List<Long> slots = new ArrayList<>();
+      
+      for (long position = lowerBound(entry(fromMinute, 0)); position < indexCount; position++)
+      {
+        long entry = index.getLong(position * INDEX_ENTRY_SIZE);
+        
+        if ((entry >> 32) >= toMinute)
+        {
+          break;
+        }
+        
+        long offset = recordOffset(entry & 0xFFFFFFFFL);
+        
+        if ((courtId == null || records.getLong(offset + RECORD_COURT) == courtId) && (memberId == null || records.getLong(offset + RECORD_MEMBER) == memberId))
+        {
+          slots.add(entry & 0xFFFFFFFFL);
+        }
+      }
+      
+      // The index orders the bookings of a minute by record number, the list of all courts by court.
+      if (courtId == null && memberId == null)
+      {
+        slots.sort((left, right) ->
+        {
+          int compare = Integer.compare(records.getInt(recordOffset(left) + RECORD_MINUTE), records.getInt(recordOffset(right) + RECORD_MINUTE));
+          return (compare != 0) ? compare : Long.compare(records.getLong(recordOffset(left) + RECORD_COURT), records.getLong(recordOffset(right) + RECORD_COURT));
+        });
+      }
+      
+      return materialize(slots);
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+  
+  /**
+   * Returns the record number of the live booking of the given court and start minute, or -1.
+   */
+  private long findSlot(Long courtId, long minute)
+  {
+    if (courtId == null)
+    {
+      return -1;
+    }
+    
+    for (long position = lowerBound(entry(minute, 0)); position < indexCount; position++)
+    {
+      long entry = index.getLong(position * INDEX_ENTRY_SIZE);
+      
+      if ((entry >> 32) != minute)
+      {
+        break;
+      }
+      
+      if (records.getLong(recordOffset(entry & 0xFFFFFFFFL) + RECORD_COURT) == courtId)
+      {
+        return entry & 0xFFFFFFFFL;
+      }
+    }
+    
+    return -1;
+  }
+  
+  /**
+   * Returns the position of the first index entry which is not less than the given entry.
+   */
+  private long lowerBound(long entry)
+  {
+    long low = 0;
+    long high = indexCount;
+    
+    while (low < high)
+    {
+      long middle = (low + high) >>> 1;
+      
+      if (index.getLong(middle * INDEX_ENTRY_SIZE) < entry)
+      {
+        low = middle + 1;
+      }
+      else
+      {
+        high = middle;
+      }
+    }
+    
+    return low;
+  }
+  
+  /**
+   * Makes sure that the given bookings can be written without failing halfway: their new types fit
+   * in the header and the files have room for the given amount of new records, the new types and
+   * all observations. Nothing is changed yet, the new types are added by the write itself.
+   */
+  private void prepare(Collection<Booking> bookings, int newRecords) throws IOException
+  {
+    Set<String> newTypes = new HashSet<>();
+    long stringBytes = 0;
+    
+    for (Booking booking : bookings)
+    {
+      if (booking.getType() != null && !typeCodes.containsKey(booking.getType()) && newTypes.add(booking.getType()))
+      {
+        if (types.size() + newTypes.size() > MAX_TYPES)
+        {
+          throw new DAOException("Booking type '" + booking.getType() + "' exceeds the maximum of " + MAX_TYPES + " types.");
+        }
+        
+        stringBytes += 4 + booking.getType().getBytes(StandardCharsets.UTF_8).length;
+      }
+      
+      if (booking.getObservations() != null)
+      {
+        stringBytes += 4 + booking.getObservations().getBytes(StandardCharsets.UTF_8).length;
+      }
+    }
+    
+    records.ensure(recordOffset(recordCount + newRecords));
+    index.ensure((indexCount + newRecords) * INDEX_ENTRY_SIZE);
+    strings.ensure(stringsEnd + stringBytes);
+  }
+  
+  /**
+   * Inserts the given entries into the index, merging them in from its end, so that only the entries
+   * after the first new one are moved.
+   */
+  private void insertEntries(long[] entries)
+  {
+    Arrays.sort(entries);
+    long read = indexCount - 1;
+    long write = indexCount + entries.length - 1;
+    
+    for (int i = entries.length - 1; i >= 0; i--)
+    {
+      while (read >= 0 && index.getLong(read * INDEX_ENTRY_SIZE) > entries[i])
+      {
+        index.putLong(write-- * INDEX_ENTRY_SIZE, index.getLong(read-- * INDEX_ENTRY_SIZE));
+      }
+      
+      index.putLong(write-- * INDEX_ENTRY_SIZE, entries[i]);
+    }
+    
+    indexCount += entries.length;
+  }
+  
+  /**
+   * Removes the given entry from the index, moving the entries after it.
+   */
+  private void removeEntry(long entry)
+  {
+    long position = lowerBound(entry);
+    
+    for (long next = position + 1; next < indexCount; next++)
+    {
+      index.putLong((next - 1) * INDEX_ENTRY_SIZE, index.getLong(next * INDEX_ENTRY_SIZE));
+    }
+    
+    indexCount--;
+  }
+  
+  /**
+   * Writes the given booking to the record of the given number, with its observations at the given
+   * offset in the arena, or appended to the arena if the offset is -1.
+   */
+  private void writeRecord(long slot, Booking booking, long observations) throws IOException
+  {
+    long offset = recordOffset(slot);
+    Member member = booking.getMember();
+    records.putLong(offset + RECORD_COURT, booking.getCourt().getId());
+    records.putInt(offset + RECORD_MINUTE, (int) toMinute(booking.getStartTime()));
+    records.put(offset + RECORD_TYPE, (byte) typeCode(booking.getType()));
+    records.put(offset + RECORD_LIVE, (byte) 1);
+    records.putLong(offset + RECORD_MEMBER, (member != null && member.getId() != null) ? member.getId() : 0);
+    records.putLong(offset + RECORD_OBSERVATIONS, (observations >= 0) ? observations : appendString(booking.getObservations()));
+  }
+  
+  /**
+   * Returns the code of the given type, 0 for null, adding the type to the header if it is new. To
+   * be called after {@link #prepare(Collection, int)} and {@link #begin()}, so that a new type is
+   * known to fit and the in-memory types never get ahead of a header which is not marked as dirty.
+   */
+  private int typeCode(String type) throws IOException
+  {
+    if (type == null)
+    {
+      return 0;
+    }
+    
+    Integer code = typeCodes.get(type);
+    
+    if (code == null)
+    {
+      if (types.size() == MAX_TYPES)
+      {
+        throw new DAOException("Booking type '" + type + "' exceeds the maximum of " + MAX_TYPES + " types.");
+      }
+      
+      // The count of the types is written to the header on commit, with the end of the arena.
+      records.putLong(HEADER_TYPES + types.size() * 8, appendString(type));
+      types.add(type);
+      code = types.size();
+      typeCodes.put(type, code);
+    }
+    
+    return code;
+  }
+  
+  /**
+   * Appends the given string to the arena and returns its offset, or -1 if it is null.
+   */
+  private long appendString(String value) throws IOException
+  {
+    if (value == null)
+    {
+      return -1;
+    }
+    
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    strings.ensure(stringsEnd + 4 + bytes.length);
+    long offset = stringsEnd;
+    strings.putInt(offset, bytes.length);
+    
+    for (int i = 0; i < bytes.length; i++)
+    {
+      strings.put(offset + 4 + i, bytes[i]);
+    }
+    
+    stringsEnd += 4 + bytes.length;
+    return offset;
+  }
+  
+  /**
+   * Returns the string at the given offset of the arena, or null if the offset is -1.
+   */
+  private String readString(long offset)
+  {
+    if (offset < 0)
+    {
+      return null;
+    }
+    
+    byte[] bytes = new byte[strings.getInt(offset)];
+    
+    for (int i = 0; i < bytes.length; i++)
+    {
+      bytes[i] = strings.get(offset + 4 + i);
+    }
+    
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+  
+  /**
+   * Marks the header as dirty before the files are changed, so that the index is rebuilt if the
+   * write does not complete.
+   */
+  private void begin()
+  {
+    records.putInt(HEADER_DIRTY, 1);
+    
+    if (fsync)
+    {
+      records.force();
+    }
+  }
+  
+  /**
+   * Sets the amount of records to the given amount and writes the sizes to the header, which makes
+   * the write visible after a restart, and forces the files to disk if asked for.
+   */
+  private void commit(long newRecordCount)
+  {
+    recordCount = newRecordCount;
+    
+    if (fsync)
+    {
+      strings.force();
+      index.force();
+      records.force();
+    }
+    
+    records.putLong(HEADER_STRINGS_END, stringsEnd);
+    records.putInt(HEADER_TYPE_COUNT, types.size());
+    records.putLong(HEADER_INDEX_COUNT, indexCount);
+    records.putLong(HEADER_RECORD_COUNT, recordCount);
+    records.putInt(HEADER_DIRTY, 0);
+    
+    if (fsync)
+    {
+      records.force();
+    }
+  }
+  
+  /**
+   * Rebuilds the index from the live records, after a write which did not complete. The new types
+   * and observations of an update which did not complete are beyond the header, so they are cleared
+   * from its records.
+   */
+  private void rebuildIndex() throws IOException
+  {
+    for (long slot = 0; slot < recordCount; slot++)
+    {
+      long offset = recordOffset(slot);
+      
+      if ((records.get(offset + RECORD_TYPE) & 0xFF) > types.size())
+      {
+        records.put(offset + RECORD_TYPE, (byte) 0);
+      }
+      
+      if (records.getLong(offset + RECORD_OBSERVATIONS) >= stringsEnd)
+      {
+        records.putLong(offset + RECORD_OBSERVATIONS, -1);
+      }
+    }
+    
+    long[] entries = LongStream.range(0, recordCount).filter(this::isLive).map(slot -> entry(records.getInt(recordOffset(slot) + RECORD_MINUTE), slot)).sorted().toArray();
+    index.ensure((long) entries.length * INDEX_ENTRY_SIZE);
+    
+    for (int i = 0; i < entries.length; i++)
+    {
+      index.putLong((long) i * INDEX_ENTRY_SIZE, entries[i]);
+    }
+    
+    indexCount = entries.length;
+    commit(recordCount);
+  }
+  
+  /**
+   * Returns the bookings of the given record numbers in the given order, with their courts and
+   * members found in one call each.
+   */
+  private List<Booking> materialize(List<Long> slots)
+  {
+    Set<Long> courtIds = new HashSet<>();
+    Set<Long> memberIds = new HashSet<>();
+    
+    for (long slot : slots)
+    {
+      long offset = recordOffset(slot);
+      courtIds.add(records.getLong(offset + RECORD_COURT));
+      long memberId = records.getLong(offset + RECORD_MEMBER);
+      
+      if (memberId != 0)
+      {
+        memberIds.add(memberId);
+      }
+    }
+    
+    Map<Long, Court> courts = courtIds.isEmpty() ? Collections.<Long, Court>emptyMap() : courtDAO.findAll(courtIds);
+    Map<Long, Member> members = memberIds.isEmpty() ? Collections.<Long, Member>emptyMap() : memberDAO.findAll(memberIds);
+    List<Booking> bookings = new ArrayList<>(slots.size());
+    
+    for (long slot : slots)
+    {
+      long offset = recordOffset(slot);
+      int type = records.get(offset + RECORD_TYPE) & 0xFF;
+      Booking booking = new Booking();
+      booking.setId(slot + 1);
+      booking.setCourt(courts.get(records.getLong(offset + RECORD_COURT)));
+      booking.setStartTime(new Timestamp(records.getInt(offset + RECORD_MINUTE) * MINUTE));
+      booking.setType((type != 0) ? types.get(type - 1) : null);
+      booking.setMember(members.get(records.getLong(offset + RECORD_MEMBER)));
+      booking.setObservations(readString(records.getLong(offset + RECORD_OBSERVATIONS)));
+      bookings.add(booking);
+    }
+    
+    return bookings;
+  }
+  
+  /**
+   * Returns the offset in 'bookings.dat' of the record of the given number.
+   */
+  private static long recordOffset(long slot)
+  {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+  
+  /**
+   * Returns true if the record of the given number holds a booking which is not deleted.
+   */
+  private boolean isLive(long slot)
+  {
+    return records.get(recordOffset(slot) + RECORD_LIVE) != 0;
+  }
+  
+  /**
+   * Checks the required columns of the given booking and that its start time fits a record.
+   */
+  private static void check(Booking booking)
+  {
+    if (booking.getCourt() == null || booking.getCourt().getId() == null || booking.getStartTime() == null)
+    {
+      throw new DAOException(new SQLIntegrityConstraintViolationException("Column '" + ((booking.getStartTime() == null) ? "start_time" : "court") + "' cannot be null", "23502"));
+    }
+    
+    if (booking.getStartTime().getTime() % MINUTE != 0)
+    {
+      throw new IllegalArgumentException("Booking start time must be a whole minute.");
+    }
+    
+    if (booking.getStartTime().getTime() < 0 || toMinute(booking.getStartTime()) > Integer.MAX_VALUE)
+    {
+      throw new IllegalArgumentException("Booking start time must be between 1970 and 6053.");
+    }
+  }
+  
+  /**
+   * Returns the violation of the unique court and start time of the given slot.
+   */
+  private static DAOException duplicate(long courtId, long minute)
+  {
+    return new DAOException(new SQLIntegrityConstraintViolationException("Duplicate entry '" + courtId + "-" + new Timestamp(minute * MINUTE) + "' for key 'booking_court_start_time'", "23505"));
+  }
+  
+  /**
+   * Returns the index entry of the given start minute and record number, which sorts by start
+   * minute first.
+   */
+  private static long entry(long minute, long slot)
+  {
+    return (minute << 32) | slot;
+  }
+  
+  /**
+   * Returns the epoch minute of the given date.
+   */
+  private static long toMinute(Date date)
+  {
+    return Math.floorDiv(date.getTime(), MINUTE);
+  }
+  
+  /**
+   * Returns the first epoch minute not before the given date.
+   */
+  private static long ceilMinute(Date date)
+  {
+    return -Math.floorDiv(-date.getTime(), MINUTE);
+  }
+  
+  /**
+   * Returns true if the given strings are both null or equal.
+   */
+  private static boolean equal(String left, String right)
+  {
+    return (left == null) ? right == null : left.equals(right);
+  }
+  
+  /**
+   * A file mapped into memory as a whole, which grows by doubling. The old mapping of a grown file is
+   * released by the garbage collector.
+   */
+  private static final class Region
+  {
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    
+    private Region(Path path) throws IOException
+    {
+      channel = FileChannel.open(path, CREATE, READ, WRITE);
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_SIZE));
+    }
+    
+    /**
+     * Makes sure that the file holds at least the given amount of bytes.
+     */
+    private void ensure(long size) throws IOException
+    {
+      if (size > Integer.MAX_VALUE)
+      {
+        throw new DAOException("Booking file is full, it cannot exceed 2 GB.");
+      }
+      
+      if (size > buffer.capacity())
+      {
+        long capacity = Math.min(Math.max(size, 2L * buffer.capacity()), Integer.MAX_VALUE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      }
+    }
+    
+    /**
+     * Forces the changes of the file to disk.
+     */
+    private void force()
+    {
+      buffer.force();
+    }
+    
+    /**
+     * Forces the changes of the file to disk and closes it. The mapping stays valid until it is
+     * released by the garbage collector.
+     */
+    private void close() throws IOException
+    {
+      if (channel.isOpen())
+      {
+        buffer.force();
+        channel.close();
+      }
+    }
+    
+    // The absolute accessors of the mapped bytes, which fit in an int as the file does.
+    
+    private byte get(long position)
+    {
+      return buffer.get((int) position);
+    }
+    
+    private void put(long position, byte value)
+    {
+      buffer.put((int) position, value);
+    }
+    
+    private int getInt(long position)
+    {
+      return buffer.getInt((int) position);
+    }
+    
+    private void putInt(long position, int value)
+    {
+      buffer.putInt((int) position, value);
+    }
+    
+    private long getLong(long position)
+    {
+      return buffer.getLong((int) position);
+    }
+    
+    private void putLong(long position, long value)
+    {
+      buffer.putLong((int) position, value);
+    }
+  }
+}
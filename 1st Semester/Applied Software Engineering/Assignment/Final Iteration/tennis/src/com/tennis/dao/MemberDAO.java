@@ -1,6 +1,9 @@
 package com.tennis.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Member;
 
@@ -24,6 +27,19 @@ public interface MemberDAO
    */
   public Member find(Long id) throws DAOException;
   
+  /**
+   * Returns the members from the database matching the given IDs, keyed by ID. The members are
+   * queried with a few <code>IN</code> queries instead of one query per ID. IDs which do not match
+   * any member are absent from the map, null IDs are ignored.
+   * 
+   * @param ids The IDs of the members to be returned.
+   * 
+   * @return The members from the database matching the given IDs, keyed by ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Map<Long, Member> findAll(Collection<Long> ids) throws DAOException;
+  
   /**
    * Returns a list of all members from the database ordered by member ID. The list
    * is never null and is empty when the database does not contain any member. 
@@ -34,6 +50,33 @@ public interface MemberDAO
    */
   public List<Member> list() throws DAOException;
   
+  /**
+   * Returns a stream of all members from the database ordered by member ID. The members are read from
+   * the database while the stream is consumed, so memory use does not grow with the amount of
+   * members. The stream holds a database connection until it is closed, so it must be closed after
+   * use, preferably with try-with-resources.
+   * 
+   * @return A stream of all members from the database ordered by member ID.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public Stream<Member> stream() throws DAOException;
+  
+  /**
+   * Returns a page of at most the given limit of members from the database with an ID greater than
+   * the given ID, ordered by member ID. Pass null to get the first page, and the next cursor of a page
+   * to get the page after it.
+   * 
+   * @param afterId The ID after which the page starts, or null for the first page.
+   * @param limit The maximum amount of members on the page.
+   * 
+   * @return A page of members from the database ordered by member ID.
+   * 
+   * @throws IllegalArgumentException If the limit is less than 1.
+   * @throws DAOException If something fails at database level.
+   */
+  public Page<Member> list(Long afterId, int limit) throws IllegalArgumentException, DAOException;
+  
   /**
    * Create the given member in the database. The member ID must be null, otherwise
    * it will throw IllegalArgumentException. After creating, the DAO will set the
@@ -66,4 +109,37 @@ public interface MemberDAO
    * @throws DAOException If something fails at database level.
    */
   public void delete(Member member) throws DAOException;
+  
+  /**
+   * Create the given members in the database in JDBC batches. The member IDs must be null, otherwise it
+   * will throw IllegalArgumentException. After creating, the DAO will set the obtained IDs in the
+   * given members. Either all members are created or none.
+   * 
+   * @param members The members to be created in the database.
+   * 
+   * @throws IllegalArgumentException If any member ID is not null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void createAll(Collection<Member> members) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Update the given members in the database in JDBC batches. The member IDs must not be null,
+   * otherwise it will throw IllegalArgumentException. Either all members are updated or none.
+   * 
+   * @param members The members to be updated in the database.
+   * 
+   * @throws IllegalArgumentException If any member ID is null.
+   * @throws DAOException If something fails at database level.
+   */
+  public void updateAll(Collection<Member> members) throws IllegalArgumentException, DAOException;
+  
+  /**
+   * Delete the given members from the database in JDBC batches. After deleting, the DAO will set the
+   * IDs of the given members to null. Either all members are deleted or none.
+   * 
+   * @param members The members to be deleted from the database.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  public void deleteAll(Collection<Member> members) throws DAOException;
 }
@@ -7,7 +7,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.tennis.model.Member;
 
@@ -19,7 +23,9 @@ import com.tennis.model.Member;
 public class MemberDAOJDBC implements MemberDAO
 {
   private static final String SQL_FIND_BY_ID = "SELECT id, name, email, phone, address, observations FROM member WHERE id = ?";
+  private static final String SQL_FIND_BY_IDS = "SELECT id, name, email, phone, address, observations FROM member WHERE id IN (%s)";
   private static final String SQL_LIST_ORDER_BY_ID = "SELECT id, name, email, phone, address, observations FROM member ORDER BY id";
+  private static final String SQL_LIST_AFTER_ID_ORDER_BY_ID = "SELECT id, name, email, phone, address, observations FROM member WHERE id > ? ORDER BY id LIMIT ?";
   private static final String SQL_INSERT = "INSERT INTO member(name, email, phone, address, observations) VALUES(?, ?, ?, ?, ?)";
   private static final String SQL_UPDATE = "UPDATE member SET name = ?, email = ?, phone = ?, address = ?, observations = ? WHERE id = ?";
   private static final String SQL_DELETE = "DELETE FROM member WHERE id = ?";
@@ -43,6 +49,24 @@ public class MemberDAOJDBC implements MemberDAO
     return find(SQL_FIND_BY_ID, id);
   }
   
+  @Override
+  public Map<Long, Member> findAll(Collection<Long> ids) throws DAOException
+  {
+    if (ids.isEmpty())
+    {
+      return new HashMap<>();
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      return DAOUtil.findAll(connection, SQL_FIND_BY_IDS, daoFactory.getBatchSize(), ids, MemberDAOJDBC::map, Member::getId);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
   /**
    * Returns the member from the database matching the given SQL query with the given values.
    * 
@@ -102,6 +126,67 @@ public class MemberDAOJDBC implements MemberDAO
     return members;
   }
   
+  @Override
+  public Stream<Member> stream() throws DAOException
+  {
+    try
+    {
+      return DAOUtil.stream(daoFactory.getConnection(), SQL_LIST_ORDER_BY_ID, daoFactory.getStreamFetchSize(), MemberDAOJDBC::map);
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public Page<Member> list(Long afterId, int limit) throws IllegalArgumentException, DAOException
+  {
+    if (limit < 1)
+    {
+      throw new IllegalArgumentException("Page limit must be at least 1.");
+    }
+    
+    // Fetch one more than the limit to find out whether there is a next page.
+    List<Member> members = list(SQL_LIST_AFTER_ID_ORDER_BY_ID, (afterId != null) ? afterId : 0L, limit + 1);
+    
+    return Page.of(members, limit, Member::getId);
+  }
+  
+  /**
+   * Returns a list of members from the database matching the given SQL query with the given values.
+   * 
+   * @param sql The SQL query to be executed in the database.
+   * @param values The PreparedStatement values to be set.
+   * 
+   * @return A list of members from the database matching the given SQL query with the given values.
+   * 
+   * @throws DAOException If something fails at database level.
+   */
+  private List<Member> list(String sql, Object... values) throws DAOException
+  {
+    List<Member> members = new ArrayList<>();
+    
+    try
+    (
+      Connection connection = daoFactory.getConnection();
+      PreparedStatement statement = prepareStatement(connection, sql, false, values);
+      ResultSet resultSet = statement.executeQuery();
+    )
+    {
+      while (resultSet.next())
+      {
+        members.add(map(resultSet));
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    return members;
+  }
+  
   @Override
   public void create(Member member) throws IllegalArgumentException, DAOException
   {
@@ -215,6 +300,102 @@ public class MemberDAOJDBC implements MemberDAO
     }
   }
   
+  @Override
+  public void createAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      if (member.getId() != null)
+      {
+        throw new IllegalArgumentException("Member is already created, the member ID is not null.");
+      }
+      
+      values.add(new Object[] {
+        member.getName(),
+        member.getEmail(),
+        member.getPhone(),
+        member.getAddress(),
+        member.getObservations()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      long[] generatedKeys = executeBatch(connection, SQL_INSERT, true, daoFactory.getBatchSize(), values, "Creating members failed");
+      int i = 0;
+      
+      for (Member member : members)
+      {
+        member.setId(generatedKeys[i++]);
+      }
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void updateAll(Collection<Member> members) throws IllegalArgumentException, DAOException
+  {
+    List<Object[]> values = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      if (member.getId() == null)
+      {
+        throw new IllegalArgumentException("Member is not created yet, the member ID is null.");
+      }
+      
+      values.add(new Object[] {
+        member.getName(),
+        member.getEmail(),
+        member.getPhone(),
+        member.getAddress(),
+        member.getObservations(),
+        member.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_UPDATE, false, daoFactory.getBatchSize(), values, "Updating members failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+  }
+  
+  @Override
+  public void deleteAll(Collection<Member> members) throws DAOException
+  {
+    List<Object[]> values = new ArrayList<>(members.size());
+    
+    for (Member member : members)
+    {
+      values.add(new Object[] {
+        member.getId()
+      });
+    }
+    
+    try (Connection connection = daoFactory.getConnection())
+    {
+      executeBatch(connection, SQL_DELETE, false, daoFactory.getBatchSize(), values, "Deleting members failed");
+    }
+    catch (SQLException e)
+    {
+      throw new DAOException(e);
+    }
+    
+    for (Member member : members)
+    {
+      member.setId(null);
+    }
+  }
+  
   /**
    * Map the current row of the given ResultSet to an Member.
    * 
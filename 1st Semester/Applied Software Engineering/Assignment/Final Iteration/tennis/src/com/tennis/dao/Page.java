@@ -0,0 +1,100 @@
+package com.tennis.dao;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This class represents one page of a keyset paginated listing, as returned by the
+ * <code>list(Long afterId, int limit)</code> methods of the DAO's. The next page is obtained by
+ * passing {@link #getNextCursor()} as <code>afterId</code>, which lets the database seek directly to
+ * the first row of that page, so a deep page costs the same as the first one.
+ * 
+ * @param <T> The type of the models on the page.
+ * 
+ * @author Atidivya
+ */
+public class Page<T> implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  
+  private final List<T> items;
+  private final Long nextCursor;
+  
+  /**
+   * Construct a page with the given items and the given cursor of the next page.
+   * 
+   * @param items The items on the page.
+   * @param nextCursor The ID after which the next page starts, or null if this is the last page.
+   */
+  public Page(List<T> items, Long nextCursor)
+  {
+    this.items = Collections.unmodifiableList(items);
+    this.nextCursor = nextCursor;
+  }
+  
+  /**
+   * Returns a page of at most the given limit of the given rows. The rows must be ordered by ID and
+   * may contain one row more than the limit, which only indicates that there is a next page.
+   * 
+   * @param <T> The type of the models on the page.
+   * @param rows The rows ordered by ID, at most one more than the limit.
+   * @param limit The maximum amount of items on the page.
+   * @param id The function returning the ID of a row.
+   * 
+   * @return A page of at most the given limit of the given rows.
+   */
+  static <T> Page<T> of(List<T> rows, int limit, Function<T, Long> id)
+  {
+    if (rows.size() > limit)
+    {
+      List<T> items = rows.subList(0, limit);
+      return new Page<>(items, id.apply(items.get(limit - 1)));
+    }
+    
+    return new Page<>(rows, null);
+  }
+  
+  /**
+   * Returns the items on this page, in ascending ID order. The list is never null and cannot be
+   * modified.
+   * 
+   * @return The items on this page.
+   */
+  public List<T> getItems()
+  {
+    return items;
+  }
+  
+  /**
+   * Returns the ID after which the next page starts, or null if this is the last page.
+   * 
+   * @return The ID after which the next page starts, or null if this is the last page.
+   */
+  public Long getNextCursor()
+  {
+    return nextCursor;
+  }
+  
+  /**
+   * Returns true if there is a page after this one.
+   * 
+   * @return True if there is a page after this one.
+   */
+  public boolean hasNext()
+  {
+    return nextCursor != null;
+  }
+  
+  /**
+   * Returns the String representation of this Page. Not required, it just pleases reading logs.
+   * 
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString()
+  {
+    return String.format("Page[items=%s, nextCursor=%d]", items, nextCursor);
+  }
+}
@@ -0,0 +1,27 @@
+package com.tennis.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * This interface represents a mapping of the current row of a ResultSet to a model, such as the
+ * private <code>map(ResultSet)</code> methods of the JDBC DAO's.
+ * 
+ * @param <T> The type of the model.
+ * 
+ * @author Atidivya
+ */
+@FunctionalInterface
+public interface ResultSetMapper<T>
+{
+  /**
+   * Map the current row of the given ResultSet to a model.
+   * 
+   * @param resultSet The ResultSet of which the current row is to be mapped.
+   * 
+   * @return The mapped model from the current row of the given ResultSet.
+   * 
+   * @throws SQLException If something fails at database level.
+   */
+  public T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,174 @@
+package com.tennis.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class represents a coalescer of concurrent identical reads. The first caller for a key runs
+ * the query, and the callers arriving with an equal key while it is in flight wait for its result
+ * instead of running their own query. Once the query completes, the next caller for the key starts
+ * a new one, so no result outlives its query.
+ * <p>
+ * A caller never waits for a query which started before the last write reported by
+ * {@link #written()}, since that query may not see the write. It runs its own query instead, so a
+ * find right after a write through the same DAOFactory sees the write. Writes by other means, such
+ * as by other nodes, are not known here, and a find may then share a query which started before
+ * them.
+ * <p>
+ * The waiting is bounded, a caller which waits longer than the timeout gets a DAOException. An
+ * exception or error of the query is thrown to all callers which waited for it.
+ * 
+ * @param <K> The type of the keys.
+ * @param <V> The type of the results.
+ * 
+ * @author Atidivya
+ */
+final class SingleFlight<K, V>
+{
+  private final String name;
+  private final long timeoutMillis;
+  private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+  private final AtomicLong writes = new AtomicLong();
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder absorbedCalls = new LongAdder();
+  private final LongAccumulator maxAbsorbedCalls = new LongAccumulator(Math::max, 0);
+  private final LongAdder timeouts = new LongAdder();
+  
+  /**
+   * Construct a coalescer of the given name with the given bounded wait.
+   * 
+   * @param name The name of the coalesced read, as shown in the statistics.
+   * @param timeoutMillis The milliseconds a caller waits at most for the query of another caller.
+   */
+  SingleFlight(String name, long timeoutMillis)
+  {
+    this.name = name;
+    this.timeoutMillis = timeoutMillis;
+  }
+  
+  /**
+   * Returns the result of the given query for the given key, either by running it, or by waiting for
+   * the same query which is already in flight for an equal key. Only the caller which ran the query
+   * gets its result as is, the waiting callers get a copy through the given copier of a snapshot
+   * which is taken before the result is returned.
+   * 
+   * @param key The key identifying the query.
+   * @param query The query to be run when none is in flight for the key.
+   * @param copier The copier of the result for the waiting callers.
+   * 
+   * @return The result of the query.
+   * 
+   * @throws DAOException If the query fails, or if waiting for the query of another caller times
+   * out.
+   */
+  V execute(K key, Supplier<V> query, UnaryOperator<V> copier) throws DAOException
+  {
+    Flight<V> flight = new Flight<>(writes.get());
+    Flight<V> inFlight = flights.putIfAbsent(key, flight);
+    
+    if (inFlight != null)
+    {
+      if (inFlight.writes >= flight.writes)
+      {
+        inFlight.absorbed.incrementAndGet();
+        return copier.apply(await(inFlight));
+      }
+      
+      // The query in flight started before the last write, so let the later callers wait for this one.
+      flights.replace(key, inFlight, flight);
+    }
+    
+    queries.increment();
+    
+    try
+    {
+      V result = query.get();
+      // A copy of its own, since the caller of the query may change the result while the waiting
+      // callers copy it.
+      flight.result.complete(copier.apply(result));
+      return result;
+    }
+    catch (Throwable e)
+    {
+      // Also an error, so that the waiting callers do not wait until the timeout.
+      flight.result.completeExceptionally(e);
+      throw e;
+    }
+    finally
+    {
+      flights.remove(key, flight);
+      int absorbed = flight.absorbed.get();
+      absorbedCalls.add(absorbed);
+      maxAbsorbedCalls.accumulate(absorbed);
+    }
+  }
+  
+  /**
+   * Reports that a write of the data read by the queries of this coalescer has completed, so that
+   * the callers arriving from now on no longer wait for the queries which started before it.
+   */
+  void written()
+  {
+    writes.incrementAndGet();
+  }
+  
+  /**
+   * Returns a snapshot of the statistics of this coalescer.
+   * 
+   * @return A snapshot of the statistics of this coalescer.
+   */
+  SingleFlightStats stats()
+  {
+    return new SingleFlightStats(name, queries.sum(), absorbedCalls.sum(), maxAbsorbedCalls.get(), timeouts.sum());
+  }
+  
+  /**
+   * Waits at most the timeout for the result of the given flight.
+   */
+  private V await(Flight<V> flight) throws DAOException
+  {
+    try
+    {
+      return flight.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException e)
+    {
+      timeouts.increment();
+      throw new DAOException("Waiting for in-flight " + name + " query timed out after " + timeoutMillis + " ms.", e);
+    }
+    catch (ExecutionException e)
+    {
+      throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : new DAOException(e.getCause());
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new DAOException("Interrupted while waiting for in-flight " + name + " query.", e);
+    }
+  }
+  
+  /**
+   * A query in flight, together with the amount of writes reported before it started and the
+   * amount of callers waiting for it.
+   */
+  private static final class Flight<V>
+  {
+    private final long writes;
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+    private final AtomicInteger absorbed = new AtomicInteger();
+    
+    private Flight(long writes)
+    {
+      this.writes = writes;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.tennis.dao;
+
+import java.io.Serializable;
+
+/**
+ * This class represents an immutable snapshot of the statistics of a coalesced DAO read, as
+ * returned by {@link DAOFactory#getSingleFlightStats()}.
+ * 
+ * @author Atidivya
+ */
+public class SingleFlightStats implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  
+  private final String name;
+  private final long queryCount;
+  private final long absorbedCount;
+  private final long maxAbsorbedCount;
+  private final long timeoutCount;
+  
+  /**
+   * Construct a snapshot of the given statistics. Package private so that it can be constructed
+   * inside the DAO package only.
+   * 
+   * @param name The name of the coalesced read.
+   * @param queryCount The amount of queries run.
+   * @param absorbedCount The amount of calls which waited for the query of another call.
+   * @param maxAbsorbedCount The largest amount of calls which waited for one query.
+   * @param timeoutCount The amount of calls which gave up waiting.
+   */
+  SingleFlightStats(String name, long queryCount, long absorbedCount, long maxAbsorbedCount, long timeoutCount)
+  {
+    this.name = name;
+    this.queryCount = queryCount;
+    this.absorbedCount = absorbedCount;
+    this.maxAbsorbedCount = maxAbsorbedCount;
+    this.timeoutCount = timeoutCount;
+  }
+  
+  /**
+   * Returns the name of the coalesced read, such as 'BookingDAO.find(Court, Date)'.
+   * 
+   * @return The name of the coalesced read.
+   */
+  public String getName()
+  {
+    return name;
+  }
+  
+  /**
+   * Returns the amount of queries run against the database.
+   * 
+   * @return The amount of queries run against the database.
+   */
+  public long getQueryCount()
+  {
+    return queryCount;
+  }
+  
+  /**
+   * Returns the amount of calls which shared the query of another call instead of running their own.
+   * 
+   * @return The amount of calls which shared the query of another call.
+   */
+  public long getAbsorbedCount()
+  {
+    return absorbedCount;
+  }
+  
+  /**
+   * Returns the largest amount of calls which shared one query.
+   * 
+   * @return The largest amount of calls which shared one query.
+   */
+  public long getMaxAbsorbedCount()
+  {
+    return maxAbsorbedCount;
+  }
+  
+  /**
+   * Returns the average amount of calls which shared one query, 0 when no query has run yet.
+   * 
+   * @return The average amount of calls which shared one query.
+   */
+  public double getAverageAbsorbedCount()
+  {
+    return (queryCount == 0) ? 0.0 : (double) absorbedCount / queryCount;
+  }
+  
+  /**
+   * Returns the amount of calls which gave up waiting for the query of another call.
+   * 
+   * @return The amount of calls which gave up waiting.
+   */
+  public long getTimeoutCount()
+  {
+    return timeoutCount;
+  }
+  
+  /**
+   * Returns the String representation of this SingleFlightStats. Not required, it just pleases
+   * reading logs.
+   * 
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString()
+  {
+    return String.format("SingleFlightStats[name=%s, queries=%d, absorbed=%d, maxAbsorbed=%d, averageAbsorbed=%.2f, timeouts=%d]",
+            name, queryCount, absorbedCount, maxAbsorbedCount, getAverageAbsorbedCount(), timeoutCount);
+  }
+}
@@ -0,0 +1,422 @@
+package com.tennis.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * This class represents the slow query log of a DAOFactory. The connections of the DAOFactory are
+ * wrapped so that every PreparedStatement records its bind values, its rows, the time spent in its
+ * executions and the time spent fetching its rows. The time the caller takes between the rows, such
+ * as the consumer of a stream, is not counted. When the sum of both times reaches the threshold
+ * once the statement is closed, the SQL text, the bind values, the times, the rows and the calling
+ * DAO method are logged to the 'com.tennis.dao.SlowQueryLog' logger of java.util.logging.
+ * <p>
+ * The String bind values of statements on the member table are masked, since they hold the name,
+ * email, phone and address of a member. The calling DAO method is only looked up once a statement
+ * turned out to be slow.
+ * <p>
+ * Slow statements are handed to a bounded queue which a single daemon thread drains to the logger,
+ * so a DAO call never waits for the log. When the queue is full, the entry is dropped and counted,
+ * and the amount of dropped entries is logged with the next entry which does get through.
+ * 
+ * @author Atidivya
+ */
+final class SlowQueryLog
+{
+  private static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+  private static final Pattern MEMBER_TABLE = Pattern.compile("\\b(FROM|INTO|UPDATE|JOIN)\\s+member\\b", Pattern.CASE_INSENSITIVE);
+  private static final String MASK = "'***'";
+  
+  private final long thresholdNanos;
+  private final BlockingQueue<Entry> queue;
+  private final AtomicLong dropped = new AtomicLong();
+  private final Thread writer;
+  private volatile boolean closed;
+  
+  /**
+   * Construct a slow query log with the given threshold and queue capacity and start its writer
+   * thread. Package private so that it can be constructed inside the DAO package only.
+   * 
+   * @param thresholdMillis The milliseconds from which a statement is logged.
+   * @param queueSize The maximum amount of entries waiting to be written.
+   */
+  SlowQueryLog(long thresholdMillis, int queueSize)
+  {
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    
+    writer = new Thread(this::write, "tennis-dao-slow-query-log");
+    writer.setDaemon(true);
+    writer.start();
+  }
+  
+  /**
+   * Returns the given connection wrapped so that its PreparedStatements are timed.
+   * 
+   * @param connection The connection to be wrapped.
+   * 
+   * @return The wrapped connection.
+   */
+  Connection wrap(Connection connection)
+  {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) ->
+    {
+      Object result = invoke(connection, method, args);
+      
+      if (result instanceof PreparedStatement)
+      {
+        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, new TimedStatement((PreparedStatement) result, (String) args[0]));
+      }
+      
+      return result;
+    });
+  }
+  
+  /**
+   * Returns the amount of slow statements which were dropped because the queue was full.
+   * 
+   * @return The amount of dropped slow statements.
+   */
+  long getDropped()
+  {
+    return dropped.get();
+  }
+  
+  /**
+   * Stops the writer thread once it has written the entries which are queued. Slow statements of
+   * connections which are still in use are not logged anymore.
+   */
+  void close()
+  {
+    closed = true;
+    writer.interrupt();
+    
+    try
+    {
+      writer.join();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  /**
+   * Queues the given slow statement, or counts it as dropped when the queue is full.
+   */
+  private void slow(Entry entry)
+  {
+    if (!queue.offer(entry))
+    {
+      dropped.incrementAndGet();
+    }
+  }
+  
+  /**
+   * Writes the queued entries to the logger until the log is closed and its queue is empty.
+   */
+  private void write()
+  {
+    long reportedDropped = 0;
+    
+    while (true)
+    {
+      Entry entry;
+      
+      try
+      {
+        // Once closed, the entries left are written without waiting for more.
+        entry = closed ? queue.poll() : queue.take();
+      }
+      catch (InterruptedException e)
+      {
+        continue;
+      }
+      
+      if (entry == null)
+      {
+        return;
+      }
+      
+      try
+      {
+        LOGGER.log(Level.WARNING, entry.format());
+        long droppedNow = dropped.get();
+        
+        if (droppedNow > reportedDropped)
+        {
+          LOGGER.log(Level.WARNING, "Slow query log dropped {0} entries, the queue was full.", droppedNow - reportedDropped);
+          reportedDropped = droppedNow;
+        }
+      }
+      catch (RuntimeException e)
+      {
+        // A failing handler must not stop the writer.
+      }
+    }
+  }
+  
+  /**
+   * Returns the calling DAO method of the current thread, such as 'BookingDAOJDBC.find', or the
+   * first caller outside the DAO package and the JDK when no DAO method is on the stack.
+   */
+  private static String caller()
+  {
+    StackTraceElement[] stack = new Throwable().getStackTrace();
+    String outside = null;
+    
+    for (StackTraceElement frame : stack)
+    {
+      String className = frame.getClassName();
+      
+      if (className.startsWith("com.tennis.dao.") && className.endsWith("DAOJDBC"))
+      {
+        // A lambda such as 'lambda$stream$0' stands for the method which declares it.
+        String methodName = frame.getMethodName();
+        
+        if (methodName.startsWith("lambda$") && methodName.indexOf('$', 7) > 7)
+        {
+          methodName = methodName.substring(7, methodName.indexOf('$', 7));
+        }
+        
+        return className.substring(className.lastIndexOf('.') + 1) + "." + methodName;
+      }
+      
+      if (outside == null && !className.startsWith("com.tennis.dao.") && !className.startsWith("java.") && !className.startsWith("javax.") && !className.startsWith("jdk.") && !className.startsWith("sun.") && !className.startsWith("com.sun.proxy."))
+      {
+        outside = frame.toString();
+      }
+    }
+    
+    return (outside != null) ? outside : "unknown";
+  }
+  
+  /**
+   * Returns the result of invoking the given method on the given target, unwrapping the exception
+   * thrown by the target.
+   */
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+  {
+    try
+    {
+      return method.invoke(target, args);
+    }
+    catch (InvocationTargetException e)
+    {
+      throw e.getCause();
+    }
+  }
+  
+  /**
+   * A slow statement waiting to be written. Formatting and masking happen on the writer thread.
+   */
+  private static final class Entry
+  {
+    private final String sql;
+    private final Object[] values;
+    private final int batches;
+    private final long executeNanos;
+    private final long fetchNanos;
+    private final long rows;
+    private final String caller;
+    
+    private Entry(String sql, Object[] values, int batches, long executeNanos, long fetchNanos, long rows, String caller)
+    {
+      this.sql = sql;
+      this.values = values;
+      this.batches = batches;
+      this.executeNanos = executeNanos;
+      this.fetchNanos = fetchNanos;
+      this.rows = rows;
+      this.caller = caller;
+    }
+    
+    private String format()
+    {
+      boolean mask = MEMBER_TABLE.matcher(sql).find();
+      List<String> binds = new ArrayList<>(values.length);
+      
+      for (Object value : values)
+      {
+        binds.add((value instanceof String) ? (mask ? MASK : "'" + value + "'") : String.valueOf(value));
+      }
+      
+      return String.format("Slow query of %.1f ms (%.1f ms executing, %.1f ms fetching), %d rows%s, by %s: %s %s", (executeNanos + fetchNanos) / 1e6, executeNanos / 1e6, fetchNanos / 1e6, rows, (batches > 0) ? " in a batch of " + batches : "", caller, sql, binds);
+    }
+  }
+  
+  /**
+   * The invocation handler of a PreparedStatement wrapper which records the bind values, the rows
+   * and the time spent executing the statement and fetching its rows.
+   */
+  private final class TimedStatement implements InvocationHandler
+  {
+    private final PreparedStatement statement;
+    private final String sql;
+    private Object[] values = new Object[0];
+    private int batches;
+    private long rows;
+    private boolean executed;
+    private long executeNanos;
+    private long fetchNanos;
+    private boolean closed;
+    
+    private TimedStatement(PreparedStatement statement, String sql)
+    {
+      this.statement = statement;
+      this.sql = sql;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+      String name = method.getName();
+      
+      if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer)
+      {
+        bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+      }
+      else if (name.equals("clearParameters"))
+      {
+        values = new Object[0];
+      }
+      else if (name.equals("addBatch"))
+      {
+        batches++;
+      }
+      else if (name.startsWith("execute"))
+      {
+        return execute(method, args);
+      }
+      else if (name.equals("close"))
+      {
+        close();
+      }
+      else if (name.equals("equals"))
+      {
+        return proxy == args[0];
+      }
+      else if (name.equals("hashCode"))
+      {
+        return System.identityHashCode(proxy);
+      }
+      
+      return wrap(SlowQueryLog.invoke(statement, method, args));
+    }
+    
+    /**
+     * Invokes the given execute method on the statement, and adds the time it takes to the execution
+     * time and the rows it affects to the rows.
+     */
+    private Object execute(Method method, Object[] args) throws Throwable
+    {
+      executed = true;
+      long start = System.nanoTime();
+      Object result;
+      
+      try
+      {
+        result = SlowQueryLog.invoke(statement, method, args);
+      }
+      finally
+      {
+        executeNanos += System.nanoTime() - start;
+      }
+      
+      if (result instanceof Integer && method.getName().startsWith("executeUpdate"))
+      {
+        rows += (Integer) result;
+      }
+      else if (result instanceof int[])
+      {
+        rows += Arrays.stream((int[]) result).filter(affected -> affected > 0).sum();
+      }
+      
+      return wrap(result);
+    }
+    
+    /**
+     * Returns the given result of the statement, wrapped when it is a result set, so that its rows
+     * are counted and the time spent fetching them is added to the fetch time.
+     */
+    private Object wrap(Object result)
+    {
+      if (!(result instanceof ResultSet))
+      {
+        return result;
+      }
+      
+      ResultSet resultSet = (ResultSet) result;
+      return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (resultProxy, resultMethod, resultArgs) ->
+      {
+        if (!resultMethod.getName().equals("next"))
+        {
+          return SlowQueryLog.invoke(resultSet, resultMethod, resultArgs);
+        }
+        
+        long start = System.nanoTime();
+        Object resultValue;
+        
+        try
+        {
+          resultValue = SlowQueryLog.invoke(resultSet, resultMethod, resultArgs);
+        }
+        finally
+        {
+          fetchNanos += System.nanoTime() - start;
+        }
+        
+        if (Boolean.TRUE.equals(resultValue))
+        {
+          rows++;
+        }
+        
+        return resultValue;
+      });
+    }
+    
+    private void bind(int index, Object value)
+    {
+      if (index > values.length)
+      {
+        values = Arrays.copyOf(values, index);
+      }
+      
+      values[index - 1] = value;
+    }
+    
+    /**
+     * Queues this statement when it was executed and its executions and fetches took at least the
+     * threshold.
+     */
+    private void close()
+    {
+      if (closed || !executed)
+      {
+        return;
+      }
+      
+      closed = true;
+      
+      if (executeNanos + fetchNanos >= thresholdNanos)
+      {
+        slow(new Entry(sql, values.clone(), batches, executeNanos, fetchNanos, rows, caller()));
+      }
+    }
+  }
+}
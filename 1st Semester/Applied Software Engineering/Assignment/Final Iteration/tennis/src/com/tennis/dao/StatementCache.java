@@ -0,0 +1,291 @@
+package com.tennis.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a least recently used cache of PreparedStatements of a single physical
+ * connection of the {@link ConnectionPool}. The statements are keyed by SQL text and generated keys
+ * flag. The statement handed out by {@link #prepare(String, int)} is a wrapper whose
+ * <code>close()</code> clears the parameters and keeps the statement open for the next borrower of
+ * the connection, so a DAO which prepares the same SQL on every call only pays the parsing once per
+ * connection.
+ * <p>
+ * Like the connection itself, the cache is meant to be used by one thread at a time.
+ * 
+ * @author Atidivya
+ */
+final class StatementCache
+{
+  private final Connection connection;
+  private final int maxSize;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final Map<Key, CachedStatement> statements;
+  
+  /**
+   * Construct a statement cache for the given physical connection.
+   * 
+   * @param connection The physical connection to prepare the statements on.
+   * @param maxSize The maximum amount of statements to keep open.
+   * @param hits The counter to be incremented when a statement is served from the cache.
+   * @param misses The counter to be incremented when a statement has to be prepared.
+   */
+  StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses)
+  {
+    this.connection = connection;
+    this.maxSize = maxSize;
+    this.hits = hits;
+    this.misses = misses;
+    this.statements = new LinkedHashMap<>(16, 0.75f, true);
+  }
+  
+  /**
+   * Returns a PreparedStatement for the given SQL query from the cache, preparing it on the
+   * physical connection when it is not cached yet. When the cached statement is still in use, for
+   * example by a nested query on the same connection, then an uncached statement is returned.
+   * 
+   * @param sql The SQL query to construct the PreparedStatement with.
+   * @param autoGeneratedKeys Either <code>Statement.RETURN_GENERATED_KEYS</code> or
+   * <code>Statement.NO_GENERATED_KEYS</code>.
+   * 
+   * @return A PreparedStatement for the given SQL query.
+   * 
+   * @throws SQLException If something fails during preparing the statement.
+   */
+  PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException
+  {
+    Key key = new Key(sql, autoGeneratedKeys);
+    CachedStatement cached = statements.get(key);
+    
+    if (cached != null && cached.evicted)
+    {
+      statements.remove(key);
+      cached = null;
+    }
+    
+    if (cached != null)
+    {
+      if (cached.inUse)
+      {
+        misses.increment();
+        return connection.prepareStatement(sql, autoGeneratedKeys);
+      }
+      
+      hits.increment();
+    }
+    else
+    {
+      misses.increment();
+      cached = new CachedStatement(connection.prepareStatement(sql, autoGeneratedKeys));
+      statements.put(key, cached);
+      evict();
+    }
+    
+    cached.inUse = true;
+    return cached.lease();
+  }
+  
+  /**
+   * Closes all cached statements. To be invoked before the physical connection is closed.
+   */
+  void closeAll()
+  {
+    for (CachedStatement cached : statements.values())
+    {
+      cached.evicted = true;
+      
+      if (!cached.inUse)
+      {
+        cached.closeQuietly();
+      }
+    }
+    
+    statements.clear();
+  }
+  
+  /**
+   * Removes the least recently used statements which exceed the maximum size of the cache. A
+   * statement which is still in use is closed as soon as it is returned.
+   */
+  private void evict()
+  {
+    if (statements.size() <= maxSize)
+    {
+      return;
+    }
+    
+    List<CachedStatement> evicted = new ArrayList<>();
+    
+    for (Iterator<CachedStatement> iterator = statements.values().iterator(); iterator.hasNext() && statements.size() > maxSize;)
+    {
+      CachedStatement cached = iterator.next();
+      iterator.remove();
+      evicted.add(cached);
+    }
+    
+    for (CachedStatement cached : evicted)
+    {
+      cached.evicted = true;
+      
+      if (!cached.inUse)
+      {
+        cached.closeQuietly();
+      }
+    }
+  }
+  
+  /**
+   * The cache key, the SQL text together with the generated keys flag.
+   */
+  private static final class Key
+  {
+    private final String sql;
+    private final int autoGeneratedKeys;
+    
+    private Key(String sql, int autoGeneratedKeys)
+    {
+      this.sql = sql;
+      this.autoGeneratedKeys = autoGeneratedKeys;
+    }
+    
+    @Override
+    public boolean equals(Object other)
+    {
+      return (other instanceof Key) && ((Key) other).autoGeneratedKeys == autoGeneratedKeys && ((Key) other).sql.equals(sql);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+      return 31 * sql.hashCode() + autoGeneratedKeys;
+    }
+  }
+  
+  /**
+   * A physical PreparedStatement of the cache together with its cache bookkeeping.
+   */
+  private static final class CachedStatement
+  {
+    private final PreparedStatement statement;
+    private boolean inUse;
+    private boolean evicted;
+    
+    private CachedStatement(PreparedStatement statement)
+    {
+      this.statement = statement;
+    }
+    
+    /**
+     * Returns a new wrapper of the physical statement for a single use.
+     * 
+     * @return A new wrapper of the physical statement for a single use.
+     */
+    private PreparedStatement lease()
+    {
+      return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, new Lease(this));
+    }
+    
+    /**
+     * Makes the statement available for the next use, or closes it when it was evicted meanwhile.
+     */
+    private void release()
+    {
+      inUse = false;
+      
+      if (evicted)
+      {
+        closeQuietly();
+      }
+      else
+      {
+        try
+        {
+          statement.clearParameters();
+          statement.clearBatch();
+        }
+        catch (SQLException e)
+        {
+          evicted = true;
+          closeQuietly();
+        }
+      }
+    }
+    
+    private void closeQuietly()
+    {
+      try
+      {
+        statement.close();
+      }
+      catch (SQLException ignore)
+      {
+        // Statement is useless anyway.
+      }
+    }
+  }
+  
+  /**
+   * The invocation handler of the statement wrapper handed out for a single use.
+   */
+  private static final class Lease implements InvocationHandler
+  {
+    private final CachedStatement cached;
+    private boolean closed;
+    
+    private Lease(CachedStatement cached)
+    {
+      this.cached = cached;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+      switch (method.getName())
+      {
+        case "close":
+          if (!closed)
+          {
+            closed = true;
+            cached.release();
+          }
+          return null;
+        case "isClosed":
+          return closed || cached.statement.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "CachedStatement[" + cached.statement + "]";
+        default:
+          break;
+      }
+      
+      if (closed)
+      {
+        throw new SQLException("Statement is already closed.");
+      }
+      
+      try
+      {
+        return method.invoke(cached.statement, args);
+      }
+      catch (InvocationTargetException e)
+      {
+        throw e.getCause();
+      }
+    }
+  }
+}
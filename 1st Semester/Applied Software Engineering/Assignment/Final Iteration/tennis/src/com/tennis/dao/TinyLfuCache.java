@@ -0,0 +1,155 @@
+package com.tennis.dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a size bounded cache which decides by frequency whether a new entry is
+ * worth keeping. The entries are kept in least recently used order, but when the cache is full a
+ * new entry only replaces the least recently used one when its key was requested more often
+ * recently, according to a {@link FrequencySketch}. A burst of one-time lookups, such as a report
+ * walking all members once, therefore cannot flush the entries which are used all day.
+ * <p>
+ * All methods are guarded by the lock of the cache, which is only held for map operations, never
+ * while loading a value.
+ * 
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * 
+ * @author Atidivya
+ */
+final class TinyLfuCache<K, V>
+{
+  private final int maximumSize;
+  private final Map<K, V> entries;
+  private final FrequencySketch sketch;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  
+  /**
+   * Construct a cache of the given maximum amount of entries.
+   * 
+   * @param maximumSize The maximum amount of entries.
+   * 
+   * @throws IllegalArgumentException If the maximum size is less than 1.
+   */
+  TinyLfuCache(int maximumSize)
+  {
+    if (maximumSize < 1)
+    {
+      throw new IllegalArgumentException("Maximum cache size must be at least 1.");
+    }
+    
+    this.maximumSize = maximumSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+  
+  /**
+   * Returns the value cached for the given key, otherwise null. Either way the request is counted in
+   * the frequency of the key.
+   * 
+   * @param key The key to return the cached value for.
+   * 
+   * @return The value cached for the given key, otherwise null.
+   */
+  synchronized V get(K key)
+  {
+    sketch.increment(key);
+    V value = entries.get(key);
+    
+    if (value != null)
+    {
+      hits.increment();
+    }
+    else
+    {
+      misses.increment();
+    }
+    
+    return value;
+  }
+  
+  /**
+   * Offers the given value for the given key to the cache. A cached value of the same key is always
+   * replaced. When the cache is full, the value is only admitted when its key is requested more often
+   * than the key of the least recently used entry, which is then evicted.
+   * 
+   * @param key The key of the value.
+   * @param value The value to be cached.
+   */
+  synchronized void put(K key, V value)
+  {
+    if (entries.containsKey(key) || entries.size() < maximumSize)
+    {
+      entries.put(key, value);
+      return;
+    }
+    
+    Iterator<K> iterator = entries.keySet().iterator();
+    K victim = iterator.next();
+    
+    if (sketch.frequency(key) > sketch.frequency(victim))
+    {
+      iterator.remove();
+      entries.put(key, value);
+      evictions.increment();
+    }
+    else
+    {
+      rejections.increment();
+    }
+  }
+  
+  /**
+   * Removes the value cached for the given key, if any.
+   * 
+   * @param key The key of the value to be removed.
+   */
+  synchronized void remove(K key)
+  {
+    entries.remove(key);
+  }
+  
+  /**
+   * Removes all cached values.
+   */
+  synchronized void clear()
+  {
+    entries.clear();
+  }
+  
+  /**
+   * Records that a value was loaded on a miss, in the given nanoseconds.
+   * 
+   * @param nanos The nanoseconds it took to load the value.
+   */
+  void recordLoad(long nanos)
+  {
+    loads.increment();
+    loadNanos.add(nanos);
+  }
+  
+  /**
+   * Returns a snapshot of the statistics of this cache.
+   * 
+   * @return A snapshot of the statistics of this cache.
+   */
+  CacheStats stats()
+  {
+    int size;
+    
+    synchronized (this)
+    {
+      size = entries.size();
+    }
+    
+    return new CacheStats(size, maximumSize, hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), loads.sum(), loadNanos.sum());
+  }
+}
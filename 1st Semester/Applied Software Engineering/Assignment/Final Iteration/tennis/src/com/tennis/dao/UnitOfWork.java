@@ -0,0 +1,22 @@
+package com.tennis.dao;
+
+/**
+ * This interface represents a unit of work which is to be run in one database transaction by
+ * {@link DAOFactory#inTransaction(UnitOfWork)}. All DAO's obtained from the given transaction share
+ * one connection, and their changes are committed together when the unit of work completes, or
+ * rolled back together when it throws.
+ * 
+ * @author Atidivya
+ */
+@FunctionalInterface
+public interface UnitOfWork
+{
+  /**
+   * Run this unit of work with the DAO's of the given transaction.
+   * 
+   * @param transaction The DAOFactory of the transaction to obtain the DAO's from.
+   * 
+   * @throws DAOException If something fails at database level, which rolls back the transaction.
+   */
+  public void execute(DAOFactory transaction) throws DAOException;
+}
@@ -0,0 +1,934 @@
+package com.tennis.dao;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents the write-ahead log of an {@link InMemoryStore}, which makes the store
+ * durable in a directory of files. Every change of a row is appended to the log as a record, and a
+ * write of the store returns only once the records of its changes are on disk, so after a restart
+ * the store holds exactly the writes which returned.
+ * <p>
+ * The records are appended to a buffer in memory, which a single writer thread writes to the
+ * current log segment and forces to disk. While it does, new records gather in the buffer, so that
+ * the next force covers the records of all writes which came in meanwhile: a group commit. Under
+ * load, one force is shared by many writes instead of each write paying for its own.
+ * <p>
+ * Once the current segment holds the snapshot threshold of bytes, a snapshot is taken in the
+ * background: the rows of all tables are captured while no write runs, the log continues in a new
+ * segment, and the captured rows are written to a snapshot file, after which the older segments and
+ * snapshots are deleted. Since the stored rows are never changed, capturing them costs a copy of
+ * their references only, and the writes wait for that copy only.
+ * <p>
+ * On startup the latest snapshot is loaded and the segments from it on are replayed. A record is
+ * framed by its length and a CRC32 of its contents, so that a record torn by a crash at the end of
+ * the last segment is detected and cut off. The directory is locked, so that two processes never
+ * write the same log.
+ * 
+ * @author Atidivya
+ */
+final class WriteAheadLog
+{
+  private static final Logger LOGGER = Logger.getLogger(WriteAheadLog.class.getName());
+  private static final String SEGMENT_PREFIX = "log-";
+  private static final String SEGMENT_SUFFIX = ".wal";
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".dat";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final String LOCK_FILE = "lock";
+  private static final int HEADER_SIZE = 8;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte SEQUENCE = 3;
+  private static final byte END = 4;
+  
+  private final InMemoryStore store;
+  private final Path directory;
+  private final boolean fsync;
+  private final long snapshotBytes;
+  private final FileLock directoryLock;
+  private final ExecutorService snapshotExecutor;
+  private final Thread writer;
+  private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appendedCondition = lock.newCondition();
+  private final Condition durableCondition = lock.newCondition();
+  
+  // Guarded by the lock.
+  private ByteArrayOutputStream pending = new ByteArrayOutputStream(1 << 16);
+  private ByteArrayOutputStream flushing = new ByteArrayOutputStream(1 << 16);
+  private long appended;
+  private long durable;
+  private IOException failure;
+  private boolean closed;
+  private FileChannel segment;
+  private long segmentNumber;
+  private long segmentBytes;
+  
+  /**
+   * Construct the write-ahead log of the given empty store in the given directory: restore the store
+   * from the directory, and from then on log its changes. Package private so that it can be
+   * constructed inside the DAO package only.
+   * 
+   * @param store The empty store to be restored and logged.
+   * @param directory The directory of the log, which is created if it does not exist.
+   * @param fsync Set whether the log is forced to disk before a write returns, otherwise it is
+   * written to the operating system only, which survives a crash of the process but not of the
+   * machine.
+   * @param snapshotBytes The size of a log segment from which a snapshot is taken.
+   * 
+   * @throws IOException If the directory cannot be locked or read, or if a snapshot or segment
+   * other than the end of the last segment is corrupt.
+   */
+  WriteAheadLog(InMemoryStore store, Path directory, boolean fsync, long snapshotBytes) throws IOException
+  {
+    this.store = store;
+    this.directory = directory;
+    this.fsync = fsync;
+    this.snapshotBytes = snapshotBytes;
+    
+    Files.createDirectories(directory);
+    FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+    long recovered;
+    
+    try
+    {
+      directoryLock = lockChannel.tryLock();
+      
+      if (directoryLock == null)
+      {
+        throw new OverlappingFileLockException();
+      }
+      
+      recovered = recover();
+      segment = open(segmentNumber);
+      segmentBytes = segment.size();
+    }
+    catch (OverlappingFileLockException e)
+    {
+      lockChannel.close();
+      throw new IOException("Directory '" + directory + "' is in use by another process.", e);
+    }
+    catch (IOException | RuntimeException e)
+    {
+      lockChannel.close();
+      throw e;
+    }
+    
+    snapshotExecutor = Executors.newSingleThreadExecutor(runnable ->
+    {
+      Thread thread = new Thread(runnable, "tennis-dao-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    
+    store.setLog(this);
+    
+    writer = new Thread(this::write, "tennis-dao-write-ahead-log");
+    writer.setDaemon(true);
+    writer.start();
+    
+    // Compact a long log tail now, so that the next startup does not replay it again.
+    if (recovered >= snapshotBytes)
+    {
+      requestSnapshot();
+    }
+  }
+  
+  /**
+   * Appends the given change of a row to the log, and returns the position up to which the log must
+   * be durable for the change to be durable. Once writing the log failed or the log is closed, the
+   * change is dropped, since it can never become durable.
+   * 
+   * @param table The table of the row.
+   * @param id The ID of the row.
+   * @param row The new row, or null if the row is deleted.
+   * 
+   * @return The position of the end of the record of the change.
+   */
+  <R> long append(InMemoryTable<R> table, long id, R row)
+  {
+    byte[] record = record((row != null) ? PUT : DELETE, table, id, row);
+    lock.lock();
+    
+    try
+    {
+      if (failure == null && !closed)
+      {
+        pending.write(record, 0, record.length);
+        appendedCondition.signal();
+      }
+      
+      appended += record.length;
+      return appended;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Checks that writing the log has not failed and that the log is not closed, so that a write can
+   * be refused before it changes the store.
+   * 
+   * @throws DAOException If writing the log failed or if the log is closed.
+   */
+  void check() throws DAOException
+  {
+    lock.lock();
+    
+    try
+    {
+      if (failure != null || closed)
+      {
+        throw failed();
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Waits until the log is durable up to the given position.
+   * 
+   * @param position The position returned by {@link #append(InMemoryTable, long, Object)}.
+   * 
+   * @throws DAOException If writing the log failed or if the log is closed.
+   */
+  void sync(long position) throws DAOException
+  {
+    lock.lock();
+    
+    try
+    {
+      while (durable < position)
+      {
+        if (failure != null || closed)
+        {
+          throw failed();
+        }
+        
+        durableCondition.awaitUninterruptibly();
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Closes the log: waits until the appended records are durable, stops the writer thread and the
+   * snapshots, forces the current segment to disk and releases the directory, so that it can be
+   * opened again. The writes of the store fail from then on. Closing it again has no effect.
+   * 
+   * @throws IOException If forcing or closing the files fails.
+   */
+  void close() throws IOException
+  {
+    lock.lock();
+    
+    try
+    {
+      if (closed)
+      {
+        return;
+      }
+      
+      while (durable < appended && failure == null)
+      {
+        durableCondition.awaitUninterruptibly();
+      }
+      
+      closed = true;
+      appendedCondition.signal();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+    
+    try
+    {
+      // The writer first, since it may still request a snapshot.
+      writer.join();
+      snapshotExecutor.shutdown();
+      snapshotExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+    catch (InterruptedException e)
+    {
+      snapshotExecutor.shutdown();
+      Thread.currentThread().interrupt();
+    }
+    
+    lock.lock();
+    
+    try
+    {
+      if (failure == null)
+      {
+        segment.force(false);
+      }
+    }
+    finally
+    {
+      try
+      {
+        segment.close();
+      }
+      finally
+      {
+        // Closing the channel of the lock releases the lock.
+        directoryLock.channel().close();
+        lock.unlock();
+      }
+    }
+  }
+  
+  /**
+   * Returns the exception of a write after writing the log failed or after the log is closed. To be
+   * called while holding the lock.
+   */
+  private DAOException failed()
+  {
+    if (failure == null)
+    {
+      return new DAOException("The write-ahead log in '" + directory + "' is closed.");
+    }
+    
+    return new DAOException("Writing the write-ahead log in '" + directory + "' failed.", failure);
+  }
+  
+  /**
+   * Writes the appended records to the current segment until writing fails or the log is closed,
+   * each batch with a single force.
+   */
+  private void write()
+  {
+    while (true)
+    {
+      ByteArrayOutputStream batch;
+      FileChannel channel;
+      long target;
+      lock.lock();
+      
+      try
+      {
+        while (pending.size() == 0)
+        {
+          if (closed)
+          {
+            return;
+          }
+          
+          appendedCondition.awaitUninterruptibly();
+        }
+        
+        // Swap the buffers, so that new records are appended while this batch is written.
+        batch = pending;
+        pending = flushing;
+        flushing = batch;
+        channel = segment;
+        target = appended;
+      }
+      finally
+      {
+        lock.unlock();
+      }
+      
+      int size = batch.size();
+      
+      try
+      {
+        // The channel stream is not closed, since that would close the channel.
+        batch.writeTo(Channels.newOutputStream(channel));
+        
+        if (fsync)
+        {
+          channel.force(false);
+        }
+      }
+      catch (IOException e)
+      {
+        LOGGER.log(Level.SEVERE, "Writing the write-ahead log in '" + directory + "' failed, no more writes are durable.", e);
+        lock.lock();
+        
+        try
+        {
+          failure = e;
+          pending.reset();
+          durableCondition.signalAll();
+          return;
+        }
+        finally
+        {
+          lock.unlock();
+        }
+      }
+      
+      batch.reset();
+      boolean snapshot;
+      lock.lock();
+      
+      try
+      {
+        durable = target;
+        segmentBytes += size;
+        snapshot = segmentBytes >= snapshotBytes;
+        durableCondition.signalAll();
+      }
+      finally
+      {
+        lock.unlock();
+      }
+      
+      if (snapshot)
+      {
+        requestSnapshot();
+      }
+    }
+  }
+  
+  /**
+   * Starts a snapshot in the background, unless one is running.
+   */
+  private void requestSnapshot()
+  {
+    if (snapshotRunning.compareAndSet(false, true))
+    {
+      snapshotExecutor.execute(this::snapshot);
+    }
+  }
+  
+  /**
+   * Takes a snapshot of the store: captures its tables while no write runs and continues the log in
+   * a new segment, then writes the captured tables to a new snapshot file and deletes the older
+   * segments and snapshots.
+   */
+  private void snapshot()
+  {
+    try
+    {
+      long[] number = new long[1];
+      List<InMemoryTable.Image<?>> images = new ArrayList<>();
+      
+      store.exclusive(() ->
+      {
+        try
+        {
+          number[0] = rotate();
+        }
+        catch (IOException e)
+        {
+          throw new UncheckedIOException(e);
+        }
+        
+        for (InMemoryTable<?> table : store.tables)
+        {
+          images.add(table.image());
+        }
+      });
+      
+      Path snapshot = directory.resolve(name(SNAPSHOT_PREFIX, number[0], SNAPSHOT_SUFFIX));
+      Path temporary = directory.resolve(snapshot.getFileName() + TEMPORARY_SUFFIX);
+      
+      try
+      (
+        FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, WRITE);
+        OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+      )
+      {
+        for (InMemoryTable.Image<?> image : images)
+        {
+          writeImage(image, output);
+        }
+        
+        output.write(record(END, null, 0, null));
+        output.flush();
+        channel.force(true);
+      }
+      
+      Files.move(temporary, snapshot, ATOMIC_MOVE);
+      syncDirectory();
+      
+      for (Path path : files(SEGMENT_PREFIX, SEGMENT_SUFFIX).headMap(number[0]).values())
+      {
+        Files.delete(path);
+      }
+      
+      for (Path path : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(number[0]).values())
+      {
+        Files.delete(path);
+      }
+    }
+    catch (IOException | UncheckedIOException | DAOException e)
+    {
+      // The log stays complete without the snapshot, only the next startup takes longer.
+      LOGGER.log(Level.WARNING, "Snapshot of the write-ahead log in '" + directory + "' failed.", e);
+    }
+    finally
+    {
+      snapshotRunning.set(false);
+    }
+  }
+  
+  /**
+   * Writes the rows and the sequence of the given image of a table as records to the given output.
+   */
+  private <R> void writeImage(InMemoryTable.Image<R> image, OutputStream output) throws IOException
+  {
+    for (int i = 0; i < image.ids.length; i++)
+    {
+      output.write(record(PUT, image.table, image.ids[i], image.rows.get(i)));
+    }
+    
+    output.write(record(SEQUENCE, image.table, image.sequence, null));
+  }
+  
+  /**
+   * Continues the log in a new segment, once all appended records are durable in the current one,
+   * and returns the number of the new segment. To be called while no write runs, so that the new
+   * segment starts at a consistent state of the store.
+   */
+  private long rotate() throws IOException
+  {
+    lock.lock();
+    
+    try
+    {
+      while (durable < appended)
+      {
+        if (failure != null)
+        {
+          throw new IOException("Writing the write-ahead log failed.", failure);
+        }
+        
+        if (closed)
+        {
+          throw new IOException("The write-ahead log is closed.");
+        }
+        
+        durableCondition.awaitUninterruptibly();
+      }
+      
+      FileChannel next = open(segmentNumber + 1);
+      segment.close();
+      segment = next;
+      segmentNumber++;
+      segmentBytes = 0;
+      return segmentNumber;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Restores the store from the latest snapshot and the segments from it on, removes the leftovers
+   * of an interrupted snapshot, sets the number of the segment to continue the log in, and returns
+   * the amount of bytes replayed from the segments.
+   */
+  private long recover() throws IOException
+  {
+    TreeMap<Long, Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    long first = 0;
+    
+    if (!snapshots.isEmpty())
+    {
+      first = snapshots.lastKey();
+      
+      if (!read(snapshots.lastEntry().getValue(), false))
+      {
+        throw new IOException("Snapshot '" + snapshots.lastEntry().getValue() + "' is incomplete.");
+      }
+    }
+    
+    TreeMap<Long, Path> segments = files(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    long replayed = 0;
+    
+    for (Map.Entry<Long, Path> entry : segments.tailMap(first).entrySet())
+    {
+      replayed += Files.size(entry.getValue());
+      read(entry.getValue(), entry.getKey().equals(segments.lastKey()));
+    }
+    
+    try (DirectoryStream<Path> temporaries = Files.newDirectoryStream(directory, "*" + TEMPORARY_SUFFIX))
+    {
+      for (Path temporary : temporaries)
+      {
+        Files.delete(temporary);
+      }
+    }
+    
+    // The log continues at the end of the last segment, which the replay cut off after its last
+    // intact record.
+    segmentNumber = (segments.isEmpty() || segments.lastKey() < first) ? Math.max(first, 1) : segments.lastKey();
+    return replayed;
+  }
+  
+  /**
+   * Applies the records of the given snapshot or segment to the store, and returns whether it ended
+   * with an end record. A torn or corrupt record at the end of the last segment is cut off, anywhere
+   * else it fails the recovery.
+   */
+  private boolean read(Path path, boolean last) throws IOException
+  {
+    long size = Files.size(path);
+    long position = 0;
+    boolean end = false;
+    
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path, READ), 1 << 16)))
+    {
+      while (!end && position + HEADER_SIZE <= size)
+      {
+        int length = input.readInt();
+        int checksum = input.readInt();
+        
+        if (length < 0 || position + HEADER_SIZE + length > size)
+        {
+          break;
+        }
+        
+        byte[] contents = new byte[length];
+        input.readFully(contents);
+        CRC32 crc = new CRC32();
+        crc.update(contents, 0, length);
+        
+        if ((int) crc.getValue() != checksum)
+        {
+          break;
+        }
+        
+        end = apply(contents);
+        position += HEADER_SIZE + length;
+      }
+    }
+    
+    if (!end && position < size)
+    {
+      if (!last)
+      {
+        throw new IOException("Log '" + path + "' is corrupt at byte " + position + ".");
+      }
+      
+      LOGGER.log(Level.WARNING, "Log ''{0}'' ends with a torn record at byte {1}, which is cut off.", new Object[] { path, Long.toString(position) });
+      
+      try (FileChannel channel = FileChannel.open(path, WRITE))
+      {
+        channel.truncate(position);
+        channel.force(true);
+      }
+    }
+    
+    return end;
+  }
+  
+  /**
+   * Applies the given record contents to the store, and returns whether it is an end record.
+   */
+  private boolean apply(byte[] contents) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(contents));
+    byte kind = input.readByte();
+    int table = input.readByte();
+    long value = input.readLong();
+    
+    switch (kind)
+    {
+      case PUT:
+        restore(store.tables.get(table), value, input);
+        return false;
+      case DELETE:
+        store.tables.get(table).restore(value, null);
+        return false;
+      case SEQUENCE:
+        store.tables.get(table).restoreSequence(value);
+        return false;
+      case END:
+        return true;
+      default:
+        throw new IOException("Unknown record kind " + kind + ".");
+    }
+  }
+  
+  /**
+   * Reads the row of the given ID from the given input and restores it in the given table.
+   */
+  private static <R> void restore(InMemoryTable<R> table, long id, DataInput input) throws IOException
+  {
+    table.restore(id, table.read(id, input));
+  }
+  
+  /**
+   * Returns a record, framed by its length and CRC32, of the given kind for the given table, value
+   * and row, if any.
+   */
+  private <R> byte[] record(byte kind, InMemoryTable<R> table, long value, R row)
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    DataOutputStream output = new DataOutputStream(bytes);
+    
+    try
+    {
+      output.writeLong(0);
+      output.writeByte(kind);
+      output.writeByte((table != null) ? store.tables.indexOf(table) : 0);
+      output.writeLong(value);
+      
+      if (row != null)
+      {
+        table.write(row, output);
+      }
+    }
+    catch (IOException e)
+    {
+      // Cannot happen on a ByteArrayOutputStream.
+      throw new DAOException(e);
+    }
+    
+    byte[] record = bytes.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(record, HEADER_SIZE, record.length - HEADER_SIZE);
+    ByteBuffer.wrap(record).putInt(record.length - HEADER_SIZE).putInt((int) crc.getValue());
+    return record;
+  }
+  
+  /**
+   * Opens the segment of the given number for appending, creating it if it does not exist.
+   */
+  private FileChannel open(long number) throws IOException
+  {
+    FileChannel channel = FileChannel.open(directory.resolve(name(SEGMENT_PREFIX, number, SEGMENT_SUFFIX)), CREATE, WRITE, APPEND);
+    syncDirectory();
+    return channel;
+  }
+  
+  /**
+   * Forces the entries of the directory to disk, so that created and renamed files survive a crash.
+   * Not every platform supports it, which is why failures are ignored.
+   */
+  private void syncDirectory()
+  {
+    try (FileChannel channel = FileChannel.open(directory, READ))
+    {
+      channel.force(true);
+    }
+    catch (IOException e)
+    {
+      LOGGER.log(Level.FINE, "Forcing directory '" + directory + "' is not supported.", e);
+    }
+  }
+  
+  /**
+   * Returns the files of the directory with the given prefix and suffix by their number.
+   */
+  private TreeMap<Long, Path> files(String prefix, String suffix) throws IOException
+  {
+    TreeMap<Long, Path> files = new TreeMap<>();
+    
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, prefix + "*" + suffix))
+    {
+      for (Path path : paths)
+      {
+        String name = path.getFileName().toString();
+        
+        try
+        {
+          files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+        }
+        catch (NumberFormatException e)
+        {
+          LOGGER.log(Level.WARNING, "File ''{0}'' is not part of the write-ahead log, it is ignored.", path);
+        }
+      }
+    }
+    
+    return files;
+  }
+  
+  /**
+   * Returns the name of the file of the given number with the given prefix and suffix, zero padded
+   * so that the names sort by number.
+   */
+  private static String name(String prefix, long number, String suffix)
+  {
+    return String.format("%s%020d%s", prefix, number, suffix);
+  }
+  
+  /**
+   * Writes the given string, which may be null, to the given output. Unlike
+   * {@link DataOutput#writeUTF(String)}, it has no limit on the length.
+   * 
+   * @param value The string to be written, may be null.
+   * @param output The output to write it to.
+   * 
+   * @throws IOException If writing fails.
+   */
+  static void writeString(String value, DataOutput output) throws IOException
+  {
+    if (value == null)
+    {
+      output.writeInt(-1);
+    }
+    else
+    {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+  
+  /**
+   * Reads a string written by {@link #writeString(String, DataOutput)} from the given input.
+   * 
+   * @param input The input to read it from.
+   * 
+   * @return The string, may be null.
+   * 
+   * @throws IOException If reading fails.
+   */
+  static String readString(DataInput input) throws IOException
+  {
+    int length = input.readInt();
+    
+    if (length < 0)
+    {
+      return null;
+    }
+    
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+  
+  /**
+   * Writes the given Long, which may be null, to the given output.
+   * 
+   * @param value The Long to be written, may be null.
+   * @param output The output to write it to.
+   * 
+   * @throws IOException If writing fails.
+   */
+  static void writeLong(Long value, DataOutput output) throws IOException
+  {
+    output.writeBoolean(value != null);
+    
+    if (value != null)
+    {
+      output.writeLong(value);
+    }
+  }
+  
+  /**
+   * Reads a Long written by {@link #writeLong(Long, DataOutput)} from the given input.
+   * 
+   * @param input The input to read it from.
+   * 
+   * @return The Long, may be null.
+   * 
+   * @throws IOException If reading fails.
+   */
+  static Long readLong(DataInput input) throws IOException
+  {
+    return input.readBoolean() ? input.readLong() : null;
+  }
+  
+  /**
+   * Writes the given Boolean, which may be null, to the given output.
+   * 
+   * @param value The Boolean to be written, may be null.
+   * @param output The output to write it to.
+   * 
+   * @throws IOException If writing fails.
+   */
+  static void writeBoolean(Boolean value, DataOutput output) throws IOException
+  {
+    output.writeByte((value == null) ? -1 : value ? 1 : 0);
+  }
+  
+  /**
+   * Reads a Boolean written by {@link #writeBoolean(Boolean, DataOutput)} from the given input.
+   * 
+   * @param input The input to read it from.
+   * 
+   * @return The Boolean, may be null.
+   * 
+   * @throws IOException If reading fails.
+   */
+  static Boolean readBoolean(DataInput input) throws IOException
+  {
+    byte value = input.readByte();
+    return (value < 0) ? null : Boolean.valueOf(value != 0);
+  }
+  
+  /**
+   * Writes the given time, which may be null, to the given output as its nanosecond of the day.
+   * 
+   * @param value The time to be written, may be null.
+   * @param output The output to write it to.
+   * 
+   * @throws IOException If writing fails.
+   */
+  static void writeTime(LocalTime value, DataOutput output) throws IOException
+  {
+    output.writeLong((value != null) ? value.toNanoOfDay() : -1);
+  }
+  
+  /**
+   * Reads a time written by {@link #writeTime(LocalTime, DataOutput)} from the given input.
+   * 
+   * @param input The input to read it from.
+   * 
+   * @return The time, may be null.
+   * 
+   * @throws IOException If reading fails.
+   */
+  static LocalTime readTime(DataInput input) throws IOException
+  {
+    long value = input.readLong();
+    return (value < 0) ? null : LocalTime.ofNanoOfDay(value);
+  }
+}
@@ -0,0 +1,167 @@
+package com.tennis.dao;
+
+import static com.tennis.dao.DAOUtil.*;
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.tennis.model.Court;
+
+/**
+ * This class tests the {@link InMemoryTable} through the courts of an {@link InMemoryStore}: the
+ * unique keys and the undo of writes which fail halfway.
+ * 
+ * @author Atidivya
+ */
+public class InMemoryTableTest
+{
+  private final InMemoryStore store = new InMemoryStore();
+  
+  @Test
+  public void createOfTakenKeyFails()
+  {
+    store.courtDAO.create(court("one"));
+    Court duplicate = court("one");
+    
+    try
+    {
+      store.courtDAO.create(duplicate);
+      fail("Create of a taken name returned.");
+    }
+    catch (DAOException e)
+    {
+      assertUniqueViolation(e);
+    }
+    
+    assertNull(duplicate.getId());
+    assertEquals(1, store.courtDAO.list().size());
+  }
+  
+  @Test
+  public void updateToTakenKeyKeepsRow()
+  {
+    Court one = court("one");
+    Court two = court("two");
+    store.courtDAO.createAll(Arrays.asList(one, two));
+    two.setName("one");
+    
+    try
+    {
+      store.courtDAO.update(two);
+      fail("Update to a taken name returned.");
+    }
+    catch (DAOException e)
+    {
+      assertUniqueViolation(e);
+    }
+    
+    assertEquals("two", store.courtDAO.find(two.getId()).getName());
+    assertTrue(store.courtDAO.existName("two"));
+    assertEquals("one", store.courtDAO.find(one.getId()).getName());
+  }
+  
+  @Test
+  public void failedBatchIsUndone()
+  {
+    Court one = court("one");
+    Court two = court("two");
+    
+    try
+    {
+      store.courtDAO.createAll(Arrays.asList(one, two, court("one")));
+      fail("Create of a batch with a duplicate name returned.");
+    }
+    catch (DAOException e)
+    {
+      assertUniqueViolation(e);
+    }
+    
+    assertNull(one.getId());
+    assertTrue(store.courtDAO.list().isEmpty());
+    assertFalse(store.courtDAO.existName("one"));
+    assertFalse(store.courtDAO.existName("two"));
+  }
+  
+  @Test
+  public void failedUpdateBatchRestoresKeys()
+  {
+    Court one = court("one");
+    Court two = court("two");
+    store.courtDAO.createAll(Arrays.asList(one, two));
+    
+    // The first update releases 'one' and takes 'three', the second fails on 'three'.
+    one.setName("three");
+    two.setName("three");
+    
+    try
+    {
+      store.courtDAO.updateAll(Arrays.asList(one, two));
+      fail("Update of a batch with a duplicate name returned.");
+    }
+    catch (DAOException e)
+    {
+      assertUniqueViolation(e);
+    }
+    
+    assertEquals("one", store.courtDAO.find(one.getId()).getName());
+    assertTrue(store.courtDAO.existName("one"));
+    assertFalse(store.courtDAO.existName("three"));
+    
+    // The released key is free again for its row only.
+    Court other = court("one");
+    
+    try
+    {
+      store.courtDAO.create(other);
+      fail("Create of a restored name returned.");
+    }
+    catch (DAOException e)
+    {
+      assertUniqueViolation(e);
+    }
+  }
+  
+  @Test
+  public void failedDeleteBatchIsUndone()
+  {
+    Court one = court("one");
+    store.courtDAO.create(one);
+    Court missing = court("missing");
+    missing.setId(one.getId() + 1);
+    
+    try
+    {
+      store.courtDAO.deleteAll(Arrays.asList(one, missing));
+      fail("Delete of a missing court returned.");
+    }
+    catch (DAOException e)
+    {
+      assertNotNull(e.getMessage());
+    }
+    
+    assertEquals(one.getId(), store.courtDAO.find(one.getId()).getId());
+    assertTrue(store.courtDAO.existName("one"));
+  }
+  
+  /**
+   * Returns a new court of the given name.
+   */
+  private static Court court(String name)
+  {
+    Court court = new Court();
+    court.setName(name);
+    return court;
+  }
+  
+  /**
+   * Asserts that the given exception is caused by a violation of a unique key.
+   */
+  private static void assertUniqueViolation(DAOException e)
+  {
+    assertTrue(e.getCause() instanceof SQLException);
+    assertTrue(isUniqueViolation((SQLException) e.getCause()));
+  }
+}
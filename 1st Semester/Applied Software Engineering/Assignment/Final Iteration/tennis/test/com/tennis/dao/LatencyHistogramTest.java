@@ -0,0 +1,85 @@
+package com.tennis.dao;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * This class tests the bucket bounds of the {@link LatencyHistogram}, through the percentiles which
+ * report the upper bound of a bucket.
+ * 
+ * @author Atidivya
+ */
+public class LatencyHistogramTest
+{
+  @Test
+  public void emptyHistogramReportsZero()
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0.0, histogram.getMean(), 0.0);
+    assertEquals(0, histogram.getPercentile(99));
+  }
+  
+  @Test
+  public void smallValuesAreExact()
+  {
+    for (long value = 0; value < 16; value++)
+    {
+      assertEquals(value, percentileBelow(value));
+    }
+  }
+  
+  @Test
+  public void bucketBoundsAreWithinOneSixteenth()
+  {
+    for (long value = 16; value > 0 && value < Long.MAX_VALUE / 4; value = value * 3 / 2 + 1)
+    {
+      long bound = percentileBelow(value);
+      assertTrue("Bound " + bound + " below " + value, bound >= value);
+      assertTrue("Bound " + bound + " too far above " + value, bound - value <= value / 16);
+    }
+  }
+  
+  @Test
+  public void bucketsDoNotOverlap()
+  {
+    // The last value of a bucket and the first value of the next one.
+    assertEquals(31, percentileBelow(31));
+    assertEquals(33, percentileBelow(32));
+    assertEquals(1023, percentileBelow(1023));
+    assertEquals(1087, percentileBelow(1024));
+  }
+  
+  @Test
+  public void percentileIsCappedAtMax()
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1000);
+    histogram.record(-5);
+    assertEquals(1000, histogram.getPercentile(100));
+    assertEquals(0, histogram.getPercentile(50));
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.0, histogram.getMean(), 0.0);
+  }
+  
+  @Test
+  public void largestValueIsRecorded()
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+  }
+  
+  /**
+   * Returns the 50th percentile of a histogram of the given value and a far larger one, which is
+   * the upper bound of the bucket of the given value.
+   */
+  private static long percentileBelow(long value)
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(value);
+    histogram.record(Long.MAX_VALUE / 2);
+    return histogram.getPercentile(50);
+  }
+}
@@ -0,0 +1,193 @@
+package com.tennis.dao;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.tennis.model.Booking;
+import com.tennis.model.Court;
+
+/**
+ * This class tests the {@link MappedBookingDAO} across restarts: reopening its files, and rebuilding
+ * its index after a write which did not complete.
+ * 
+ * @author Atidivya
+ */
+public class MappedBookingDAOTest
+{
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+  
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  
+  private final InMemoryStore store = new InMemoryStore();
+  private Path directory;
+  private Court court;
+  private MappedBookingDAO dao;
+  
+  @Before
+  public void setUp() throws IOException
+  {
+    directory = folder.getRoot().toPath();
+    court = new Court();
+    court.setName("one");
+    store.courtDAO.create(court);
+    dao = open();
+  }
+  
+  @After
+  public void tearDown() throws IOException
+  {
+    dao.close();
+  }
+  
+  @Test
+  public void reopenedFilesHoldBookings() throws IOException
+  {
+    Booking first = booking(10, "Lesson", "Bring balls");
+    Booking second = booking(9, "Match", null);
+    Booking deleted = booking(11, "Lesson", null);
+    dao.createAll(Arrays.asList(first, second, deleted));
+    dao.delete(deleted);
+    reopen();
+    
+    assertEquals("Bring balls", dao.find(first.getId()).getObservations());
+    assertEquals("Match", dao.find(second.getId()).getType());
+    List<Booking> day = dao.list(court, new Timestamp(0), new Timestamp(24 * HOUR));
+    assertEquals(Arrays.asList(second.getId(), first.getId()), Arrays.asList(day.get(0).getId(), day.get(1).getId()));
+    assertEquals(first.getId(), dao.find(court, new Timestamp(10 * HOUR)).getId());
+    
+    // New bookings continue after the reopened ones.
+    Booking third = booking(12, "Lesson", null);
+    dao.create(third);
+    assertEquals(Long.valueOf(first.getId() + 3), third.getId());
+  }
+  
+  @Test
+  public void incompleteUpdateIsRepaired() throws IOException
+  {
+    Booking booking = booking(10, "Lesson", "Bring balls");
+    dao.create(booking);
+    byte[] header = readHeader();
+    
+    // An update which moves the booking, with a new type and observations, of which the header
+    // never got written: the crash left the old header, marked as dirty.
+    booking.setStartTime(new Timestamp(14 * HOUR));
+    booking.setType("Tournament");
+    booking.setObservations("Finals");
+    dao.update(booking);
+    dao.close();
+    writeHeader(header);
+    dao = open();
+    
+    Booking found = dao.find(booking.getId());
+    assertNull(found.getType());
+    assertNull(found.getObservations());
+    assertEquals(booking.getId(), dao.find(court, new Timestamp(14 * HOUR)).getId());
+    assertNull(dao.find(court, new Timestamp(10 * HOUR)));
+    
+    // The repaired booking can be written again, and the slot it left is free.
+    found.setType("Tournament");
+    found.setObservations("Semifinals");
+    dao.update(found);
+    dao.create(booking(10, "Lesson", null));
+    reopen();
+    assertEquals("Tournament", dao.find(booking.getId()).getType());
+    assertEquals("Semifinals", dao.find(booking.getId()).getObservations());
+    assertEquals(2, dao.list().size());
+  }
+  
+  @Test
+  public void incompleteCreateIsIgnored() throws IOException
+  {
+    Booking booking = booking(10, "Lesson", null);
+    dao.create(booking);
+    byte[] header = readHeader();
+    dao.create(booking(11, "Match", "Doubles"));
+    dao.close();
+    writeHeader(header);
+    dao = open();
+    
+    assertEquals(1, dao.list().size());
+    assertNull(dao.find(court, new Timestamp(11 * HOUR)));
+    dao.create(booking(11, "Match", null));
+    assertEquals(2, dao.list().size());
+  }
+  
+  @Test(expected = IOException.class)
+  public void lockedDirectoryIsRefused() throws IOException
+  {
+    open().close();
+  }
+  
+  /**
+   * Returns a new booking of the court at the given hour of 1 January 1970.
+   */
+  private Booking booking(int hour, String type, String observations)
+  {
+    Booking booking = new Booking();
+    booking.setCourt(court);
+    booking.setStartTime(new Timestamp(hour * HOUR));
+    booking.setType(type);
+    booking.setObservations(observations);
+    return booking;
+  }
+  
+  /**
+   * Opens a DAO on the directory.
+   */
+  private MappedBookingDAO open() throws IOException
+  {
+    return new MappedBookingDAO(directory, store.courtDAO, store.memberDAO, false);
+  }
+  
+  /**
+   * Closes and opens the DAO again, as a restart does.
+   */
+  private void reopen() throws IOException
+  {
+    dao.close();
+    dao = open();
+  }
+  
+  /**
+   * Returns the header of the records file, with the sizes of the files.
+   */
+  private byte[] readHeader() throws IOException
+  {
+    byte[] header = new byte[40];
+    
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("bookings.dat").toFile(), "r"))
+    {
+      file.readFully(header);
+    }
+    
+    return header;
+  }
+  
+  /**
+   * Writes the given header back to the records file of the closed DAO and marks it as dirty, as a
+   * crash in the middle of a write leaves it.
+   */
+  private void writeHeader(byte[] header) throws IOException
+  {
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("bookings.dat").toFile(), "rw"))
+    {
+      file.write(header);
+      file.seek(36);
+      file.writeInt(1);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.tennis.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class tests the {@link SingleFlight}: the sharing of a query in flight, the private copies
+ * of its result, and the queries which are no longer shared after a write.
+ * 
+ * @author Atidivya
+ */
+public class SingleFlightTest
+{
+  private final SingleFlight<String, List<String>> flight = new SingleFlight<>("test", 10000);
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  
+  @After
+  public void tearDown()
+  {
+    release.countDown();
+    executor.shutdownNow();
+  }
+  
+  @Test
+  public void waitingCallerSharesQuery() throws Exception
+  {
+    Future<List<String>> leader = executor.submit(() -> flight.execute("key", this::blockingQuery, ArrayList::new));
+    started.await();
+    Thread[] waiter = new Thread[1];
+    Future<List<String>> follower = executor.submit(() ->
+    {
+      waiter[0] = Thread.currentThread();
+      return flight.execute("key", () -> Arrays.asList("own"), ArrayList::new);
+    });
+    awaitWaiting(waiter);
+    release.countDown();
+    
+    List<String> leaderResult = leader.get();
+    List<String> followerResult = follower.get();
+    assertEquals(Arrays.asList("shared"), followerResult);
+    assertNotSame(leaderResult, followerResult);
+    assertEquals(1, flight.stats().getQueryCount());
+    assertEquals(1, flight.stats().getAbsorbedCount());
+  }
+  
+  @Test
+  public void waitingCallerGetsSnapshotOfResult() throws Exception
+  {
+    Future<List<String>> leader = executor.submit(() ->
+    {
+      List<String> result = flight.execute("key", this::blockingQuery, ArrayList::new);
+      // The caller of the query owns its result and may change it.
+      result.add("changed");
+      return result;
+    });
+    started.await();
+    Thread[] waiter = new Thread[1];
+    Future<List<String>> follower = executor.submit(() ->
+    {
+      waiter[0] = Thread.currentThread();
+      return flight.execute("key", () -> Arrays.asList("own"), ArrayList::new);
+    });
+    awaitWaiting(waiter);
+    release.countDown();
+    
+    assertEquals(Arrays.asList("shared", "changed"), leader.get());
+    assertEquals(Arrays.asList("shared"), follower.get());
+  }
+  
+  @Test
+  public void callerAfterWriteRunsOwnQuery() throws Exception
+  {
+    Future<List<String>> leader = executor.submit(() -> flight.execute("key", this::blockingQuery, ArrayList::new));
+    started.await();
+    flight.written();
+    
+    // The query in flight may not see the write, so this caller must not wait for it.
+    assertEquals(Arrays.asList("fresh"), flight.execute("key", () -> new ArrayList<>(Arrays.asList("fresh")), ArrayList::new));
+    release.countDown();
+    assertEquals(Arrays.asList("shared"), leader.get());
+    assertEquals(2, flight.stats().getQueryCount());
+    assertEquals(0, flight.stats().getAbsorbedCount());
+  }
+  
+  @Test
+  public void failureIsThrownToWaitingCallers() throws Exception
+  {
+    Future<List<String>> leader = executor.submit(() -> flight.execute("key", () ->
+    {
+      blockingQuery();
+      throw new DAOException("Query failed.");
+    }, ArrayList::new));
+    started.await();
+    Thread[] waiter = new Thread[1];
+    Future<List<String>> follower = executor.submit(() ->
+    {
+      waiter[0] = Thread.currentThread();
+      return flight.execute("key", () -> Arrays.asList("own"), ArrayList::new);
+    });
+    awaitWaiting(waiter);
+    release.countDown();
+    
+    for (Future<List<String>> caller : Arrays.asList(leader, follower))
+    {
+      try
+      {
+        caller.get();
+        fail("Failed query returned.");
+      }
+      catch (ExecutionException e)
+      {
+        assertEquals("Query failed.", e.getCause().getMessage());
+      }
+    }
+  }
+  
+  /**
+   * A query which signals that it started and blocks until it is released.
+   */
+  private List<String> blockingQuery()
+  {
+    started.countDown();
+    
+    try
+    {
+      release.await();
+    }
+    catch (InterruptedException e)
+    {
+      throw new IllegalStateException(e);
+    }
+    
+    return new ArrayList<>(Arrays.asList("shared"));
+  }
+  
+  /**
+   * Waits until the thread in the given holder waits for the query in flight.
+   */
+  private static void awaitWaiting(Thread[] waiter) throws InterruptedException
+  {
+    while (waiter[0] == null || waiter[0].getState() != Thread.State.TIMED_WAITING)
+    {
+      Thread.sleep(1);
+    }
+  }
+}
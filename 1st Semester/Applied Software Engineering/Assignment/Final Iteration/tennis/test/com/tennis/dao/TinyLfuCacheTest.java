@@ -0,0 +1,88 @@
+package com.tennis.dao;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * This class tests the admission of new entries into a full {@link TinyLfuCache}.
+ * 
+ * @author Atidivya
+ */
+public class TinyLfuCacheTest
+{
+  private final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(2);
+  
+  @Test
+  public void cacheBelowMaximumSizeAdmitsAll()
+  {
+    cache.put(1, "one");
+    cache.put(2, "two");
+    assertEquals("one", cache.get(1));
+    assertEquals("two", cache.get(2));
+    assertEquals(2, cache.stats().getSize());
+  }
+  
+  @Test
+  public void fullCacheRejectsRarelyRequestedKey()
+  {
+    cache.put(1, "one");
+    cache.put(2, "two");
+    request(1, 3);
+    request(2, 3);
+    
+    // A one-time lookup does not displace the entries which are used more often.
+    assertNull(cache.get(3));
+    cache.put(3, "three");
+    assertNull(cache.get(3));
+    assertEquals("one", cache.get(1));
+    assertEquals("two", cache.get(2));
+    assertEquals(1, cache.stats().getRejectionCount());
+    assertEquals(0, cache.stats().getEvictionCount());
+  }
+  
+  @Test
+  public void fullCacheAdmitsFrequentKeyOverLeastRecentlyUsed()
+  {
+    cache.put(1, "one");
+    cache.put(2, "two");
+    request(2, 1);
+    request(1, 1);
+    request(3, 5);
+    
+    // Key 2 is the least recently used entry, and requested less often than key 3.
+    cache.put(3, "three");
+    assertEquals(1, cache.stats().getEvictionCount());
+    assertEquals(2, cache.stats().getSize());
+    assertEquals("three", cache.get(3));
+    assertEquals("one", cache.get(1));
+    assertNull(cache.get(2));
+  }
+  
+  @Test
+  public void cachedKeyIsAlwaysReplaced()
+  {
+    cache.put(1, "one");
+    cache.put(2, "two");
+    cache.put(1, "uno");
+    assertEquals("uno", cache.get(1));
+    assertEquals(0, cache.stats().getRejectionCount());
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void maximumSizeMustBePositive()
+  {
+    new TinyLfuCache<Integer, String>(0);
+  }
+  
+  /**
+   * Requests the given key the given amount of times.
+   */
+  private void request(int key, int times)
+  {
+    for (int i = 0; i < times; i++)
+    {
+      cache.get(key);
+    }
+  }
+}
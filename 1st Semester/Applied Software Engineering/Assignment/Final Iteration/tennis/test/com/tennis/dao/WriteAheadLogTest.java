@@ -0,0 +1,132 @@
+package com.tennis.dao;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.tennis.model.Court;
+
+/**
+ * This class tests the {@link WriteAheadLog}: the replay of a log which ends with a torn record,
+ * and the writes after the log failed.
+ * 
+ * @author Atidivya
+ */
+public class WriteAheadLogTest
+{
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  
+  @Test
+  public void replayCutsOffTornRecord() throws Exception
+  {
+    Path directory = folder.getRoot().toPath();
+    InMemoryStore store = new InMemoryStore();
+    WriteAheadLog log = new WriteAheadLog(store, directory, false, 1 << 20);
+    store.courtDAO.create(court("one"));
+    store.courtDAO.create(court("two"));
+    log.close();
+    
+    // The header of a record of 20 bytes, of which only 5 reached the disk before a crash.
+    try (FileChannel segment = FileChannel.open(lastSegment(directory), APPEND))
+    {
+      segment.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 20, 1, 2, 3, 4, 1, 0, 0, 0, 0 }));
+    }
+    
+    store = new InMemoryStore();
+    log = new WriteAheadLog(store, directory, false, 1 << 20);
+    assertTrue(store.courtDAO.existName("one"));
+    assertTrue(store.courtDAO.existName("two"));
+    
+    // The log continues after the last intact record.
+    store.courtDAO.create(court("three"));
+    log.close();
+    
+    store = new InMemoryStore();
+    log = new WriteAheadLog(store, directory, false, 1 << 20);
+    assertEquals(3, store.courtDAO.list().size());
+    assertTrue(store.courtDAO.existName("three"));
+    log.close();
+  }
+  
+  @Test
+  public void failedLogRefusesWrites() throws Exception
+  {
+    InMemoryStore store = new InMemoryStore();
+    WriteAheadLog log = new WriteAheadLog(store, folder.getRoot().toPath(), true, 1 << 20);
+    
+    try
+    {
+      Court court = court("one");
+      store.courtDAO.create(court);
+      
+      // Closing the segment behind the back of the log fails its next write to disk.
+      Field segment = WriteAheadLog.class.getDeclaredField("segment");
+      segment.setAccessible(true);
+      ((FileChannel) segment.get(log)).close();
+      
+      Court renamed = store.courtDAO.find(court.getId());
+      renamed.setName("renamed");
+      
+      try
+      {
+        store.courtDAO.update(renamed);
+        fail("Update of a failed log returned.");
+      }
+      catch (DAOException e)
+      {
+        // The update is not durable, so it is undone.
+        assertEquals("one", store.courtDAO.find(court.getId()).getName());
+        assertFalse(store.courtDAO.existName("renamed"));
+      }
+      
+      Court two = court("two");
+      
+      try
+      {
+        store.courtDAO.create(two);
+        fail("Create after a failed log returned.");
+      }
+      catch (DAOException e)
+      {
+        assertNull(two.getId());
+        assertFalse(store.courtDAO.existName("two"));
+      }
+    }
+    finally
+    {
+      log.close();
+    }
+  }
+  
+  /**
+   * Returns a new court of the given name.
+   */
+  private static Court court(String name)
+  {
+    Court court = new Court();
+    court.setName(name);
+    return court;
+  }
+  
+  /**
+   * Returns the segment of the log in the given directory with the highest number.
+   */
+  private static Path lastSegment(Path directory) throws Exception
+  {
+    try (Stream<Path> files = Files.list(directory))
+    {
+      return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().reduce((first, second) -> second).get();
+    }
+  }
+}